@@ -0,0 +1,86 @@
+package academy.aicode.spring_ai.distance;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import academy.aicode.spring_ai.distance.ConversionFactorProvider.Unit;
+
+/**
+ * Distance conversion hot paths of {@code /api/distance-conversion} and the
+ * DistanceConverter tool.
+ *
+ * - {@code unit} covers a canonical name, a lower-case alias that needs
+ * {@code toUpperCase} and an unsupported unit, which makes
+ * {@code isSupported} go through the {@code valueOf} exception
+ * - Units of {@code convert} and {@code getConversionFactor} rotate over all
+ * pairs so the JIT cannot fold the factor lookup into a constant
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceConversionBenchmark {
+
+  private static final Unit[] UNITS = Unit.values();
+
+  private DistanceConversionService service;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    service = new DistanceConversionService();
+  }
+
+  @Benchmark
+  public boolean isSupported(UnitInput input) {
+    return ConversionFactorProvider.isSupported(input.unit);
+  }
+
+  @Benchmark
+  public Unit parseUnit(UnitInput input) {
+    try {
+      return ConversionFactorProvider.parseUnit(input.unit);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  @Benchmark
+  public double convert() {
+    int pair = next++;
+    return service.convert(4.2, from(pair), to(pair));
+  }
+
+  @Benchmark
+  public double getConversionFactor() {
+    int pair = next++;
+    return service.getConversionFactor(from(pair), to(pair));
+  }
+
+  private static Unit from(int pair) {
+    return UNITS[Math.floorMod(pair, UNITS.length)];
+  }
+
+  private static Unit to(int pair) {
+    return UNITS[Math.floorMod(pair / UNITS.length, UNITS.length)];
+  }
+
+  @State(Scope.Thread)
+  public static class UnitInput {
+    @Param({ "PARSEC", "light_year", "furlong" })
+    public String unit;
+  }
+}
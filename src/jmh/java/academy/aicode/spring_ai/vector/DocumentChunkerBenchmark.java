@@ -0,0 +1,58 @@
+package academy.aicode.spring_ai.vector;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Size checks run by {@link AstroBibliaVectorService#addDocuments} on every
+ * ingested document: the cl100k_base token count that replaced the old
+ * whitespace word count, and the split of documents over the budget.
+ *
+ * - {@code words}: document length; 2000 words exceeds the default 512-token
+ * budget and is split into overlapping chunks
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentChunkerBenchmark {
+
+  private static final String SENTENCE = "Las estrellas de neutrones son los restos colapsados de estrellas masivas. ";
+
+  @Param({ "20", "200", "2000" })
+  public int words;
+
+  private DocumentChunker chunker;
+  private String document;
+
+  @Setup
+  public void setUp() {
+    chunker = new DocumentChunker(512, 64);
+    int sentenceWords = SENTENCE.strip().split("\\s+").length;
+    document = SENTENCE.repeat(Math.max(1, words / sentenceWords)).strip();
+  }
+
+  @Benchmark
+  public int countTokens() {
+    return chunker.countTokens(document);
+  }
+
+  @Benchmark
+  public List<String> split() {
+    return chunker.split(document);
+  }
+}
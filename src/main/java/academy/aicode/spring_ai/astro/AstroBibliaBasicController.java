@@ -5,12 +5,16 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import academy.aicode.spring_ai.chat.AnswerCache;
+import academy.aicode.spring_ai.chat.SemanticResponseCache;
+import academy.aicode.spring_ai.chat.SingleFlight;
 import reactor.core.publisher.Flux;
 
 /**
@@ -26,14 +30,21 @@ public class AstroBibliaBasicController {
   private static final Logger log = LoggerFactory.getLogger(AstroBibliaBasicController.class);
 
   private final ChatClient chatClient;
+  private final CallAdvisor astroCache;
+  private final AnswerCache answerCache;
+  private final SingleFlight singleFlight;
 
   private static final String ASTRONOMY_SYSTEM_MESSAGE = "Eres un experto en Astronomía. Responde solo preguntas relacionadas con la Astronomía. Si la pregunta no está relacionada con la Astronomía, responde con 'No sé sobre ese tema.'";
 
   // Safety guard to avoid accidental huge prompts during demos
   private static final int MAX_PROMPT_LENGTH = 2000;
 
-  public AstroBibliaBasicController(ChatClient.Builder chatClientBuilder) {
+  public AstroBibliaBasicController(ChatClient.Builder chatClientBuilder, SemanticResponseCache responseCache,
+      AnswerCache answerCache, SingleFlight singleFlight) {
     this.chatClient = chatClientBuilder.build();
+    this.answerCache = answerCache;
+    this.singleFlight = singleFlight;
+    this.astroCache = responseCache.advisor("basic/astro");
   }
 
   /**
@@ -47,13 +58,14 @@ public class AstroBibliaBasicController {
   public String getAnything(@RequestParam String prompt) {
     validatePrompt(prompt);
     log.info("basic/ama called ({} chars)", prompt.length());
-    return chatClient.prompt()
-        .user(prompt).call().content();
+    return singleFlight.call("basic/ama", prompt, () -> chatClient.prompt()
+        .user(prompt).call().content());
   }
 
   /**
    * Ask only Astronomy related questions. Non-astronomy topics are handled by
-   * the system message. Input validated similarly to other endpoints.
+   * the system message. Input validated similarly to other endpoints. Answers
+   * to similar prompts are served from the semantic cache when enabled.
    *
    * @param prompt user question
    * @return plain text chat response constrained to astronomy domain
@@ -62,14 +74,19 @@ public class AstroBibliaBasicController {
   public String getAstronomy(@RequestParam String prompt) {
     validatePrompt(prompt);
     log.debug("basic/astro called ({} chars)", prompt.length());
-    return chatClient.prompt()
+    return singleFlight.call("basic/astro", prompt, () -> chatClient.prompt()
+        .advisors(astroCache)
         .system(ASTRONOMY_SYSTEM_MESSAGE)
-        .user(prompt).call().content();
+        .user(prompt).call().content());
   }
 
   /**
    * Ask about a planet. Uses simple string replacement to craft the user
    * prompt. Validates the planet parameter and logs the constructed prompt.
+   * Answers are cached per planet name. The semantic cache is not used: the
+   * templated prompts of two planets differ in one word and would match each
+   * other. Concurrent misses share one model call when their names only
+   * differ in case, accents or spacing, matching the answer cache key.
    *
    * @param planet planet name
    * @return chat response describing the planet
@@ -81,14 +98,16 @@ public class AstroBibliaBasicController {
     var userPrompt = userPromptTemplate.replace("{{planet}}", planet);
     log.debug("basic/planet called for planet='{}' (prompt {} chars)", planet, userPrompt.length());
 
-    return chatClient.prompt()
-        .system(ASTRONOMY_SYSTEM_MESSAGE)
-        .user(userPrompt).call().content();
+    return answerCache.get("basic/planet", planet, () -> singleFlight.call("basic/planet", AnswerCache.normalize(planet),
+        () -> chatClient.prompt()
+            .system(ASTRONOMY_SYSTEM_MESSAGE)
+            .user(userPrompt).call().content()));
   }
 
   /**
    * Ask about a planet's satellites. Uses lambda-style parameter substitution
    * supported by the ChatClient builder. Validates input and logs the call.
+   * Answers are cached per planet name.
    *
    * @param planet planet name
    * @return chat response listing satellites
@@ -98,18 +117,20 @@ public class AstroBibliaBasicController {
     validatePrompt(planet);
     log.debug("basic/planet/satellites called for planet='{}'", planet);
 
-    return chatClient.prompt()
-        .system(ASTRONOMY_SYSTEM_MESSAGE)
-        .user(u -> {
-          u.text("¿Cuáles son los satélites del planeta {planet} ?");
-          u.param("planet", planet);
-        }).call().content();
+    return answerCache.get("basic/planet/satellites", planet, () -> singleFlight.call("basic/planet/satellites", AnswerCache.normalize(planet),
+        () -> chatClient.prompt()
+            .system(ASTRONOMY_SYSTEM_MESSAGE)
+            .user(u -> {
+              u.text("¿Cuáles son los satélites del planeta {planet} ?");
+              u.param("planet", planet);
+            }).call().content()));
   }
 
   /**
    * Ask about a planet's satellites and map the response into a structured
    * record type. Useful to demonstrate typed deserialization from the model
-   * response.
+   * response. The parsed record is cached per planet name, so hits skip
+   * deserialization.
    *
    * @param planet planet name
    * @return structured Satellites record
@@ -119,17 +140,20 @@ public class AstroBibliaBasicController {
     validatePrompt(planet);
     log.debug("basic/planet/satellites/structured called for planet='{}'", planet);
 
-    return chatClient.prompt()
-        .system(ASTRONOMY_SYSTEM_MESSAGE)
-        .user(u -> {
-          u.text("¿Cuáles son los satélites del planeta {planet} ?");
-          u.param("planet", planet);
-        }).call().entity(Satellites.class);
+    return answerCache.get("basic/planet/satellites/structured", planet, () -> singleFlight.call("basic/planet/satellites/structured", AnswerCache.normalize(planet),
+        () -> chatClient.prompt()
+            .system(ASTRONOMY_SYSTEM_MESSAGE)
+            .user(u -> {
+              u.text("¿Cuáles son los satélites del planeta {planet} ?");
+              u.param("planet", planet);
+            }).call().entity(Satellites.class)));
   }
 
   /**
    * Ask about a planet's satellites and stream the response back to the
-   * caller. Returns a Reactor Flux of partial content strings.
+   * caller. Returns a Reactor Flux of partial content strings; concurrent
+   * requests for the same planet (case, accents and spacing folded) share one
+   * model stream.
    *
    * @param planet planet name
    * @return streaming content as Flux<String>
@@ -139,12 +163,12 @@ public class AstroBibliaBasicController {
     validatePrompt(planet);
     log.debug("basic/planet/satellites/stream called for planet='{}'", planet);
 
-    return chatClient.prompt()
+    return singleFlight.stream("basic/planet/satellites/stream", AnswerCache.normalize(planet), () -> chatClient.prompt()
         .system(ASTRONOMY_SYSTEM_MESSAGE)
         .user(u -> {
           u.text("¿Cuáles son los satélites del planeta {planet} ?");
           u.param("planet", planet);
-        }).stream().content();
+        }).stream().content());
   }
 
   /**
@@ -168,4 +192,8 @@ record Satellite(String name, double radius, double mass) {
 }
 
 record Satellites(List<Satellite> satellites) {
+  Satellites {
+    // instances are shared through the answer cache
+    satellites = satellites == null ? List.of() : List.copyOf(satellites);
+  }
 }
\ No newline at end of file
@@ -11,7 +11,9 @@ import java.nio.charset.StandardCharsets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -20,27 +22,35 @@ import org.springframework.web.server.ResponseStatusException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import academy.aicode.spring_ai.chat.SingleFlight;
+import reactor.core.publisher.Flux;
+
 @RestController
 public class AstroBibliaRagController {
 
   private static final Logger log = LoggerFactory.getLogger(AstroBibliaRagController.class);
 
   private final ChatClient chatClient;
+  private final SingleFlight singleFlight;
+  private final String wikipediaSummaryUrl;
 
   private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-  private static final String WIKIPEDIA_URL = "https://es.wikipedia.org/api/";
-  private static final String WIKIPEDIA_SUMMARY_URL = WIKIPEDIA_URL + "rest_v1/page/summary/";
   private static final String USER_AGENT_HEADER = "User-Agent";
   private static final String USER_AGENT_VALUE = "JavaIA/1.0 (+https://aicode.academy)";
   private static final String ACCEPT_HEADER = "Accept";
   private static final String ACCEPT_JSON = "application/json";
+  private static final String VERIFIED_FACTS_SYSTEM_MESSAGE = "Responde únicamente con hechos verificables utilizando la información proporcionada. "
+      + "Si faltan datos responde 'No pude encontrar información confiable sobre ese tema.'";
 
   // Safety guard to avoid accidental huge prompts during demos
   private static final int MAX_PROMPT_LENGTH = 2000;
 
-  public AstroBibliaRagController(ChatClient.Builder chatClientBuilder) {
+  public AstroBibliaRagController(ChatClient.Builder chatClientBuilder, SingleFlight singleFlight,
+      @Value("${astrobiblia.wikipedia.summary-url:https://es.wikipedia.org/api/rest_v1/page/summary/}") String wikipediaSummaryUrl) {
     this.chatClient = chatClientBuilder.build();
+    this.singleFlight = singleFlight;
+    this.wikipediaSummaryUrl = wikipediaSummaryUrl;
     log.info("AstroBibliaRagController initialized");
   }
 
@@ -58,9 +68,9 @@ public class AstroBibliaRagController {
     var systemPrompt = "Usa la siguiente información para responder a la pregunta de Astronomía: "
         + localInfo;
 
-    return chatClient.prompt()
+    return singleFlight.call("rag/ama/local", prompt, () -> chatClient.prompt()
         .system(systemPrompt)
-        .user(prompt).call().content();
+        .user(prompt).call().content());
   }
 
   private String localData(String str) {
@@ -89,19 +99,42 @@ public class AstroBibliaRagController {
       log.warn("No web info found for topic='{}'", prompt);
       return "No pude encontrar información confiable sobre " + prompt + ".";
     }
-    return chatClient.prompt()
-        .system(
-            "Responde únicamente con hechos verificables utilizando la información proporcionada. "
-                + "Si faltan datos responde 'No pude encontrar información confiable sobre ese tema.'")
+    return singleFlight.call("rag/ama/web", prompt, () -> chatClient.prompt()
+        .system(VERIFIED_FACTS_SYSTEM_MESSAGE)
         .user("Pregunta original: " + prompt + "\nInformación verificada:\n" + wiki)
         .call()
-        .content();
+        .content());
+  }
+
+  /**
+   * Streaming variant of {@code rag/ama/web}: Wikipedia is queried first, then
+   * the answer is sent as server-sent events while it is generated. The model
+   * call is cancelled when the client disconnects.
+   *
+   * @param prompt user question
+   * @return streaming answer using verified web info
+   */
+  @GetMapping(value = "rag/ama/web/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<String> getFromWebStream(@RequestParam String prompt) {
+    validatePrompt(prompt);
+    log.debug("rag/ama/web/stream called ({} chars)", prompt.length());
+    var wiki = fetchWikipedia(prompt.strip());
+    if (wiki == null || wiki.isBlank()) {
+      log.warn("No web info found for topic='{}'", prompt);
+      return Flux.just("No pude encontrar información confiable sobre " + prompt + ".");
+    }
+    return singleFlight.stream("rag/ama/web/stream", prompt, () -> chatClient.prompt()
+        .system(VERIFIED_FACTS_SYSTEM_MESSAGE)
+        .user("Pregunta original: " + prompt + "\nInformación verificada:\n" + wiki)
+        .stream()
+        .content())
+        .doOnCancel(() -> log.debug("rag/ama/web/stream cancelled by client"));
   }
 
   private String fetchWikipedia(String topic) {
     try {
       var encodedTopic = URLEncoder.encode(topic.replace(" ", "_"), StandardCharsets.UTF_8);
-      var url = WIKIPEDIA_SUMMARY_URL + encodedTopic;
+      var url = wikipediaSummaryUrl + encodedTopic;
       var request = HttpRequest.newBuilder(URI.create(url))
           .header(ACCEPT_HEADER, ACCEPT_JSON)
           .header(USER_AGENT_HEADER, USER_AGENT_VALUE)
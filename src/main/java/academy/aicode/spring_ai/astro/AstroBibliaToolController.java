@@ -4,13 +4,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import academy.aicode.spring_ai.chat.SingleFlight;
 import academy.aicode.spring_ai.distance.DistanceConversionToolService;
 import academy.aicode.spring_ai.wiki.WikiToolService;
+import reactor.core.publisher.Flux;
 
 @RestController
 public class AstroBibliaToolController {
@@ -20,15 +23,25 @@ public class AstroBibliaToolController {
   private final ChatClient chatClient;
   private final WikiToolService wikiToolService;
   private final DistanceConversionToolService distanceConversionToolService;
+  private final SingleFlight singleFlight;
+
+  private static final String VERIFIED_FACTS_SYSTEM_MESSAGE = "Responde únicamente con hechos verificables utilizando la información proporcionada. "
+      + "Si faltan datos responde 'No pude encontrar información confiable sobre ese tema.'";
+
+  private static final String DISTANCE_SYSTEM_MESSAGE = """
+      Eres un asistente útil que convierte distancias astronómicas.
+      Usa la herramienta DistanceConverter cuando el usuario pida convertir distancias.
+      Las unidades admitidas son: KILÓMETRO, AU, AÑO_LUZ, PARSEC.""";
 
   // Safety guard to avoid accidental huge prompts during demos
   private static final int MAX_PROMPT_LENGTH = 2000;
 
   public AstroBibliaToolController(ChatClient.Builder chatClientBuilder, WikiToolService wikiToolService,
-      DistanceConversionToolService distanceConversionToolService) {
+      DistanceConversionToolService distanceConversionToolService, SingleFlight singleFlight) {
     this.chatClient = chatClientBuilder.build();
     this.wikiToolService = wikiToolService;
     this.distanceConversionToolService = distanceConversionToolService;
+    this.singleFlight = singleFlight;
     log.info("AstroBibliaToolController initialized (wikiTool={}, distanceTool={})", wikiToolService != null,
         distanceConversionToolService != null);
   }
@@ -43,30 +56,59 @@ public class AstroBibliaToolController {
   public String getFromWiki(@RequestParam String prompt) {
     validatePrompt(prompt);
     log.debug("tool/ama/wiki called ({} chars)", prompt.length());
-    return chatClient.prompt()
-        .system(
-            "Responde únicamente con hechos verificables utilizando la información proporcionada. "
-                + "Si faltan datos responde 'No pude encontrar información confiable sobre ese tema.'")
+    return singleFlight.call("tool/ama/wiki", prompt, () -> chatClient.prompt()
+        .system(VERIFIED_FACTS_SYSTEM_MESSAGE)
         .user(prompt)
         .tools(wikiToolService)
         .call()
-        .content();
+        .content());
+  }
+
+  /**
+   * Streaming variant of {@code tool/ama/wiki}. Tool calls are resolved inside
+   * the stream, so tokens start flowing once the model answers after them.
+   * The model call is cancelled when the client disconnects.
+   */
+  @GetMapping(value = "tool/ama/wiki/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<String> getFromWikiStream(@RequestParam String prompt) {
+    validatePrompt(prompt);
+    log.debug("tool/ama/wiki/stream called ({} chars)", prompt.length());
+    return singleFlight.stream("tool/ama/wiki/stream", prompt, () -> chatClient.prompt()
+        .system(VERIFIED_FACTS_SYSTEM_MESSAGE)
+        .user(prompt)
+        .tools(wikiToolService)
+        .stream()
+        .content())
+        .doOnCancel(() -> log.debug("tool/ama/wiki/stream cancelled by client"));
   }
 
   @GetMapping("tool/ama/distance")
   public String getDistanceConversion(@RequestParam String prompt) {
     validatePrompt(prompt);
     log.debug("tool/ama/distance called ({} chars)", prompt.length());
-    var systemMessage = """
-        Eres un asistente útil que convierte distancias astronómicas.
-        Usa la herramienta DistanceConverter cuando el usuario pida convertir distancias.
-        Las unidades admitidas son: KILÓMETRO, AU, AÑO_LUZ, PARSEC.""";
-    return chatClient.prompt()
-        .system(systemMessage)
+    return singleFlight.call("tool/ama/distance", prompt, () -> chatClient.prompt()
+        .system(DISTANCE_SYSTEM_MESSAGE)
         .user(prompt)
         .tools(distanceConversionToolService)
         .call()
-        .content();
+        .content());
+  }
+
+  /**
+   * Streaming variant of {@code tool/ama/distance}; the model call is
+   * cancelled when the client disconnects.
+   */
+  @GetMapping(value = "tool/ama/distance/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<String> getDistanceConversionStream(@RequestParam String prompt) {
+    validatePrompt(prompt);
+    log.debug("tool/ama/distance/stream called ({} chars)", prompt.length());
+    return singleFlight.stream("tool/ama/distance/stream", prompt, () -> chatClient.prompt()
+        .system(DISTANCE_SYSTEM_MESSAGE)
+        .user(prompt)
+        .tools(distanceConversionToolService)
+        .stream()
+        .content())
+        .doOnCancel(() -> log.debug("tool/ama/distance/stream cancelled by client"));
   }
 
   /**
@@ -79,12 +121,12 @@ public class AstroBibliaToolController {
     var systemMessage = """
         Eres un asistente que proporciona distancias de la tierra a otros cuerpos celestes.
         Usa la herramienta DistanceConverter para devolver la distancia en años luz, minutos luz o segundos luz según sea apropiado.""";
-    return chatClient.prompt()
+    return singleFlight.call("tool/ama/distance/light-time", prompt, () -> chatClient.prompt()
         .system(systemMessage)
         .user(prompt)
         .tools(distanceConversionToolService)
         .call()
-        .content();
+        .content());
   }
 
   /**
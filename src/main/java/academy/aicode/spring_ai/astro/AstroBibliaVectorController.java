@@ -1,7 +1,13 @@
 package academy.aicode.spring_ai.astro;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,14 +16,43 @@ import org.springframework.ai.chat.client.advisor.vectorstore.QuestionAnswerAdvi
 import org.springframework.ai.document.Document;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.FilterExpressionTextParser;
+import org.springframework.ai.vectorstore.filter.FilterExpressionTextParser.FilterExpressionParseException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import academy.aicode.spring_ai.chat.SingleFlight;
 import academy.aicode.spring_ai.vector.AstroBibliaVectorService;
+import academy.aicode.spring_ai.vector.BulkIngestService;
+import academy.aicode.spring_ai.vector.ContextPacker;
+import academy.aicode.spring_ai.vector.ContextPackingVectorStore;
 import academy.aicode.spring_ai.vector.DocumentRequest;
+import academy.aicode.spring_ai.vector.EmbeddingMigrationService;
+import academy.aicode.spring_ai.vector.IngestJob;
+import academy.aicode.spring_ai.vector.IngestJobQueue;
+import academy.aicode.spring_ai.vector.IngestQueueFullException;
+import academy.aicode.spring_ai.vector.MmrReranker;
+import academy.aicode.spring_ai.vector.MmrVectorStore;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 public class AstroBibliaVectorController {
@@ -26,17 +61,38 @@ public class AstroBibliaVectorController {
   // Safety limits for workshop/demo purposes
   private static final int MAX_INGEST_CHAR_LENGTH = 8192; // fallback guard (chars)
   private static final int MAX_TOP_K = 50;
+  private static final String NDJSON = "application/x-ndjson";
 
   private final EmbeddingModel embeddingModel;
   private final AstroBibliaVectorService vectorService;
+  private final BulkIngestService bulkIngestService;
+  private final IngestJobQueue ingestJobQueue;
+  private final EmbeddingMigrationService migrationService;
   private final ChatClient ragChatClient;
   private final ChatClient chatClient;
+  private final SingleFlight singleFlight;
+  private final ObjectMapper objectMapper;
 
   public AstroBibliaVectorController(ChatClient.Builder builder, EmbeddingModel embeddingModel,
-      AstroBibliaVectorService vectorService) {
+      AstroBibliaVectorService vectorService, BulkIngestService bulkIngestService,
+      IngestJobQueue ingestJobQueue, EmbeddingMigrationService migrationService, MmrReranker mmrReranker,
+      ContextPacker contextPacker, SingleFlight singleFlight, ObjectMapper objectMapper,
+      @Value("${astrobiblia.vector.mmr.top-k:3}") int ragTopK,
+      @Value("${astrobiblia.rag.vector-chat.max-context-tokens:1500}") int chatContextTokens) {
     this.embeddingModel = embeddingModel;
     this.vectorService = vectorService;
-    this.ragChatClient = builder.defaultAdvisors(new QuestionAnswerAdvisor(vectorService.getVectorStore())).build();
+    this.bulkIngestService = bulkIngestService;
+    this.ingestJobQueue = ingestJobQueue;
+    this.migrationService = migrationService;
+    this.singleFlight = singleFlight;
+    this.objectMapper = objectMapper;
+    // the advisor puts every retrieved document in the prompt, so keep a few diverse ones within budget
+    var mmrStore = new MmrVectorStore(vectorService.getVectorStore(), mmrReranker, vectorService::findEmbeddings);
+    var ragStore = new ContextPackingVectorStore(mmrStore, contextPacker, "vector/chat", chatContextTokens);
+    var ragAdvisor = QuestionAnswerAdvisor.builder(ragStore)
+        .searchRequest(SearchRequest.builder().topK(ragTopK).build())
+        .build();
+    this.ragChatClient = builder.defaultAdvisors(ragAdvisor).build();
     this.chatClient = builder.build();
   }
 
@@ -56,11 +112,14 @@ public class AstroBibliaVectorController {
   }
 
   /**
-   * Ingest a single text message into the vector store.
+   * Queue a single text message for ingestion into the vector store.
    * Still a GET for convenience, but guarded to avoid accidental huge payloads.
+   * Returns 202 with the job id immediately; embedding and storage happen on
+   * the ingest workers. Returns 429 with a Retry-After header when the queue is
+   * full.
    */
   @GetMapping("vector/ingest")
-  public Map<String, Object> ingest(@RequestParam() String message) {
+  public ResponseEntity<Map<String, Object>> ingest(@RequestParam() String message) {
     if (message == null || message.isBlank()) {
       log.debug("ingest called with empty message");
       throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "message must not be empty");
@@ -71,41 +130,191 @@ public class AstroBibliaVectorController {
           "message too long; reduce size before ingesting");
     }
 
-    var addDocuments = this.vectorService
-        .addDocuments(List.of(
-            new DocumentRequest(
-                message,
-                Map.of("source", "AstroBiblia", "length", message.length()))));
-    log.info("Ingested document ({} chars) -> added {} documents", message.length(), addDocuments.size());
-    return Map.of("added", addDocuments.size());
+    try {
+      var job = this.ingestJobQueue.submit(List.of(
+          new DocumentRequest(
+              message,
+              Map.of("source", "AstroBiblia", "length", message.length()))));
+      log.info("Queued ingest job {} ({} chars)", job.getId(), message.length());
+      return ResponseEntity.accepted().body(Map.of("jobId", job.getId(), "status", job.getStatus()));
+    } catch (IngestQueueFullException e) {
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+          .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+          .body(Map.of("error", e.getMessage(), "retryAfterSeconds", e.getRetryAfter().toSeconds()));
+    }
+  }
+
+  /**
+   * Status of a queued ingest job. Returns 404 for unknown or expired ids.
+   */
+  @GetMapping("vector/ingest/jobs/{id}")
+  public IngestJob getIngestJob(@PathVariable String id) {
+    return ingestJobQueue.find(id)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "unknown ingest job " + id));
+  }
+
+  /**
+   * Current ingest queue depth and worker usage.
+   */
+  @GetMapping("vector/ingest/queue")
+  public IngestJobQueue.QueueStats getIngestQueue() {
+    return ingestJobQueue.stats();
+  }
+
+  /**
+   * Bulk ingest an NDJSON stream of {@link DocumentRequest} objects (one per
+   * line). The upload is processed as it arrives, written in embedding-sized
+   * batches, and answered with one NDJSON progress line per batch followed by
+   * a summary line.
+   */
+  @PostMapping(value = "vector/ingest/bulk", consumes = { NDJSON, MediaType.TEXT_PLAIN_VALUE }, produces = NDJSON)
+  public void ingestBulk(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    log.info("Bulk ingest started ({} bytes declared)", request.getContentLengthLong());
+    response.setContentType(NDJSON);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    var out = response.getWriter();
+    var source = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+    var summary = bulkIngestService.ingest(source, batch -> writeLine(out, batch));
+    writeLine(out, Map.of("summary", summary));
+  }
+
+  private void writeLine(PrintWriter out, Object value) {
+    try {
+      out.println(objectMapper.writeValueAsString(value));
+      out.flush();
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException("could not serialize NDJSON line", e);
+    }
+  }
+
+  /**
+   * Start re-embedding every stored document with another embedding model in
+   * the background, or resume a failed migration to the same model. Searches
+   * keep using the current index until the migration completes. Returns 409
+   * while another migration is running.
+   */
+  @PostMapping("vector/migration")
+  public ResponseEntity<EmbeddingMigrationService.Status> startMigration(@RequestParam String model) {
+    if (model == null || model.isBlank()) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "model must not be empty");
+    }
+    try {
+      return ResponseEntity.accepted().body(migrationService.start(model));
+    } catch (IllegalStateException e) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+    } catch (UnsupportedOperationException e) {
+      throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, e.getMessage());
+    }
+  }
+
+  /**
+   * Progress of the current or last embedding migration.
+   */
+  @GetMapping("vector/migration")
+  public EmbeddingMigrationService.Status getMigration() {
+    return migrationService.status();
   }
 
   /**
-   * Perform a semantic search against the vector store.
+   * Perform a semantic search against the vector store, or a hybrid
+   * lexical + semantic search when {@code hybrid=true}. An optional metadata
+   * {@code filter} (e.g. {@code source == 'wiki'}) restricts semantic search.
    * Parameters are clamped to safe ranges to avoid abuse during demos.
    */
   @GetMapping("vector/ama")
   public List<Document> getFromVector(
       @RequestParam String prompt,
       @RequestParam(defaultValue = "0.4") double similarityThreshold,
-      @RequestParam(defaultValue = "2") int topK) {
-    if (prompt == null || prompt.isBlank()) {
-      log.debug("getFromVector called with empty prompt");
-      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "prompt must not be empty");
+      @RequestParam(defaultValue = "2") int topK,
+      @RequestParam(defaultValue = "false") boolean hybrid,
+      @RequestParam(required = false) String filter) {
+    var results = search(prompt, similarityThreshold, topK, hybrid, filter);
+    if (results == null || results.isEmpty()) {
+      log.info("No vector search results for prompt='{}'", prompt);
+      return List.of(new Document("No results found for " + prompt, Map.of()));
     }
+    log.info("Vector search for prompt='{}' returned {} results", prompt, results.size());
+    return results;
+  }
+
+  /**
+   * Streaming variant of {@code vector/ama}: each document is sent as one
+   * {@code document} server-sent event followed by a final {@code done} event
+   * with the number of documents sent or, when the client asks only for
+   * {@code application/x-ndjson}, as its own NDJSON line. No placeholder is
+   * sent when nothing matches.
+   *
+   * Parameters are validated before the response starts, so bad requests
+   * still get a 400. The search then runs off the request thread; it
+   * completes before the first document because the top-k selection needs
+   * every candidate.
+   */
+  @GetMapping(value = "vector/ama/stream", produces = { NDJSON, MediaType.TEXT_EVENT_STREAM_VALUE })
+  public Flux<?> streamFromVector(
+      @RequestParam String prompt,
+      @RequestParam(defaultValue = "0.4") double similarityThreshold,
+      @RequestParam(defaultValue = "2") int topK,
+      @RequestParam(defaultValue = "false") boolean hybrid,
+      @RequestParam(required = false) String filter,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    validate(prompt, hybrid, filter);
+    var documents = Mono.fromCallable(() -> search(prompt, similarityThreshold, topK, hybrid, filter))
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMapIterable(results -> results);
+    // Spring picks server-sent events whenever text/event-stream is acceptable, */* included
+    if (accept != null && accept.contains(NDJSON) && !accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)) {
+      return documents;
+    }
+    // a document that fails to serialize cancels the stream, so done never counts it
+    var sent = new AtomicInteger();
+    return documents
+        .map(document -> ServerSentEvent.<Object>builder(document).event("document").build())
+        .doOnNext(event -> sent.incrementAndGet())
+        .concatWith(Mono.fromSupplier(() -> ServerSentEvent.<Object>builder(Map.of("count", sent.get()))
+            .event("done").build()))
+        .doOnComplete(() -> log.info("Streamed {} vector search results for prompt='{}'", sent.get(), prompt));
+  }
+
+  /**
+   * Validate and clamp search parameters, then run a semantic or hybrid
+   * search.
+   */
+  private List<Document> search(String prompt, double similarityThreshold, int topK, boolean hybrid,
+      String filter) {
+    validate(prompt, hybrid, filter);
 
     // clamp values to safe ranges
     double clampedSim = Math.max(0.0, Math.min(1.0, similarityThreshold));
     int clampedTopK = Math.max(1, Math.min(MAX_TOP_K, topK));
 
-    log.info("Prompt received for vector search: '{}' (similarity={}, topK={})", prompt, clampedSim, clampedTopK);
-    var results = vectorService.searchDocuments(prompt, clampedSim, clampedTopK);
-    if (results == null || results.isEmpty()) {
-      log.info("No vector search results for prompt='{}'", prompt);
-      return List.of(new Document("No results found for " + prompt, Map.of()));
+
+    log.info("Prompt received for vector search: '{}' (similarity={}, topK={}, hybrid={}, filter={})", prompt,
+        clampedSim, clampedTopK, hybrid, filter);
+    try {
+      return hybrid
+          ? vectorService.searchHybrid(prompt, clampedSim, clampedTopK)
+          : vectorService.searchDocuments(prompt, clampedSim, clampedTopK, filter);
+    } catch (FilterExpressionParseException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid filter: " + e.getMessage());
+    }
+  }
+
+  private static void validate(String prompt, boolean hybrid, String filter) {
+    if (prompt == null || prompt.isBlank()) {
+      log.debug("getFromVector called with empty prompt");
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "prompt must not be empty");
+    }
+    if (filter == null || filter.isBlank()) {
+      return;
+    }
+    if (hybrid) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "filter is not supported with hybrid search");
+    }
+    try {
+      new FilterExpressionTextParser().parse(filter);
+    } catch (FilterExpressionParseException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid filter: " + e.getMessage());
     }
-    log.info("Vector search for prompt='{}' returned {} results", prompt, results.size());
-    return results;
   }
 
   /**
@@ -120,14 +329,35 @@ public class AstroBibliaVectorController {
     }
 
     log.info("Question received for chat with vector: '{}'", question);
-    var response = ragChatClient.prompt()
+    var response = singleFlight.call("vector/chat", question, () -> ragChatClient.prompt()
         .system("Expand this text to a 100 words paragraph")
         .user(question)
-        .call().content();
+        .call().content());
     log.info("Chat with vector for question='{}' completed", question);
     return response;
   }
 
+  /**
+   * Streaming variant of {@code vector/chat}: documents are retrieved and
+   * packed before the first token, then the answer is sent as server-sent
+   * events while it is generated. The model call is cancelled when the
+   * client disconnects.
+   */
+  @GetMapping(value = "vector/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<String> chatWithVectorStream(@RequestParam String question) {
+    if (question == null || question.isBlank()) {
+      log.debug("chatWithVectorStream called with empty question");
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "question must not be empty");
+    }
+
+    log.info("Question received for streaming chat with vector: '{}'", question);
+    return singleFlight.stream("vector/chat/stream", question, () -> ragChatClient.prompt()
+        .system("Expand this text to a 100 words paragraph")
+        .user(question)
+        .stream().content())
+        .doOnCancel(() -> log.debug("vector/chat/stream cancelled by client for question='{}'", question));
+  }
+
   /**
    * Perform semantic search against the AstroBiblia vector store, and use the
    * chat client to complete the answers.
@@ -140,10 +370,10 @@ public class AstroBibliaVectorController {
     }
 
     log.info("Question received for chat alone: '{}'", question);
-    var response = chatClient.prompt()
+    var response = singleFlight.call("vector/alone", question, () -> chatClient.prompt()
         .system("Expand this text to a 100 words paragraph")
         .user(question)
-        .call().content();
+        .call().content());
     log.info("Chat alone for question='{}' completed", response.length());
     return response;
   }
@@ -0,0 +1,189 @@
+package academy.aicode.spring_ai.chat;
+
+import java.text.Normalizer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Exact-match cache of answers for endpoints keyed by a single parameter,
+ * such as the planet name, with stale-while-revalidate refresh.
+ *
+ * - Keys are the endpoint plus the parameter with case, accents and
+ * whitespace folded, so "Júpiter" and " jupiter " share an entry
+ * - Values are whatever the endpoint returns: plain text or an already
+ * parsed record, which then skips deserialization on a hit
+ * - An answer is fresh for {@code ttl}; during the following
+ * {@code stale-ttl} it is still served, while one background call per key
+ * replaces it; after that it is loaded again on the caller thread
+ * - Beyond {@code max-entries} the least recently used answer is evicted;
+ * {@code max-entries=0} disables caching
+ * - Lookups are counted per endpoint in
+ * {@code astrobiblia.chat.answer-cache.requests}, tagged
+ * {@code result=hit|stale|miss}
+ *
+ * Cached values are shared between callers and must not be modified.
+ * Thread-safe: all access to the entries is synchronized; loaders run
+ * outside the lock.
+ */
+@Component
+public class AnswerCache {
+
+  private static final Logger log = LoggerFactory.getLogger(AnswerCache.class);
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private final int maxEntries;
+  private final Duration ttl;
+  private final Duration staleTtl;
+  private final MeterRegistry registry;
+  private final Clock clock;
+  private final Executor executor;
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+  @Autowired
+  public AnswerCache(
+      @Value("${astrobiblia.chat.answer-cache.max-entries:500}") int maxEntries,
+      @Value("${astrobiblia.chat.answer-cache.ttl:24h}") Duration ttl,
+      @Value("${astrobiblia.chat.answer-cache.stale-ttl:7d}") Duration staleTtl,
+      MeterRegistry registry) {
+    this(maxEntries, ttl, staleTtl, registry, Clock.systemUTC(),
+        runnable -> Thread.ofVirtual().name("answer-cache-refresh").start(runnable));
+  }
+
+  AnswerCache(int maxEntries, Duration ttl, Duration staleTtl, MeterRegistry registry, Clock clock,
+      Executor executor) {
+    if (maxEntries < 0) {
+      throw new IllegalArgumentException("maxEntries must not be negative");
+    }
+    this.maxEntries = maxEntries;
+    this.ttl = Objects.requireNonNull(ttl, "ttl must not be null");
+    this.staleTtl = Objects.requireNonNull(staleTtl, "staleTtl must not be null");
+    this.registry = Objects.requireNonNull(registry, "registry must not be null");
+    this.clock = Objects.requireNonNull(clock, "clock must not be null");
+    this.executor = Objects.requireNonNull(executor, "executor must not be null");
+    Gauge.builder("astrobiblia.chat.answer-cache.entries", this, AnswerCache::size)
+        .description("Answers held by the exact-match answer cache").register(registry);
+    log.info("AnswerCache initialized (maxEntries={}, ttl={}, staleTtl={})", maxEntries, ttl, staleTtl);
+  }
+
+  /**
+   * Fold case, accents and whitespace of a parameter value.
+   */
+  public static String normalize(String value) {
+    var decomposed = Normalizer.normalize(String.valueOf(value).strip(), Normalizer.Form.NFD);
+    var folded = MARKS.matcher(decomposed).replaceAll("");
+    return WHITESPACE.matcher(folded).replaceAll(" ").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Return the cached answer, or load and cache it.
+   *
+   * @param endpoint  endpoint name; one endpoint must always cache one type
+   * @param parameter parameter value the answer depends on
+   * @param loader    calls the model; a null result is returned uncached
+   * @return the answer
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T get(String endpoint, String parameter, Supplier<T> loader) {
+    Objects.requireNonNull(loader, "loader must not be null");
+    if (maxEntries == 0) {
+      return loader.get();
+    }
+    var key = new Key(endpoint, normalize(parameter));
+    var now = clock.instant();
+    Entry entry;
+    boolean refresh = false;
+    synchronized (this) {
+      entry = entries.get(key);
+      if (entry != null && !now.isBefore(entry.expiresAt())) {
+        entries.remove(key);
+        entry = null;
+      }
+      if (entry != null && !now.isBefore(entry.freshUntil()) && !entry.refreshing()) {
+        entries.put(key, entry.withRefreshing(true));
+        refresh = true;
+      }
+    }
+    if (entry == null) {
+      count(endpoint, "miss");
+      var value = loader.get();
+      store(key, value);
+      return value;
+    }
+    if (now.isBefore(entry.freshUntil())) {
+      count(endpoint, "hit");
+    } else {
+      count(endpoint, "stale");
+      if (refresh) {
+        executor.execute(() -> refresh(key, loader));
+      }
+    }
+    return (T) entry.value();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private void refresh(Key key, Supplier<?> loader) {
+    try {
+      store(key, loader.get());
+      log.debug("Refreshed cached answer for {} '{}'", key.endpoint(), key.parameter());
+    } catch (RuntimeException e) {
+      log.warn("Could not refresh cached answer for {} '{}': {}", key.endpoint(), key.parameter(), e.getMessage());
+      synchronized (this) {
+        // serve the stale answer again and let a later request retry
+        entries.computeIfPresent(key, (k, entry) -> entry.withRefreshing(false));
+      }
+    }
+  }
+
+  private void store(Key key, Object value) {
+    if (value == null) {
+      return;
+    }
+    var now = clock.instant();
+    var entry = new Entry(value, now.plus(ttl), now.plus(ttl).plus(staleTtl), false);
+    synchronized (this) {
+      entries.put(key, entry);
+      var iterator = entries.entrySet().iterator();
+      while (entries.size() > maxEntries && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+      }
+    }
+  }
+
+  private void count(String endpoint, String result) {
+    Counter.builder("astrobiblia.chat.answer-cache.requests").tag("endpoint", endpoint).tag("result", result)
+        .description("Parameterized chat requests looked up in the answer cache").register(registry).increment();
+  }
+
+  private record Key(String endpoint, String parameter) {
+  }
+
+  private record Entry(Object value, Instant freshUntil, Instant expiresAt, boolean refreshing) {
+
+    Entry withRefreshing(boolean refreshing) {
+      return new Entry(value, freshUntil, expiresAt, refreshing);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package academy.aicode.spring_ai.chat;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClientAttributes;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.Advisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+
+/**
+ * Returns a cached answer for a prompt similar to one already answered on the
+ * same endpoint, without calling the model; otherwise calls the model and
+ * caches its answer.
+ *
+ * - The key is the last user message, so the advisor runs after the chat
+ * memory advisor: memory still records both sides of a cached turn
+ * - Prompts carrying earlier turns of a conversation are passed through: a
+ * follow-up such as "¿y cuántas lunas tiene?" depends on that history, which
+ * the key does not capture
+ * - Calls asking for structured output are passed through, since the cached
+ * text was not produced for their format instructions
+ * - A failing embedding call also passes the call through; the cache never
+ * makes an endpoint fail
+ */
+final class SemanticCacheAdvisor implements CallAdvisor {
+
+  private static final Logger log = LoggerFactory.getLogger(SemanticCacheAdvisor.class);
+
+  private final SemanticResponseCache cache;
+  private final String endpoint;
+
+  SemanticCacheAdvisor(SemanticResponseCache cache, String endpoint) {
+    this.cache = Objects.requireNonNull(cache, "cache must not be null");
+    this.endpoint = Objects.requireNonNull(endpoint, "endpoint must not be null");
+  }
+
+  @Override
+  public String getName() {
+    return "SemanticCacheAdvisor[" + endpoint + "]";
+  }
+
+  @Override
+  public int getOrder() {
+    return Advisor.DEFAULT_CHAT_MEMORY_PRECEDENCE_ORDER + 100;
+  }
+
+  @Override
+  public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+    var user = request.prompt().getUserMessage();
+    var prompt = user == null ? null : user.getText();
+    if (!cache.isEnabled(endpoint) || prompt == null || prompt.isBlank() || hasHistory(request)
+        || request.context().containsKey(ChatClientAttributes.OUTPUT_FORMAT.getKey())) {
+      return chain.nextCall(request);
+    }
+    float[] key;
+    try {
+      key = cache.embed(prompt);
+    } catch (RuntimeException e) {
+      log.warn("Semantic cache bypassed for {}: {}", endpoint, e.getMessage());
+      return chain.nextCall(request);
+    }
+    var answer = cache.get(endpoint, key);
+    if (answer != null) {
+      log.debug("Semantic cache hit for {}", endpoint);
+      var chatResponse = ChatResponse.builder().generations(List.of(new Generation(new AssistantMessage(answer))))
+          .build();
+      return ChatClientResponse.builder().chatResponse(chatResponse).context(request.context()).build();
+    }
+    var response = chain.nextCall(request);
+    var result = response.chatResponse() == null ? null : response.chatResponse().getResult();
+    var text = result == null ? null : result.getOutput().getText();
+    if (text != null && !text.isBlank()) {
+      cache.put(endpoint, key, text);
+    }
+    return response;
+  }
+
+  private static boolean hasHistory(ChatClientRequest request) {
+    return request.prompt().getInstructions().stream()
+        .anyMatch(message -> message.getMessageType() == MessageType.ASSISTANT);
+  }
+}
@@ -0,0 +1,35 @@
+package academy.aicode.spring_ai.chat;
+
+import java.time.Clock;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Creates the semantic answer cache shared by the chat controllers. The bean
+ * always exists; when disabled, or for endpoints not listed, its advisors
+ * pass every call through.
+ */
+@Configuration
+@EnableConfigurationProperties(SemanticCacheProperties.class)
+public class SemanticCacheConfiguration {
+
+  private static final Logger log = LoggerFactory.getLogger(SemanticCacheConfiguration.class);
+
+  @Bean
+  public SemanticResponseCache semanticResponseCache(SemanticCacheProperties properties,
+      EmbeddingModel embeddingModel, MeterRegistry registry) {
+    var endpoints = properties.isEnabled() ? properties.getEndpoints() : Set.<String>of();
+    log.info("Semantic answer cache enabled for {} (threshold={}, ttl={}, maxEntries={})", endpoints,
+        properties.getSimilarityThreshold(), properties.getTtl(), properties.getMaxEntries());
+    return new SemanticResponseCache(embeddingModel, endpoints, properties.getSimilarityThreshold(),
+        properties.getTtl(), properties.getMaxEntries(), registry, Clock.systemUTC());
+  }
+}
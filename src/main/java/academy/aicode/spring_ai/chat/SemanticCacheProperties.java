@@ -0,0 +1,68 @@
+package academy.aicode.spring_ai.chat;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the semantic cache of chat answers.
+ */
+@ConfigurationProperties(prefix = "astrobiblia.chat.semantic-cache")
+public class SemanticCacheProperties {
+  /** Whether answers are cached at all. */
+  private boolean enabled = true;
+
+  /** Endpoints whose answers are cached, e.g. basic/astro. */
+  private Set<String> endpoints = new LinkedHashSet<>();
+
+  /** Minimum similarity (0..1) between two prompts to reuse an answer. */
+  private double similarityThreshold = 0.95;
+
+  /** How long a cached answer is served. */
+  private Duration ttl = Duration.ofHours(1);
+
+  /** Maximum number of answers kept over all endpoints. */
+  private int maxEntries = 1000;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Set<String> getEndpoints() {
+    return endpoints;
+  }
+
+  public void setEndpoints(Set<String> endpoints) {
+    this.endpoints = endpoints;
+  }
+
+  public double getSimilarityThreshold() {
+    return similarityThreshold;
+  }
+
+  public void setSimilarityThreshold(double similarityThreshold) {
+    this.similarityThreshold = similarityThreshold;
+  }
+
+  public Duration getTtl() {
+    return ttl;
+  }
+
+  public void setTtl(Duration ttl) {
+    this.ttl = ttl;
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public void setMaxEntries(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+}
@@ -0,0 +1,199 @@
+package academy.aicode.spring_ai.chat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Answers previously given by the chat model, looked up by the meaning of the
+ * prompt rather than its exact text, so "mercurio" and "háblame de mercurio"
+ * share one model call.
+ *
+ * - Prompts are embedded with the application EmbeddingModel (behind the
+ * embedding cache) and normalized once, so similarity is a dot product mapped
+ * to {@code (1 + cos) / 2}, the same 0..1 scale as vector search
+ * - Answers are scoped per endpoint: each endpoint has its own system prompt
+ * and template, so an answer is never served to another endpoint
+ * - Entries expire after {@code ttl}; beyond {@code max-entries} the least
+ * recently served entry is evicted
+ * - Lookups are counted per endpoint in
+ * {@code astrobiblia.chat.semantic-cache.requests}, tagged
+ * {@code result=hit|miss}; the hit rate is hit / (hit + miss)
+ *
+ * A lookup scans the entries of one endpoint, which at the default size costs
+ * less than the embedding call in front of it. Thread-safe: all access to the
+ * entries is synchronized.
+ */
+public class SemanticResponseCache {
+
+  private static final Logger log = LoggerFactory.getLogger(SemanticResponseCache.class);
+
+  private final EmbeddingModel embeddingModel;
+  private final Set<String> endpoints;
+  private final double similarityThreshold;
+  private final Duration ttl;
+  private final int maxEntries;
+  private final MeterRegistry registry;
+  private final Clock clock;
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+  private long nextId;
+
+  public SemanticResponseCache(EmbeddingModel embeddingModel, Set<String> endpoints, double similarityThreshold,
+      Duration ttl, int maxEntries, MeterRegistry registry, Clock clock) {
+    if (similarityThreshold < 0 || similarityThreshold > 1) {
+      throw new IllegalArgumentException("similarityThreshold must be between 0 and 1");
+    }
+    if (maxEntries < 0) {
+      throw new IllegalArgumentException("maxEntries must not be negative");
+    }
+    this.embeddingModel = Objects.requireNonNull(embeddingModel, "embeddingModel must not be null");
+    this.endpoints = Set.copyOf(Objects.requireNonNull(endpoints, "endpoints must not be null"));
+    this.similarityThreshold = similarityThreshold;
+    this.ttl = Objects.requireNonNull(ttl, "ttl must not be null");
+    this.maxEntries = maxEntries;
+    this.registry = Objects.requireNonNull(registry, "registry must not be null");
+    this.clock = Objects.requireNonNull(clock, "clock must not be null");
+    Gauge.builder("astrobiblia.chat.semantic-cache.entries", this, SemanticResponseCache::size)
+        .description("Chat answers held by the semantic cache").register(registry);
+  }
+
+  /**
+   * Advisor serving and storing the answers of one endpoint; add it to the
+   * calls of that endpoint only.
+   *
+   * @param endpoint endpoint name, e.g. {@code basic/astro}
+   */
+  public CallAdvisor advisor(String endpoint) {
+    return new SemanticCacheAdvisor(this, endpoint);
+  }
+
+  /**
+   * @return whether answers of the endpoint are cached
+   */
+  public boolean isEnabled(String endpoint) {
+    return maxEntries > 0 && endpoints.contains(endpoint);
+  }
+
+  /**
+   * @return normalized embedding of the prompt, the key for {@link #get} and
+   *         {@link #put}
+   */
+  float[] embed(String prompt) {
+    var vector = embeddingModel.embed(prompt);
+    double norm = 0;
+    for (float value : vector) {
+      norm += value * value;
+    }
+    norm = Math.sqrt(norm);
+    var normalized = new float[vector.length];
+    for (int i = 0; i < vector.length; i++) {
+      normalized[i] = norm == 0 ? 0f : (float) (vector[i] / norm);
+    }
+    return normalized;
+  }
+
+  /**
+   * @return the answer of the most similar prompt at or above the threshold,
+   *         or null
+   */
+  String get(String endpoint, float[] prompt) {
+    Entry entry;
+    synchronized (this) {
+      var id = closest(endpoint, prompt);
+      // touch the entry so it counts as recently used
+      entry = id == null ? null : entries.get(id);
+    }
+    count(endpoint, entry == null ? "miss" : "hit");
+    return entry == null ? null : entry.answer();
+  }
+
+  /**
+   * Store an answer; it replaces the answer of a prompt similar enough to be
+   * served in its place.
+   */
+  void put(String endpoint, float[] prompt, String answer) {
+    if (!isEnabled(endpoint)) {
+      return;
+    }
+    var entry = new Entry(endpoint, prompt, answer, clock.instant().plus(ttl));
+    synchronized (this) {
+      var existing = closest(endpoint, prompt);
+      if (existing != null) {
+        entries.remove(existing);
+      }
+      entries.put(nextId++, entry);
+      var iterator = entries.entrySet().iterator();
+      while (entries.size() > maxEntries && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+      }
+    }
+    log.debug("Cached answer for {} ({} chars)", endpoint, answer.length());
+  }
+
+  private void count(String endpoint, String result) {
+    counters.computeIfAbsent(endpoint + ':' + result, key -> Counter
+        .builder("astrobiblia.chat.semantic-cache.requests")
+        .tag("endpoint", endpoint).tag("result", result)
+        .description("Chat prompts looked up in the semantic cache")
+        .register(registry)).increment();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Find the most similar live entry of the endpoint, dropping expired ones
+   * on the way. Callers hold the lock.
+   */
+  private Long closest(String endpoint, float[] prompt) {
+    var now = clock.instant();
+    Long best = null;
+    double bestScore = similarityThreshold;
+    var iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      var candidate = iterator.next();
+      var entry = candidate.getValue();
+      if (!now.isBefore(entry.expiresAt())) {
+        iterator.remove();
+        continue;
+      }
+      if (!entry.endpoint().equals(endpoint) || entry.prompt().length != prompt.length) {
+        continue;
+      }
+      double score = (1 + dot(prompt, entry.prompt())) / 2;
+      if (score >= bestScore) {
+        bestScore = score;
+        best = candidate.getKey();
+      }
+    }
+    return best;
+  }
+
+  private static double dot(float[] a, float[] b) {
+    double sum = 0;
+    for (int i = 0; i < a.length; i++) {
+      sum += a[i] * b[i];
+    }
+    return sum;
+  }
+
+  private record Entry(String endpoint, float[] prompt, String answer, Instant expiresAt) {
+  }
+}
@@ -0,0 +1,129 @@
+package academy.aicode.spring_ai.chat;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+
+/**
+ * Coalesces identical concurrent model calls: while a call for an endpoint
+ * and key is in flight, callers asking for the same pair wait for it and
+ * receive its result instead of starting their own.
+ *
+ * - Blocking calls: the first caller runs the call on its own thread; the
+ * others block on its future and get the same value or the same exception
+ * - Streaming calls: the first caller's Flux is shared through a replaying
+ * publisher, so a subscriber joining mid-stream still receives every token
+ * from the start; the upstream is cancelled once all subscribers cancel
+ * - Only in-flight calls are shared; a call that has completed is not
+ * reused, which is the job of the answer caches
+ * - Calls are counted per endpoint in
+ * {@code astrobiblia.chat.single-flight.requests}, tagged
+ * {@code result=leader|shared}
+ *
+ * Results are shared between callers and must not be modified.
+ */
+@Component
+public class SingleFlight {
+
+  private static final Logger log = LoggerFactory.getLogger(SingleFlight.class);
+
+  private final ConcurrentHashMap<Key, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Key, Flux<?>> streams = new ConcurrentHashMap<>();
+  private final MeterRegistry registry;
+
+  public SingleFlight(MeterRegistry registry) {
+    this.registry = Objects.requireNonNull(registry, "registry must not be null");
+  }
+
+  /**
+   * Run the call, or wait for an identical call already in flight.
+   *
+   * @param endpoint endpoint name; one endpoint must always return one type
+   * @param key      everything else the result depends on, e.g. the prompt
+   * @param call     the model call
+   * @return the result of this call or of the one it joined
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T call(String endpoint, String key, Supplier<T> call) {
+    Objects.requireNonNull(call, "call must not be null");
+    var flightKey = new Key(endpoint, key);
+    var flight = new CompletableFuture<Object>();
+    var existing = calls.putIfAbsent(flightKey, flight);
+    if (existing != null) {
+      count(endpoint, "shared");
+      log.debug("Joining in-flight call for {}", endpoint);
+      return (T) join(existing);
+    }
+    count(endpoint, "leader");
+    try {
+      var result = call.get();
+      flight.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      calls.remove(flightKey, flight);
+    }
+  }
+
+  /**
+   * Subscribe to the stream, or to an identical stream already in flight.
+   *
+   * @param endpoint endpoint name; one endpoint must always return one type
+   * @param key      everything else the stream depends on, e.g. the prompt
+   * @param stream   creates the model stream; called at most once per flight
+   * @return a Flux replaying the shared stream from its first element
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Flux<T> stream(String endpoint, String key, Supplier<Flux<T>> stream) {
+    Objects.requireNonNull(stream, "stream must not be null");
+    var flightKey = new Key(endpoint, key);
+    var created = new AtomicReference<Flux<?>>();
+    var shared = streams.computeIfAbsent(flightKey, ignored -> {
+      var self = new AtomicReference<Flux<?>>();
+      Flux<T> flux = Flux.defer(stream)
+          .doFinally(signal -> streams.remove(flightKey, self.get()))
+          .replay()
+          .refCount();
+      self.set(flux);
+      created.set(flux);
+      return flux;
+    });
+    count(endpoint, created.get() == shared ? "leader" : "shared");
+    return (Flux<T>) shared;
+  }
+
+  private static Object join(CompletableFuture<Object> flight) {
+    try {
+      return flight.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+
+  private void count(String endpoint, String result) {
+    Counter.builder("astrobiblia.chat.single-flight.requests").tag("endpoint", endpoint).tag("result", result)
+        .description("Model calls started (leader) or joined (shared)").register(registry).increment();
+  }
+
+  private record Key(String endpoint, String key) {
+  }
+}
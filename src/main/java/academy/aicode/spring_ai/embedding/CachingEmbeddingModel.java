@@ -0,0 +1,104 @@
+package academy.aicode.spring_ai.embedding;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.embedding.EmbeddingResponseMetadata;
+
+import academy.aicode.spring_ai.embedding.EmbeddingCache.ContentHash;
+
+/**
+ * {@link EmbeddingModel} decorator that answers repeated texts from an
+ * {@link EmbeddingCache} and only forwards the misses to the delegate.
+ *
+ * All entry points ({@code embed(String)}, {@code embedForResponse},
+ * batched document embedding used by vector stores) funnel into
+ * {@link #call(EmbeddingRequest)}, so a text embedded once is never sent to
+ * the provider again while it stays cached.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+  private static final Logger log = LoggerFactory.getLogger(CachingEmbeddingModel.class);
+
+  private final EmbeddingModel delegate;
+  private final EmbeddingCache cache;
+  private final String defaultModel;
+
+  /**
+   * @param delegate     model used for cache misses
+   * @param cache        shared embedding cache
+   * @param defaultModel model name used in cache keys when the request does not
+   *                     specify one
+   */
+  public CachingEmbeddingModel(EmbeddingModel delegate, EmbeddingCache cache, String defaultModel) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+    this.cache = Objects.requireNonNull(cache, "cache must not be null");
+    this.defaultModel = Objects.requireNonNull(defaultModel, "defaultModel must not be null");
+  }
+
+  @Override
+  public EmbeddingResponse call(EmbeddingRequest request) {
+    var texts = request.getInstructions();
+    var model = modelOf(request);
+    var vectors = new float[texts.size()][];
+    var keys = new ContentHash[texts.size()];
+    var missingTexts = new ArrayList<String>();
+    var missingPositions = new ArrayList<Integer>();
+    for (int i = 0; i < texts.size(); i++) {
+      keys[i] = EmbeddingCache.keyOf(model, texts.get(i));
+      vectors[i] = cache.get(keys[i]);
+      if (vectors[i] == null) {
+        missingTexts.add(texts.get(i));
+        missingPositions.add(i);
+      }
+    }
+
+    var metadata = new EmbeddingResponseMetadata();
+    if (!missingTexts.isEmpty()) {
+      var response = delegate.call(new EmbeddingRequest(missingTexts, request.getOptions()));
+      var results = response.getResults();
+      for (int i = 0; i < results.size(); i++) {
+        var index = results.get(i).getIndex();
+        int position = missingPositions.get(index != null ? index : i);
+        vectors[position] = results.get(i).getOutput();
+        cache.put(keys[position], vectors[position]);
+      }
+      metadata = response.getMetadata();
+    }
+    log.debug("Embedding request: {} texts, {} from cache", texts.size(), texts.size() - missingTexts.size());
+
+    var embeddings = new ArrayList<Embedding>(texts.size());
+    for (int i = 0; i < vectors.length; i++) {
+      embeddings.add(new Embedding(vectors[i], i));
+    }
+    return new EmbeddingResponse(embeddings, metadata);
+  }
+
+  @Override
+  public float[] embed(Document document) {
+    return embed(document.getFormattedContent(MetadataMode.EMBED));
+  }
+
+  @Override
+  public int dimensions() {
+    return delegate.dimensions();
+  }
+
+  // model name plus the requested dimensions, if any: truncated vectors
+  // (e.g. text-embedding-3 with dimensions=256) must not share entries with
+  // full-length ones
+  private String modelOf(EmbeddingRequest request) {
+    var options = request.getOptions();
+    var model = options != null && options.getModel() != null ? options.getModel() : defaultModel;
+    var dimensions = options != null ? options.getDimensions() : null;
+    return dimensions != null ? model + "@" + dimensions : model;
+  }
+}
@@ -0,0 +1,279 @@
+package academy.aicode.spring_ai.embedding;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded, size-aware LRU of embeddings keyed by a SHA-256 hash of
+ * (model name, text).
+ *
+ * - The bound is expressed in bytes (vector payload plus a fixed per-entry
+ * overhead), so large-dimension models hold fewer entries
+ * - When a file is configured the cache can be {@link #load() loaded} on
+ * startup and {@link #save() saved} on shutdown to survive restarts; with
+ * {@link #saveEvery} it is also saved periodically while it changes, so a
+ * crash loses at most one interval of embeddings
+ * - Hits, misses, entries and bytes are published to Micrometer under
+ * {@code astrobiblia.embedding.cache.*}
+ *
+ * Thread-safe: all access to the underlying map is synchronized.
+ */
+public class EmbeddingCache {
+
+  private static final Logger log = LoggerFactory.getLogger(EmbeddingCache.class);
+
+  // Approximate heap cost of key, map node and array header per entry
+  private static final long ENTRY_OVERHEAD_BYTES = 96;
+  private static final int FILE_MAGIC = 0x454D4243; // "EMBC"
+  private static final int FILE_VERSION = 1;
+
+  private final long maxBytes;
+  private final Path file;
+  private final LinkedHashMap<ContentHash, float[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+  private long currentBytes;
+  private long version;
+  private long savedVersion;
+  private ScheduledExecutorService saver;
+  private final Object saveLock = new Object();
+
+  private final Counter hits;
+  private final Counter misses;
+
+  /**
+   * @param maxBytes upper bound for the cached payload, in bytes
+   * @param file     optional persistence file; null keeps the cache in memory
+   * @param registry registry used to publish hit/miss metrics
+   */
+  public EmbeddingCache(long maxBytes, Path file, MeterRegistry registry) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("maxBytes must be positive");
+    }
+    this.maxBytes = maxBytes;
+    this.file = file;
+    Objects.requireNonNull(registry, "registry must not be null");
+    this.hits = Counter.builder("astrobiblia.embedding.cache.requests").tag("result", "hit")
+        .description("Embedding lookups served from cache").register(registry);
+    this.misses = Counter.builder("astrobiblia.embedding.cache.requests").tag("result", "miss")
+        .description("Embedding lookups sent to the model").register(registry);
+    Gauge.builder("astrobiblia.embedding.cache.entries", this, EmbeddingCache::size).register(registry);
+    Gauge.builder("astrobiblia.embedding.cache.bytes", this, EmbeddingCache::bytes).register(registry);
+  }
+
+  /**
+   * Compute the cache key for a text embedded by the given model.
+   */
+  public static ContentHash keyOf(String model, String text) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      digest.update(String.valueOf(model).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(String.valueOf(text).getBytes(StandardCharsets.UTF_8));
+      var buffer = ByteBuffer.wrap(digest.digest());
+      return new ContentHash(buffer.getLong(), buffer.getLong());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  /**
+   * @return a copy of the cached embedding, or null when absent
+   */
+  public float[] get(ContentHash key) {
+    float[] vector;
+    synchronized (this) {
+      vector = entries.get(key);
+    }
+    if (vector == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return vector.clone();
+  }
+
+  /**
+   * Store an embedding, evicting least recently used entries to stay within
+   * the byte budget.
+   */
+  public void put(ContentHash key, float[] vector) {
+    Objects.requireNonNull(vector, "vector must not be null");
+    var copy = vector.clone();
+    synchronized (this) {
+      var previous = entries.put(key, copy);
+      if (previous != null) {
+        currentBytes -= weight(previous);
+      }
+      currentBytes += weight(copy);
+      version++;
+      var iterator = entries.entrySet().iterator();
+      while (currentBytes > maxBytes && iterator.hasNext()) {
+        var eldest = iterator.next();
+        currentBytes -= weight(eldest.getValue());
+        iterator.remove();
+      }
+    }
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long bytes() {
+    return currentBytes;
+  }
+
+  /**
+   * Load entries from the configured file, if any. Missing or unreadable files
+   * leave the cache empty.
+   */
+  public void load() {
+    if (file == null || !Files.isRegularFile(file)) {
+      return;
+    }
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+        log.warn("Ignoring embedding cache file {} (unknown format)", file);
+        return;
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        var key = new ContentHash(in.readLong(), in.readLong());
+        var vector = new float[in.readInt()];
+        for (int d = 0; d < vector.length; d++) {
+          vector[d] = in.readFloat();
+        }
+        put(key, vector);
+      }
+      synchronized (this) {
+        savedVersion = version;
+      }
+      log.info("Loaded {} cached embeddings ({} bytes) from {}", size(), bytes(), file);
+    } catch (IOException e) {
+      log.warn("Could not load embedding cache from {}: {}", file, e.getMessage());
+    }
+  }
+
+  /**
+   * Save the cache every {@code interval} while it has unsaved entries, until
+   * {@link #close()}. No-op without a file.
+   */
+  public synchronized void saveEvery(Duration interval) {
+    if (file == null || saver != null) {
+      return;
+    }
+    if (interval.isNegative() || interval.isZero()) {
+      throw new IllegalArgumentException("interval must be positive");
+    }
+    saver = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("embedding-cache-save")
+        .factory());
+    long millis = interval.toMillis();
+    saver.scheduleWithFixedDelay(this::saveIfChanged, millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stop periodic saves and save a last time.
+   */
+  public void close() {
+    ScheduledExecutorService stopped;
+    synchronized (this) {
+      stopped = saver;
+      saver = null;
+    }
+    if (stopped != null) {
+      stopped.shutdownNow();
+    }
+    save();
+  }
+
+  void saveIfChanged() {
+    boolean changed;
+    synchronized (this) {
+      changed = version != savedVersion;
+    }
+    if (changed) {
+      save();
+    }
+  }
+
+  /**
+   * Write all entries to the configured file, oldest first so recency order
+   * survives a reload. The entries are snapshotted under the lock and written
+   * outside it to a temporary file, which is then moved into place.
+   */
+  public void save() {
+    if (file == null) {
+      return;
+    }
+    // one save at a time; lookups only wait for the snapshot
+    synchronized (saveLock) {
+      List<Map.Entry<ContentHash, float[]>> snapshot;
+      long snapshotVersion;
+      synchronized (this) {
+        snapshot = new ArrayList<>(entries.size());
+        entries.forEach((key, vector) -> snapshot.add(Map.entry(key, vector)));
+        snapshotVersion = version;
+      }
+      try {
+        var parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        var tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+          out.writeInt(FILE_MAGIC);
+          out.writeInt(FILE_VERSION);
+          out.writeInt(snapshot.size());
+          for (var entry : snapshot) {
+            out.writeLong(entry.getKey().high());
+            out.writeLong(entry.getKey().low());
+            out.writeInt(entry.getValue().length);
+            for (float value : entry.getValue()) {
+              out.writeFloat(value);
+            }
+          }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        synchronized (this) {
+          savedVersion = snapshotVersion;
+        }
+        log.info("Saved {} cached embeddings to {}", snapshot.size(), file);
+      } catch (IOException e) {
+        log.warn("Could not save embedding cache to {}: {}", file, e.getMessage());
+      }
+    }
+  }
+
+  private static long weight(float[] vector) {
+    return ENTRY_OVERHEAD_BYTES + 4L * vector.length;
+  }
+
+  /**
+   * 128-bit prefix of the SHA-256 content hash used as cache key.
+   */
+  public record ContentHash(long high, long low) {
+  }
+}
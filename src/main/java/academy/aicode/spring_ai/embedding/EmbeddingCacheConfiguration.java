@@ -0,0 +1,56 @@
+package academy.aicode.spring_ai.embedding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Wraps every {@link EmbeddingModel} bean in a {@link CachingEmbeddingModel},
+ * so controllers, the ingest path and the vector stores all share one cache
+ * without knowing about it.
+ */
+@Configuration
+@EnableConfigurationProperties(EmbeddingCacheProperties.class)
+@ConditionalOnProperty(prefix = "astrobiblia.embedding.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class EmbeddingCacheConfiguration {
+
+  private static final Logger log = LoggerFactory.getLogger(EmbeddingCacheConfiguration.class);
+
+  private static final String MODEL_PROPERTY = "spring.ai.openai.embedding.options.model";
+
+  @Bean(destroyMethod = "close")
+  public EmbeddingCache embeddingCache(EmbeddingCacheProperties properties, MeterRegistry registry) {
+    var cache = new EmbeddingCache(properties.getMaxSize().toBytes(), properties.getFile(), registry);
+    cache.load();
+    cache.saveEvery(properties.getSaveInterval());
+    log.info("Embedding cache enabled (maxSize={}, file={}, saveInterval={})", properties.getMaxSize(),
+        properties.getFile(), properties.getSaveInterval());
+    return cache;
+  }
+
+  // static so the post-processor is registered before the EmbeddingModel beans
+  @Bean
+  public static BeanPostProcessor cachingEmbeddingModelPostProcessor(ObjectProvider<EmbeddingCache> cache,
+      Environment environment) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof EmbeddingModel model && !(bean instanceof CachingEmbeddingModel)) {
+          var defaultModel = environment.getProperty(MODEL_PROPERTY, beanName);
+          log.debug("Decorating EmbeddingModel bean '{}' with embedding cache", beanName);
+          return new CachingEmbeddingModel(model, cache.getObject(), defaultModel);
+        }
+        return bean;
+      }
+    };
+  }
+}
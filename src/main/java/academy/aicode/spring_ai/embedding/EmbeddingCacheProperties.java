@@ -0,0 +1,57 @@
+package academy.aicode.spring_ai.embedding;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for the embedding cache placed in front of the EmbeddingModel.
+ */
+@ConfigurationProperties(prefix = "astrobiblia.embedding.cache")
+public class EmbeddingCacheProperties {
+  /** Whether embeddings are cached at all. */
+  private boolean enabled = true;
+
+  /** Memory budget for cached vectors (e.g. 64MB). */
+  private DataSize maxSize = DataSize.ofMegabytes(64);
+
+  /** Optional file used to persist the cache across restarts; empty disables it. */
+  private Path file;
+
+  /** How often a changed cache is saved to the file, so a crash loses at most this much. */
+  private Duration saveInterval = Duration.ofMinutes(5);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public DataSize getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(DataSize maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public Path getFile() {
+    return file;
+  }
+
+  public void setFile(Path file) {
+    this.file = file;
+  }
+
+  public Duration getSaveInterval() {
+    return saveInterval;
+  }
+
+  public void setSaveInterval(Duration saveInterval) {
+    this.saveInterval = saveInterval;
+  }
+}
@@ -0,0 +1,48 @@
+package academy.aicode.spring_ai.embedding;
+
+import java.util.Objects;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingOptionsBuilder;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+/**
+ * {@link EmbeddingModel} view that sends every request to one provider model,
+ * whatever the application default is. Used to embed a shadow index with the
+ * model it is being migrated to; wrapping the cached model keeps the
+ * embedding cache in play, since cache keys include the model name.
+ */
+public class FixedModelEmbeddingModel implements EmbeddingModel {
+
+  private final EmbeddingModel delegate;
+  private final String model;
+
+  public FixedModelEmbeddingModel(EmbeddingModel delegate, String model) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+    this.model = Objects.requireNonNull(model, "model must not be null");
+  }
+
+  public String getModel() {
+    return model;
+  }
+
+  @Override
+  public EmbeddingResponse call(EmbeddingRequest request) {
+    var options = request.getOptions();
+    var builder = EmbeddingOptionsBuilder.builder().withModel(model);
+    if (options != null && options.getDimensions() != null) {
+      builder.withDimensions(options.getDimensions());
+    }
+    EmbeddingOptions fixed = builder.build();
+    return delegate.call(new EmbeddingRequest(request.getInstructions(), fixed));
+  }
+
+  @Override
+  public float[] embed(Document document) {
+    return embed(document.getFormattedContent(MetadataMode.EMBED));
+  }
+}
@@ -0,0 +1,258 @@
+package academy.aicode.spring_ai.fake;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Offline stand-in for a remote chat model.
+ *
+ * - Text answers come from a canned response whose key appears in the last
+ * user message, or from the template followed by filler words picked from
+ * the prompt hash, so the same prompt always gets the same answer
+ * - Structured output: the JSON schema appended by the output converter is
+ * read and a matching sample is returned, picking enum constants from the
+ * prompt hash
+ * - Tools: when the request carries tools, the first turn asks for the first
+ * one with the configured arguments (or a sample of its input schema); the
+ * tool runs through the {@link ToolCallingManager} like with the real model,
+ * unless a non-empty simulated result is configured, and a second turn
+ * answers with the tool result as {@code {context}}
+ * - Streaming: the answer is split into words emitted every
+ * {@code token-interval} after the first-token latency
+ * - Every turn waits one latency sample and may fail
+ */
+public class FakeChatModel implements ChatModel {
+
+  private static final Logger log = LoggerFactory.getLogger(FakeChatModel.class);
+
+  private static final String SCHEMA_MARKER = "JSON Schema instance your output must adhere to:";
+  private static final String FENCE = "```";
+  private static final int MAX_ECHO_LENGTH = 200;
+  private static final Pattern WORD_BOUNDARY = Pattern.compile("(?<=\\s)");
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final String[] FILLER = { "estrella", "órbita", "galaxia", "planeta", "luz", "masa", "nebulosa",
+      "cometa", "satélite", "gravedad", "telescopio", "atmósfera", "asteroide", "eclipse", "constelación", "sol" };
+
+  private final FakeModelProperties.Chat settings;
+  private final LatencyProfile latency;
+  private final ToolCallingManager toolCallingManager;
+
+  FakeChatModel(FakeModelProperties.Chat settings, LatencyProfile latency, ToolCallingManager toolCallingManager) {
+    this.settings = Objects.requireNonNull(settings, "settings must not be null");
+    this.latency = Objects.requireNonNull(latency, "latency must not be null");
+    this.toolCallingManager = Objects.requireNonNull(toolCallingManager, "toolCallingManager must not be null");
+  }
+
+  @Override
+  public ChatOptions getDefaultOptions() {
+    // a ToolCallingChatOptions makes ChatClient pass the tools of each request
+    return ToolCallingChatOptions.builder().model("fake").build();
+  }
+
+  @Override
+  public ChatResponse call(Prompt prompt) {
+    latency.await("chat call");
+    var response = respond(prompt);
+    if (response.hasToolCalls() && prompt.getOptions() != null
+        && ToolCallingChatOptions.isInternalToolExecutionEnabled(prompt.getOptions())) {
+      return call(new Prompt(executeTools(prompt, response), prompt.getOptions()));
+    }
+    return response;
+  }
+
+  @Override
+  public Flux<ChatResponse> stream(Prompt prompt) {
+    return Mono.fromCallable(() -> call(prompt))
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMapMany(response -> {
+          if (response.hasToolCalls()) {
+            return Flux.just(response);
+          }
+          var chunks = Flux.fromArray(WORD_BOUNDARY.split(response.getResult().getOutput().getText()))
+              .map(FakeChatModel::textResponse);
+          var interval = settings.getTokenInterval();
+          return interval == null || interval.isZero() ? chunks : chunks.delayElements(interval);
+        });
+  }
+
+  private ChatResponse respond(Prompt prompt) {
+    var user = prompt.getUserMessage();
+    var userText = user == null || user.getText() == null ? "" : user.getText();
+    var messages = prompt.getInstructions();
+    var last = messages.isEmpty() ? null : messages.get(messages.size() - 1);
+    if (last instanceof ToolResponseMessage toolResponse) {
+      var context = String.join(" ", toolResponse.getResponses().stream()
+          .map(ToolResponseMessage.ToolResponse::responseData).toList());
+      return textResponse(answer(userText, context));
+    }
+    var tool = firstTool(prompt.getOptions());
+    if (tool != null) {
+      var toolCall = new AssistantMessage.ToolCall("call_" + UUID.randomUUID(), "function", tool.name(),
+          toolArguments(tool, userText));
+      log.debug("Simulating call to tool {} with {}", tool.name(), toolCall.arguments());
+      return new ChatResponse(List.of(new Generation(new AssistantMessage("", Map.of(), List.of(toolCall)))));
+    }
+    return textResponse(answer(userText, ""));
+  }
+
+  private String answer(String userText, String context) {
+    int schema = userText.indexOf(SCHEMA_MARKER);
+    if (schema >= 0) {
+      return structuredAnswer(userText.substring(schema + SCHEMA_MARKER.length()), userText.substring(0, schema));
+    }
+    var lower = userText.toLowerCase(Locale.ROOT);
+    for (var canned : settings.getResponses().entrySet()) {
+      if (lower.contains(canned.getKey().toLowerCase(Locale.ROOT))) {
+        return canned.getValue();
+      }
+    }
+    var answer = new StringBuilder(settings.getTemplate().replace("{prompt}", echo(userText))
+        .replace("{context}", context).strip());
+    var random = new SplittableRandom(userText.hashCode());
+    for (int i = 0; i < settings.getAnswerWords(); i++) {
+      answer.append(' ').append(FILLER[random.nextInt(FILLER.length)]);
+    }
+    return answer.append('.').toString();
+  }
+
+  private String structuredAnswer(String format, String question) {
+    int start = format.indexOf(FENCE);
+    int end = start < 0 ? -1 : format.indexOf(FENCE, start + FENCE.length());
+    if (end < 0) {
+      return "{}";
+    }
+    try {
+      var schema = OBJECT_MAPPER.readTree(format.substring(start + FENCE.length(), end));
+      return OBJECT_MAPPER.writeValueAsString(sample(schema, echo(question)));
+    } catch (JsonProcessingException e) {
+      log.warn("Could not read output schema: {}", e.getMessage());
+      return "{}";
+    }
+  }
+
+  private ToolDefinition firstTool(ChatOptions options) {
+    if (!(options instanceof ToolCallingChatOptions toolOptions)
+        || (toolOptions.getToolCallbacks().isEmpty() && toolOptions.getToolNames().isEmpty())) {
+      return null;
+    }
+    var definitions = toolCallingManager.resolveToolDefinitions(toolOptions);
+    return definitions.isEmpty() ? null : definitions.get(0);
+  }
+
+  private String toolArguments(ToolDefinition tool, String userText) {
+    var configured = settings.getToolArguments().get(tool.name());
+    try {
+      if (configured != null) {
+        var quoted = OBJECT_MAPPER.writeValueAsString(echo(userText));
+        return configured.replace("{prompt}", quoted.substring(1, quoted.length() - 1));
+      }
+      return OBJECT_MAPPER.writeValueAsString(sample(OBJECT_MAPPER.readTree(tool.inputSchema()), echo(userText)));
+    } catch (JsonProcessingException e) {
+      log.warn("Could not build arguments for tool {}: {}", tool.name(), e.getMessage());
+      return "{}";
+    }
+  }
+
+  private List<Message> executeTools(Prompt prompt, ChatResponse response) {
+    var assistant = response.getResult().getOutput();
+    var toolCall = assistant.getToolCalls().get(0);
+    var simulated = settings.getToolResults().get(toolCall.name());
+    if (simulated == null || simulated.isEmpty()) {
+      return toolCallingManager.executeToolCalls(prompt, response).conversationHistory();
+    }
+    var history = new ArrayList<Message>(prompt.getInstructions());
+    history.add(assistant);
+    history.add(new ToolResponseMessage(
+        List.of(new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(), simulated))));
+    return history;
+  }
+
+  /**
+   * Build a value matching a JSON schema: every property, one array item,
+   * enum constants picked from the text hash and strings set to the text.
+   */
+  static JsonNode sample(JsonNode schema, String text) {
+    var nodes = JsonNodeFactory.instance;
+    var constants = schema.get("enum");
+    if (constants != null && constants.isArray() && !constants.isEmpty()) {
+      return constants.get(Math.floorMod(text.hashCode(), constants.size()));
+    }
+    switch (type(schema)) {
+      case "object" -> {
+        var object = nodes.objectNode();
+        var properties = schema.path("properties");
+        properties.fieldNames().forEachRemaining(name -> object.set(name, sample(properties.get(name), text)));
+        return object;
+      }
+      case "array" -> {
+        return nodes.arrayNode().add(sample(schema.path("items"), text));
+      }
+      case "integer", "number" -> {
+        return nodes.numberNode(1);
+      }
+      case "boolean" -> {
+        return nodes.booleanNode(false);
+      }
+      case "string" -> {
+        return nodes.textNode(text);
+      }
+      default -> {
+        return NullNode.getInstance();
+      }
+    }
+  }
+
+  private static String type(JsonNode schema) {
+    var type = schema.get("type");
+    if (type != null && type.isTextual()) {
+      return type.asText();
+    }
+    if (type != null && type.isArray()) {
+      for (var option : type) {
+        if (!"null".equals(option.asText())) {
+          return option.asText();
+        }
+      }
+    }
+    return schema.has("properties") ? "object" : "string";
+  }
+
+  private static String echo(String text) {
+    var stripped = text.strip();
+    return stripped.length() <= MAX_ECHO_LENGTH ? stripped : stripped.substring(0, MAX_ECHO_LENGTH) + "…";
+  }
+
+  private static ChatResponse textResponse(String text) {
+    return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+  }
+}
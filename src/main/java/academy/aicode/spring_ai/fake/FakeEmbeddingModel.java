@@ -0,0 +1,101 @@
+package academy.aicode.spring_ai.fake;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import academy.aicode.spring_ai.vector.Bm25Index;
+
+/**
+ * Deterministic stand-in for a remote embedding model.
+ *
+ * - Each text is tokenized like the BM25 index; every term and pair of
+ * adjacent terms is hashed into one dimension with a hash-derived sign
+ * (feature hashing), and the vector is normalized
+ * - Texts sharing words therefore get similar vectors, so semantic search,
+ * the semantic answer cache and duplicate detection behave plausibly
+ * - Every call waits one latency sample and may fail, whatever the number
+ * of texts in it
+ */
+public class FakeEmbeddingModel implements EmbeddingModel {
+
+  private final int dimensions;
+  private final LatencyProfile latency;
+
+  FakeEmbeddingModel(int dimensions, LatencyProfile latency) {
+    if (dimensions < 1) {
+      throw new IllegalArgumentException("dimensions must be >= 1");
+    }
+    this.dimensions = dimensions;
+    this.latency = Objects.requireNonNull(latency, "latency must not be null");
+  }
+
+  @Override
+  public EmbeddingResponse call(EmbeddingRequest request) {
+    latency.await("embedding call");
+    var embeddings = new ArrayList<Embedding>(request.getInstructions().size());
+    for (var text : request.getInstructions()) {
+      embeddings.add(new Embedding(embed(text, dimensions), embeddings.size()));
+    }
+    return new EmbeddingResponse(embeddings);
+  }
+
+  @Override
+  public float[] embed(Document document) {
+    return call(new EmbeddingRequest(List.of(Objects.toString(document.getText(), "")), null)).getResult()
+        .getOutput();
+  }
+
+  @Override
+  public int dimensions() {
+    return dimensions;
+  }
+
+  static float[] embed(String text, int dimensions) {
+    var vector = new float[dimensions];
+    var terms = Bm25Index.tokenize(text);
+    for (int i = 0; i < terms.size(); i++) {
+      add(vector, hash(terms.get(i)), 1f);
+      if (i > 0) {
+        add(vector, hash(terms.get(i - 1) + ' ' + terms.get(i)), 0.5f);
+      }
+    }
+    double norm = 0;
+    for (float value : vector) {
+      norm += value * value;
+    }
+    if (norm == 0) {
+      vector[0] = 1f;
+      return vector;
+    }
+    float scale = (float) (1 / Math.sqrt(norm));
+    for (int i = 0; i < dimensions; i++) {
+      vector[i] *= scale;
+    }
+    return vector;
+  }
+
+  private static void add(float[] vector, long hash, float weight) {
+    int dimension = (int) Long.remainderUnsigned(hash >>> 1, vector.length);
+    vector[dimension] += (hash & 1) == 0 ? weight : -weight;
+  }
+
+  /**
+   * 64-bit FNV-1a over the characters, finished with the SplitMix64 mixer.
+   */
+  private static long hash(String feature) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < feature.length(); i++) {
+      hash = (hash ^ feature.charAt(i)) * 0x100000001b3L;
+    }
+    hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+    return hash ^ (hash >>> 31);
+  }
+}
@@ -0,0 +1,50 @@
+package academy.aicode.spring_ai.fake;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Replaces the OpenAI chat and embedding models with local stand-ins when
+ * the {@code fake} profile is active, so every endpoint can be exercised and
+ * load-tested offline. {@code application-fake.properties} switches off the
+ * OpenAI auto-configuration and selects an in-process vector store.
+ */
+@Configuration
+@Profile("fake")
+@EnableConfigurationProperties(FakeModelProperties.class)
+public class FakeModelConfiguration {
+
+  private static final Logger log = LoggerFactory.getLogger(FakeModelConfiguration.class);
+
+  @Bean
+  public ChatModel fakeChatModel(FakeModelProperties properties, ObjectProvider<ToolCallingManager> toolCallingManager) {
+    var chat = properties.getChat();
+    log.info("Using fake chat model (p50={}, p99={}, errorRate={})", chat.getLatency().getP50(),
+        chat.getLatency().getP99(), chat.getErrorRate());
+    return new FakeChatModel(chat, latency(chat.getLatency(), chat.getErrorRate()),
+        toolCallingManager.getIfAvailable(() -> ToolCallingManager.builder().build()));
+  }
+
+  @Bean
+  public EmbeddingModel fakeEmbeddingModel(FakeModelProperties properties) {
+    var embedding = properties.getEmbedding();
+    log.info("Using fake embedding model (dimensions={}, p50={}, p99={}, errorRate={})", embedding.getDimensions(),
+        embedding.getLatency().getP50(), embedding.getLatency().getP99(), embedding.getErrorRate());
+    return new FakeEmbeddingModel(embedding.getDimensions(),
+        latency(embedding.getLatency(), embedding.getErrorRate()));
+  }
+
+  private static LatencyProfile latency(FakeModelProperties.Latency latency, double errorRate) {
+    return new LatencyProfile(latency.getP50(), latency.getP99(), errorRate, ThreadLocalRandom::current);
+  }
+}
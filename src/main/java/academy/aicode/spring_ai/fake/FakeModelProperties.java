@@ -0,0 +1,177 @@
+package academy.aicode.spring_ai.fake;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the stand-in chat and embedding models of the {@code fake}
+ * profile.
+ */
+@ConfigurationProperties(prefix = "astrobiblia.fake")
+public class FakeModelProperties {
+
+  private final Chat chat = new Chat();
+
+  private final Embedding embedding = new Embedding();
+
+  public Chat getChat() {
+    return chat;
+  }
+
+  public Embedding getEmbedding() {
+    return embedding;
+  }
+
+  /**
+   * Log-normal latency given by its median and 99th percentile; equal values
+   * give a fixed latency.
+   */
+  public static class Latency {
+    /** Median latency. */
+    private Duration p50;
+
+    /** 99th percentile latency. */
+    private Duration p99;
+
+    public Latency(Duration p50, Duration p99) {
+      this.p50 = p50;
+      this.p99 = p99;
+    }
+
+    public Duration getP50() {
+      return p50;
+    }
+
+    public void setP50(Duration p50) {
+      this.p50 = p50;
+    }
+
+    public Duration getP99() {
+      return p99;
+    }
+
+    public void setP99(Duration p99) {
+      this.p99 = p99;
+    }
+  }
+
+  public static class Chat {
+    /** Latency of a call, or until the first token of a stream. */
+    private final Latency latency = new Latency(Duration.ofMillis(800), Duration.ofMillis(3000));
+
+    /** Pause between streamed chunks. */
+    private Duration tokenInterval = Duration.ofMillis(20);
+
+    /** Fraction (0..1) of calls failing with a transient error. */
+    private double errorRate;
+
+    /** Answer template; {prompt} is the last user message, {context} the last tool result. */
+    private String template = "Respuesta simulada a «{prompt}». {context}";
+
+    /** Filler words appended to each templated answer, picked from the prompt hash. */
+    private int answerWords = 80;
+
+    /** Canned answers, used when the last user message contains the key (case-insensitive). */
+    private Map<String, String> responses = new LinkedHashMap<>();
+
+    /** JSON arguments per tool name; {prompt} is replaced by the last user message. */
+    private Map<String, String> toolArguments = new LinkedHashMap<>();
+
+    /** Results returned instead of executing a tool, per tool name. */
+    private Map<String, String> toolResults = new LinkedHashMap<>();
+
+    public Latency getLatency() {
+      return latency;
+    }
+
+    public Duration getTokenInterval() {
+      return tokenInterval;
+    }
+
+    public void setTokenInterval(Duration tokenInterval) {
+      this.tokenInterval = tokenInterval;
+    }
+
+    public double getErrorRate() {
+      return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+      this.errorRate = errorRate;
+    }
+
+    public String getTemplate() {
+      return template;
+    }
+
+    public void setTemplate(String template) {
+      this.template = template;
+    }
+
+    public int getAnswerWords() {
+      return answerWords;
+    }
+
+    public void setAnswerWords(int answerWords) {
+      this.answerWords = answerWords;
+    }
+
+    public Map<String, String> getResponses() {
+      return responses;
+    }
+
+    public void setResponses(Map<String, String> responses) {
+      this.responses = responses;
+    }
+
+    public Map<String, String> getToolArguments() {
+      return toolArguments;
+    }
+
+    public void setToolArguments(Map<String, String> toolArguments) {
+      this.toolArguments = toolArguments;
+    }
+
+    public Map<String, String> getToolResults() {
+      return toolResults;
+    }
+
+    public void setToolResults(Map<String, String> toolResults) {
+      this.toolResults = toolResults;
+    }
+  }
+
+  public static class Embedding {
+    /** Latency of a call, whatever the number of texts. */
+    private final Latency latency = new Latency(Duration.ofMillis(150), Duration.ofMillis(600));
+
+    /** Fraction (0..1) of calls failing with a transient error. */
+    private double errorRate;
+
+    /** Vector dimensions; 1536 matches text-embedding-3-small. */
+    private int dimensions = 1536;
+
+    public Latency getLatency() {
+      return latency;
+    }
+
+    public double getErrorRate() {
+      return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+      this.errorRate = errorRate;
+    }
+
+    public int getDimensions() {
+      return dimensions;
+    }
+
+    public void setDimensions(int dimensions) {
+      this.dimensions = dimensions;
+    }
+  }
+}
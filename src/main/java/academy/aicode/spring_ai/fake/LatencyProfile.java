@@ -0,0 +1,78 @@
+package academy.aicode.spring_ai.fake;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+import org.springframework.ai.retry.TransientAiException;
+
+/**
+ * Simulated latency and failures of a remote model call.
+ *
+ * - Latency is log-normal, the usual shape of service response times: its
+ * median is {@code p50} and {@code sigma = ln(p99 / p50) / z(0.99)}, so
+ * {@code p99} is hit by 1% of the calls; samples are capped at ten times
+ * {@code p99}
+ * - A fraction {@code errorRate} of the calls fails with a
+ * {@link TransientAiException}, the type the OpenAI client uses for
+ * retryable errors such as 429 and 5xx
+ */
+final class LatencyProfile {
+
+  private static final double Z_99 = 2.326347874;
+
+  private final long medianNanos;
+  private final double sigma;
+  private final long capNanos;
+  private final double errorRate;
+  private final Supplier<? extends RandomGenerator> random;
+
+  /**
+   * @param random source of randomness for the calling thread, e.g.
+   *               {@code ThreadLocalRandom::current}
+   */
+  LatencyProfile(Duration p50, Duration p99, double errorRate, Supplier<? extends RandomGenerator> random) {
+    Objects.requireNonNull(p50, "p50 must not be null");
+    Objects.requireNonNull(p99, "p99 must not be null");
+    if (p50.isNegative() || p99.compareTo(p50) < 0) {
+      throw new IllegalArgumentException("latency must satisfy 0 <= p50 <= p99");
+    }
+    if (errorRate < 0 || errorRate > 1) {
+      throw new IllegalArgumentException("errorRate must be between 0 and 1");
+    }
+    this.medianNanos = p50.toNanos();
+    this.sigma = p50.isZero() ? 0 : Math.log((double) p99.toNanos() / p50.toNanos()) / Z_99;
+    this.capNanos = p99.toNanos() * 10;
+    this.errorRate = errorRate;
+    this.random = Objects.requireNonNull(random, "random must not be null");
+  }
+
+  /**
+   * @return one latency sample
+   */
+  Duration sample() {
+    if (sigma == 0) {
+      return Duration.ofNanos(medianNanos);
+    }
+    double nanos = medianNanos * Math.exp(sigma * random.get().nextGaussian());
+    return Duration.ofNanos((long) Math.min(nanos, capNanos));
+  }
+
+  /**
+   * Sleep for one latency sample, then fail at the configured rate.
+   *
+   * @param operation name used in the simulated error message
+   */
+  void await(String operation) {
+    try {
+      Thread.sleep(sample());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TransientAiException("simulated " + operation + " interrupted");
+    }
+    if (errorRate > 0 && random.get().nextDouble() < errorRate) {
+      throw new TransientAiException("simulated " + operation + " failure");
+    }
+  }
+}
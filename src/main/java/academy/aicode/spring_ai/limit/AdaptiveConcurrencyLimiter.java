@@ -0,0 +1,445 @@
+package academy.aicode.spring_ai.limit;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Bounds the concurrent calls sent to a model provider and adapts the bound
+ * to the latency it observes (AIMD).
+ *
+ * - Additive increase: a call finishing within {@code latency-tolerance}
+ * times the baseline latency, while at least half of the limit was in use,
+ * raises the limit by {@code 1 / limit} (about one per round of calls)
+ * - Multiplicative decrease: a slower call or a {@code TransientAiException}
+ * (429, 5xx) multiplies the limit by {@code backoff-ratio}, at most once per
+ * baseline latency so one burst of failures does not collapse it
+ * - The baseline is a slow moving average of call latency, so it follows
+ * lasting changes of the provider but not short spikes
+ * - Calls over the limit wait in a FIFO queue per {@link CallPriority};
+ * freed permits go to interactive calls first, and bulk calls never hold
+ * more than {@code bulk-share} of the limit
+ * - A call that cannot queue (lane full) or waits longer than the lane's
+ * {@code max-wait} fails with {@link ConcurrencyLimitExceededException}
+ * - {@link #acquire} blocks the calling thread while queued;
+ * {@link #acquireAsync} queues without holding a thread, for streams
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+  private static final double BASELINE_SMOOTHING = 0.02;
+
+  private final String name;
+  private final ConcurrencyLimitProperties settings;
+  private final LongSupplier nanoTime;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<CallPriority, ArrayDeque<Waiter>> queues = new EnumMap<>(CallPriority.class);
+  private final Map<CallPriority, Integer> inFlightByLane = new EnumMap<>(CallPriority.class);
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private final MeterRegistry registry;
+
+  private double limit;
+  private int inFlight;
+  private double baselineNanos;
+  private long lastDecreaseNanos;
+
+  /**
+   * @param name     limiter name, used in logs and as the {@code limiter} tag
+   * @param settings limits, AIMD parameters and lane queues
+   * @param registry meter registry for the limit, in-flight and queue metrics
+   */
+  public AdaptiveConcurrencyLimiter(String name, ConcurrencyLimitProperties settings, MeterRegistry registry) {
+    this(name, settings, registry, System::nanoTime);
+  }
+
+  AdaptiveConcurrencyLimiter(String name, ConcurrencyLimitProperties settings, MeterRegistry registry,
+      LongSupplier nanoTime) {
+    this.name = Objects.requireNonNull(name, "name must not be null");
+    this.settings = Objects.requireNonNull(settings, "settings must not be null");
+    this.registry = Objects.requireNonNull(registry, "registry must not be null");
+    this.nanoTime = Objects.requireNonNull(nanoTime, "nanoTime must not be null");
+    if (settings.getMinLimit() < 1 || settings.getMaxLimit() < settings.getMinLimit()) {
+      throw new IllegalArgumentException("limits must satisfy 1 <= min-limit <= max-limit");
+    }
+    if (settings.getBackoffRatio() <= 0 || settings.getBackoffRatio() >= 1) {
+      throw new IllegalArgumentException("backoff-ratio must be between 0 and 1 (exclusive)");
+    }
+    if (settings.getBulkShare() <= 0 || settings.getBulkShare() > 1) {
+      throw new IllegalArgumentException("bulk-share must be in (0, 1]");
+    }
+    this.limit = Math.clamp(settings.getInitialLimit(), settings.getMinLimit(), settings.getMaxLimit());
+    for (var priority : CallPriority.values()) {
+      queues.put(priority, new ArrayDeque<>());
+      inFlightByLane.put(priority, 0);
+      Gauge.builder("astrobiblia.llm.limiter.queued", this, limiter -> limiter.queued(priority))
+          .tag("limiter", name).tag("lane", lane(priority))
+          .description("Calls waiting for a permit")
+          .register(registry);
+    }
+    Gauge.builder("astrobiblia.llm.limiter.limit", this, AdaptiveConcurrencyLimiter::limit)
+        .tag("limiter", name)
+        .description("Current adaptive concurrency limit")
+        .register(registry);
+    Gauge.builder("astrobiblia.llm.limiter.in-flight", this, AdaptiveConcurrencyLimiter::inFlight)
+        .tag("limiter", name)
+        .description("Calls holding a permit")
+        .register(registry);
+    log.info("Concurrency limiter '{}' initialized (limit={}, min={}, max={}, bulkShare={})", name, (int) limit,
+        settings.getMinLimit(), settings.getMaxLimit(), settings.getBulkShare());
+  }
+
+  /**
+   * Wait for a permit in the lane of {@code priority}.
+   *
+   * @return the permit, to be released exactly once through one of its
+   *         methods
+   * @throws ConcurrencyLimitExceededException when the lane queue is full or
+   *                                           the wait exceeds its max-wait
+   */
+  public Permit acquire(CallPriority priority) {
+    Objects.requireNonNull(priority, "priority must not be null");
+    var lane = settings.lane(priority);
+    lock.lock();
+    try {
+      if (queues.get(priority).isEmpty() && !blockedByHigherPriority(priority) && canStart(priority)) {
+        count(priority, "immediate");
+        return start(priority);
+      }
+      if (queues.get(priority).size() >= lane.getMaxQueue()) {
+        count(priority, "rejected");
+        throw new ConcurrencyLimitExceededException(name, "queue full", retryAfter());
+      }
+      var waiter = new Waiter(lock.newCondition());
+      queues.get(priority).addLast(waiter);
+      long remaining = lane.getMaxWait().toNanos();
+      try {
+        while (waiter.permit == null) {
+          if (remaining <= 0) {
+            queues.get(priority).remove(waiter);
+            count(priority, "expired");
+            throw new ConcurrencyLimitExceededException(name, "no permit within " + lane.getMaxWait(),
+                retryAfter());
+          }
+          remaining = waiter.granted.awaitNanos(remaining);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        if (waiter.permit != null) {
+          waiter.permit.ignore();
+        } else {
+          queues.get(priority).remove(waiter);
+        }
+        throw new ConcurrencyLimitExceededException(name, "interrupted while waiting", retryAfter());
+      }
+      count(priority, "queued");
+      return waiter.permit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Non-blocking {@link #acquire}: emits the permit once granted, without
+   * holding a thread while the call waits in its lane. A queued request is
+   * granted on the thread releasing the permit it takes over. Cancelling
+   * the subscription leaves the queue, or releases a permit granted in the
+   * meantime.
+   *
+   * @return the permit, to be released exactly once through one of its
+   *         methods; fails with {@link ConcurrencyLimitExceededException}
+   *         when the lane queue is full or the wait exceeds its max-wait
+   */
+  public Mono<Permit> acquireAsync(CallPriority priority) {
+    Objects.requireNonNull(priority, "priority must not be null");
+    return Mono.create(sink -> {
+      var lane = settings.lane(priority);
+      var waiter = new Waiter(sink);
+      sink.onCancel(() -> abandon(priority, waiter));
+      ConcurrencyLimitExceededException rejected = null;
+      lock.lock();
+      try {
+        if (waiter.cancelled) {
+          return;
+        }
+        if (queues.get(priority).isEmpty() && !blockedByHigherPriority(priority) && canStart(priority)) {
+          count(priority, "immediate");
+          waiter.permit = start(priority);
+        } else if (queues.get(priority).size() >= lane.getMaxQueue()) {
+          count(priority, "rejected");
+          rejected = new ConcurrencyLimitExceededException(name, "queue full", retryAfter());
+        } else {
+          queues.get(priority).addLast(waiter);
+        }
+      } finally {
+        lock.unlock();
+      }
+      if (waiter.permit != null) {
+        sink.success(waiter.permit);
+      } else if (rejected != null) {
+        sink.error(rejected);
+      } else {
+        sink.onDispose(Schedulers.parallel().schedule(() -> expire(priority, waiter),
+            lane.getMaxWait().toNanos(), TimeUnit.NANOSECONDS));
+      }
+    });
+  }
+
+  /**
+   * @return current limit, rounded down
+   */
+  public int limit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return calls currently holding a permit
+   */
+  public int inFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return calls of the lane waiting for a permit
+   */
+  public int queued(CallPriority priority) {
+    lock.lock();
+    try {
+      return queues.get(priority).size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean blockedByHigherPriority(CallPriority priority) {
+    return priority == CallPriority.BULK && !queues.get(CallPriority.INTERACTIVE).isEmpty();
+  }
+
+  private boolean canStart(CallPriority priority) {
+    int permits = Math.max(1, (int) limit);
+    if (inFlight >= permits) {
+      return false;
+    }
+    if (priority == CallPriority.BULK) {
+      int bulkPermits = Math.max(1, (int) (permits * settings.getBulkShare()));
+      return inFlightByLane.get(CallPriority.BULK) < bulkPermits;
+    }
+    return true;
+  }
+
+  private Permit start(CallPriority priority) {
+    inFlight++;
+    inFlightByLane.merge(priority, 1, Integer::sum);
+    return new Permit(priority, nanoTime.getAsLong(), inFlight);
+  }
+
+  // hands freed permits to waiting calls, interactive lane first; returns the
+  // asynchronous waiters granted, to be completed once the lock is released
+  private List<Waiter> dispatch() {
+    var granted = new ArrayList<Waiter>();
+    for (var priority : CallPriority.values()) {
+      var queue = queues.get(priority);
+      while (!queue.isEmpty() && canStart(priority)) {
+        var waiter = queue.pollFirst();
+        waiter.permit = start(priority);
+        if (waiter.sink == null) {
+          waiter.granted.signal();
+        } else {
+          count(priority, "queued");
+          granted.add(waiter);
+        }
+      }
+      if (!queue.isEmpty()) {
+        break;
+      }
+    }
+    return granted;
+  }
+
+  private void expire(CallPriority priority, Waiter waiter) {
+    ConcurrencyLimitExceededException expired = null;
+    lock.lock();
+    try {
+      if (waiter.permit == null && queues.get(priority).remove(waiter)) {
+        count(priority, "expired");
+        expired = new ConcurrencyLimitExceededException(name,
+            "no permit within " + settings.lane(priority).getMaxWait(), retryAfter());
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (expired != null) {
+      waiter.sink.error(expired);
+    }
+  }
+
+  private void abandon(CallPriority priority, Waiter waiter) {
+    Permit granted;
+    lock.lock();
+    try {
+      waiter.cancelled = true;
+      granted = waiter.permit;
+      if (granted == null) {
+        queues.get(priority).remove(waiter);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (granted != null) {
+      granted.ignore();
+    }
+  }
+
+  private void release(Permit permit, Outcome outcome) {
+    List<Waiter> granted;
+    lock.lock();
+    try {
+      inFlight--;
+      inFlightByLane.merge(permit.priority, -1, Integer::sum);
+      long now = nanoTime.getAsLong();
+      long latency = now - permit.startNanos;
+      switch (outcome) {
+        case SUCCESS -> onSample(latency, permit.inFlightAtStart, now);
+        case OVERLOAD -> decrease(now, "provider overload");
+        case IGNORE -> {
+        }
+      }
+      granted = dispatch();
+    } finally {
+      lock.unlock();
+    }
+    granted.forEach(waiter -> waiter.sink.success(waiter.permit));
+  }
+
+  private void onSample(long latency, int inFlightAtStart, long now) {
+    if (baselineNanos == 0) {
+      baselineNanos = latency;
+    }
+    boolean slow = latency > baselineNanos * settings.getLatencyTolerance();
+    baselineNanos += BASELINE_SMOOTHING * (latency - baselineNanos);
+    if (slow) {
+      decrease(now, "latency " + TimeUnit.NANOSECONDS.toMillis(latency) + "ms");
+    } else if (inFlightAtStart * 2 >= limit && limit < settings.getMaxLimit()) {
+      limit = Math.min(settings.getMaxLimit(), limit + 1 / limit);
+    }
+  }
+
+  private void decrease(long now, String reason) {
+    if (lastDecreaseNanos != 0 && now - lastDecreaseNanos < baselineNanos) {
+      return;
+    }
+    lastDecreaseNanos = now;
+    double previous = limit;
+    limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+    if ((int) previous != (int) limit) {
+      log.info("Concurrency limiter '{}' lowered to {} ({})", name, (int) limit, reason);
+    }
+  }
+
+  private Duration retryAfter() {
+    return Duration.ofSeconds(Math.max(1, (long) Math.ceil(baselineNanos / 1e9)));
+  }
+
+  private void count(CallPriority priority, String result) {
+    counters.computeIfAbsent(lane(priority) + ':' + result, key -> Counter
+        .builder("astrobiblia.llm.limiter.requests")
+        .tag("limiter", name).tag("lane", lane(priority)).tag("result", result)
+        .description("Permit requests by lane and result (immediate, queued, rejected, expired)")
+        .register(registry)).increment();
+  }
+
+  private static String lane(CallPriority priority) {
+    return priority.name().toLowerCase(Locale.ROOT);
+  }
+
+  private enum Outcome {
+    SUCCESS, OVERLOAD, IGNORE
+  }
+
+  // a blocked thread (granted) or an asynchronous subscriber (sink)
+  private static final class Waiter {
+    private final Condition granted;
+    private final MonoSink<Permit> sink;
+    private Permit permit;
+    private boolean cancelled;
+
+    Waiter(Condition granted) {
+      this.granted = granted;
+      this.sink = null;
+    }
+
+    Waiter(MonoSink<Permit> sink) {
+      this.granted = null;
+      this.sink = sink;
+    }
+  }
+
+  /**
+   * Right to make one call. Release it once: {@link #success()} feeds the
+   * latency into the limit, {@link #overload()} lowers it and
+   * {@link #ignore()} just frees the slot (e.g. for unrelated errors or
+   * streams, whose duration depends on the answer length). Further calls are
+   * no-ops.
+   */
+  public final class Permit {
+    private final CallPriority priority;
+    private final long startNanos;
+    private final int inFlightAtStart;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(CallPriority priority, long startNanos, int inFlightAtStart) {
+      this.priority = priority;
+      this.startNanos = startNanos;
+      this.inFlightAtStart = inFlightAtStart;
+    }
+
+    public void success() {
+      release(Outcome.SUCCESS);
+    }
+
+    public void overload() {
+      release(Outcome.OVERLOAD);
+    }
+
+    public void ignore() {
+      release(Outcome.IGNORE);
+    }
+
+    private void release(Outcome outcome) {
+      if (released.compareAndSet(false, true)) {
+        AdaptiveConcurrencyLimiter.this.release(this, outcome);
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package academy.aicode.spring_ai.limit;
+
+/**
+ * Lane of an outbound model call. Calls are {@link #INTERACTIVE} unless the
+ * current thread runs inside a {@link #BULK} scope:
+ *
+ * <pre>
+ * CallPriority.BULK.run(() -> vectorStore.add(documents));
+ * </pre>
+ *
+ * The scope is per thread; work handed to other threads must enter its own.
+ */
+public enum CallPriority {
+  /** Requests a user is waiting for; served first. */
+  INTERACTIVE,
+  /** Ingestion, migration and other background embedding work. */
+  BULK;
+
+  private static final ThreadLocal<CallPriority> CURRENT = new ThreadLocal<>();
+
+  /**
+   * @return the priority of calls made by the current thread
+   */
+  public static CallPriority current() {
+    var priority = CURRENT.get();
+    return priority == null ? INTERACTIVE : priority;
+  }
+
+  /**
+   * Run {@code task} on the current thread with this priority.
+   */
+  public void run(Runnable task) {
+    var scope = enter();
+    try {
+      task.run();
+    } finally {
+      scope.close();
+    }
+  }
+
+  /**
+   * Run {@code task} on the current thread with this priority.
+   *
+   * @return the result of the task
+   * @throws E the exception thrown by the task
+   */
+  public <T, E extends Exception> T call(Task<T, E> task) throws E {
+    var scope = enter();
+    try {
+      return task.call();
+    } finally {
+      scope.close();
+    }
+  }
+
+  /**
+   * Make calls of the current thread use this priority until the returned
+   * scope is closed, which restores the previous one. Prefer {@link #run} or
+   * {@link #call} when the scope covers one block.
+   */
+  public Scope enter() {
+    var previous = CURRENT.get();
+    CURRENT.set(this);
+    return () -> {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    };
+  }
+
+  /** Priority scope opened by {@link CallPriority#enter()}. */
+  @FunctionalInterface
+  public interface Scope extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  /** Work run by {@link CallPriority#call}, which may throw {@code E}. */
+  @FunctionalInterface
+  public interface Task<T, E extends Exception> {
+    T call() throws E;
+  }
+}
@@ -0,0 +1,82 @@
+package academy.aicode.spring_ai.limit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Wraps every {@link ChatModel} and {@link EmbeddingModel} bean so that all
+ * outbound model calls go through an {@link AdaptiveConcurrencyLimiter}: one
+ * for chat and one for embeddings, since their latencies differ by an order
+ * of magnitude. The post-processor runs before the embedding cache one, so
+ * the cache sits in front of the limiter and hits never wait for a permit.
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "astrobiblia.llm.limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfiguration {
+
+  private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitConfiguration.class);
+
+  @Bean
+  public AdaptiveConcurrencyLimiter chatConcurrencyLimiter(ConcurrencyLimitProperties properties,
+      MeterRegistry registry) {
+    return new AdaptiveConcurrencyLimiter("chat", properties, registry);
+  }
+
+  @Bean
+  public AdaptiveConcurrencyLimiter embeddingConcurrencyLimiter(ConcurrencyLimitProperties properties,
+      MeterRegistry registry) {
+    return new AdaptiveConcurrencyLimiter("embedding", properties, registry);
+  }
+
+  // static so the post-processor is registered before the model beans
+  @Bean
+  public static BeanPostProcessor limitedModelPostProcessor(
+      @Qualifier("chatConcurrencyLimiter") ObjectProvider<AdaptiveConcurrencyLimiter> chatLimiter,
+      @Qualifier("embeddingConcurrencyLimiter") ObjectProvider<AdaptiveConcurrencyLimiter> embeddingLimiter) {
+    return new LimitedModelPostProcessor(chatLimiter, embeddingLimiter);
+  }
+
+  private static final class LimitedModelPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<AdaptiveConcurrencyLimiter> chatLimiter;
+    private final ObjectProvider<AdaptiveConcurrencyLimiter> embeddingLimiter;
+
+    private LimitedModelPostProcessor(ObjectProvider<AdaptiveConcurrencyLimiter> chatLimiter,
+        ObjectProvider<AdaptiveConcurrencyLimiter> embeddingLimiter) {
+      this.chatLimiter = chatLimiter;
+      this.embeddingLimiter = embeddingLimiter;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+      if (bean instanceof ChatModel model && !(bean instanceof LimitedChatModel)) {
+        log.debug("Decorating ChatModel bean '{}' with concurrency limiter", beanName);
+        return new LimitedChatModel(model, chatLimiter.getObject());
+      }
+      if (bean instanceof EmbeddingModel model && !(bean instanceof LimitedEmbeddingModel)) {
+        log.debug("Decorating EmbeddingModel bean '{}' with concurrency limiter", beanName);
+        return new LimitedEmbeddingModel(model, embeddingLimiter.getObject());
+      }
+      return bean;
+    }
+
+    // ordered post-processors run before plain ones such as the embedding cache
+    @Override
+    public int getOrder() {
+      return Ordered.HIGHEST_PRECEDENCE;
+    }
+  }
+}
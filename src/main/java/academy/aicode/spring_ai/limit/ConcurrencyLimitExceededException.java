@@ -0,0 +1,27 @@
+package academy.aicode.spring_ai.limit;
+
+import java.time.Duration;
+
+import org.springframework.ai.retry.TransientAiException;
+
+/**
+ * Thrown when a model call gets no permit from an
+ * {@link AdaptiveConcurrencyLimiter}: its lane queue is full or the wait
+ * exceeded the lane's max-wait. Transient by nature; carries a hint of how
+ * long the caller should wait before retrying.
+ */
+public class ConcurrencyLimitExceededException extends TransientAiException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient Duration retryAfter;
+
+  public ConcurrencyLimitExceededException(String limiter, String reason, Duration retryAfter) {
+    super("too many concurrent " + limiter + " calls (" + reason + "); retry after " + retryAfter.toSeconds() + "s");
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
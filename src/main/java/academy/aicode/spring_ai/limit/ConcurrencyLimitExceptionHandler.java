@@ -0,0 +1,29 @@
+package academy.aicode.spring_ai.limit;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers calls rejected by a concurrency limiter with 503 and a Retry-After
+ * header, whichever controller made the model call.
+ */
+@RestControllerAdvice
+public class ConcurrencyLimitExceptionHandler {
+
+  private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitExceptionHandler.class);
+
+  @ExceptionHandler(ConcurrencyLimitExceededException.class)
+  public ResponseEntity<Map<String, Object>> handle(ConcurrencyLimitExceededException e) {
+    log.warn("Rejected model call: {}", e.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+        .body(Map.of("error", e.getMessage(), "retryAfterSeconds", e.getRetryAfter().toSeconds()));
+  }
+}
@@ -0,0 +1,142 @@
+package academy.aicode.spring_ai.limit;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the adaptive concurrency limiters placed in front of the chat
+ * and embedding models. Each model gets its own limiter with these settings.
+ */
+@ConfigurationProperties(prefix = "astrobiblia.llm.limiter")
+public class ConcurrencyLimitProperties {
+  /** Whether outbound model calls are limited at all. */
+  private boolean enabled = true;
+
+  /** Concurrent calls allowed before any latency has been observed. */
+  private int initialLimit = 8;
+
+  /** Lower bound of the adaptive limit. */
+  private int minLimit = 1;
+
+  /** Upper bound of the adaptive limit. */
+  private int maxLimit = 64;
+
+  /** Latency above this multiple of the baseline counts as overload. */
+  private double latencyTolerance = 2.0;
+
+  /** Factor applied to the limit on overload (multiplicative decrease). */
+  private double backoffRatio = 0.9;
+
+  /** Fraction of the limit that bulk calls may occupy, so interactive calls keep headroom. */
+  private double bulkShare = 0.5;
+
+  /** Queue of interactive calls. */
+  private final Lane interactive = new Lane(200, Duration.ofSeconds(10));
+
+  /** Queue of bulk calls. */
+  private final Lane bulk = new Lane(1000, Duration.ofMinutes(2));
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getInitialLimit() {
+    return initialLimit;
+  }
+
+  public void setInitialLimit(int initialLimit) {
+    this.initialLimit = initialLimit;
+  }
+
+  public int getMinLimit() {
+    return minLimit;
+  }
+
+  public void setMinLimit(int minLimit) {
+    this.minLimit = minLimit;
+  }
+
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  public void setMaxLimit(int maxLimit) {
+    this.maxLimit = maxLimit;
+  }
+
+  public double getLatencyTolerance() {
+    return latencyTolerance;
+  }
+
+  public void setLatencyTolerance(double latencyTolerance) {
+    this.latencyTolerance = latencyTolerance;
+  }
+
+  public double getBackoffRatio() {
+    return backoffRatio;
+  }
+
+  public void setBackoffRatio(double backoffRatio) {
+    this.backoffRatio = backoffRatio;
+  }
+
+  public double getBulkShare() {
+    return bulkShare;
+  }
+
+  public void setBulkShare(double bulkShare) {
+    this.bulkShare = bulkShare;
+  }
+
+  public Lane getInteractive() {
+    return interactive;
+  }
+
+  public Lane getBulk() {
+    return bulk;
+  }
+
+  /**
+   * @return the queue settings of the given lane
+   */
+  public Lane lane(CallPriority priority) {
+    return priority == CallPriority.BULK ? bulk : interactive;
+  }
+
+  /**
+   * Waiting room of one priority lane.
+   */
+  public static class Lane {
+    /** Calls that may wait for a permit; more are rejected at once. */
+    private int maxQueue;
+
+    /** Longest wait for a permit before the call is rejected. */
+    private Duration maxWait;
+
+    public Lane(int maxQueue, Duration maxWait) {
+      this.maxQueue = maxQueue;
+      this.maxWait = maxWait;
+    }
+
+    public int getMaxQueue() {
+      return maxQueue;
+    }
+
+    public void setMaxQueue(int maxQueue) {
+      this.maxQueue = maxQueue;
+    }
+
+    public Duration getMaxWait() {
+      return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+      this.maxWait = maxWait;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package academy.aicode.spring_ai.limit;
+
+import java.util.Objects;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.retry.TransientAiException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ChatModel} decorator that takes a permit from an
+ * {@link AdaptiveConcurrencyLimiter} for every call, in the lane of the
+ * caller's {@link CallPriority}.
+ *
+ * - {@code call}: the latency feeds the limit; transient errors lower it
+ * - {@code stream}: the permit is requested when the stream is subscribed,
+ * without blocking a thread while it waits in the queue, and released when
+ * the stream completes, fails or is cancelled; stream duration depends on
+ * the answer length, so it does not feed the limit
+ * - Tool calls resolved inside the model run under the same permit
+ */
+public class LimitedChatModel implements ChatModel {
+
+  private final ChatModel delegate;
+  private final AdaptiveConcurrencyLimiter limiter;
+
+  public LimitedChatModel(ChatModel delegate, AdaptiveConcurrencyLimiter limiter) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+    this.limiter = Objects.requireNonNull(limiter, "limiter must not be null");
+  }
+
+  @Override
+  public ChatResponse call(Prompt prompt) {
+    var permit = limiter.acquire(CallPriority.current());
+    try {
+      var response = delegate.call(prompt);
+      permit.success();
+      return response;
+    } catch (TransientAiException e) {
+      permit.overload();
+      throw e;
+    } finally {
+      permit.ignore();
+    }
+  }
+
+  @Override
+  public Flux<ChatResponse> stream(Prompt prompt) {
+    var priority = CallPriority.current();
+    return Flux.usingWhen(limiter.acquireAsync(priority),
+        permit -> delegate.stream(prompt).doOnError(TransientAiException.class, e -> permit.overload()),
+        permit -> Mono.fromRunnable(permit::ignore));
+  }
+
+  @Override
+  public ChatOptions getDefaultOptions() {
+    return delegate.getDefaultOptions();
+  }
+}
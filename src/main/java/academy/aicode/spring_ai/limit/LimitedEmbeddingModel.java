@@ -0,0 +1,61 @@
+package academy.aicode.spring_ai.limit;
+
+import java.util.Objects;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.retry.TransientAiException;
+
+/**
+ * {@link EmbeddingModel} decorator that takes a permit from an
+ * {@link AdaptiveConcurrencyLimiter} for every request, in the lane of the
+ * caller's {@link CallPriority}. Placed under the embedding cache, so only
+ * cache misses reach it.
+ */
+public class LimitedEmbeddingModel implements EmbeddingModel {
+
+  private final EmbeddingModel delegate;
+  private final AdaptiveConcurrencyLimiter limiter;
+
+  public LimitedEmbeddingModel(EmbeddingModel delegate, AdaptiveConcurrencyLimiter limiter) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+    this.limiter = Objects.requireNonNull(limiter, "limiter must not be null");
+  }
+
+  @Override
+  public EmbeddingResponse call(EmbeddingRequest request) {
+    var permit = limiter.acquire(CallPriority.current());
+    try {
+      var response = delegate.call(request);
+      permit.success();
+      return response;
+    } catch (TransientAiException e) {
+      permit.overload();
+      throw e;
+    } finally {
+      permit.ignore();
+    }
+  }
+
+  @Override
+  public float[] embed(Document document) {
+    var permit = limiter.acquire(CallPriority.current());
+    try {
+      var vector = delegate.embed(document);
+      permit.success();
+      return vector;
+    } catch (TransientAiException e) {
+      permit.overload();
+      throw e;
+    } finally {
+      permit.ignore();
+    }
+  }
+
+  @Override
+  public int dimensions() {
+    return delegate.dimensions();
+  }
+}
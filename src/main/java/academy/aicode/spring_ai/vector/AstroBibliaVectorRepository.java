@@ -1,28 +1,104 @@
 package academy.aicode.spring_ai.vector;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Access to the active vector store.
+ *
+ * The active store can be replaced at runtime by {@link #switchTo}, e.g. when
+ * an embedding model migration completes. While a migration is running,
+ * writes are also mirrored to its shadow store ({@link #mirrorWritesTo}) and
+ * reads keep going to the active store.
+ */
 @Repository
 public class AstroBibliaVectorRepository {
 
   private static final Logger log = LoggerFactory.getLogger(AstroBibliaVectorRepository.class);
 
-  private final VectorStore vectorStore;
+  private volatile VectorStore vectorStore;
+  private volatile VectorStore mirror;
+  private final VectorStore activeStoreView = new ActiveVectorStore();
+  // writes share the read lock; a switch takes the write lock so no write
+  // lands on the old store after the mirror has been dropped
+  private final ReadWriteLock switchLock = new ReentrantReadWriteLock();
 
+  /**
+   * @return a view that always delegates to the active store, so components
+   *         holding it (e.g. advisors) follow a switch
+   */
   public VectorStore getVectorStore() {
-    return this.vectorStore;
+    return this.activeStoreView;
   }
 
   public AstroBibliaVectorRepository(VectorStore vectorStore) {
     this.vectorStore = Objects.requireNonNull(vectorStore, "vectorStore must not be null");
+    log.info("AstroBibliaVectorRepository initialized with vector store '{}'", vectorStore.getName());
+  }
+
+  /**
+   * @return the store currently serving reads and writes
+   */
+  public VectorStore getActiveStore() {
+    return vectorStore;
+  }
+
+  /**
+   * Also send every write to the given store, or stop mirroring with null.
+   */
+  public void mirrorWritesTo(VectorStore shadow) {
+    switchLock.writeLock().lock();
+    try {
+      this.mirror = shadow;
+    } finally {
+      switchLock.writeLock().unlock();
+    }
+    log.info("Mirroring vector store writes to {}", shadow == null ? "nothing" : "'" + shadow.getName() + "'");
+  }
+
+  /**
+   * Make the given store the active one and stop mirroring. Searches started
+   * before the switch finish on the previous store.
+   */
+  public void switchTo(VectorStore next) {
+    switchTo(next, () -> true);
+  }
+
+  /**
+   * Switch only if {@code ready} still holds once in-flight writes have
+   * drained, e.g. no mirrored write to {@code next} has failed.
+   *
+   * @return true if the store was switched
+   */
+  public boolean switchTo(VectorStore next, BooleanSupplier ready) {
+    Objects.requireNonNull(next, "next must not be null");
+    VectorStore previous;
+    switchLock.writeLock().lock();
+    try {
+      if (!ready.getAsBoolean()) {
+        return false;
+      }
+      previous = this.vectorStore;
+      this.vectorStore = next;
+      this.mirror = null;
+    } finally {
+      switchLock.writeLock().unlock();
+    }
+    log.info("Switched vector store from '{}' to '{}'", previous.getName(), next.getName());
+    return true;
   }
 
   /**
@@ -39,7 +115,7 @@ public class AstroBibliaVectorRepository {
       return;
     }
     log.debug("Adding {} documents to vector store", docs.size());
-    vectorStore.add(docs);
+    activeStoreView.add(docs);
   }
 
   /**
@@ -57,4 +133,73 @@ public class AstroBibliaVectorRepository {
     log.debug("Search returned {} documents", results == null ? 0 : results.size());
     return results;
   }
+
+  /**
+   * @param ids document ids
+   * @return embeddings the active store keeps for those ids, or an empty map
+   *         when it does not expose them (e.g. MongoDB Atlas)
+   */
+  public Map<String, float[]> findEmbeddings(Collection<String> ids) {
+    Objects.requireNonNull(ids, "ids must not be null");
+    return vectorStore instanceof PageableVectorStore pageable ? pageable.findEmbeddings(ids) : Map.of();
+  }
+
+  /**
+   * Delegates reads to the active store and writes to both the active store
+   * and the mirror.
+   */
+  private final class ActiveVectorStore implements VectorStore {
+
+    @Override
+    public String getName() {
+      return vectorStore.getName();
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+      switchLock.readLock().lock();
+      try {
+        vectorStore.add(documents);
+        var shadow = mirror;
+        if (shadow != null) {
+          shadow.add(documents);
+        }
+      } finally {
+        switchLock.readLock().unlock();
+      }
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+      switchLock.readLock().lock();
+      try {
+        vectorStore.delete(idList);
+        var shadow = mirror;
+        if (shadow != null) {
+          shadow.delete(idList);
+        }
+      } finally {
+        switchLock.readLock().unlock();
+      }
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+      switchLock.readLock().lock();
+      try {
+        vectorStore.delete(filterExpression);
+        var shadow = mirror;
+        if (shadow != null) {
+          shadow.delete(filterExpression);
+        }
+      } finally {
+        switchLock.readLock().unlock();
+      }
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+      return vectorStore.similaritySearch(request);
+    }
+  }
 }
@@ -1,10 +1,16 @@
 package academy.aicode.spring_ai.vector;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,57 +23,131 @@ public class AstroBibliaVectorService {
 
   private static final Logger log = LoggerFactory.getLogger(AstroBibliaVectorService.class);
 
-  // Keep MAX_TOKENS visible and documented for workshop attendees.
-  private static final int MAX_TOKENS = (int) (8192 * 0.80);
+  /** Metadata keys added to every chunk of a document that had to be split. */
+  public static final String PARENT_ID_KEY = "parent_id";
+  public static final String CHUNK_INDEX_KEY = "chunk_index";
+  public static final String CHUNK_COUNT_KEY = "chunk_count";
 
-  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  // Rank offset of reciprocal rank fusion; 60 is the value from the original RRF paper
+  private static final int RRF_K = 60;
+  // Candidates fetched from each retriever per requested hybrid result
+  private static final int HYBRID_CANDIDATE_FACTOR = 3;
 
   private final AstroBibliaVectorRepository vectorRepository;
+  private final DocumentChunker chunker;
+  private final SearchResultCache searchCache;
+  private final Bm25Index lexicalIndex;
+  private final DuplicateDetector duplicateDetector;
 
   public VectorStore getVectorStore() {
     return this.vectorRepository.getVectorStore();
   }
 
-  public AstroBibliaVectorService(AstroBibliaVectorRepository vectorRepository) {
+  public AstroBibliaVectorService(AstroBibliaVectorRepository vectorRepository, DocumentChunker chunker,
+      SearchResultCache searchCache, Bm25Index lexicalIndex, DuplicateDetector duplicateDetector) {
     this.vectorRepository = Objects.requireNonNull(vectorRepository, "vectorRepository must not be null");
+    this.chunker = Objects.requireNonNull(chunker, "chunker must not be null");
+    this.searchCache = Objects.requireNonNull(searchCache, "searchCache must not be null");
+    this.lexicalIndex = Objects.requireNonNull(lexicalIndex, "lexicalIndex must not be null");
+    this.duplicateDetector = Objects.requireNonNull(duplicateDetector, "duplicateDetector must not be null");
   }
 
   /**
-   * Validate and add documents to the backing vector store.
+   * Validate, chunk and add documents to the backing vector store.
    *
    * - Filters out null/empty content
-   * - Guards against overly long documents (by token/word count)
+   * - Splits documents longer than the chunk budget into overlapping chunks
+   * tagged with {@value #PARENT_ID_KEY}, {@value #CHUNK_INDEX_KEY} and
+   * {@value #CHUNK_COUNT_KEY}; documents are chunked in parallel
+   * - Drops chunks that duplicate or nearly duplicate already ingested text
+   * (see {@link DuplicateDetector}) before they are embedded
+   * - Invalidates cached search results once the store has been written
+   * - Indexes the stored chunks in the BM25 index used by hybrid search
    *
    * @param documents list of DTOs containing content + metadata
-   * @return list of successfully added Document instances (empty if none)
+   * @return list of successfully added Document instances, one per chunk
+   *         (empty if none)
    */
   public List<Document> addDocuments(List<DocumentRequest> documents) {
+    return ingest(documents).added();
+  }
+
+  /**
+   * Same as {@link #addDocuments} but also reports how many chunks were
+   * skipped as duplicates.
+   *
+   * @param documents list of DTOs containing content + metadata
+   * @return stored documents and number of duplicates skipped
+   */
+  public IngestResult ingest(List<DocumentRequest> documents) {
     if (documents == null || documents.isEmpty()) {
       log.debug("addDocuments: no documents provided");
-      return Collections.emptyList();
+      return IngestResult.EMPTY;
     }
-    var docs = documents.stream()
+    var docs = documents.parallelStream()
         .filter(Objects::nonNull)
         .filter(req -> req.getContent() != null && !req.getContent().trim().isEmpty())
-        .filter(req -> {
-          int wordCount = WHITESPACE.split(req.getContent().trim()).length;
-          if (wordCount > MAX_TOKENS) {
-            log.warn("Skipping document (too many tokens): {} tokens (max {})", wordCount, MAX_TOKENS);
-            return false;
-          }
-          return true;
-        })
-        .map(req -> new Document(req.getContent(), req.getMetadata()))
-        .collect(Collectors.toList());
+        .flatMap(req -> toDocuments(req).stream())
+        .toList();
 
     if (docs.isEmpty()) {
       log.debug("addDocuments: no valid documents after filtering");
-      return Collections.emptyList();
+      return IngestResult.EMPTY;
+    }
+
+    var unique = duplicateDetector.claim(docs);
+    int duplicates = docs.size() - unique.size();
+    if (unique.isEmpty()) {
+      log.info("Skipped {} duplicate documents; nothing to add", duplicates);
+      return new IngestResult(List.of(), duplicates);
+    }
+    try {
+      vectorRepository.addDocuments(unique);
+    } catch (RuntimeException e) {
+      duplicateDetector.release(unique);
+      throw e;
+    } finally {
+      // also on failure: the store may have accepted part of the batch
+      searchCache.invalidate();
+    }
+    lexicalIndex.add(unique);
+    log.info("Added {} documents to vector store ({} duplicates skipped)", unique.size(), duplicates);
+    return new IngestResult(unique, duplicates);
+  }
+
+  private List<Document> toDocuments(DocumentRequest request) {
+    var chunks = chunker.split(request.getContent());
+    if (chunks.size() == 1) {
+      return List.of(new Document(request.getContent(), copyMetadata(request.getMetadata())));
+    }
+    var parentId = UUID.randomUUID().toString();
+    log.debug("Splitting document into {} chunks of up to {} tokens (parent {})", chunks.size(),
+        chunker.getMaxTokens(), parentId);
+    var result = new ArrayList<Document>(chunks.size());
+    for (int i = 0; i < chunks.size(); i++) {
+      var metadata = copyMetadata(request.getMetadata());
+      metadata.put(PARENT_ID_KEY, parentId);
+      metadata.put(CHUNK_INDEX_KEY, i);
+      metadata.put(CHUNK_COUNT_KEY, chunks.size());
+      result.add(new Document(chunks.get(i), metadata));
     }
+    return result;
+  }
+
+  private static Map<String, Object> copyMetadata(Map<String, Object> metadata) {
+    return metadata == null ? new HashMap<>() : new HashMap<>(metadata);
+  }
 
-    vectorRepository.addDocuments(docs);
-    log.info("Added {} documents to vector store", docs.size());
-    return docs;
+  /**
+   * Stored embeddings of the given documents, read from the active store
+   * without calling the embedding model.
+   *
+   * @param ids document ids
+   * @return embeddings by document id; empty when the store does not expose
+   *         them
+   */
+  public Map<String, float[]> findEmbeddings(Collection<String> ids) {
+    return vectorRepository.findEmbeddings(ids);
   }
 
   /**
@@ -82,6 +162,8 @@ public class AstroBibliaVectorService {
 
   /**
    * Perform semantic search with explicit similarityThreshold and topK.
+   * Repeated searches are served from {@link SearchResultCache} until the TTL
+   * expires or new documents are added.
    *
    * @param prompt              the search query; if null/blank returns empty list
    * @param similarityThreshold min similarity score [0..1]
@@ -89,18 +171,98 @@ public class AstroBibliaVectorService {
    * @return list of matching documents
    */
   public List<Document> searchDocuments(String prompt, double similarityThreshold, int topK) {
+    return searchDocuments(prompt, similarityThreshold, topK, null);
+  }
+
+  /**
+   * Perform semantic search restricted to documents whose metadata matches a
+   * filter expression, e.g. {@code source == 'wiki' && length > 100}. The
+   * in-process stores resolve the filter to a candidate set before scoring;
+   * MongoDB Atlas needs the fields declared in
+   * {@code spring.ai.vectorstore.mongodb.metadata-fields-to-filter}.
+   *
+   * @param prompt              the search query; if null/blank returns empty list
+   * @param similarityThreshold min similarity score [0..1]
+   * @param topK                number of top results to return
+   * @param filterExpression    Spring AI filter expression; null or blank for
+   *                            none
+   * @return list of matching documents
+   * @throws org.springframework.ai.vectorstore.filter.FilterExpressionTextParser.FilterExpressionParseException
+   *         when the filter cannot be parsed
+   */
+  public List<Document> searchDocuments(String prompt, double similarityThreshold, int topK,
+      String filterExpression) {
     if (prompt == null || prompt.trim().isEmpty()) {
       log.debug("searchDocuments called with empty prompt");
       return Collections.emptyList();
     }
+    var key = SearchResultCache.keyOf(prompt, similarityThreshold, topK, filterExpression);
+    var cached = searchCache.get(key);
+    if (cached != null) {
+      log.info("searchDocuments: prompt='{}' -> {} hits (cached)", prompt, cached.size());
+      return cached;
+    }
+    long version = searchCache.version();
     var searchRequest = org.springframework.ai.vectorstore.SearchRequest.builder()
         .query(prompt)
         .similarityThreshold(similarityThreshold)
         .topK(topK)
+        .filterExpression(key.filterExpression())
         .build();
     var results = vectorRepository.semanticSearchByContent(searchRequest);
-    log.info("searchDocuments: prompt='{}' -> {} hits", prompt, results == null ? 0 : results.size());
+    if (results == null) {
+      results = Collections.emptyList();
+    }
+    searchCache.put(key, version, results);
+    log.info("searchDocuments: prompt='{}' -> {} hits", prompt, results.size());
     return results;
   }
 
+  /**
+   * Hybrid search: BM25 over the lexical index and semantic search over the
+   * vector store run in parallel, and their rankings are merged with
+   * reciprocal rank fusion ({@code score = sum of 1 / (60 + rank)}).
+   *
+   * Exact names such as "Nostromo" or "3I/ATLAS" are found lexically even
+   * when their embedding similarity is below the threshold. The lexical index
+   * only covers documents ingested since startup.
+   *
+   * @param prompt              the search query; if null/blank returns empty list
+   * @param similarityThreshold min similarity score [0..1] for semantic hits
+   * @param topK                number of fused results to return
+   * @return fused documents, best first, with the RRF score set
+   */
+  public List<Document> searchHybrid(String prompt, double similarityThreshold, int topK) {
+    if (prompt == null || prompt.trim().isEmpty()) {
+      log.debug("searchHybrid called with empty prompt");
+      return Collections.emptyList();
+    }
+    int candidates = topK * HYBRID_CANDIDATE_FACTOR;
+    var lexical = CompletableFuture.supplyAsync(() -> lexicalIndex.search(prompt, candidates));
+    var semantic = searchDocuments(prompt, similarityThreshold, candidates);
+    var fused = fuse(List.of(semantic, lexical.join()), topK);
+    log.info("searchHybrid: prompt='{}' -> {} hits", prompt, fused.size());
+    return fused;
+  }
+
+  /**
+   * Reciprocal rank fusion of several rankings, keyed by document id.
+   */
+  static List<Document> fuse(List<List<Document>> rankings, int topK) {
+    var scores = new HashMap<String, Double>();
+    var documents = new LinkedHashMap<String, Document>();
+    for (var ranking : rankings) {
+      for (int rank = 0; rank < ranking.size(); rank++) {
+        var doc = ranking.get(rank);
+        scores.merge(doc.getId(), 1.0 / (RRF_K + rank + 1), Double::sum);
+        documents.putIfAbsent(doc.getId(), doc);
+      }
+    }
+    return documents.values().stream()
+        .sorted(Comparator.comparingDouble((Document d) -> scores.get(d.getId())).reversed())
+        .limit(topK)
+        .map(d -> d.mutate().score(scores.get(d.getId())).build())
+        .toList();
+  }
+
 }
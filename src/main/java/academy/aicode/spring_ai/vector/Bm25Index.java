@@ -0,0 +1,268 @@
+package academy.aicode.spring_ai.vector;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory inverted index ranking documents with Okapi BM25, used for the
+ * lexical half of hybrid search.
+ *
+ * - Text is lower-cased, stripped of accents and split on anything that is
+ * not a letter or digit, so "3I/ATLAS" matches "3i atlas" and "Orión" matches
+ * "orion"
+ * - Each term owns two growable int[] posting lists (document ordinals and
+ * term frequencies); only the term dictionary holds objects
+ * - Scores are accumulated in a float[] indexed by document ordinal
+ *
+ * Thread-safe: writes take a write lock, searches a read lock.
+ */
+@Component
+public class Bm25Index {
+
+  private static final Logger log = LoggerFactory.getLogger(Bm25Index.class);
+
+  // Standard Okapi BM25 parameters
+  private static final float K1 = 1.2f;
+  private static final float B = 0.75f;
+  private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+  private static final int INITIAL_POSTINGS = 4;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Integer> termIds = new HashMap<>();
+  private final Map<String, Integer> ordinalsById = new HashMap<>();
+  private int[][] postingDocs = new int[64][];
+  private int[][] postingFreqs = new int[64][];
+  private int[] postingSizes = new int[64];
+  private int[] docLengths = new int[64];
+  private final List<Document> documents = new ArrayList<>();
+  private long totalLength;
+  private int liveDocuments;
+
+  /**
+   * Split text into normalized terms.
+   */
+  public static List<String> tokenize(String text) {
+    if (text == null || text.isBlank()) {
+      return List.of();
+    }
+    var folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+    return Arrays.stream(NON_WORD.split(folded.toLowerCase(Locale.ROOT)))
+        .filter(term -> !term.isEmpty())
+        .toList();
+  }
+
+  /**
+   * Index documents by their text. A document whose id is already indexed
+   * replaces the previous version.
+   */
+  public void add(List<Document> docs) {
+    Objects.requireNonNull(docs, "docs must not be null");
+    lock.writeLock().lock();
+    try {
+      for (var doc : docs) {
+        addDocument(doc);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    log.debug("Indexed {} documents for lexical search ({} total)", docs.size(), size());
+  }
+
+  /**
+   * Rank documents sharing terms with the query.
+   *
+   * @param query free text
+   * @param topK  maximum number of results
+   * @return documents ordered by descending BM25 score, with the score set
+   */
+  public List<Document> search(String query, int topK) {
+    var terms = tokenize(query).stream().distinct().toList();
+    if (terms.isEmpty() || topK <= 0) {
+      return List.of();
+    }
+    lock.readLock().lock();
+    try {
+      int docCount = documents.size();
+      if (liveDocuments == 0) {
+        return List.of();
+      }
+      float averageLength = (float) totalLength / liveDocuments;
+      var scores = new float[docCount];
+      var touched = new int[Math.min(docCount, 1024)];
+      int touchedCount = 0;
+      for (var term : terms) {
+        var termId = termIds.get(term);
+        if (termId == null) {
+          continue;
+        }
+        int[] docs = postingDocs[termId];
+        int[] freqs = postingFreqs[termId];
+        int size = postingSizes[termId];
+        float idf = (float) Math.log(1 + (liveDocuments - size + 0.5) / (size + 0.5));
+        for (int i = 0; i < size; i++) {
+          int doc = docs[i];
+          if (documents.get(doc) == null) {
+            continue;
+          }
+          float tf = freqs[i];
+          float norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+          if (scores[doc] == 0) {
+            if (touchedCount == touched.length) {
+              touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = doc;
+          }
+          scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+        }
+      }
+      return top(scores, touched, touchedCount, topK);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return number of indexed documents
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return liveDocuments;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void addDocument(Document doc) {
+    var previous = ordinalsById.remove(doc.getId());
+    if (previous != null) {
+      // postings of the old version stay but are skipped once the slot is null
+      documents.set(previous, null);
+      totalLength -= docLengths[previous];
+      liveDocuments--;
+    }
+    int ordinal = documents.size();
+    documents.add(doc);
+    ordinalsById.put(doc.getId(), ordinal);
+    var terms = tokenize(doc.getText());
+    var frequencies = new HashMap<String, int[]>();
+    for (var term : terms) {
+      frequencies.computeIfAbsent(term, t -> new int[1])[0]++;
+    }
+    for (var entry : frequencies.entrySet()) {
+      addPosting(termId(entry.getKey()), ordinal, entry.getValue()[0]);
+    }
+    if (ordinal == docLengths.length) {
+      docLengths = Arrays.copyOf(docLengths, ordinal * 2);
+    }
+    docLengths[ordinal] = terms.size();
+    totalLength += terms.size();
+    liveDocuments++;
+  }
+
+  private int termId(String term) {
+    var id = termIds.get(term);
+    if (id != null) {
+      return id;
+    }
+    int next = termIds.size();
+    if (next == postingDocs.length) {
+      postingDocs = Arrays.copyOf(postingDocs, next * 2);
+      postingFreqs = Arrays.copyOf(postingFreqs, next * 2);
+      postingSizes = Arrays.copyOf(postingSizes, next * 2);
+    }
+    postingDocs[next] = new int[INITIAL_POSTINGS];
+    postingFreqs[next] = new int[INITIAL_POSTINGS];
+    termIds.put(term, next);
+    return next;
+  }
+
+  private void addPosting(int termId, int doc, int frequency) {
+    int size = postingSizes[termId];
+    if (size == postingDocs[termId].length) {
+      postingDocs[termId] = Arrays.copyOf(postingDocs[termId], size * 2);
+      postingFreqs[termId] = Arrays.copyOf(postingFreqs[termId], size * 2);
+    }
+    postingDocs[termId][size] = doc;
+    postingFreqs[termId][size] = frequency;
+    postingSizes[termId] = size + 1;
+  }
+
+  /**
+   * Select the k best touched documents with a bounded min-heap on ordinals.
+   */
+  private List<Document> top(float[] scores, int[] touched, int touchedCount, int k) {
+    int[] heap = new int[Math.min(k, touchedCount)];
+    int heapSize = 0;
+    for (int i = 0; i < touchedCount; i++) {
+      int doc = touched[i];
+      if (heapSize < heap.length) {
+        heap[heapSize] = doc;
+        siftUp(heap, heapSize++, scores);
+      } else if (scores[doc] > scores[heap[0]]) {
+        heap[0] = doc;
+        siftDown(heap, heapSize, scores);
+      }
+    }
+    var results = new Document[heapSize];
+    for (int i = heapSize - 1; i >= 0; i--) {
+      int doc = heap[0];
+      heap[0] = heap[i];
+      siftDown(heap, i, scores);
+      var original = documents.get(doc);
+      results[i] = original.mutate().score((double) scores[doc]).build();
+    }
+    return List.of(results);
+  }
+
+  private static void siftUp(int[] heap, int index, float[] scores) {
+    int doc = heap[index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (scores[heap[parent]] <= scores[doc]) {
+        break;
+      }
+      heap[index] = heap[parent];
+      index = parent;
+    }
+    heap[index] = doc;
+  }
+
+  private static void siftDown(int[] heap, int size, float[] scores) {
+    if (size == 0) {
+      return;
+    }
+    int doc = heap[0];
+    int index = 0;
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && scores[heap[child + 1]] < scores[heap[child]]) {
+        child++;
+      }
+      if (scores[heap[child]] >= scores[doc]) {
+        break;
+      }
+      heap[index] = heap[child];
+      index = child;
+    }
+    heap[index] = doc;
+  }
+}
@@ -0,0 +1,22 @@
+package academy.aicode.spring_ai.vector;
+
+import java.util.List;
+
+/**
+ * Progress report emitted after each bulk ingest batch.
+ *
+ * @param batch      1-based batch number
+ * @param firstLine  first NDJSON line covered by this batch
+ * @param lastLine   last NDJSON line covered by this batch
+ * @param received   documents parsed and sent to the store
+ * @param added      documents written to the store (one per chunk)
+ * @param skipped    documents without content
+ * @param duplicates chunks skipped as duplicates of already ingested text
+ * @param failed     malformed lines plus documents of a failed write
+ * @param errors     human-readable description of the failures, at most
+ *                   {@value BulkIngestService#MAX_ERRORS_PER_BATCH} plus a
+ *                   count of the ones not listed
+ */
+public record BulkIngestBatch(int batch, int firstLine, int lastLine, int received, int added, int skipped,
+    int duplicates, int failed, List<String> errors) {
+}
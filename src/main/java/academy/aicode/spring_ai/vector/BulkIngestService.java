@@ -0,0 +1,257 @@
+package academy.aicode.spring_ai.vector;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import academy.aicode.spring_ai.limit.CallPriority;
+
+/**
+ * Streams NDJSON {@link DocumentRequest} lines into the vector store in
+ * batches.
+ *
+ * - Only the current batch is held in memory; the source is read line by line
+ * - A batch is flushed when it reaches {@code batch-size} documents or when the
+ * next document would push it over {@code batch-max-tokens}; this estimate
+ * counts raw content, before chunking, so it only sizes the batch: the vector
+ * store's {@code BatchingStrategy} splits the resulting chunks so that no
+ * embedding request exceeds {@code batch-max-tokens}
+ * - Malformed or oversized lines and failed batches are reported and skipped;
+ * ingestion continues with the next line. Rejected lines also count towards
+ * {@code batch-size}, so a mostly invalid upload still reports progress, and
+ * each report lists at most {@value #MAX_ERRORS_PER_BATCH} messages
+ */
+@Service
+public class BulkIngestService {
+
+  private static final Logger log = LoggerFactory.getLogger(BulkIngestService.class);
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  static final int MAX_ERRORS_PER_BATCH = 20;
+
+  private final AstroBibliaVectorService vectorService;
+  private final TokenCountEstimator tokenCountEstimator = new JTokkitTokenCountEstimator();
+  private final int batchSize;
+  private final int batchMaxTokens;
+  private final int maxLineLength;
+
+  public BulkIngestService(AstroBibliaVectorService vectorService,
+      @Value("${astrobiblia.vector.ingest.batch-size:256}") int batchSize,
+      @Value("${astrobiblia.vector.ingest.batch-max-tokens:100000}") int batchMaxTokens,
+      @Value("${astrobiblia.vector.ingest.max-line-length:65536}") int maxLineLength) {
+    this.vectorService = Objects.requireNonNull(vectorService, "vectorService must not be null");
+    this.batchSize = batchSize;
+    this.batchMaxTokens = batchMaxTokens;
+    this.maxLineLength = maxLineLength;
+  }
+
+  /**
+   * Ingest every NDJSON line from {@code source}.
+   *
+   * @param source   NDJSON text, one DocumentRequest per line (blank lines
+   *                 ignored)
+   * @param listener notified after each batch is written
+   * @return totals for the whole upload
+   * @throws IOException if reading the source fails
+   */
+  public BulkIngestSummary ingest(Reader source, Consumer<BulkIngestBatch> listener) throws IOException {
+    Objects.requireNonNull(source, "source must not be null");
+    Objects.requireNonNull(listener, "listener must not be null");
+    // embedding calls of the upload queue behind interactive requests
+    return CallPriority.BULK.call(() -> ingestLines(source, listener));
+  }
+
+  private BulkIngestSummary ingestLines(Reader source, Consumer<BulkIngestBatch> listener) throws IOException {
+    var lines = new BoundedLineReader(source, maxLineLength);
+    var batch = new Batch();
+    var totals = new BulkIngestSummary.Builder();
+    String line;
+    while ((line = lines.next()) != null) {
+      int lineNumber = lines.lineNumber();
+      if (batch.firstLine == 0) {
+        batch.firstLine = lineNumber;
+      }
+      if (lines.truncated()) {
+        batch = reject(batch, "line " + lineNumber + ": longer than " + maxLineLength + " chars", lineNumber,
+            totals, listener);
+        continue;
+      }
+      if (line.isBlank()) {
+        continue;
+      }
+      DocumentRequest document;
+      try {
+        document = OBJECT_MAPPER.readValue(line, DocumentRequest.class);
+      } catch (JsonProcessingException e) {
+        batch = reject(batch, "line " + lineNumber + ": " + e.getOriginalMessage(), lineNumber, totals, listener);
+        continue;
+      }
+      int tokens = document.getContent() == null ? 0 : tokenCountEstimator.estimate(document.getContent());
+      if (!batch.documents.isEmpty()
+          && (batch.size() >= batchSize || batch.tokens + tokens > batchMaxTokens)) {
+        flush(batch, lineNumber - 1, totals, listener);
+        batch = new Batch();
+        batch.firstLine = lineNumber;
+      }
+      batch.documents.add(document);
+      batch.tokens += tokens;
+    }
+    if (!batch.documents.isEmpty() || batch.rejected > 0) {
+      flush(batch, lines.lineNumber(), totals, listener);
+    }
+    var summary = totals.lines(lines.lineNumber()).build();
+    log.info("Bulk ingest finished: {}", summary);
+    return summary;
+  }
+
+  /**
+   * Record a rejected line, flushing the batch once it covers
+   * {@code batch-size} lines.
+   *
+   * @return the batch to continue with
+   */
+  private Batch reject(Batch batch, String error, int lineNumber, BulkIngestSummary.Builder totals,
+      Consumer<BulkIngestBatch> listener) {
+    batch.rejected++;
+    batch.error(error);
+    if (batch.size() < batchSize) {
+      return batch;
+    }
+    flush(batch, lineNumber, totals, listener);
+    return new Batch();
+  }
+
+  private void flush(Batch batch, int lastLine, BulkIngestSummary.Builder totals,
+      Consumer<BulkIngestBatch> listener) {
+    int received = batch.documents.size();
+    int rejectedLines = batch.rejected;
+    var valid = batch.documents.stream().filter(BulkIngestService::hasContent).toList();
+    int skipped = received - valid.size();
+    int added = 0;
+    int duplicates = 0;
+    int failedDocuments = 0;
+    if (!valid.isEmpty()) {
+      try {
+        var result = vectorService.ingest(valid);
+        added = result.added().size();
+        duplicates = result.duplicates();
+      } catch (RuntimeException e) {
+        log.error("Bulk ingest batch {} failed: {}", totals.batches() + 1, e.getMessage());
+        batch.error("batch failed: " + e.getMessage());
+        failedDocuments = valid.size();
+      }
+    }
+    if (batch.omittedErrors > 0) {
+      batch.errors.add(batch.omittedErrors + " more errors not listed");
+    }
+    var report = new BulkIngestBatch(totals.batches() + 1, batch.firstLine, lastLine, received, added, skipped,
+        duplicates, rejectedLines + failedDocuments, List.copyOf(batch.errors));
+    totals.add(report);
+    log.debug("Bulk ingest progress: {}", report);
+    listener.accept(report);
+  }
+
+  private static boolean hasContent(DocumentRequest document) {
+    return document.getContent() != null && !document.getContent().isBlank();
+  }
+
+  /** Documents and errors accumulated for the batch being built. */
+  private static final class Batch {
+    private final List<DocumentRequest> documents = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+    private int rejected;
+    private int omittedErrors;
+    private int tokens;
+    private int firstLine;
+
+    /** Lines covered so far, valid or not (blank lines aside). */
+    int size() {
+      return documents.size() + rejected;
+    }
+
+    void error(String message) {
+      if (errors.size() < MAX_ERRORS_PER_BATCH) {
+        errors.add(message);
+      } else {
+        omittedErrors++;
+      }
+    }
+  }
+
+  /**
+   * Reads '\n'-terminated lines without ever buffering more than
+   * {@code maxLength} chars; longer lines are consumed and flagged as
+   * truncated.
+   */
+  private static final class BoundedLineReader {
+    private final Reader reader;
+    private final int maxLength;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder line = new StringBuilder();
+    private int position;
+    private int limit;
+    private int lineNumber;
+    private boolean truncated;
+
+    BoundedLineReader(Reader reader, int maxLength) {
+      this.reader = reader;
+      this.maxLength = maxLength;
+    }
+
+    String next() throws IOException {
+      line.setLength(0);
+      truncated = false;
+      boolean readAny = false;
+      while (true) {
+        if (position == limit) {
+          limit = reader.read(buffer, 0, buffer.length);
+          position = 0;
+          if (limit <= 0) {
+            limit = 0;
+            if (!readAny) {
+              return null;
+            }
+            break;
+          }
+        }
+        readAny = true;
+        char c = buffer[position++];
+        if (c == '\n') {
+          break;
+        }
+        if (line.length() < maxLength) {
+          line.append(c);
+        } else {
+          truncated = true;
+        }
+      }
+      lineNumber++;
+      int length = line.length();
+      if (length > 0 && line.charAt(length - 1) == '\r') {
+        line.setLength(length - 1);
+      }
+      return line.toString();
+    }
+
+    int lineNumber() {
+      return lineNumber;
+    }
+
+    boolean truncated() {
+      return truncated;
+    }
+  }
+}
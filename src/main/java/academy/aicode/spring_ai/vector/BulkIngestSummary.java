@@ -0,0 +1,50 @@
+package academy.aicode.spring_ai.vector;
+
+/**
+ * Totals for a whole bulk ingest upload.
+ *
+ * @param lines      NDJSON lines read
+ * @param batches    batches written
+ * @param received   documents parsed and sent to the store
+ * @param added      documents written to the store (one per chunk)
+ * @param skipped    documents without content
+ * @param duplicates chunks skipped as duplicates of already ingested text
+ * @param failed     malformed lines plus documents of failed writes
+ */
+public record BulkIngestSummary(int lines, int batches, int received, int added, int skipped, int duplicates,
+    int failed) {
+
+  /** Mutable accumulator used while the upload is being processed. */
+  static final class Builder {
+    private int lines;
+    private int batches;
+    private int received;
+    private int added;
+    private int skipped;
+    private int duplicates;
+    private int failed;
+
+    Builder add(BulkIngestBatch batch) {
+      batches++;
+      received += batch.received();
+      added += batch.added();
+      skipped += batch.skipped();
+      duplicates += batch.duplicates();
+      failed += batch.failed();
+      return this;
+    }
+
+    Builder lines(int lines) {
+      this.lines = lines;
+      return this;
+    }
+
+    int batches() {
+      return batches;
+    }
+
+    BulkIngestSummary build() {
+      return new BulkIngestSummary(lines, batches, received, added, skipped, duplicates, failed);
+    }
+  }
+}
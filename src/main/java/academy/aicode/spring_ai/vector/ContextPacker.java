@@ -0,0 +1,117 @@
+package academy.aicode.spring_ai.vector;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Fits retrieved documents into a token budget before they are put into a
+ * prompt.
+ *
+ * - Sentences already present in a better-ranked document are dropped;
+ * overlapping chunks of the same source repeat their boundary sentences
+ * - Documents are then added in rank order while they fit; a document that
+ * does not fit is trimmed to the whole sentences that do, or dropped
+ * - Tokens are counted with the same cl100k_base encoding used for chunking
+ * - Tokens received and sent are recorded per endpoint in
+ * {@code astrobiblia.rag.context.tokens}, tagged {@code stage=retrieved|sent}
+ */
+@Component
+public class ContextPacker {
+
+  private static final Logger log = LoggerFactory.getLogger(ContextPacker.class);
+
+  private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?…])\\s+");
+
+  private final DocumentChunker chunker;
+  private final MeterRegistry registry;
+
+  public ContextPacker(DocumentChunker chunker, MeterRegistry registry) {
+    this.chunker = Objects.requireNonNull(chunker, "chunker must not be null");
+    this.registry = Objects.requireNonNull(registry, "registry must not be null");
+  }
+
+  /**
+   * Pack documents into the budget.
+   *
+   * @param documents retrieved documents, best first
+   * @param maxTokens token budget for all document texts together
+   * @param endpoint  endpoint name used to tag the metrics
+   * @return packed documents and token counts
+   */
+  public Packed pack(List<Document> documents, int maxTokens, String endpoint) {
+    Objects.requireNonNull(documents, "documents must not be null");
+    var seen = new HashSet<String>();
+    var packed = new ArrayList<Document>(documents.size());
+    int retrieved = 0;
+    int sent = 0;
+    for (var document : documents) {
+      var text = document.getText() == null ? "" : document.getText();
+      retrieved += chunker.countTokens(text);
+      var kept = new StringBuilder();
+      int keptTokens = 0;
+      boolean changed = false;
+      for (var sentence : SENTENCE_END.split(text.strip())) {
+        var key = String.join(" ", Bm25Index.tokenize(sentence));
+        if (key.isEmpty() || !seen.add(key)) {
+          changed = true;
+          continue;
+        }
+        int tokens = chunker.countTokens(sentence);
+        if (sent + keptTokens + tokens > maxTokens) {
+          // cut the passage here; the sentence stays unseen for later documents
+          seen.remove(key);
+          changed = true;
+          break;
+        }
+        if (!kept.isEmpty()) {
+          kept.append(' ');
+        }
+        kept.append(sentence);
+        keptTokens += tokens;
+      }
+      if (kept.isEmpty()) {
+        continue;
+      }
+      sent += keptTokens;
+      packed.add(changed ? document.mutate().text(kept.toString()).build() : document);
+    }
+    record(endpoint, retrieved, sent);
+    log.debug("Packed {} of {} documents for {}: {} -> {} tokens (budget {})", packed.size(), documents.size(),
+        endpoint, retrieved, sent, maxTokens);
+    return new Packed(packed, retrieved, sent);
+  }
+
+  private void record(String endpoint, int retrieved, int sent) {
+    DistributionSummary.builder("astrobiblia.rag.context.tokens").tag("endpoint", endpoint)
+        .tag("stage", "retrieved").baseUnit("tokens").description("Tokens of the documents retrieved for a prompt")
+        .register(registry).record(retrieved);
+    DistributionSummary.builder("astrobiblia.rag.context.tokens").tag("endpoint", endpoint)
+        .tag("stage", "sent").baseUnit("tokens").description("Tokens of the documents put into a prompt")
+        .register(registry).record(sent);
+  }
+
+  /**
+   * Result of {@link #pack}.
+   *
+   * @param documents       documents to put into the prompt
+   * @param retrievedTokens tokens of the documents before packing
+   * @param sentTokens      tokens of the packed documents
+   */
+  public record Packed(List<Document> documents, int retrievedTokens, int sentTokens) {
+
+    public int savedTokens() {
+      return retrievedTokens - sentTokens;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package academy.aicode.spring_ai.vector;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+/**
+ * {@link VectorStore} view whose search results are packed into a token
+ * budget by {@link ContextPacker}. Each endpoint using a retrieval advisor
+ * wraps its store with its own budget. Writes go straight to the delegate.
+ */
+public class ContextPackingVectorStore implements VectorStore {
+
+  private static final Logger log = LoggerFactory.getLogger(ContextPackingVectorStore.class);
+
+  private final VectorStore delegate;
+  private final ContextPacker packer;
+  private final String endpoint;
+  private final int maxTokens;
+
+  /**
+   * @param endpoint  endpoint name used in logs and metrics
+   * @param maxTokens token budget for the documents of one search
+   */
+  public ContextPackingVectorStore(VectorStore delegate, ContextPacker packer, String endpoint, int maxTokens) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+    this.packer = Objects.requireNonNull(packer, "packer must not be null");
+    this.endpoint = Objects.requireNonNull(endpoint, "endpoint must not be null");
+    if (maxTokens < 1) {
+      throw new IllegalArgumentException("maxTokens must be >= 1");
+    }
+    this.maxTokens = maxTokens;
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public void add(List<Document> documents) {
+    delegate.add(documents);
+  }
+
+  @Override
+  public void delete(List<String> idList) {
+    delegate.delete(idList);
+  }
+
+  @Override
+  public void delete(Filter.Expression filterExpression) {
+    delegate.delete(filterExpression);
+  }
+
+  @Override
+  public List<Document> similaritySearch(SearchRequest request) {
+    var documents = delegate.similaritySearch(request);
+    if (documents == null || documents.isEmpty()) {
+      return List.of();
+    }
+    var packed = packer.pack(documents, maxTokens, endpoint);
+    log.info("{}: packed context {} -> {} tokens ({} saved, budget {})", endpoint, packed.retrievedTokens(),
+        packed.sentTokens(), packed.savedTokens(), maxTokens);
+    return packed.documents();
+  }
+
+  @Override
+  public <T> Optional<T> getNativeClient() {
+    return delegate.getNativeClient();
+  }
+}
@@ -0,0 +1,142 @@
+package academy.aicode.spring_ai.vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+
+/**
+ * Splits long text into overlapping chunks that fit a token budget.
+ *
+ * Tokens are counted with the cl100k_base encoding used by the OpenAI
+ * text-embedding-3 models. Text is cut at sentence boundaries when possible
+ * and at word boundaries for sentences that are longer than a whole chunk,
+ * so chunks never end in the middle of a word. The last sentences of each
+ * chunk (up to {@code overlap-tokens}) are repeated at the start of the next
+ * one to keep context across the cut.
+ *
+ * Thread-safe: the encoding is immutable and no state is kept between calls.
+ */
+@Component
+public class DocumentChunker {
+
+  private static final Pattern SENTENCE_BOUNDARY = Pattern.compile("(?<=[.!?…])\\s+|\\n\\s*\\n");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private final Encoding encoding = Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
+  private final int maxTokens;
+  private final int overlapTokens;
+
+  public DocumentChunker(@Value("${astrobiblia.vector.chunk.max-tokens:512}") int maxTokens,
+      @Value("${astrobiblia.vector.chunk.overlap-tokens:64}") int overlapTokens) {
+    if (maxTokens < 1) {
+      throw new IllegalArgumentException("maxTokens must be >= 1");
+    }
+    if (overlapTokens < 0 || overlapTokens >= maxTokens) {
+      throw new IllegalArgumentException("overlapTokens must be in [0, maxTokens)");
+    }
+    this.maxTokens = maxTokens;
+    this.overlapTokens = overlapTokens;
+  }
+
+  public int getMaxTokens() {
+    return maxTokens;
+  }
+
+  /**
+   * @return number of cl100k_base tokens in the text
+   */
+  public int countTokens(String text) {
+    return encoding.countTokensOrdinary(text);
+  }
+
+  /**
+   * Split the text into chunks of at most {@code max-tokens} tokens. Text that
+   * already fits is returned as a single chunk.
+   *
+   * @param text non-null text
+   * @return chunks in reading order (never empty for non-blank text)
+   */
+  public List<String> split(String text) {
+    if (countTokens(text) <= maxTokens) {
+      return List.of(text.strip());
+    }
+    var pieces = new ArrayList<String>();
+    var counts = new ArrayList<Integer>();
+    for (var sentence : SENTENCE_BOUNDARY.split(text.strip())) {
+      addPieces(sentence, pieces, counts);
+    }
+    return pack(pieces, counts);
+  }
+
+  /**
+   * Add a sentence as one piece, or as word-packed pieces when the sentence
+   * alone exceeds the budget.
+   */
+  private void addPieces(String sentence, List<String> pieces, List<Integer> counts) {
+    if (sentence.isBlank()) {
+      return;
+    }
+    int tokens = countTokens(sentence);
+    if (tokens <= maxTokens) {
+      pieces.add(sentence);
+      counts.add(tokens);
+      return;
+    }
+    var current = new StringBuilder();
+    int currentTokens = 0;
+    for (var word : WHITESPACE.split(sentence)) {
+      int wordTokens = countTokens(" " + word);
+      if (currentTokens + wordTokens > maxTokens && current.length() > 0) {
+        pieces.add(current.toString());
+        counts.add(currentTokens);
+        current.setLength(0);
+        currentTokens = 0;
+      }
+      if (current.length() > 0) {
+        current.append(' ');
+      }
+      current.append(word);
+      currentTokens += wordTokens;
+    }
+    if (current.length() > 0) {
+      pieces.add(current.toString());
+      counts.add(currentTokens);
+    }
+  }
+
+  /**
+   * Greedily pack pieces into chunks, carrying trailing pieces that fit in the
+   * overlap budget into the next chunk.
+   */
+  private List<String> pack(List<String> pieces, List<Integer> counts) {
+    var chunks = new ArrayList<String>();
+    int start = 0;
+    while (start < pieces.size()) {
+      int end = start;
+      int tokens = 0;
+      while (end < pieces.size() && (end == start || tokens + counts.get(end) <= maxTokens)) {
+        tokens += counts.get(end);
+        end++;
+      }
+      chunks.add(String.join(" ", pieces.subList(start, end)));
+      if (end == pieces.size()) {
+        break;
+      }
+      int next = end;
+      int overlap = 0;
+      while (next - 1 > start && overlap + counts.get(next - 1) <= overlapTokens) {
+        next--;
+        overlap += counts.get(next);
+      }
+      start = next;
+    }
+    return chunks;
+  }
+}
@@ -0,0 +1,263 @@
+package academy.aicode.spring_ai.vector;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Detects documents whose text was already ingested, so they are dropped
+ * before paying for an embedding call.
+ *
+ * - Exact duplicates: SHA-256 (first 64 bits) of the normalized text, i.e.
+ * the {@link Bm25Index#tokenize} terms joined by single spaces, so case,
+ * accents, punctuation and whitespace do not matter
+ * - Near duplicates: 64-bit SimHash over word 3-shingles; two texts are near
+ * duplicates when their signatures differ in at most {@code max-distance}
+ * bits
+ * - Signatures are split into {@code max-distance + 1} bands; by the
+ * pigeonhole principle two signatures within the distance share at least one
+ * band exactly, so only signatures in matching band buckets are compared
+ * - Signatures live in a growable long[]; content hashes and band buckets
+ * are keyed in {@link LongIntMap}s, buckets holding int[] slot lists
+ * - Texts without any term (only punctuation, symbols or emoji) are never
+ * treated as duplicates, since they would all share one hash
+ * - Skipped documents are counted in {@code astrobiblia.vector.ingest.duplicates}
+ *
+ * Like {@link Bm25Index}, only documents ingested since startup are known.
+ * Thread-safe: {@link #claim} and {@link #release} are synchronized so two
+ * concurrent ingests of the same text cannot both pass.
+ */
+@Component
+public class DuplicateDetector {
+
+  private static final Logger log = LoggerFactory.getLogger(DuplicateDetector.class);
+
+  private static final int SIGNATURE_BITS = 64;
+  private static final int SHINGLE_SIZE = 3;
+  private static final int MAX_DISTANCE_LIMIT = 7;
+
+  private final boolean enabled;
+  private final int maxDistance;
+  private final int[] bandShifts;
+  private final long[] bandMasks;
+  // content hash -> slot of the text that claimed it
+  private final LongIntMap contentHashes = new LongIntMap(256);
+  // band bucket key -> index into bucketSlots
+  private final LongIntMap bucketIndex = new LongIntMap(256);
+  private int[][] bucketSlots = new int[256][];
+  private int bucketCount;
+  private final BitSet released = new BitSet();
+  private long[] signatures = new long[256];
+  private int slots;
+
+  private final Counter exactDuplicates;
+  private final Counter nearDuplicates;
+
+  @Autowired
+  public DuplicateDetector(
+      @Value("${astrobiblia.vector.dedup.enabled:true}") boolean enabled,
+      @Value("${astrobiblia.vector.dedup.max-distance:3}") int maxDistance,
+      MeterRegistry registry) {
+    if (maxDistance < 0 || maxDistance > MAX_DISTANCE_LIMIT) {
+      throw new IllegalArgumentException("maxDistance must be between 0 and " + MAX_DISTANCE_LIMIT);
+    }
+    Objects.requireNonNull(registry, "registry must not be null");
+    this.enabled = enabled;
+    this.maxDistance = maxDistance;
+    int bands = maxDistance + 1;
+    this.bandShifts = new int[bands];
+    this.bandMasks = new long[bands];
+    int width = SIGNATURE_BITS / bands;
+    for (int band = 0; band < bands; band++) {
+      int bits = band == bands - 1 ? SIGNATURE_BITS - band * width : width;
+      bandShifts[band] = band * width;
+      bandMasks[band] = bits == SIGNATURE_BITS ? -1L : (1L << bits) - 1;
+    }
+    this.exactDuplicates = Counter.builder("astrobiblia.vector.ingest.duplicates").tag("kind", "exact")
+        .description("Ingested documents skipped as exact duplicates").register(registry);
+    this.nearDuplicates = Counter.builder("astrobiblia.vector.ingest.duplicates").tag("kind", "near")
+        .description("Ingested documents skipped as near duplicates").register(registry);
+    log.info("DuplicateDetector initialized (enabled={}, maxDistance={})", enabled, maxDistance);
+  }
+
+  /**
+   * Keep the documents whose text is new and remember them; documents
+   * duplicating an earlier one, in this batch or a previous claim, are
+   * dropped. Call {@link #release} with the result if the write fails.
+   *
+   * @return the documents to store, in order
+   */
+  public synchronized List<Document> claim(List<Document> documents) {
+    if (!enabled) {
+      return documents;
+    }
+    var accepted = new ArrayList<Document>(documents.size());
+    for (var document : documents) {
+      var terms = Bm25Index.tokenize(document.getText());
+      if (terms.isEmpty()) {
+        accepted.add(document);
+        continue;
+      }
+      long hash = contentHash(terms);
+      if (contentHashes.get(hash) != LongIntMap.ABSENT) {
+        exactDuplicates.increment();
+        continue;
+      }
+      long signature = simHash(terms);
+      if (maxDistance > 0 && hasNeighbor(signature)) {
+        nearDuplicates.increment();
+        log.debug("Skipping near duplicate document {}", document.getId());
+        continue;
+      }
+      contentHashes.put(hash, register(signature));
+      accepted.add(document);
+    }
+    return accepted;
+  }
+
+  /**
+   * Forget documents previously returned by {@link #claim} that were not
+   * stored after all, so a retry is not reported as a duplicate.
+   */
+  public synchronized void release(List<Document> documents) {
+    if (!enabled) {
+      return;
+    }
+    for (var document : documents) {
+      var terms = Bm25Index.tokenize(document.getText());
+      if (terms.isEmpty()) {
+        continue;
+      }
+      int slot = contentHashes.remove(contentHash(terms));
+      if (slot != LongIntMap.ABSENT) {
+        released.set(slot);
+      }
+    }
+  }
+
+  /**
+   * @return number of distinct texts remembered
+   */
+  public synchronized int size() {
+    return contentHashes.size();
+  }
+
+  static long simHash(List<String> terms) {
+    var counts = new int[SIGNATURE_BITS];
+    int shingles = Math.max(1, terms.size() - SHINGLE_SIZE + 1);
+    for (int i = 0; i < shingles; i++) {
+      long hash = shingleHash(terms, i, Math.min(terms.size(), i + SHINGLE_SIZE));
+      for (int bit = 0; bit < SIGNATURE_BITS; bit++) {
+        counts[bit] += ((hash >>> bit) & 1) == 1 ? 1 : -1;
+      }
+    }
+    long signature = 0;
+    for (int bit = 0; bit < SIGNATURE_BITS; bit++) {
+      if (counts[bit] > 0) {
+        signature |= 1L << bit;
+      }
+    }
+    return signature;
+  }
+
+  private boolean hasNeighbor(long signature) {
+    for (int band = 0; band < bandMasks.length; band++) {
+      int index = bucketIndex.get(bucketKey(band, signature));
+      if (index == LongIntMap.ABSENT) {
+        continue;
+      }
+      var bucket = bucketSlots[index];
+      for (int i = 1; i <= bucket[0]; i++) {
+        int slot = bucket[i];
+        if (!released.get(slot) && Long.bitCount(signatures[slot] ^ signature) <= maxDistance) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the slot holding the new signature
+   */
+  private int register(long signature) {
+    if (slots == signatures.length) {
+      signatures = Arrays.copyOf(signatures, slots * 2);
+    }
+    int slot = slots++;
+    signatures[slot] = signature;
+    if (maxDistance == 0) {
+      return slot;
+    }
+    for (int band = 0; band < bandMasks.length; band++) {
+      long key = bucketKey(band, signature);
+      int index = bucketIndex.get(key);
+      if (index == LongIntMap.ABSENT) {
+        if (bucketCount == bucketSlots.length) {
+          bucketSlots = Arrays.copyOf(bucketSlots, bucketCount * 2);
+        }
+        index = bucketCount++;
+        bucketSlots[index] = new int[4];
+        bucketIndex.put(key, index);
+      }
+      // bucket[0] holds the number of slots that follow
+      var bucket = bucketSlots[index];
+      if (bucket[0] == bucket.length - 1) {
+        bucket = bucketSlots[index] = Arrays.copyOf(bucket, bucket.length * 2);
+      }
+      bucket[++bucket[0]] = slot;
+    }
+    return slot;
+  }
+
+  private long bucketKey(int band, long signature) {
+    return ((long) band << 56) ^ ((signature >>> bandShifts[band]) & bandMasks[band]);
+  }
+
+  private static long contentHash(List<String> terms) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256")
+          .digest(String.join(" ", terms).getBytes(StandardCharsets.UTF_8));
+      long hash = 0;
+      for (int i = 0; i < Long.BYTES; i++) {
+        hash = (hash << 8) | (digest[i] & 0xff);
+      }
+      return hash;
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  /**
+   * 64-bit FNV-1a over the shingle's characters, finished with the
+   * SplitMix64 mixer so every output bit depends on every input bit.
+   */
+  private static long shingleHash(List<String> terms, int from, int to) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = from; i < to; i++) {
+      var term = terms.get(i);
+      for (int c = 0; c < term.length(); c++) {
+        hash = (hash ^ term.charAt(c)) * 0x100000001b3L;
+      }
+      hash = (hash ^ ' ') * 0x100000001b3L;
+    }
+    hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+    return hash ^ (hash >>> 31);
+  }
+}
@@ -0,0 +1,428 @@
+package academy.aicode.spring_ai.vector;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import academy.aicode.spring_ai.embedding.FixedModelEmbeddingModel;
+import academy.aicode.spring_ai.limit.CallPriority;
+
+/**
+ * Re-embeds every stored document with another embedding model in the
+ * background and switches the repository to the result once complete.
+ *
+ * - The active store is walked in pages of {@code batch-size} documents
+ * ({@link PageableVectorStore}); each page is written to a shadow store that
+ * embeds with the target model ({@link ShadowStoreFactory})
+ * - Pages are paced to {@code max-documents-per-second} so the migration does
+ * not starve interactive embedding calls of the provider's rate limit
+ * - Writes arriving during the migration are mirrored to the shadow store;
+ * reads are served by the active store until the switch
+ * - Pages skip documents the shadow store already holds unchanged, and
+ * documents missing from the active store are dropped from the shadow right
+ * before the switch, while writes are paused
+ * - Starting again with the same model after a failure resumes from the last
+ * page. Page cursors do not survive a restart (reloading renumbers the
+ * store), so after one the walk starts over; with a persistent shadow store
+ * the skip above means only the documents not copied yet are embedded, and
+ * a {@code checkpoint-file} keeps the progress count
+ *
+ * Only one migration runs at a time. Once it completes, a persistent shadow
+ * store is promoted ({@link ShadowStoreFactory#promote}) so restarts reopen it
+ * with the model it was embedded with; in-memory stores are lost on restart
+ * anyway, and documents ingested again use
+ * {@code spring.ai.openai.embedding.options.model}.
+ */
+@Service
+public class EmbeddingMigrationService {
+
+  private static final Logger log = LoggerFactory.getLogger(EmbeddingMigrationService.class);
+
+  /** Lifecycle of the current migration. */
+  public enum State {
+    IDLE, RUNNING, SUCCEEDED, FAILED
+  }
+
+  private final AstroBibliaVectorRepository repository;
+  private final EmbeddingModel embeddingModel;
+  private final ObjectProvider<ShadowStoreFactory> shadowStoreFactory;
+  private final SearchResultCache searchCache;
+  private final int batchSize;
+  private final double maxDocumentsPerSecond;
+  private final Path checkpointFile;
+  private final Executor executor;
+
+  private State state = State.IDLE;
+  private String model;
+  private VectorStore shadow;
+  private String cursor;
+  private long migrated;
+  // set from ingest threads inside the repository's write path, so no lock
+  private volatile boolean mirrorFailed;
+  private Instant startedAt;
+  private Instant finishedAt;
+  private String error;
+
+  @Autowired
+  public EmbeddingMigrationService(AstroBibliaVectorRepository repository, EmbeddingModel embeddingModel,
+      ObjectProvider<ShadowStoreFactory> shadowStoreFactory, SearchResultCache searchCache,
+      @Value("${astrobiblia.vector.migration.batch-size:64}") int batchSize,
+      @Value("${astrobiblia.vector.migration.max-documents-per-second:50}") double maxDocumentsPerSecond,
+      @Value("${astrobiblia.vector.migration.checkpoint-file:}") String checkpointFile) {
+    this(repository, embeddingModel, shadowStoreFactory, searchCache, batchSize, maxDocumentsPerSecond,
+        checkpointFile == null || checkpointFile.isBlank() ? null : Path.of(checkpointFile),
+        runnable -> Thread.ofVirtual().name("embedding-migration").start(runnable));
+  }
+
+  EmbeddingMigrationService(AstroBibliaVectorRepository repository, EmbeddingModel embeddingModel,
+      ObjectProvider<ShadowStoreFactory> shadowStoreFactory, SearchResultCache searchCache, int batchSize,
+      double maxDocumentsPerSecond, Path checkpointFile, Executor executor) {
+    this.repository = Objects.requireNonNull(repository, "repository must not be null");
+    this.embeddingModel = Objects.requireNonNull(embeddingModel, "embeddingModel must not be null");
+    this.shadowStoreFactory = Objects.requireNonNull(shadowStoreFactory, "shadowStoreFactory must not be null");
+    this.searchCache = Objects.requireNonNull(searchCache, "searchCache must not be null");
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be >= 1");
+    }
+    this.batchSize = batchSize;
+    this.maxDocumentsPerSecond = maxDocumentsPerSecond;
+    this.checkpointFile = checkpointFile;
+    this.executor = Objects.requireNonNull(executor, "executor must not be null");
+  }
+
+  /**
+   * Start migrating to the target model, or resume a failed migration to the
+   * same model.
+   *
+   * @param targetModel provider model name, e.g. {@code text-embedding-3-large}
+   * @return status right after starting
+   * @throws IllegalStateException         when a migration is already running
+   * @throws UnsupportedOperationException when the active store cannot be
+   *                                       walked or has no shadow factory
+   */
+  public synchronized Status start(String targetModel) {
+    if (targetModel == null || targetModel.isBlank()) {
+      throw new IllegalArgumentException("targetModel must not be empty");
+    }
+    if (state == State.RUNNING) {
+      throw new IllegalStateException("a migration to " + model + " is already running");
+    }
+    if (!(repository.getActiveStore() instanceof PageableVectorStore source)) {
+      throw new UnsupportedOperationException(
+          "vector store '" + repository.getActiveStore().getName() + "' cannot be walked for migration");
+    }
+    var factory = shadowStoreFactory.getIfAvailable();
+    if (factory == null) {
+      throw new UnsupportedOperationException("no shadow store available for '" + source.getName() + "'");
+    }
+    boolean resume = state == State.FAILED && targetModel.equals(model) && shadow != null && !mirrorFailed;
+    if (!resume) {
+      if (shadow != null) {
+        factory.discard(shadow);
+        shadow = null;
+      }
+      model = targetModel;
+      shadow = factory.create(new FixedModelEmbeddingModel(embeddingModel, targetModel), targetModel);
+      cursor = null;
+      migrated = 0;
+      if (factory.persistent()) {
+        restoreCheckpoint(targetModel);
+      }
+    }
+    mirrorFailed = false;
+    error = null;
+    finishedAt = null;
+    startedAt = Instant.now();
+    state = State.RUNNING;
+    repository.mirrorWritesTo(new MirroredStore(shadow));
+    log.info("{} embedding migration to {} from cursor {}", resume ? "Resuming" : "Starting", targetModel, cursor);
+    var target = shadow;
+    executor.execute(() -> run(source, target, factory));
+    return status();
+  }
+
+  public synchronized Status status() {
+    return new Status(state, model, migrated, cursor, startedAt, finishedAt, error);
+  }
+
+  private void run(PageableVectorStore source, VectorStore target, ShadowStoreFactory factory) {
+    // re-embedding calls wait behind interactive requests
+    CallPriority.BULK.run(() -> migrate(source, target, factory));
+  }
+
+  private void migrate(PageableVectorStore source, VectorStore target, ShadowStoreFactory factory) {
+    try {
+      String next;
+      synchronized (this) {
+        next = cursor;
+      }
+      do {
+        long start = System.nanoTime();
+        var page = source.page(next, batchSize);
+        var pending = notCopied(page.documents(), target);
+        if (!pending.isEmpty()) {
+          target.add(pending);
+        }
+        next = page.nextCursor();
+        if (mirrorFailed) {
+          throw new IllegalStateException("a mirrored write failed; the migration must start over");
+        }
+        synchronized (this) {
+          cursor = next;
+          migrated += pending.size();
+          saveCheckpoint();
+        }
+        pace(pending.size(), System.nanoTime() - start);
+      } while (next != null);
+
+      // runs inside the switch, once in-flight writes have drained and before new ones start
+      if (!repository.switchTo(target, () -> !mirrorFailed && dropDeleted(source, target))) {
+        throw new IllegalStateException("a mirrored write failed; the migration must start over");
+      }
+      searchCache.invalidate();
+      String promoteError = null;
+      try {
+        factory.promote(target, model);
+      } catch (RuntimeException e) {
+        promoteError = "migrated store is active but a restart will reopen the previous one: " + e.getMessage();
+        log.error("Embedding migration to {}: {}", model, promoteError);
+      }
+      synchronized (this) {
+        deleteCheckpoint();
+        state = State.SUCCEEDED;
+        finishedAt = Instant.now();
+        error = promoteError;
+        shadow = null;
+        if (factory.persistent()) {
+          log.info("Embedding migration to {} completed ({} documents); restarts reopen the migrated store",
+              model, migrated);
+        } else {
+          log.info("Embedding migration to {} completed ({} documents); set "
+              + "spring.ai.openai.embedding.options.model={} before ingesting again after a restart", model,
+              migrated, model);
+        }
+      }
+    } catch (RuntimeException | InterruptedException e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      repository.mirrorWritesTo(null);
+      synchronized (this) {
+        state = State.FAILED;
+        finishedAt = Instant.now();
+        error = e.getMessage();
+        log.error("Embedding migration to {} failed at cursor {}: {}", model, cursor, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * @return the documents of a page that the target does not already hold
+   *         with the same text and metadata, e.g. copied before a restart or
+   *         mirrored while the walk was running
+   */
+  private static List<Document> notCopied(List<Document> documents, VectorStore target) {
+    if (documents.isEmpty() || !(target instanceof PageableVectorStore copies)) {
+      return documents;
+    }
+    var copied = new HashMap<String, Document>();
+    copies.findByIds(documents.stream().map(Document::getId).toList())
+        .forEach(doc -> copied.put(doc.getId(), doc));
+    return documents.stream()
+        .filter(doc -> !sameContent(doc, copied.get(doc.getId())))
+        .toList();
+  }
+
+  private static boolean sameContent(Document document, Document copy) {
+    return copy != null && Objects.equals(document.getText(), copy.getText())
+        && Objects.equals(document.getMetadata(), copy.getMetadata());
+  }
+
+  /**
+   * Delete from the target every document the source no longer holds, e.g.
+   * deleted between a restart and the resumed migration, when no write was
+   * mirrored.
+   *
+   * @return true, so it can run as part of the switch condition
+   */
+  private boolean dropDeleted(PageableVectorStore source, VectorStore target) {
+    if (!(target instanceof PageableVectorStore copies)) {
+      return true;
+    }
+    var stale = new ArrayList<String>();
+    String next = null;
+    do {
+      var page = copies.page(next, batchSize);
+      var ids = page.documents().stream().map(Document::getId).toList();
+      var live = new HashSet<String>();
+      source.findByIds(ids).forEach(doc -> live.add(doc.getId()));
+      ids.stream().filter(id -> !live.contains(id)).forEach(stale::add);
+      next = page.nextCursor();
+    } while (next != null);
+    if (!stale.isEmpty()) {
+      target.delete(stale);
+      log.info("Embedding migration to {}: dropped {} documents deleted from the active store", model,
+          stale.size());
+    }
+    return true;
+  }
+
+  /**
+   * Sleep long enough that this page took at least
+   * {@code documents / maxDocumentsPerSecond} seconds.
+   */
+  private void pace(int documents, long elapsedNanos) throws InterruptedException {
+    if (maxDocumentsPerSecond <= 0 || documents == 0) {
+      return;
+    }
+    long minimumNanos = (long) (documents / maxDocumentsPerSecond * TimeUnit.SECONDS.toNanos(1));
+    if (minimumNanos > elapsedNanos) {
+      TimeUnit.NANOSECONDS.sleep(minimumNanos - elapsedNanos);
+    }
+  }
+
+  private void markMirrorFailed(RuntimeException e) {
+    mirrorFailed = true;
+    log.error("Mirrored write to a shadow store failed: {}", e.getMessage());
+  }
+
+  private void restoreCheckpoint(String targetModel) {
+    if (checkpointFile == null || !Files.isRegularFile(checkpointFile)) {
+      return;
+    }
+    var checkpoint = new Properties();
+    try (Reader reader = Files.newBufferedReader(checkpointFile)) {
+      checkpoint.load(reader);
+    } catch (IOException e) {
+      log.warn("Ignoring unreadable migration checkpoint {}: {}", checkpointFile, e.getMessage());
+      return;
+    }
+    if (targetModel.equals(checkpoint.getProperty("model"))) {
+      migrated = Long.parseLong(checkpoint.getProperty("migrated", "0"));
+    }
+  }
+
+  private void saveCheckpoint() {
+    if (checkpointFile == null) {
+      return;
+    }
+    var checkpoint = new Properties();
+    checkpoint.setProperty("model", model);
+    checkpoint.setProperty("migrated", String.valueOf(migrated));
+    try {
+      var directory = checkpointFile.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      var tmp = Files.createTempFile(directory, checkpointFile.getFileName().toString(), ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tmp)) {
+        checkpoint.store(writer, "embedding migration");
+      }
+      Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not write migration checkpoint " + checkpointFile, e);
+    }
+  }
+
+  private void deleteCheckpoint() {
+    if (checkpointFile == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(checkpointFile);
+    } catch (IOException e) {
+      log.warn("Could not delete migration checkpoint {}: {}", checkpointFile, e.getMessage());
+    }
+  }
+
+  /**
+   * Snapshot of the migration state.
+   *
+   * @param state      lifecycle state
+   * @param model      target embedding model
+   * @param migrated   documents copied by the page walk (mirrored writes not
+   *                   included)
+   * @param cursor     position of the next page
+   * @param startedAt  when the migration was last started or resumed
+   * @param finishedAt when it succeeded or failed
+   * @param error      failure message, or why a completed migration could not
+   *                   be recorded for restarts
+   */
+  public record Status(State state, String model, long migrated, String cursor, Instant startedAt,
+      Instant finishedAt, String error) {
+  }
+
+  /**
+   * Shadow store as seen by the repository mirror: a failed write must not
+   * fail the ingest, which already reached the active store, so it stops the
+   * migration instead.
+   */
+  private final class MirroredStore implements VectorStore {
+
+    private final VectorStore target;
+
+    MirroredStore(VectorStore target) {
+      this.target = target;
+    }
+
+    @Override
+    public String getName() {
+      return target.getName();
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+      try {
+        target.add(documents);
+      } catch (RuntimeException e) {
+        markMirrorFailed(e);
+      }
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+      try {
+        target.delete(idList);
+      } catch (RuntimeException e) {
+        markMirrorFailed(e);
+      }
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+      try {
+        target.delete(filterExpression);
+      } catch (RuntimeException e) {
+        markMirrorFailed(e);
+      }
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+      return target.similaritySearch(request);
+    }
+  }
+}
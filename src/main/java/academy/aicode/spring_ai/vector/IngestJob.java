@@ -0,0 +1,96 @@
+package academy.aicode.spring_ai.vector;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An ingest request accepted by {@link IngestJobQueue}. Status fields are
+ * updated by the worker thread and read by status requests, so they are
+ * volatile; the documents are released once the job finishes.
+ */
+public class IngestJob {
+
+  /** Lifecycle of a job. */
+  public enum Status {
+    QUEUED, RUNNING, SUCCEEDED, FAILED
+  }
+
+  private final String id = UUID.randomUUID().toString();
+  private final Instant submittedAt = Instant.now();
+  private final int documents;
+  private volatile List<DocumentRequest> requests;
+  private volatile Status status = Status.QUEUED;
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile int added;
+  private volatile int duplicates;
+  private volatile String error;
+
+  IngestJob(List<DocumentRequest> requests) {
+    this.requests = List.copyOf(requests);
+    this.documents = requests.size();
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public int getDocuments() {
+    return documents;
+  }
+
+  public int getAdded() {
+    return added;
+  }
+
+  public int getDuplicates() {
+    return duplicates;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public Instant getSubmittedAt() {
+    return submittedAt;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  List<DocumentRequest> requests() {
+    return requests;
+  }
+
+  void markRunning() {
+    startedAt = Instant.now();
+    status = Status.RUNNING;
+  }
+
+  void markSucceeded(int addedDocuments, int duplicateDocuments) {
+    added = addedDocuments;
+    duplicates = duplicateDocuments;
+    finish(Status.SUCCEEDED);
+  }
+
+  void markFailed(String message) {
+    error = message;
+    finish(Status.FAILED);
+  }
+
+  private void finish(Status finalStatus) {
+    finishedAt = Instant.now();
+    requests = null;
+    status = finalStatus;
+  }
+}
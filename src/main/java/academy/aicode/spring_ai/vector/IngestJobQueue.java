@@ -0,0 +1,166 @@
+package academy.aicode.spring_ai.vector;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import academy.aicode.spring_ai.limit.CallPriority;
+
+/**
+ * Bounded queue of ingest jobs drained by a fixed pool of workers.
+ *
+ * - {@link #submit(List)} returns immediately with a QUEUED job
+ * - At most {@code workers} jobs embed and write concurrently, which caps the
+ * load put on the embedding provider
+ * - When {@code queue-capacity} jobs are already waiting, submission fails
+ * with {@link IngestQueueFullException} carrying a retry hint derived from the
+ * average job duration
+ * - Finished jobs stay queryable until {@code retained-jobs} newer ones finish
+ */
+@Service
+public class IngestJobQueue implements DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(IngestJobQueue.class);
+
+  // Weight of the latest job in the exponentially weighted average duration
+  private static final double DURATION_SMOOTHING = 0.2;
+
+  private final AstroBibliaVectorService vectorService;
+  private final ThreadPoolExecutor executor;
+  private final int workers;
+  private final int queueCapacity;
+  private final int retainedJobs;
+  private final Map<String, IngestJob> jobs = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<String> finishedJobIds = new ConcurrentLinkedQueue<>();
+  private volatile double averageJobMillis = 1000;
+
+  public IngestJobQueue(AstroBibliaVectorService vectorService,
+      @Value("${astrobiblia.vector.ingest.workers:2}") int workers,
+      @Value("${astrobiblia.vector.ingest.queue-capacity:100}") int queueCapacity,
+      @Value("${astrobiblia.vector.ingest.retained-jobs:1000}") int retainedJobs) {
+    this.vectorService = Objects.requireNonNull(vectorService, "vectorService must not be null");
+    this.workers = workers;
+    this.queueCapacity = queueCapacity;
+    this.retainedJobs = retainedJobs;
+    this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), Thread.ofVirtual().name("ingest-worker-", 0).factory(),
+        new ThreadPoolExecutor.AbortPolicy());
+    log.info("IngestJobQueue initialized (workers={}, queueCapacity={})", workers, queueCapacity);
+  }
+
+  /**
+   * Enqueue documents for asynchronous ingestion.
+   *
+   * @param documents documents to add
+   * @return the queued job
+   * @throws IngestQueueFullException when the queue is at capacity
+   */
+  public IngestJob submit(List<DocumentRequest> documents) {
+    Objects.requireNonNull(documents, "documents must not be null");
+    var job = new IngestJob(documents);
+    jobs.put(job.getId(), job);
+    try {
+      executor.execute(() -> run(job));
+    } catch (RejectedExecutionException e) {
+      jobs.remove(job.getId());
+      var retryAfter = retryAfter();
+      log.warn("Ingest queue full ({} waiting); retry after {}s", executor.getQueue().size(), retryAfter.toSeconds());
+      throw new IngestQueueFullException(retryAfter);
+    }
+    log.debug("Ingest job {} queued ({} documents)", job.getId(), job.getDocuments());
+    return job;
+  }
+
+  /**
+   * @return the job with the given id, if it is still retained
+   */
+  public Optional<IngestJob> find(String id) {
+    return Optional.ofNullable(jobs.get(id));
+  }
+
+  /**
+   * @return current queue depth, running jobs and pool configuration
+   */
+  public QueueStats stats() {
+    return new QueueStats(executor.getQueue().size(), executor.getActiveCount(), queueCapacity, workers,
+        executor.getCompletedTaskCount(), Math.round(averageJobMillis));
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    executor.shutdown();
+    if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+      log.warn("Ingest workers did not finish in time; {} jobs dropped", executor.shutdownNow().size());
+    }
+  }
+
+  private void run(IngestJob job) {
+    // embedding calls of queued jobs wait behind interactive requests
+    CallPriority.BULK.run(() -> ingest(job));
+  }
+
+  private void ingest(IngestJob job) {
+    job.markRunning();
+    long start = System.nanoTime();
+    try {
+      var result = vectorService.ingest(job.requests());
+      job.markSucceeded(result.added().size(), result.duplicates());
+      log.info("Ingest job {} succeeded ({} documents added, {} duplicates)", job.getId(), result.added().size(),
+          result.duplicates());
+    } catch (RuntimeException e) {
+      job.markFailed(e.getMessage());
+      log.error("Ingest job {} failed: {}", job.getId(), e.getMessage());
+    } finally {
+      double millis = (System.nanoTime() - start) / 1_000_000.0;
+      averageJobMillis = DURATION_SMOOTHING * millis + (1 - DURATION_SMOOTHING) * averageJobMillis;
+      retire(job);
+    }
+  }
+
+  private void retire(IngestJob job) {
+    finishedJobIds.add(job.getId());
+    while (finishedJobIds.size() > retainedJobs) {
+      var oldest = finishedJobIds.poll();
+      if (oldest != null) {
+        jobs.remove(oldest);
+      }
+    }
+  }
+
+  /**
+   * Time for the waiting jobs to drain through the workers, at least one
+   * second.
+   */
+  private Duration retryAfter() {
+    double waves = Math.ceil((executor.getQueue().size() + 1) / (double) workers);
+    return Duration.ofSeconds(Math.max(1, (long) Math.ceil(waves * averageJobMillis / 1000)));
+  }
+
+  /**
+   * Snapshot of the queue for monitoring.
+   *
+   * @param queued          jobs waiting for a worker
+   * @param running         jobs being processed
+   * @param capacity        maximum waiting jobs before submissions are rejected
+   * @param workers         size of the worker pool
+   * @param completed       jobs finished since startup
+   * @param averageJobMillis smoothed job duration
+   */
+  public record QueueStats(int queued, int running, int capacity, int workers, long completed,
+      long averageJobMillis) {
+  }
+}
@@ -0,0 +1,23 @@
+package academy.aicode.spring_ai.vector;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the ingest queue cannot accept more jobs. Carries a hint of how
+ * long the caller should wait before retrying.
+ */
+public class IngestQueueFullException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient Duration retryAfter;
+
+  public IngestQueueFullException(Duration retryAfter) {
+    super("ingest queue is full; retry after " + retryAfter.toSeconds() + "s");
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
@@ -0,0 +1,17 @@
+package academy.aicode.spring_ai.vector;
+
+import java.util.List;
+
+import org.springframework.ai.document.Document;
+
+/**
+ * Outcome of adding a set of documents to the vector store.
+ *
+ * @param added      documents written to the store (one per chunk)
+ * @param duplicates chunks skipped because the same or nearly the same text
+ *                   was already ingested
+ */
+public record IngestResult(List<Document> added, int duplicates) {
+
+  static final IngestResult EMPTY = new IngestResult(List.of(), 0);
+}
@@ -0,0 +1,126 @@
+package academy.aicode.spring_ai.vector;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from {@code long} keys to non-negative {@code int}
+ * values, backed by two parallel arrays so no key or value is boxed.
+ *
+ * - Linear probing; the table doubles when it is half full
+ * - A value of -1 marks a free slot, so every key (0 included) is allowed
+ * - {@link #remove} shifts the following entries back instead of leaving
+ * tombstones, so lookups never slow down after many removals
+ *
+ * Not thread-safe; callers synchronize.
+ */
+final class LongIntMap {
+
+  static final int ABSENT = -1;
+
+  private long[] keys;
+  private int[] values;
+  private int mask;
+  private int size;
+
+  LongIntMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+    allocate(capacity);
+  }
+
+  /**
+   * @return the value for {@code key}, or {@link #ABSENT}
+   */
+  int get(long key) {
+    int index = indexOf(key);
+    return index < 0 ? ABSENT : values[index];
+  }
+
+  /**
+   * Map {@code key} to {@code value}, replacing any previous value.
+   */
+  void put(long key, int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("value must not be negative");
+    }
+    if ((size + 1) * 2 > keys.length) {
+      resize(keys.length * 2);
+    }
+    int index = home(key);
+    while (values[index] != ABSENT) {
+      if (keys[index] == key) {
+        values[index] = value;
+        return;
+      }
+      index = (index + 1) & mask;
+    }
+    keys[index] = key;
+    values[index] = value;
+    size++;
+  }
+
+  /**
+   * @return the removed value, or {@link #ABSENT} if {@code key} was not mapped
+   */
+  int remove(long key) {
+    int free = indexOf(key);
+    if (free < 0) {
+      return ABSENT;
+    }
+    int removed = values[free];
+    values[free] = ABSENT;
+    size--;
+    // move back every entry of the probe run whose home slot is not between
+    // the freed slot and its current position
+    for (int index = (free + 1) & mask; values[index] != ABSENT; index = (index + 1) & mask) {
+      int distance = (index - home(keys[index])) & mask;
+      if (distance >= ((index - free) & mask)) {
+        keys[free] = keys[index];
+        values[free] = values[index];
+        values[index] = ABSENT;
+        free = index;
+      }
+    }
+    return removed;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private int indexOf(long key) {
+    for (int index = home(key); values[index] != ABSENT; index = (index + 1) & mask) {
+      if (keys[index] == key) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * SplitMix64 finalizer, so keys differing only in high bits spread too.
+   */
+  private int home(long key) {
+    long hash = (key ^ (key >>> 30)) * 0xbf58476d1ce4e5b9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+    return (int) (hash ^ (hash >>> 31)) & mask;
+  }
+
+  private void resize(int capacity) {
+    var oldKeys = keys;
+    var oldValues = values;
+    allocate(capacity);
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != ABSENT) {
+        put(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new int[capacity];
+    Arrays.fill(values, ABSENT);
+    mask = capacity - 1;
+  }
+}
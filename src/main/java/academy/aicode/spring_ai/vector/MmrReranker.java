@@ -0,0 +1,181 @@
+package academy.aicode.spring_ai.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maximal marginal relevance re-ranking: picks, one at a time, the candidate
+ * that is most similar to the query and least similar to the documents
+ * already picked, so near-identical passages do not crowd the result.
+ *
+ * {@code mmr(d) = lambda * sim(query, d) - (1 - lambda) * max sim(d, picked)}
+ *
+ * - When the store keeps the candidates' embeddings (the in-process hnsw and
+ * exact stores, see {@link PageableVectorStore#findEmbeddings}), nothing is
+ * embedded: redundancy uses the stored vectors and relevance is the cosine
+ * recovered from the {@code (1 + cosine) / 2} search score
+ * - Otherwise (MongoDB Atlas) the query and the candidate texts are embedded
+ * in one batch
+ * - Vectors are normalized once and the highest similarity of each candidate
+ * to the picked set is updated incrementally, so re-ranking n candidates down
+ * to k costs O(n * k) dot products
+ */
+@Component
+public class MmrReranker {
+
+  private static final Logger log = LoggerFactory.getLogger(MmrReranker.class);
+
+  private final EmbeddingModel embeddingModel;
+  private final double lambda;
+  private final int candidateFactor;
+
+  /**
+   * @param lambda          trade-off between relevance (1.0) and diversity
+   *                        (0.0)
+   * @param candidateFactor candidates fetched per requested result
+   */
+  public MmrReranker(EmbeddingModel embeddingModel,
+      @Value("${astrobiblia.vector.mmr.lambda:0.5}") double lambda,
+      @Value("${astrobiblia.vector.mmr.candidate-factor:4}") int candidateFactor) {
+    if (lambda < 0 || lambda > 1) {
+      throw new IllegalArgumentException("lambda must be between 0 and 1");
+    }
+    if (candidateFactor < 1) {
+      throw new IllegalArgumentException("candidateFactor must be >= 1");
+    }
+    this.embeddingModel = Objects.requireNonNull(embeddingModel, "embeddingModel must not be null");
+    this.lambda = lambda;
+    this.candidateFactor = candidateFactor;
+    log.info("MmrReranker initialized (lambda={}, candidateFactor={})", lambda, candidateFactor);
+  }
+
+  /**
+   * @return number of candidates to fetch for {@code topK} re-ranked results
+   */
+  public int candidates(int topK) {
+    return Math.multiplyExact(topK, candidateFactor);
+  }
+
+  /**
+   * Select a diverse subset of the candidates.
+   *
+   * @param query      text the candidates were retrieved for
+   * @param candidates retrieved documents, best first
+   * @param topK       maximum number of documents to keep
+   * @return selected documents in selection order
+   */
+  public List<Document> rerank(String query, List<Document> candidates, int topK) {
+    return rerank(query, candidates, topK, Map.of());
+  }
+
+  /**
+   * Select a diverse subset of the candidates, using their stored embeddings
+   * when every candidate has one and a search score.
+   *
+   * @param query            text the candidates were retrieved for
+   * @param candidates       retrieved documents, best first
+   * @param topK             maximum number of documents to keep
+   * @param storedEmbeddings embeddings kept by the store, by document id
+   * @return selected documents in selection order
+   */
+  public List<Document> rerank(String query, List<Document> candidates, int topK,
+      Map<String, float[]> storedEmbeddings) {
+    Objects.requireNonNull(query, "query must not be null");
+    Objects.requireNonNull(candidates, "candidates must not be null");
+    Objects.requireNonNull(storedEmbeddings, "storedEmbeddings must not be null");
+    if (candidates.size() <= 1 || topK <= 0) {
+      return candidates.subList(0, Math.min(candidates.size(), Math.max(topK, 0)));
+    }
+    int n = candidates.size();
+    var vectors = new float[n][];
+    var relevance = new double[n];
+    if (!fromStore(candidates, storedEmbeddings, vectors, relevance)) {
+      embed(query, candidates, vectors, relevance);
+    }
+    var redundancy = new double[n];
+    Arrays.fill(redundancy, Double.NEGATIVE_INFINITY);
+
+    var picked = new boolean[n];
+    var selected = new ArrayList<Document>(Math.min(topK, n));
+    while (selected.size() < Math.min(topK, n)) {
+      int best = -1;
+      double bestScore = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < n; i++) {
+        if (picked[i]) {
+          continue;
+        }
+        double penalty = selected.isEmpty() ? 0 : redundancy[i];
+        double score = lambda * relevance[i] - (1 - lambda) * penalty;
+        if (score > bestScore) {
+          bestScore = score;
+          best = i;
+        }
+      }
+      picked[best] = true;
+      selected.add(candidates.get(best));
+      for (int i = 0; i < n; i++) {
+        if (!picked[i]) {
+          redundancy[i] = Math.max(redundancy[i], dot(vectors[i], vectors[best]));
+        }
+      }
+    }
+    log.debug("MMR kept {} of {} candidates for query='{}'", selected.size(), n, query);
+    return selected;
+  }
+
+  private static boolean fromStore(List<Document> candidates, Map<String, float[]> storedEmbeddings,
+      float[][] vectors, double[] relevance) {
+    for (int i = 0; i < candidates.size(); i++) {
+      var candidate = candidates.get(i);
+      var vector = storedEmbeddings.get(candidate.getId());
+      if (vector == null || candidate.getScore() == null) {
+        return false;
+      }
+      vectors[i] = normalize(vector);
+      relevance[i] = 2 * candidate.getScore() - 1;
+    }
+    return true;
+  }
+
+  private void embed(String query, List<Document> candidates, float[][] vectors, double[] relevance) {
+    var texts = new ArrayList<String>(candidates.size() + 1);
+    texts.add(query);
+    candidates.forEach(doc -> texts.add(doc.getText()));
+    var embeddings = embeddingModel.embed(texts);
+    var queryVector = normalize(embeddings.get(0));
+    for (int i = 0; i < candidates.size(); i++) {
+      vectors[i] = normalize(embeddings.get(i + 1));
+      relevance[i] = dot(queryVector, vectors[i]);
+    }
+  }
+
+  private static float[] normalize(float[] vector) {
+    double norm = Math.sqrt(dot(vector, vector));
+    if (norm == 0) {
+      return vector;
+    }
+    var normalized = new float[vector.length];
+    for (int i = 0; i < vector.length; i++) {
+      normalized[i] = (float) (vector[i] / norm);
+    }
+    return normalized;
+  }
+
+  private static double dot(float[] a, float[] b) {
+    double sum = 0;
+    for (int i = 0; i < a.length; i++) {
+      sum += a[i] * b[i];
+    }
+    return sum;
+  }
+}
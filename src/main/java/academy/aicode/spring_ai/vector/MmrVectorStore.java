@@ -0,0 +1,83 @@
+package academy.aicode.spring_ai.vector;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+/**
+ * {@link VectorStore} view whose searches over-fetch candidates from the
+ * delegate and return the {@code topK} picked by {@link MmrReranker}. Meant
+ * for retrieval advisors such as {@code QuestionAnswerAdvisor}, which put
+ * every returned document into the prompt. Writes go straight to the
+ * delegate.
+ *
+ * Candidates whose embeddings can be read back from the store are re-ranked
+ * without calling the embedding model.
+ */
+public class MmrVectorStore implements VectorStore {
+
+  private final VectorStore delegate;
+  private final MmrReranker reranker;
+  private final Function<Collection<String>, Map<String, float[]>> storedEmbeddings;
+
+  public MmrVectorStore(VectorStore delegate, MmrReranker reranker) {
+    this(delegate, reranker, ids -> Map.of());
+  }
+
+  /**
+   * @param storedEmbeddings reads the embeddings the delegate keeps for the
+   *                         given document ids, e.g.
+   *                         {@link PageableVectorStore#findEmbeddings}
+   */
+  public MmrVectorStore(VectorStore delegate, MmrReranker reranker,
+      Function<Collection<String>, Map<String, float[]>> storedEmbeddings) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+    this.reranker = Objects.requireNonNull(reranker, "reranker must not be null");
+    this.storedEmbeddings = Objects.requireNonNull(storedEmbeddings, "storedEmbeddings must not be null");
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public void add(List<Document> documents) {
+    delegate.add(documents);
+  }
+
+  @Override
+  public void delete(List<String> idList) {
+    delegate.delete(idList);
+  }
+
+  @Override
+  public void delete(Filter.Expression filterExpression) {
+    delegate.delete(filterExpression);
+  }
+
+  @Override
+  public List<Document> similaritySearch(SearchRequest request) {
+    Objects.requireNonNull(request, "request must not be null");
+    var candidates = delegate.similaritySearch(
+        SearchRequest.from(request).topK(reranker.candidates(request.getTopK())).build());
+    if (candidates == null) {
+      return List.of();
+    }
+    var stored = storedEmbeddings.apply(candidates.stream().map(Document::getId).toList());
+    return reranker.rerank(request.getQuery(), candidates, request.getTopK(), stored);
+  }
+
+  @Override
+  public <T> Optional<T> getNativeClient() {
+    return delegate.getNativeClient();
+  }
+}
@@ -0,0 +1,53 @@
+package academy.aicode.spring_ai.vector;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+
+/**
+ * {@link VectorStore} whose stored documents can be walked in pages, e.g. to
+ * re-embed them into another store, and whose stored embeddings can be read
+ * back without calling the embedding model.
+ */
+public interface PageableVectorStore extends VectorStore {
+
+  /**
+   * Read the next page of stored documents. Documents added while a walk is
+   * in progress are returned by a later page; pages never repeat a document
+   * that was not re-added.
+   *
+   * @param cursor opaque position returned by the previous page; null to
+   *               start from the beginning. Only valid within one process:
+   *               stores may compact positions when reloaded
+   * @param limit  maximum number of documents in the page
+   * @return documents without embeddings and the cursor of the next page
+   */
+  Page page(String cursor, int limit);
+
+  /**
+   * @param ids document ids
+   * @return the stored documents with those ids, without embeddings; unknown
+   *         ids are skipped
+   */
+  List<Document> findByIds(Collection<String> ids);
+
+  /**
+   * @param ids document ids
+   * @return the stored embeddings, unit-normalized, by document id; unknown
+   *         ids and documents whose full-precision embedding is not kept are
+   *         skipped
+   */
+  Map<String, float[]> findEmbeddings(Collection<String> ids);
+
+  /**
+   * One page of a walk over the stored documents.
+   *
+   * @param documents  stored documents, in storage order
+   * @param nextCursor cursor of the next page, or null once the walk is done
+   */
+  record Page(List<Document> documents, String nextCursor) {
+  }
+}
@@ -0,0 +1,172 @@
+package academy.aicode.spring_ai.vector;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded LRU of semantic search results keyed by prompt, similarity
+ * threshold, topK and metadata filter.
+ *
+ * - The prompt is used exactly as it is embedded: prompts differing only in
+ * case or spacing embed (and rank lexically) differently, so they must not
+ * share results
+ * - Documents are copied in and out, so callers may change metadata or score
+ * of what they get without corrupting the cache
+ *
+ * - Entries expire after {@code ttl} and the least recently used entry is
+ * evicted beyond {@code max-entries}; {@code max-entries=0} disables caching
+ * - Every write to the store must call {@link #invalidate()}, which bumps the
+ * index version; results are stored with the version read before the search
+ * started, so a search racing with an ingest never caches pre-ingest results
+ * - Hits and misses are published under {@code astrobiblia.vector.search.cache.*}
+ *
+ * Thread-safe: all access to the underlying map is synchronized.
+ */
+@Component
+public class SearchResultCache {
+
+  private static final Logger log = LoggerFactory.getLogger(SearchResultCache.class);
+
+  private final int maxEntries;
+  private final Duration ttl;
+  private final Clock clock;
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+  private long version;
+
+  private final Counter hits;
+  private final Counter misses;
+
+  @Autowired
+  public SearchResultCache(
+      @Value("${astrobiblia.vector.search-cache.max-entries:1000}") int maxEntries,
+      @Value("${astrobiblia.vector.search-cache.ttl:5m}") Duration ttl,
+      MeterRegistry registry) {
+    this(maxEntries, ttl, registry, Clock.systemUTC());
+  }
+
+  SearchResultCache(int maxEntries, Duration ttl, MeterRegistry registry, Clock clock) {
+    if (maxEntries < 0) {
+      throw new IllegalArgumentException("maxEntries must not be negative");
+    }
+    this.maxEntries = maxEntries;
+    this.ttl = Objects.requireNonNull(ttl, "ttl must not be null");
+    this.clock = Objects.requireNonNull(clock, "clock must not be null");
+    Objects.requireNonNull(registry, "registry must not be null");
+    this.hits = Counter.builder("astrobiblia.vector.search.cache.requests").tag("result", "hit")
+        .description("Vector searches served from cache").register(registry);
+    this.misses = Counter.builder("astrobiblia.vector.search.cache.requests").tag("result", "miss")
+        .description("Vector searches sent to the store").register(registry);
+    Gauge.builder("astrobiblia.vector.search.cache.entries", this, SearchResultCache::size).register(registry);
+    log.info("SearchResultCache initialized (maxEntries={}, ttl={})", maxEntries, ttl);
+  }
+
+  /**
+   * Build the cache key for a search; the prompt must be the exact text sent
+   * to the store.
+   */
+  public static Key keyOf(String prompt, double similarityThreshold, int topK) {
+    return keyOf(prompt, similarityThreshold, topK, null);
+  }
+
+  /**
+   * Build the cache key for a filtered search; the filter text is only
+   * trimmed since values inside it are case-sensitive.
+   */
+  public static Key keyOf(String prompt, double similarityThreshold, int topK, String filterExpression) {
+    var filter = filterExpression == null || filterExpression.isBlank() ? null : filterExpression.strip();
+    return new Key(String.valueOf(prompt), similarityThreshold, topK, filter);
+  }
+
+  /**
+   * @return the index version to pass to {@link #put} for a search about to
+   *         start
+   */
+  public synchronized long version() {
+    return version;
+  }
+
+  /**
+   * @return copies of the cached results for the key, or null when absent,
+   *         expired or computed against an older index version
+   */
+  public List<Document> get(Key key) {
+    Entry entry;
+    synchronized (this) {
+      entry = entries.get(key);
+      if (entry != null && (entry.version() != version || !clock.instant().isBefore(entry.expiresAt()))) {
+        entries.remove(key);
+        entry = null;
+      }
+    }
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return copyOf(entry.documents());
+  }
+
+  /**
+   * Store results computed against the given index version. Results from an
+   * outdated version are dropped.
+   */
+  public void put(Key key, long searchVersion, List<Document> documents) {
+    if (maxEntries == 0) {
+      return;
+    }
+    var entry = new Entry(copyOf(documents), searchVersion, clock.instant().plus(ttl));
+    synchronized (this) {
+      if (searchVersion != version) {
+        return;
+      }
+      entries.put(key, entry);
+      var iterator = entries.entrySet().iterator();
+      while (entries.size() > maxEntries && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Discard every cached result; call after each write to the store.
+   */
+  public synchronized void invalidate() {
+    version++;
+    entries.clear();
+    log.debug("Search result cache invalidated (version {})", version);
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private static List<Document> copyOf(List<Document> documents) {
+    return documents.stream()
+        .map(doc -> doc.mutate().metadata(new HashMap<>(doc.getMetadata())).build())
+        .toList();
+  }
+
+  /** Search parameters identifying a cached result. */
+  public record Key(String prompt, double similarityThreshold, int topK, String filterExpression) {
+  }
+
+  private record Entry(List<Document> documents, long version, Instant expiresAt) {
+  }
+}
@@ -0,0 +1,39 @@
+package academy.aicode.spring_ai.vector;
+
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.VectorStore;
+
+/**
+ * Creates an empty store of the same kind as the active one, used as the
+ * target of an embedding model migration.
+ */
+public interface ShadowStoreFactory {
+
+  /**
+   * @param embeddingModel model used by the new store for documents and
+   *                       queries
+   * @param model          name of the provider model, used to name the store
+   * @return a store with no documents, or the documents migrated before a
+   *         restart when {@link #persistent()}
+   */
+  VectorStore create(EmbeddingModel embeddingModel, String model);
+
+  /**
+   * Record that {@code shadow}, created for {@code model}, is now the active
+   * store, so a restart opens it instead of the store it replaced. No-op when
+   * not {@link #persistent()}.
+   */
+  void promote(VectorStore shadow, String model);
+
+  /**
+   * Release the resources of a shadow store that will not be used again,
+   * e.g. after a failed migration is started over.
+   */
+  void discard(VectorStore shadow);
+
+  /**
+   * @return true when shadow stores survive a restart, so an interrupted
+   *         migration can resume from its checkpoint
+   */
+  boolean persistent();
+}
@@ -0,0 +1,79 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Segment directory and embedding model the persistent in-process store opens
+ * on startup.
+ *
+ * Without a pointer file this is the configured
+ * {@code astrobiblia.vector.segments.directory} with the application's
+ * embedding model. A completed embedding migration writes
+ * {@value #POINTER_FILE} inside that directory, naming the migrated sibling
+ * directory and its model, so a restart keeps serving the migrated vectors
+ * with the model they were embedded with.
+ *
+ * @param directory segment directory to open
+ * @param model     embedding model of the stored vectors; null for the
+ *                  application default
+ */
+record ActiveSegments(Path directory, String model) {
+
+  static final String POINTER_FILE = "active.properties";
+
+  /**
+   * @param base configured segment directory
+   * @return the directory and model recorded by the last migration, or
+   *         {@code base} with the default model when there was none
+   */
+  static ActiveSegments read(Path base) {
+    var pointer = base.resolve(POINTER_FILE);
+    if (!Files.isRegularFile(pointer)) {
+      return new ActiveSegments(base, null);
+    }
+    var properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(pointer)) {
+      properties.load(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not read active segments pointer " + pointer, e);
+    }
+    return new ActiveSegments(base.resolveSibling(properties.getProperty("directory")),
+        properties.getProperty("model"));
+  }
+
+  /**
+   * Atomically record {@code directory} and {@code model} as the store to open
+   * on the next start.
+   */
+  static void write(Path base, Path directory, String model) {
+    var properties = new Properties();
+    properties.setProperty("directory", directory.getFileName().toString());
+    properties.setProperty("model", model);
+    try {
+      Files.createDirectories(base);
+      var tmp = Files.createTempFile(base, POINTER_FILE, ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tmp)) {
+        properties.store(writer, "written by the embedding migration");
+      }
+      Files.move(tmp, base.resolve(POINTER_FILE), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not write active segments pointer in " + base, e);
+    }
+  }
+
+  /**
+   * @return sibling of {@code base} holding the store migrated to
+   *         {@code model}, e.g. {@code data/vector-segments-text-embedding-3-large}
+   */
+  static Path shadowDirectory(Path base, String model) {
+    return base.resolveSibling(base.getFileName() + "-" + model.replaceAll("[^A-Za-z0-9._-]", "_"));
+  }
+}
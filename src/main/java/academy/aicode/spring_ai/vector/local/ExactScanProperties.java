@@ -0,0 +1,43 @@
+package academy.aicode.spring_ai.vector.local;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning knobs for the in-process exact-scan vector store
+ * ({@code spring.ai.vectorstore.type=exact}).
+ */
+@ConfigurationProperties(prefix = "astrobiblia.vector.exact")
+public class ExactScanProperties {
+  /** Vectors scanned per fork-join slice; smaller partitions are scanned on one thread each. */
+  private int parallelThreshold = 16384;
+
+  /** Encoding of the scanned vectors; quantized scans use one thread per partition. */
+  private Quantization quantization = Quantization.NONE;
+
+  /** Quantized candidates rescored per result with full precision; 0 keeps no float copy. */
+  private int rescoreFactor = 4;
+
+  public int getParallelThreshold() {
+    return parallelThreshold;
+  }
+
+  public void setParallelThreshold(int parallelThreshold) {
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  public Quantization getQuantization() {
+    return quantization;
+  }
+
+  public void setQuantization(Quantization quantization) {
+    this.quantization = quantization;
+  }
+
+  public int getRescoreFactor() {
+    return rescoreFactor;
+  }
+
+  public void setRescoreFactor(int rescoreFactor) {
+    this.rescoreFactor = rescoreFactor;
+  }
+}
@@ -0,0 +1,248 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Exact nearest-neighbour index: every query is compared against every live
+ * vector, so results are the ground truth approximate indexes are measured
+ * against.
+ *
+ * - Vectors are normalized and stored contiguously in a single float[];
+ * unit-length vectors restored from a sealed segment stay in its mapping and
+ * are copied into a per-scan scratch array just before their dot product, so
+ * a restart neither copies them onto the heap nor waits for a rebuild
+ * - Dot products go through {@link Vectors}, which uses SIMD lanes when the
+ * JDK Vector API is available
+ * - Indexes larger than {@code parallelThreshold} vectors are scanned in
+ * slices on the common fork-join pool; each slice keeps its own top-k and the
+ * partial results are merged
+ * - Removals are tombstones skipped during the scan
+ * - With a filter only the allowed ordinals are visited, so the cost follows
+ * the size of the filter rather than of the index
+ */
+final class FlatVectorIndex implements VectorIndex {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final int parallelThreshold;
+  private final ForkJoinPool pool;
+
+  private int dimensions = -1;
+  private float[] vectors = new float[0];
+  private int heapCount;
+  // per ordinal: the mapping holding the vector (null when on the heap) and its offset there or in vectors
+  private FloatBuffer[] sources = new FloatBuffer[0];
+  private int[] offsets = new int[0];
+  private final BitSet removed = new BitSet();
+  private int count;
+  private int removedCount;
+
+  FlatVectorIndex(int parallelThreshold) {
+    this(parallelThreshold, ForkJoinPool.commonPool());
+  }
+
+  FlatVectorIndex(int parallelThreshold, ForkJoinPool pool) {
+    if (parallelThreshold < 1) {
+      throw new IllegalArgumentException("parallelThreshold must be >= 1");
+    }
+    this.parallelThreshold = parallelThreshold;
+    this.pool = Objects.requireNonNull(pool, "pool must not be null");
+  }
+
+  @Override
+  public int add(float[] vector) {
+    Objects.requireNonNull(vector, "vector must not be null");
+    checkDimensions(vector.length);
+    int ordinal = count;
+    ensureCapacity(ordinal + 1, heapCount + 1);
+    offsets[ordinal] = heapCount * dimensions;
+    System.arraycopy(Vectors.normalize(vector), 0, vectors, offsets[ordinal], dimensions);
+    heapCount++;
+    count++;
+    return ordinal;
+  }
+
+  @Override
+  public int addMapped(MappedVector vector) {
+    Objects.requireNonNull(vector, "vector must not be null");
+    if (!vector.normalized()) {
+      return add(vector.copy());
+    }
+    checkDimensions(vector.dimensions());
+    int ordinal = count;
+    ensureCapacity(ordinal + 1, heapCount);
+    sources[ordinal] = vector.source();
+    offsets[ordinal] = vector.offset();
+    count++;
+    return ordinal;
+  }
+
+  @Override
+  public void remove(int ordinal) {
+    if (ordinal < 0 || ordinal >= count) {
+      throw new IllegalArgumentException("unknown ordinal " + ordinal);
+    }
+    if (!removed.get(ordinal)) {
+      removed.set(ordinal);
+      removedCount++;
+    }
+  }
+
+  @Override
+  public List<Neighbor> search(float[] query, int k, BitSet filter) {
+    Objects.requireNonNull(query, "query must not be null");
+    if (count == 0 || k <= 0 || removedCount == count) {
+      return Collections.emptyList();
+    }
+    checkDimensions(query.length);
+    var normalized = Vectors.normalize(query);
+    int candidates = filter == null ? count : filter.cardinality();
+    var best = candidates <= parallelThreshold
+        ? scan(normalized, k, filter, 0, count)
+        : pool.invoke(new ScanTask(normalized, k, filter, 0, count));
+    int found = best.size();
+    int[] ordinals = new int[found];
+    float[] scores = new float[found];
+    best.drainDescending(ordinals, scores);
+    var neighbors = new ArrayList<Neighbor>(found);
+    for (int i = 0; i < found; i++) {
+      neighbors.add(new Neighbor(ordinals[i], scores[i]));
+    }
+    return neighbors;
+  }
+
+  @Override
+  public float[] vector(int ordinal) {
+    if (ordinal < 0 || ordinal >= count) {
+      throw new IllegalArgumentException("unknown ordinal " + ordinal);
+    }
+    if (sources[ordinal] != null) {
+      var vector = new float[dimensions];
+      sources[ordinal].get(offsets[ordinal], vector);
+      return vector;
+    }
+    return Arrays.copyOfRange(vectors, offsets[ordinal], offsets[ordinal] + dimensions);
+  }
+
+  @Override
+  public int size() {
+    return count - removedCount;
+  }
+
+  /**
+   * @return heap bytes held by the stored vectors; vectors scored inside a
+   *         segment mapping are not counted
+   */
+  long fullPrecisionBytes() {
+    return (long) heapCount * Math.max(dimensions, 0) * Float.BYTES;
+  }
+
+  /**
+   * Scan allowed ordinals in [from, to) and keep the k most similar live
+   * vectors in a min-queue, so the weakest kept score is always on top.
+   */
+  private NeighborQueue scan(float[] query, int k, BitSet filter, int from, int to) {
+    var best = new NeighborQueue(k, false);
+    var scratch = new float[dimensions];
+    int ordinal = filter == null ? from : filter.nextSetBit(from);
+    while (ordinal >= 0 && ordinal < to) {
+      if (!removed.get(ordinal)) {
+        float score;
+        if (sources[ordinal] == null) {
+          score = Vectors.dot(query, vectors, offsets[ordinal]);
+        } else {
+          sources[ordinal].get(offsets[ordinal], scratch);
+          score = Vectors.dot(query, scratch, 0);
+        }
+        offer(best, k, ordinal, score);
+      }
+      ordinal = filter == null ? ordinal + 1 : filter.nextSetBit(ordinal + 1);
+    }
+    return best;
+  }
+
+  private static void offer(NeighborQueue best, int k, int ordinal, float score) {
+    if (best.size() < k) {
+      best.push(ordinal, score);
+    } else if (score > best.topScore()) {
+      best.pop();
+      best.push(ordinal, score);
+    }
+  }
+
+  private void checkDimensions(int length) {
+    if (dimensions < 0) {
+      if (length == 0) {
+        throw new IllegalArgumentException("vector must not be empty");
+      }
+      dimensions = length;
+    } else if (length != dimensions) {
+      throw new IllegalArgumentException(
+          "vector has " + length + " dimensions but index expects " + dimensions);
+    }
+  }
+
+  private void ensureCapacity(int size, int heapSize) {
+    if (size > offsets.length) {
+      int capacity = Math.max(INITIAL_CAPACITY, Math.max(size, offsets.length * 2));
+      sources = Arrays.copyOf(sources, capacity);
+      offsets = Arrays.copyOf(offsets, capacity);
+    }
+    if ((long) heapSize * dimensions <= vectors.length) {
+      return;
+    }
+    int capacity = Math.max(INITIAL_CAPACITY, Math.max(heapSize, vectors.length / dimensions * 2));
+    vectors = Arrays.copyOf(vectors, Math.multiplyExact(capacity, dimensions));
+  }
+
+  /**
+   * Splits the ordinal range in halves down to {@code parallelThreshold}
+   * vectors and merges the partial top-k queues on the way back.
+   */
+  private final class ScanTask extends RecursiveTask<NeighborQueue> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final float[] query;
+    private final int k;
+    private final BitSet filter;
+    private final int from;
+    private final int to;
+
+    ScanTask(float[] query, int k, BitSet filter, int from, int to) {
+      this.query = query;
+      this.k = k;
+      this.filter = filter;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected NeighborQueue compute() {
+      if (to - from <= parallelThreshold) {
+        return scan(query, k, filter, from, to);
+      }
+      int middle = (from + to) >>> 1;
+      var right = new ScanTask(query, k, filter, middle, to);
+      right.fork();
+      var merged = new ScanTask(query, k, filter, from, middle).compute();
+      var other = right.join();
+      int size = other.size();
+      int[] ordinals = new int[size];
+      float[] scores = new float[size];
+      other.drainDescending(ordinals, scores);
+      for (int i = 0; i < size; i++) {
+        offer(merged, k, ordinals[i], scores[i]);
+      }
+      return merged;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package academy.aicode.spring_ai.vector.local;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning knobs for the in-process HNSW vector store
+ * ({@code spring.ai.vectorstore.type=hnsw}).
+ */
+@ConfigurationProperties(prefix = "astrobiblia.vector.hnsw")
+public class HnswProperties {
+  /** Links per node on upper graph levels; level 0 keeps twice as many. */
+  private int m = 16;
+
+  /** Candidate list size used while inserting; higher builds a better graph. */
+  private int efConstruction = 200;
+
+  /** Candidate list size used while searching; higher improves recall. */
+  private int efSearch = 64;
+
+  public int getM() {
+    return m;
+  }
+
+  public void setM(int m) {
+    this.m = m;
+  }
+
+  public int getEfConstruction() {
+    return efConstruction;
+  }
+
+  public void setEfConstruction(int efConstruction) {
+    this.efConstruction = efConstruction;
+  }
+
+  public int getEfSearch() {
+    return efSearch;
+  }
+
+  public void setEfSearch(int efSearch) {
+    this.efSearch = efSearch;
+  }
+}
@@ -0,0 +1,375 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * Hierarchical Navigable Small World graph (Malkov &amp; Yashunin) over
+ * primitive float arrays.
+ *
+ * - Vectors are normalized and stored contiguously in a single float[]
+ * - Adjacency lists are int[] per node and level; slot 0 holds the count
+ * - Removals are tombstones: removed nodes keep routing but are never returned
+ * - Filtered searches widen the beam by the inverse selectivity of the filter,
+ * or score the allowed nodes directly when that is cheaper than walking the
+ * graph
+ *
+ * Tuning:
+ * - {@code m}: links per node on upper levels (2*m on level 0)
+ * - {@code efConstruction}: candidate list size while inserting
+ * - {@code efSearch}: candidate list size while querying (raised to k if lower)
+ */
+final class HnswVectorIndex implements VectorIndex {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final int m;
+  private final int maxConnectionsLevelZero;
+  private final int efConstruction;
+  private final int efSearch;
+  private final double levelMultiplier;
+  private final SplittableRandom random;
+
+  private int dimensions = -1;
+  private float[] vectors = new float[0];
+  private int[][][] links = new int[INITIAL_CAPACITY][][];
+  private final BitSet removed = new BitSet();
+  private int count;
+  private int removedCount;
+  private int entryPoint = -1;
+  private int topLevel = -1;
+
+  HnswVectorIndex(int m, int efConstruction, int efSearch) {
+    this(m, efConstruction, efSearch, 42L);
+  }
+
+  HnswVectorIndex(int m, int efConstruction, int efSearch, long seed) {
+    if (m < 2) {
+      throw new IllegalArgumentException("m must be >= 2");
+    }
+    if (efConstruction < 1 || efSearch < 1) {
+      throw new IllegalArgumentException("efConstruction and efSearch must be >= 1");
+    }
+    this.m = m;
+    this.maxConnectionsLevelZero = 2 * m;
+    this.efConstruction = efConstruction;
+    this.efSearch = efSearch;
+    this.levelMultiplier = 1.0 / Math.log(m);
+    this.random = new SplittableRandom(seed);
+  }
+
+  @Override
+  public int add(float[] vector) {
+    Objects.requireNonNull(vector, "vector must not be null");
+    checkDimensions(vector.length);
+    int node = count;
+    ensureCapacity(node + 1);
+    System.arraycopy(Vectors.normalize(vector), 0, vectors, node * dimensions, dimensions);
+    int level = randomLevel();
+    links[node] = new int[level + 1][];
+    for (int l = 0; l <= level; l++) {
+      links[node][l] = new int[1 + maxConnections(l)];
+    }
+    count++;
+
+    if (entryPoint < 0) {
+      entryPoint = node;
+      topLevel = level;
+      return node;
+    }
+
+    int offset = node * dimensions;
+    float[] query = Arrays.copyOfRange(vectors, offset, offset + dimensions);
+    int current = entryPoint;
+    for (int l = topLevel; l > level; l--) {
+      current = greedyClosest(query, current, l);
+    }
+    for (int l = Math.min(level, topLevel); l >= 0; l--) {
+      var candidates = searchLayer(query, current, efConstruction, l, false, null);
+      int found = candidates.size();
+      int[] candidateNodes = new int[found];
+      float[] candidateScores = new float[found];
+      candidates.drainDescending(candidateNodes, candidateScores);
+      int[] selected = selectNeighbors(candidateNodes, candidateScores, found, m);
+      setLinks(node, l, selected);
+      for (int neighbor : selected) {
+        connect(neighbor, node, l);
+      }
+      current = candidateNodes[0];
+    }
+    if (level > topLevel) {
+      topLevel = level;
+      entryPoint = node;
+    }
+    return node;
+  }
+
+  @Override
+  public void remove(int ordinal) {
+    if (ordinal < 0 || ordinal >= count) {
+      throw new IllegalArgumentException("unknown ordinal " + ordinal);
+    }
+    if (!removed.get(ordinal)) {
+      removed.set(ordinal);
+      removedCount++;
+    }
+  }
+
+  @Override
+  public List<Neighbor> search(float[] query, int k, BitSet filter) {
+    Objects.requireNonNull(query, "query must not be null");
+    if (entryPoint < 0 || k <= 0 || removedCount == count) {
+      return Collections.emptyList();
+    }
+    checkDimensions(query.length);
+    var normalized = Vectors.normalize(query);
+    int ef = Math.max(efSearch, k);
+    NeighborQueue results;
+    if (filter == null) {
+      results = searchGraph(normalized, ef, null);
+    } else {
+      int allowed = filter.cardinality();
+      int widened = (int) Math.min(count, (long) Math.ceil(ef * (double) count / Math.max(1, allowed)));
+      // a graph walk scores roughly ef * maxConnectionsLevelZero nodes
+      results = allowed <= (long) widened * maxConnectionsLevelZero
+          ? scanAllowed(normalized, k, filter)
+          : searchGraph(normalized, widened, filter);
+    }
+    while (results.size() > k) {
+      results.pop();
+    }
+    int found = results.size();
+    int[] nodes = new int[found];
+    float[] scores = new float[found];
+    results.drainDescending(nodes, scores);
+    var neighbors = new ArrayList<Neighbor>(found);
+    for (int i = 0; i < found; i++) {
+      neighbors.add(new Neighbor(nodes[i], scores[i]));
+    }
+    return neighbors;
+  }
+
+  @Override
+  public float[] vector(int ordinal) {
+    if (ordinal < 0 || ordinal >= count) {
+      throw new IllegalArgumentException("unknown ordinal " + ordinal);
+    }
+    return Arrays.copyOfRange(vectors, ordinal * dimensions, (ordinal + 1) * dimensions);
+  }
+
+  @Override
+  public int size() {
+    return count - removedCount;
+  }
+
+  private NeighborQueue searchGraph(float[] query, int ef, BitSet filter) {
+    int current = entryPoint;
+    for (int l = topLevel; l > 0; l--) {
+      current = greedyClosest(query, current, l);
+    }
+    return searchLayer(query, current, ef, 0, true, filter);
+  }
+
+  /**
+   * Exact scan of the allowed live nodes, used when the filter is selective.
+   */
+  private NeighborQueue scanAllowed(float[] query, int k, BitSet filter) {
+    var best = new NeighborQueue(k, false);
+    for (int node = filter.nextSetBit(0); node >= 0 && node < count; node = filter.nextSetBit(node + 1)) {
+      if (removed.get(node)) {
+        continue;
+      }
+      float score = similarity(query, node);
+      if (best.size() < k) {
+        best.push(node, score);
+      } else if (score > best.topScore()) {
+        best.pop();
+        best.push(node, score);
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Walk a single level greedily, always moving to the most similar neighbour,
+   * until no neighbour improves on the current node.
+   */
+  private int greedyClosest(float[] query, int start, int level) {
+    int current = start;
+    float best = similarity(query, current);
+    boolean improved = true;
+    while (improved) {
+      improved = false;
+      int[] adjacency = links[current][level];
+      for (int i = 1; i <= adjacency[0]; i++) {
+        int candidate = adjacency[i];
+        float score = similarity(query, candidate);
+        if (score > best) {
+          best = score;
+          current = candidate;
+          improved = true;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Best-first search on one level. Returns a min-queue holding up to
+   * {@code ef} results (least similar on top). When {@code liveOnly} is set,
+   * removed nodes are traversed but not collected; nodes outside a non-null
+   * {@code filter} are likewise traversed but not collected.
+   */
+  private NeighborQueue searchLayer(float[] query, int start, int ef, int level, boolean liveOnly,
+      BitSet filter) {
+    var visited = new BitSet(count);
+    var candidates = new NeighborQueue(ef, true);
+    var results = new NeighborQueue(ef + 1, false);
+    float startScore = similarity(query, start);
+    visited.set(start);
+    candidates.push(start, startScore);
+    if (collectable(start, liveOnly, filter)) {
+      results.push(start, startScore);
+    }
+    while (!candidates.isEmpty()) {
+      float candidateScore = candidates.topScore();
+      if (results.size() >= ef && candidateScore < results.topScore()) {
+        break;
+      }
+      int candidate = candidates.pop();
+      int[] adjacency = links[candidate][level];
+      for (int i = 1; i <= adjacency[0]; i++) {
+        int neighbor = adjacency[i];
+        if (visited.get(neighbor)) {
+          continue;
+        }
+        visited.set(neighbor);
+        float score = similarity(query, neighbor);
+        if (results.size() < ef || score > results.topScore()) {
+          candidates.push(neighbor, score);
+          if (collectable(neighbor, liveOnly, filter)) {
+            results.push(neighbor, score);
+            if (results.size() > ef) {
+              results.pop();
+            }
+          }
+        }
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Neighbour selection heuristic: keep a candidate only if it is closer to
+   * the base node than to any neighbour already selected, which favours links
+   * in diverse directions. Pruned candidates fill any remaining slots so small
+   * graphs stay well connected.
+   *
+   * @param nodes  candidates ordered by descending similarity to the base node
+   * @param scores similarity of each candidate to the base node
+   */
+  private int[] selectNeighbors(int[] nodes, float[] scores, int length, int max) {
+    if (length <= max) {
+      return Arrays.copyOf(nodes, length);
+    }
+    int[] selected = new int[max];
+    boolean[] taken = new boolean[length];
+    int selectedCount = 0;
+    for (int i = 0; i < length && selectedCount < max; i++) {
+      int candidate = nodes[i];
+      boolean diverse = true;
+      for (int j = 0; j < selectedCount; j++) {
+        if (similarity(candidate, selected[j]) > scores[i]) {
+          diverse = false;
+          break;
+        }
+      }
+      if (diverse) {
+        selected[selectedCount++] = candidate;
+        taken[i] = true;
+      }
+    }
+    for (int i = 0; i < length && selectedCount < max; i++) {
+      if (!taken[i]) {
+        selected[selectedCount++] = nodes[i];
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Add a back-link from {@code node} to {@code newNeighbor}, shrinking the
+   * adjacency list with the selection heuristic when it is full.
+   */
+  private void connect(int node, int newNeighbor, int level) {
+    int[] adjacency = links[node][level];
+    int size = adjacency[0];
+    int max = maxConnections(level);
+    if (size < max) {
+      adjacency[size + 1] = newNeighbor;
+      adjacency[0] = size + 1;
+      return;
+    }
+    var queue = new NeighborQueue(size + 1, true);
+    for (int i = 1; i <= size; i++) {
+      queue.push(adjacency[i], similarity(node, adjacency[i]));
+    }
+    queue.push(newNeighbor, similarity(node, newNeighbor));
+    int[] nodes = new int[size + 1];
+    float[] scores = new float[size + 1];
+    int length = queue.drainDescending(nodes, scores);
+    setLinks(node, level, selectNeighbors(nodes, scores, length, max));
+  }
+
+  private void setLinks(int node, int level, int[] neighbors) {
+    int[] adjacency = links[node][level];
+    adjacency[0] = neighbors.length;
+    System.arraycopy(neighbors, 0, adjacency, 1, neighbors.length);
+  }
+
+  private boolean collectable(int node, boolean liveOnly, BitSet filter) {
+    return (!liveOnly || !removed.get(node)) && (filter == null || filter.get(node));
+  }
+
+  private float similarity(float[] query, int node) {
+    return Vectors.dot(query, vectors, node * dimensions);
+  }
+
+  private float similarity(int a, int b) {
+    return Vectors.dot(vectors, a * dimensions, b * dimensions, dimensions);
+  }
+
+  private int maxConnections(int level) {
+    return level == 0 ? maxConnectionsLevelZero : m;
+  }
+
+  private int randomLevel() {
+    return (int) Math.floor(-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+  }
+
+  private void checkDimensions(int length) {
+    if (dimensions < 0) {
+      if (length == 0) {
+        throw new IllegalArgumentException("vector must not be empty");
+      }
+      dimensions = length;
+    } else if (length != dimensions) {
+      throw new IllegalArgumentException(
+          "vector has " + length + " dimensions but index expects " + dimensions);
+    }
+  }
+
+  private void ensureCapacity(int nodes) {
+    if (links.length < nodes) {
+      links = Arrays.copyOf(links, Math.max(nodes, links.length * 2));
+    }
+    if (vectors.length < nodes * dimensions) {
+      vectors = Arrays.copyOf(vectors, links.length * dimensions);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.VectorStore;
+
+import academy.aicode.spring_ai.vector.ShadowStoreFactory;
+
+/**
+ * Creates in-process shadow stores with the same index settings as the active
+ * one. With segment persistence enabled, each target model gets its own
+ * sibling directory (e.g. {@code data/vector-segments-text-embedding-3-large}),
+ * so an interrupted migration reloads what it already copied, and
+ * {@link #promote} records it in {@link ActiveSegments} so restarts open it.
+ *
+ * The segment stores of shadows are closed when discarded or, for the ones
+ * still in use, when the factory is closed at shutdown.
+ */
+final class LocalShadowStoreFactory implements ShadowStoreFactory, Closeable {
+
+  private final String name;
+  private final SegmentProperties segments;
+  private final Supplier<? extends VectorIndex> indexFactory;
+  private final BatchingStrategy batchingStrategy;
+  private final Map<VectorStore, SegmentStore> opened = new IdentityHashMap<>();
+
+  LocalShadowStoreFactory(String name, SegmentProperties segments, Supplier<? extends VectorIndex> indexFactory,
+      BatchingStrategy batchingStrategy) {
+    this.name = Objects.requireNonNull(name, "name must not be null");
+    this.segments = Objects.requireNonNull(segments, "segments must not be null");
+    this.indexFactory = Objects.requireNonNull(indexFactory, "indexFactory must not be null");
+    this.batchingStrategy = Objects.requireNonNull(batchingStrategy, "batchingStrategy must not be null");
+  }
+
+  /**
+   * @throws IllegalStateException when the store already serves vectors
+   *                               migrated to {@code model}
+   */
+  @Override
+  public synchronized VectorStore create(EmbeddingModel embeddingModel, String model) {
+    SegmentStore store = null;
+    if (persistent()) {
+      var shadowDirectory = ActiveSegments.shadowDirectory(segments.getDirectory(), model);
+      if (shadowDirectory.equals(ActiveSegments.read(segments.getDirectory()).directory())) {
+        throw new IllegalStateException("the vector store already uses " + model);
+      }
+      store = new SegmentStore(shadowDirectory, segments.getMaxSegments());
+    }
+    var shadow = new LocalVectorStore(name + "-" + model, embeddingModel, indexFactory.get(), store,
+        batchingStrategy);
+    if (store != null) {
+      opened.put(shadow, store);
+    }
+    return shadow;
+  }
+
+  @Override
+  public void promote(VectorStore shadow, String model) {
+    if (persistent()) {
+      ActiveSegments.write(segments.getDirectory(), ActiveSegments.shadowDirectory(segments.getDirectory(), model),
+          model);
+    }
+  }
+
+  @Override
+  public synchronized void discard(VectorStore shadow) {
+    var store = opened.remove(shadow);
+    if (store != null) {
+      store.close();
+    }
+  }
+
+  @Override
+  public boolean persistent() {
+    return segments.getDirectory() != null;
+  }
+
+  @Override
+  public void close() {
+    ArrayList<SegmentStore> stores;
+    synchronized (this) {
+      stores = new ArrayList<>(opened.values());
+      opened.clear();
+    }
+    stores.forEach(SegmentStore::close);
+  }
+}
@@ -0,0 +1,294 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentMetadata;
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptionsBuilder;
+import org.springframework.ai.embedding.TokenCountBatchingStrategy;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import academy.aicode.spring_ai.vector.PageableVectorStore;
+
+/**
+ * {@link VectorStore} kept entirely inside the JVM on top of a
+ * {@link VectorIndex}.
+ *
+ * Scores follow the MongoDB Atlas cosine convention so results are
+ * interchangeable with the Atlas-backed store:
+ * - {@code score = (1 + cosine) / 2}, in the range [0..1]
+ * - the top {@code topK} hits are fetched first and then filtered by
+ * {@code similarityThreshold}
+ * - metadata {@code distance} is set to {@code 1 - score}
+ *
+ * When a {@link SegmentStore} is given, every write is persisted to disk
+ * before it becomes visible, and startup restores the index from the stored
+ * embeddings without calling the embedding model. The exact-scan index
+ * scores restored vectors inside the segment mappings, so only documents are
+ * read onto the heap; hnsw and quantized indexes copy them and rebuild their
+ * graph or codes ({@link VectorIndex#addMapped}).
+ *
+ * Documents are embedded in requests split by a {@link BatchingStrategy}, so
+ * no single call to the provider exceeds its token budget.
+ *
+ * Filter expressions are evaluated against a {@link MetadataIndex} before
+ * the vector index is searched, so only matching documents are scored.
+ *
+ * Documents can be walked in insertion order with {@link #page}; the cursor
+ * is the next ordinal, which stays valid across concurrent writes because
+ * ordinals are never reused, but not across restarts: reloading segments
+ * drops deleted and superseded records and renumbers the rest.
+ */
+public class LocalVectorStore implements PageableVectorStore {
+
+  private static final Logger log = LoggerFactory.getLogger(LocalVectorStore.class);
+
+  private final String name;
+  private final EmbeddingModel embeddingModel;
+  private final VectorIndex index;
+  private final SegmentStore segments;
+  private final BatchingStrategy batchingStrategy;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Integer> ordinalsById = new HashMap<>();
+  private final List<Document> documents = new ArrayList<>();
+  private final MetadataIndex metadataIndex = new MetadataIndex();
+
+  LocalVectorStore(String name, EmbeddingModel embeddingModel, VectorIndex index) {
+    this(name, embeddingModel, index, null);
+  }
+
+  /**
+   * @param segments optional persistence; null keeps the store in memory only
+   */
+  LocalVectorStore(String name, EmbeddingModel embeddingModel, VectorIndex index, SegmentStore segments) {
+    this(name, embeddingModel, index, segments, new TokenCountBatchingStrategy());
+  }
+
+  /**
+   * @param segments         optional persistence; null keeps the store in
+   *                         memory only
+   * @param batchingStrategy splits the documents of one {@link #add} into
+   *                         embedding requests
+   */
+  LocalVectorStore(String name, EmbeddingModel embeddingModel, VectorIndex index, SegmentStore segments,
+      BatchingStrategy batchingStrategy) {
+    this.name = Objects.requireNonNull(name, "name must not be null");
+    this.embeddingModel = Objects.requireNonNull(embeddingModel, "embeddingModel must not be null");
+    this.index = Objects.requireNonNull(index, "index must not be null");
+    this.segments = segments;
+    this.batchingStrategy = Objects.requireNonNull(batchingStrategy, "batchingStrategy must not be null");
+    if (segments != null) {
+      var restored = new ArrayList<Document>();
+      var embeddings = new ArrayList<MappedVector>();
+      try {
+        segments.load((doc, embedding) -> {
+          restored.add(doc);
+          embeddings.add(embedding);
+        });
+        putAll(restored, embeddings, index::addMapped);
+      } catch (IOException e) {
+        throw new UncheckedIOException("could not load " + name + " segments", e);
+      }
+      log.info("{}: restored {} documents from disk", name, index.size());
+    }
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Embed and index the documents. A document whose id is already present
+   * replaces the previous version.
+   */
+  @Override
+  public void add(List<Document> docs) {
+    Objects.requireNonNull(docs, "docs must not be null");
+    if (docs.isEmpty()) {
+      return;
+    }
+    var embeddings = embeddingModel.embed(docs, EmbeddingOptionsBuilder.builder().build(), batchingStrategy);
+    lock.writeLock().lock();
+    try {
+      if (segments != null) {
+        segments.append(docs, embeddings);
+      }
+      putAll(docs, embeddings, index::add);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    log.debug("{}: indexed {} documents (size={})", name, docs.size(), index.size());
+  }
+
+  @Override
+  public void delete(List<String> idList) {
+    Objects.requireNonNull(idList, "idList must not be null");
+    lock.writeLock().lock();
+    try {
+      if (segments != null) {
+        segments.delete(idList);
+      }
+      idList.forEach(this::removeById);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Delete every document whose metadata matches the expression.
+   */
+  @Override
+  public void delete(Filter.Expression filterExpression) {
+    Objects.requireNonNull(filterExpression, "filterExpression must not be null");
+    lock.writeLock().lock();
+    try {
+      var matches = metadataIndex.evaluate(filterExpression);
+      var ids = matches.stream()
+          .filter(ordinal -> ordinal < documents.size() && documents.get(ordinal) != null)
+          .mapToObj(ordinal -> documents.get(ordinal).getId())
+          .toList();
+      if (segments != null) {
+        segments.delete(ids);
+      }
+      ids.forEach(this::removeById);
+      log.debug("{}: deleted {} documents matching {}", name, ids.size(), filterExpression);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public List<Document> similaritySearch(SearchRequest request) {
+    Objects.requireNonNull(request, "request must not be null");
+    float[] query = embeddingModel.embed(request.getQuery());
+    lock.readLock().lock();
+    try {
+      var filter = request.hasFilterExpression() ? metadataIndex.evaluate(request.getFilterExpression()) : null;
+      if (filter != null && filter.isEmpty()) {
+        return List.of();
+      }
+      var results = new ArrayList<Document>();
+      for (var neighbor : index.search(query, request.getTopK(), filter)) {
+        double score = (1.0 + neighbor.similarity()) / 2.0;
+        if (score >= request.getSimilarityThreshold()) {
+          results.add(withScore(documents.get(neighbor.ordinal()), score));
+        }
+      }
+      return results;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Page page(String cursor, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("limit must be >= 1");
+    }
+    int ordinal = cursor == null ? 0 : Integer.parseInt(cursor);
+    lock.readLock().lock();
+    try {
+      var page = new ArrayList<Document>(Math.min(limit, documents.size()));
+      while (ordinal < documents.size() && page.size() < limit) {
+        var doc = documents.get(ordinal++);
+        if (doc != null) {
+          page.add(doc);
+        }
+      }
+      return new Page(page, ordinal < documents.size() ? String.valueOf(ordinal) : null);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<Document> findByIds(Collection<String> ids) {
+    lock.readLock().lock();
+    try {
+      var found = new ArrayList<Document>(ids.size());
+      for (var id : ids) {
+        var ordinal = ordinalsById.get(id);
+        if (ordinal != null) {
+          found.add(documents.get(ordinal));
+        }
+      }
+      return found;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Map<String, float[]> findEmbeddings(Collection<String> ids) {
+    lock.readLock().lock();
+    try {
+      var found = new HashMap<String, float[]>();
+      for (var id : ids) {
+        var ordinal = ordinalsById.get(id);
+        var vector = ordinal == null ? null : index.vector(ordinal);
+        if (vector != null) {
+          found.put(id, vector);
+        }
+      }
+      return found;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private <E> void putAll(List<Document> docs, List<E> embeddings, ToIntFunction<E> indexer) {
+    var ordinals = new int[docs.size()];
+    for (int i = 0; i < docs.size(); i++) {
+      var doc = docs.get(i);
+      removeById(doc.getId());
+      ordinals[i] = indexer.applyAsInt(embeddings.get(i));
+      setDocument(ordinals[i], doc);
+      ordinalsById.put(doc.getId(), ordinals[i]);
+    }
+    metadataIndex.addAll(ordinals, docs.stream().map(Document::getMetadata).toList());
+  }
+
+  private void removeById(String id) {
+    var previous = ordinalsById.remove(id);
+    if (previous != null) {
+      index.remove(previous);
+      metadataIndex.remove(previous, documents.get(previous).getMetadata());
+      documents.set(previous, null);
+    }
+  }
+
+  private void setDocument(int ordinal, Document doc) {
+    while (documents.size() <= ordinal) {
+      documents.add(null);
+    }
+    documents.set(ordinal, doc);
+  }
+
+  private static Document withScore(Document doc, double score) {
+    var metadata = new HashMap<>(doc.getMetadata());
+    metadata.put(DocumentMetadata.DISTANCE.value(), 1.0 - score);
+    return Document.builder()
+        .id(doc.getId())
+        .text(doc.getText())
+        .metadata(metadata)
+        .score(score)
+        .build();
+  }
+}
@@ -0,0 +1,159 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.TokenCountBatchingStrategy;
+import org.springframework.ai.vectorstore.SpringAIVectorStoreTypes;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.knuddels.jtokkit.api.EncodingType;
+
+import academy.aicode.spring_ai.embedding.FixedModelEmbeddingModel;
+import academy.aicode.spring_ai.vector.ShadowStoreFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Registers an in-process {@link VectorStore} when selected through
+ * {@code spring.ai.vectorstore.type}. Any value other than {@code mongodb-atlas}
+ * also disables the MongoDB Atlas auto-configuration, so exactly one store is
+ * injected into {@code AstroBibliaVectorRepository}.
+ *
+ * Either store is sharded into {@code astrobiblia.vector.partitions.count}
+ * partitions (one per core by default) that are searched in parallel.
+ *
+ * Setting {@code astrobiblia.vector.segments.directory} persists either store
+ * to disk so it is restored on restart without re-embedding; after an
+ * embedding migration the store reopens the migrated directory with its model
+ * ({@link ActiveSegments}).
+ *
+ * The {@link BatchingStrategy} bean bounds every embedding request to
+ * {@code astrobiblia.vector.ingest.batch-max-tokens}; the MongoDB Atlas
+ * auto-configuration picks up the same bean.
+ */
+@Configuration
+@EnableConfigurationProperties({ HnswProperties.class, ExactScanProperties.class, SegmentProperties.class,
+    PartitionProperties.class })
+public class LocalVectorStoreConfiguration {
+
+  private static final Logger log = LoggerFactory.getLogger(LocalVectorStoreConfiguration.class);
+
+  @Bean
+  @ConditionalOnProperty(prefix = "astrobiblia.vector.segments", name = "directory")
+  public SegmentStore segmentStore(SegmentProperties properties) {
+    var active = ActiveSegments.read(properties.getDirectory());
+    log.info("Persisting in-process vector store to {} (maxSegments={}, model={})", active.directory(),
+        properties.getMaxSegments(), active.model() != null ? active.model() : "default");
+    return new SegmentStore(active.directory(), properties.getMaxSegments());
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  public BatchingStrategy embeddingBatchingStrategy(
+      @Value("${astrobiblia.vector.ingest.batch-max-tokens:100000}") int batchMaxTokens) {
+    // 10% reserve, as Spring AI's default, for the gap between estimate and provider count
+    return new TokenCountBatchingStrategy(EncodingType.CL100K_BASE, batchMaxTokens, 0.1);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = SpringAIVectorStoreTypes.TYPE, havingValue = "hnsw")
+  public VectorStore hnswVectorStore(EmbeddingModel embeddingModel, HnswProperties properties,
+      PartitionProperties partitions, SegmentProperties segmentProperties, ObjectProvider<SegmentStore> segments,
+      BatchingStrategy batchingStrategy) {
+    log.info("Using in-process HNSW vector store (m={}, efConstruction={}, efSearch={}, partitions={})",
+        properties.getM(), properties.getEfConstruction(), properties.getEfSearch(), partitions.resolvedCount());
+    return new LocalVectorStore("hnsw", activeModel(embeddingModel, segmentProperties),
+        hnswIndex(properties, partitions), segments.getIfAvailable(), batchingStrategy);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = SpringAIVectorStoreTypes.TYPE, havingValue = "hnsw")
+  public ShadowStoreFactory hnswShadowStoreFactory(HnswProperties properties, PartitionProperties partitions,
+      SegmentProperties segments, BatchingStrategy batchingStrategy) {
+    return new LocalShadowStoreFactory("hnsw", segments, () -> hnswIndex(properties, partitions), batchingStrategy);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = SpringAIVectorStoreTypes.TYPE, havingValue = "exact")
+  public VectorStore exactVectorStore(EmbeddingModel embeddingModel, ExactScanProperties properties,
+      PartitionProperties partitions, SegmentProperties segmentProperties, MeterRegistry registry,
+      ObjectProvider<SegmentStore> segments, BatchingStrategy batchingStrategy) {
+    int count = partitions.resolvedCount();
+    var model = activeModel(embeddingModel, segmentProperties);
+    if (properties.getQuantization() != Quantization.NONE) {
+      log.info("Using in-process exact-scan vector store over {} codes (rescoreFactor={}, partitions={})",
+          properties.getQuantization(), properties.getRescoreFactor(), count);
+      var index = quantizedIndex(properties, count);
+      registerFootprint(registry, "codes", index, i -> i.sum(QuantizedVectorIndex::codeBytes));
+      registerFootprint(registry, "full", index, i -> i.sum(QuantizedVectorIndex::fullPrecisionBytes));
+      return new LocalVectorStore("exact", model, index, segments.getIfAvailable(), batchingStrategy);
+    }
+    log.info("Using in-process exact-scan vector store (parallelThreshold={}, simd={}, partitions={})",
+        properties.getParallelThreshold(), Vectors.SIMD, count);
+    var index = flatIndex(properties, count);
+    registerFootprint(registry, "full", index, i -> i.sum(FlatVectorIndex::fullPrecisionBytes));
+    return new LocalVectorStore("exact", model, index, segments.getIfAvailable(), batchingStrategy);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = SpringAIVectorStoreTypes.TYPE, havingValue = "exact")
+  public ShadowStoreFactory exactShadowStoreFactory(ExactScanProperties properties, PartitionProperties partitions,
+      SegmentProperties segments, BatchingStrategy batchingStrategy) {
+    int count = partitions.resolvedCount();
+    return new LocalShadowStoreFactory("exact", segments, () -> properties.getQuantization() != Quantization.NONE
+        ? quantizedIndex(properties, count)
+        : flatIndex(properties, count), batchingStrategy);
+  }
+
+  /**
+   * The application model, or the one recorded by the last completed
+   * migration when the store reopens its directory.
+   */
+  private static EmbeddingModel activeModel(EmbeddingModel embeddingModel, SegmentProperties segments) {
+    if (segments.getDirectory() == null) {
+      return embeddingModel;
+    }
+    var model = ActiveSegments.read(segments.getDirectory()).model();
+    return model == null ? embeddingModel : new FixedModelEmbeddingModel(embeddingModel, model);
+  }
+
+  private static PartitionedVectorIndex<HnswVectorIndex> hnswIndex(HnswProperties properties,
+      PartitionProperties partitions) {
+    return new PartitionedVectorIndex<>(partitions.resolvedCount(),
+        () -> new HnswVectorIndex(properties.getM(), properties.getEfConstruction(), properties.getEfSearch()));
+  }
+
+  private static PartitionedVectorIndex<QuantizedVectorIndex> quantizedIndex(ExactScanProperties properties,
+      int count) {
+    return new PartitionedVectorIndex<>(count,
+        () -> new QuantizedVectorIndex(properties.getQuantization(), properties.getRescoreFactor()));
+  }
+
+  private static PartitionedVectorIndex<FlatVectorIndex> flatIndex(ExactScanProperties properties, int count) {
+    return new PartitionedVectorIndex<>(count, () -> new FlatVectorIndex(properties.getParallelThreshold()));
+  }
+
+  /**
+   * Publish the heap held by an index as {@code astrobiblia.vector.index.bytes}
+   * tagged with the part (quantized codes or full-precision vectors).
+   */
+  private static <T> void registerFootprint(MeterRegistry registry, String part, T index,
+      ToLongFunction<T> bytes) {
+    Gauge.builder("astrobiblia.vector.index.bytes", index, i -> bytes.applyAsLong(i))
+        .tag("part", part)
+        .baseUnit("bytes")
+        .description("Heap held by the in-process vector index")
+        .register(registry);
+  }
+}
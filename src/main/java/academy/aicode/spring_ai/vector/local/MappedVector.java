@@ -0,0 +1,26 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Embedding stored in a sealed {@link Segment}, addressed inside the
+ * segment's memory mapping instead of copied onto the heap.
+ *
+ * @param source     float view of the segment's embedding block; only
+ *                   absolute reads are used, so it is shared between threads
+ * @param offset     index of the first component in {@code source}
+ * @param dimensions number of components
+ * @param normalized true when the stored vector is already unit length, so
+ *                   an index may score it in place
+ */
+record MappedVector(FloatBuffer source, int offset, int dimensions, boolean normalized) {
+
+  /**
+   * @return the stored components copied onto the heap
+   */
+  float[] copy() {
+    var vector = new float[dimensions];
+    source.get(offset, vector);
+    return vector;
+  }
+}
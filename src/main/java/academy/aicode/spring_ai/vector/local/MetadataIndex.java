@@ -0,0 +1,283 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+/**
+ * Per-field index of document metadata used to turn a filter expression into
+ * the set of ordinals allowed in a search, before any vector is scored.
+ *
+ * - Every scalar value is indexed as a category: one {@link BitSet} of
+ * ordinals per (field, value); numbers are compared as doubles, so 3 and 3.0
+ * are equal
+ * - Numeric values are also kept in a column of parallel double[]/int[]
+ * arrays sorted by value, so range predicates are two binary searches plus
+ * the matching ordinals
+ * - Writes to a numeric column are buffered and merged into the sorted arrays
+ * by the first range query after them, so ingesting many batches costs one
+ * merge instead of one full copy per batch
+ * - {@link #remove} purges an ordinal from every bitmap and column, and
+ * negations only cover live ordinals
+ *
+ * Not thread-safe for writes: callers serialize writes and may evaluate
+ * concurrently while no write is in progress.
+ */
+final class MetadataIndex {
+
+  private final Map<String, Map<Object, BitSet>> categories = new HashMap<>();
+  private final Map<String, NumericColumn> numbers = new HashMap<>();
+  private final BitSet live = new BitSet();
+
+  /**
+   * Index the metadata of a batch of documents.
+   *
+   * @param ordinals  ordinal of each document in the vector index
+   * @param metadatas metadata of each document, same order
+   */
+  void addAll(int[] ordinals, List<Map<String, Object>> metadatas) {
+    for (int i = 0; i < ordinals.length; i++) {
+      int ordinal = ordinals[i];
+      live.set(ordinal);
+      for (var entry : metadatas.get(i).entrySet()) {
+        var value = entry.getValue();
+        if (value == null) {
+          continue;
+        }
+        categories.computeIfAbsent(entry.getKey(), k -> new HashMap<>())
+            .computeIfAbsent(categoryKey(value), k -> new BitSet())
+            .set(ordinal);
+        if (value instanceof Number number) {
+          numbers.computeIfAbsent(entry.getKey(), k -> new NumericColumn()).add(number.doubleValue(), ordinal);
+        }
+      }
+    }
+  }
+
+  /**
+   * Drop a document from the index.
+   *
+   * @param ordinal  ordinal of the document in the vector index
+   * @param metadata metadata it was indexed with
+   */
+  void remove(int ordinal, Map<String, Object> metadata) {
+    live.clear(ordinal);
+    for (var entry : metadata.entrySet()) {
+      var value = entry.getValue();
+      if (value == null) {
+        continue;
+      }
+      var byValue = categories.get(entry.getKey());
+      if (byValue != null) {
+        var key = categoryKey(value);
+        var bits = byValue.get(key);
+        if (bits != null) {
+          bits.clear(ordinal);
+          if (bits.isEmpty()) {
+            byValue.remove(key);
+          }
+        }
+        if (byValue.isEmpty()) {
+          categories.remove(entry.getKey());
+        }
+      }
+      var column = numbers.get(entry.getKey());
+      if (value instanceof Number && column != null) {
+        column.remove(ordinal);
+      }
+    }
+  }
+
+  /**
+   * Evaluate a filter expression to the ordinals whose metadata satisfies it.
+   *
+   * @throws IllegalArgumentException for operands that are not a field/value
+   *                                  comparison or a nested expression
+   */
+  BitSet evaluate(Filter.Expression expression) {
+    return switch (expression.type()) {
+      case AND -> {
+        var result = evaluate(operand(expression.left()));
+        result.and(evaluate(operand(expression.right())));
+        yield result;
+      }
+      case OR -> {
+        var result = evaluate(operand(expression.left()));
+        result.or(evaluate(operand(expression.right())));
+        yield result;
+      }
+      case NOT -> complement(evaluate(operand(expression.left())));
+      case EQ -> equal(key(expression), value(expression));
+      case NE -> complement(equal(key(expression), value(expression)));
+      case IN -> in(key(expression), values(expression));
+      case NIN -> complement(in(key(expression), values(expression)));
+      case GT -> range(key(expression), number(expression), false, Double.POSITIVE_INFINITY, true);
+      case GTE -> range(key(expression), number(expression), true, Double.POSITIVE_INFINITY, true);
+      case LT -> range(key(expression), Double.NEGATIVE_INFINITY, true, number(expression), false);
+      case LTE -> range(key(expression), Double.NEGATIVE_INFINITY, true, number(expression), true);
+    };
+  }
+
+  private BitSet equal(String field, Object value) {
+    var bits = categories.getOrDefault(field, Map.of()).get(categoryKey(value));
+    return bits == null ? new BitSet() : (BitSet) bits.clone();
+  }
+
+  private BitSet in(String field, Collection<?> values) {
+    var result = new BitSet();
+    for (var value : values) {
+      result.or(equal(field, value));
+    }
+    return result;
+  }
+
+  private BitSet range(String field, double low, boolean lowInclusive, double high, boolean highInclusive) {
+    var column = numbers.get(field);
+    return column == null ? new BitSet() : column.range(low, lowInclusive, high, highInclusive);
+  }
+
+  private BitSet complement(BitSet bits) {
+    var result = (BitSet) live.clone();
+    result.andNot(bits);
+    return result;
+  }
+
+  private static Filter.Expression operand(Filter.Operand operand) {
+    if (operand instanceof Filter.Group group) {
+      return group.content();
+    }
+    if (operand instanceof Filter.Expression expression) {
+      return expression;
+    }
+    throw new IllegalArgumentException("expected a nested expression but got " + operand);
+  }
+
+  private static String key(Filter.Expression expression) {
+    if (expression.left() instanceof Filter.Key key) {
+      // the text parser keeps quotes around keys such as 'chapter-name'
+      return key.key().replaceAll("^[\"']|[\"']$", "");
+    }
+    throw new IllegalArgumentException("expected a metadata key on the left of " + expression);
+  }
+
+  private static Object value(Filter.Expression expression) {
+    if (expression.right() instanceof Filter.Value value) {
+      return value.value();
+    }
+    throw new IllegalArgumentException("expected a value on the right of " + expression);
+  }
+
+  private static Collection<?> values(Filter.Expression expression) {
+    var value = value(expression);
+    return value instanceof Collection<?> collection ? collection : List.of(value);
+  }
+
+  private static double number(Filter.Expression expression) {
+    if (value(expression) instanceof Number number) {
+      return number.doubleValue();
+    }
+    throw new IllegalArgumentException("range comparisons need a numeric value: " + expression);
+  }
+
+  private static Object categoryKey(Object value) {
+    return value instanceof Number number ? (Object) number.doubleValue() : value;
+  }
+
+  /**
+   * Values of one numeric field with their ordinals, sorted by value, plus
+   * the writes not merged yet.
+   */
+  private static final class NumericColumn {
+    private double[] values = new double[0];
+    private int[] ordinals = new int[0];
+    private final List<double[]> pending = new ArrayList<>();
+    private final BitSet removed = new BitSet();
+
+    void add(double value, int ordinal) {
+      pending.add(new double[] { value, ordinal });
+    }
+
+    void remove(int ordinal) {
+      removed.set(ordinal);
+    }
+
+    BitSet range(double low, boolean lowInclusive, double high, boolean highInclusive) {
+      compact();
+      int from = lowInclusive ? lowerBound(low) : upperBound(low);
+      int to = highInclusive ? upperBound(high) : lowerBound(high);
+      var result = new BitSet();
+      for (int i = from; i < to; i++) {
+        result.set(ordinals[i]);
+      }
+      return result;
+    }
+
+    /**
+     * Merge pending (value, ordinal) pairs into the sorted arrays and drop
+     * removed ordinals, in O(size + pending log pending). Synchronized because
+     * concurrent range queries may both find work pending; once merged, the
+     * arrays only change on the next write.
+     */
+    private synchronized void compact() {
+      if (pending.isEmpty() && removed.isEmpty()) {
+        return;
+      }
+      pending.sort((a, b) -> Double.compare(a[0], b[0]));
+      int size = values.length;
+      var mergedValues = new double[size + pending.size()];
+      var mergedOrdinals = new int[size + pending.size()];
+      int i = 0;
+      int j = 0;
+      int out = 0;
+      while (i < size || j < pending.size()) {
+        double value;
+        int ordinal;
+        if (j >= pending.size() || (i < size && values[i] <= pending.get(j)[0])) {
+          value = values[i];
+          ordinal = ordinals[i++];
+        } else {
+          value = pending.get(j)[0];
+          ordinal = (int) pending.get(j++)[1];
+        }
+        if (!removed.get(ordinal)) {
+          mergedValues[out] = value;
+          mergedOrdinals[out++] = ordinal;
+        }
+      }
+      values = out == mergedValues.length ? mergedValues : Arrays.copyOf(mergedValues, out);
+      ordinals = out == mergedOrdinals.length ? mergedOrdinals : Arrays.copyOf(mergedOrdinals, out);
+      pending.clear();
+      removed.clear();
+    }
+
+    /** First index whose value is >= target. */
+    private int lowerBound(double target) {
+      int index = Arrays.binarySearch(values, target);
+      if (index < 0) {
+        return -index - 1;
+      }
+      while (index > 0 && values[index - 1] == target) {
+        index--;
+      }
+      return index;
+    }
+
+    /** First index whose value is > target. */
+    private int upperBound(double target) {
+      int index = Arrays.binarySearch(values, target);
+      if (index < 0) {
+        return -index - 1;
+      }
+      while (index < values.length && values[index] == target) {
+        index++;
+      }
+      return index;
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package academy.aicode.spring_ai.vector.local;
+
+/**
+ * A search hit: the ordinal of an indexed vector and its cosine similarity to
+ * the query, in the range [-1..1].
+ */
+record Neighbor(int ordinal, float similarity) {
+}
@@ -0,0 +1,119 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of (ordinal, similarity) pairs backed by primitive arrays, so
+ * graph traversal does not box every visited node.
+ *
+ * A max-queue keeps the most similar entry on top; a min-queue keeps the least
+ * similar one on top (useful to maintain a bounded best-so-far set).
+ */
+final class NeighborQueue {
+
+  private final boolean maxQueue;
+  private int[] ordinals;
+  private float[] scores;
+  private int size;
+
+  NeighborQueue(int initialCapacity, boolean maxQueue) {
+    int capacity = Math.max(1, initialCapacity);
+    this.ordinals = new int[capacity];
+    this.scores = new float[capacity];
+    this.maxQueue = maxQueue;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int topOrdinal() {
+    return ordinals[0];
+  }
+
+  float topScore() {
+    return scores[0];
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  void push(int ordinal, float score) {
+    if (size == ordinals.length) {
+      ordinals = Arrays.copyOf(ordinals, size * 2);
+      scores = Arrays.copyOf(scores, size * 2);
+    }
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (!before(score, scores[parent])) {
+        break;
+      }
+      ordinals[i] = ordinals[parent];
+      scores[i] = scores[parent];
+      i = parent;
+    }
+    ordinals[i] = ordinal;
+    scores[i] = score;
+  }
+
+  /**
+   * Remove the top entry and return its ordinal.
+   */
+  int pop() {
+    int top = ordinals[0];
+    int lastOrdinal = ordinals[--size];
+    float lastScore = scores[size];
+    int i = 0;
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && before(scores[right], scores[child])) {
+        child = right;
+      }
+      if (!before(scores[child], lastScore)) {
+        break;
+      }
+      ordinals[i] = ordinals[child];
+      scores[i] = scores[child];
+      i = child;
+    }
+    ordinals[i] = lastOrdinal;
+    scores[i] = lastScore;
+    return top;
+  }
+
+  /**
+   * Drain the queue into parallel arrays ordered from most to least similar.
+   * The queue is empty afterwards.
+   *
+   * @param outOrdinals destination for ordinals (length at least size())
+   * @param outScores   destination for scores (length at least size())
+   * @return number of entries written
+   */
+  int drainDescending(int[] outOrdinals, float[] outScores) {
+    int count = size;
+    if (maxQueue) {
+      for (int i = 0; i < count; i++) {
+        outScores[i] = topScore();
+        outOrdinals[i] = pop();
+      }
+    } else {
+      for (int i = count - 1; i >= 0; i--) {
+        outScores[i] = topScore();
+        outOrdinals[i] = pop();
+      }
+    }
+    return count;
+  }
+
+  private boolean before(float a, float b) {
+    return maxQueue ? a > b : a < b;
+  }
+}
@@ -0,0 +1,29 @@
+package academy.aicode.spring_ai.vector.local;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Sharding of the in-process vector stores into partitions searched in
+ * parallel.
+ */
+@ConfigurationProperties(prefix = "astrobiblia.vector.partitions")
+public class PartitionProperties {
+  /** Number of partitions; 0 or less uses one per available processor, 1 disables sharding. */
+  private int count = 0;
+
+  public int getCount() {
+    return count;
+  }
+
+  public void setCount(int count) {
+    this.count = count;
+  }
+
+  /**
+   * @return the configured count, or the number of available processors when
+   *         not set
+   */
+  int resolvedCount() {
+    return count > 0 ? count : Runtime.getRuntime().availableProcessors();
+  }
+}
@@ -0,0 +1,215 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Shards vectors over several independent indexes and searches them in
+ * parallel, so query latency shrinks with the number of cores instead of
+ * being bound to one thread.
+ *
+ * - Vectors are routed round-robin: global ordinal {@code g} lives in
+ * partition {@code g % n} under local ordinal {@code g / n}, so partitions
+ * stay balanced and no routing table is needed
+ * - A query is submitted to the fork-join pool for every partition but the
+ * first, which runs on the caller thread; each partition returns its own
+ * top-k and the partial results are merged in a bounded min-queue
+ * - Dimensions are fixed by the first vector and checked before routing, so
+ * a mismatching vector is rejected even when it would land in an empty
+ * partition
+ * - A filter is split into one local filter per partition; partitions with
+ * no allowed ordinal are not searched
+ *
+ * Same threading contract as {@link VectorIndex}: writes are serialized by
+ * the caller, searches may run concurrently.
+ *
+ * @param <T> type of the partitions, exposed through {@link #sum}
+ */
+final class PartitionedVectorIndex<T extends VectorIndex> implements VectorIndex {
+
+  private final List<T> partitions;
+  private final ForkJoinPool pool;
+  private int next;
+  private int dimensions = -1;
+
+  PartitionedVectorIndex(int count, Supplier<T> factory) {
+    this(count, factory, ForkJoinPool.commonPool());
+  }
+
+  PartitionedVectorIndex(int count, Supplier<T> factory, ForkJoinPool pool) {
+    if (count < 1) {
+      throw new IllegalArgumentException("count must be >= 1");
+    }
+    Objects.requireNonNull(factory, "factory must not be null");
+    this.pool = Objects.requireNonNull(pool, "pool must not be null");
+    var created = new ArrayList<T>(count);
+    for (int i = 0; i < count; i++) {
+      created.add(Objects.requireNonNull(factory.get(), "factory must not return null"));
+    }
+    this.partitions = List.copyOf(created);
+  }
+
+  @Override
+  public int add(float[] vector) {
+    Objects.requireNonNull(vector, "vector must not be null");
+    checkDimensions(vector.length);
+    return route(partition -> partition.add(vector));
+  }
+
+  @Override
+  public int addMapped(MappedVector vector) {
+    Objects.requireNonNull(vector, "vector must not be null");
+    checkDimensions(vector.dimensions());
+    return route(partition -> partition.addMapped(vector));
+  }
+
+  @Override
+  public void remove(int ordinal) {
+    if (ordinal < 0 || ordinal >= next) {
+      throw new IllegalArgumentException("unknown ordinal " + ordinal);
+    }
+    partitions.get(ordinal % partitions.size()).remove(ordinal / partitions.size());
+  }
+
+  @Override
+  public List<Neighbor> search(float[] query, int k, BitSet filter) {
+    Objects.requireNonNull(query, "query must not be null");
+    if (k <= 0 || next == 0) {
+      return Collections.emptyList();
+    }
+    var localFilters = split(filter);
+    var pending = new ArrayList<ForkJoinTask<List<Neighbor>>>(partitions.size());
+    var partitionsOfPending = new ArrayList<Integer>(partitions.size());
+    int inline = -1;
+    for (int p = 0; p < partitions.size(); p++) {
+      if (localFilters != null && localFilters[p].isEmpty()) {
+        continue;
+      }
+      if (inline < 0) {
+        inline = p;
+        continue;
+      }
+      var partition = partitions.get(p);
+      var localFilter = localFilters == null ? null : localFilters[p];
+      pending.add(pool.submit(() -> partition.search(query, k, localFilter)));
+      partitionsOfPending.add(p);
+    }
+    if (inline < 0) {
+      return Collections.emptyList();
+    }
+    var best = new NeighborQueue(k, false);
+    offerAll(best, k, inline,
+        partitions.get(inline).search(query, k, localFilters == null ? null : localFilters[inline]));
+    for (int i = 0; i < pending.size(); i++) {
+      offerAll(best, k, partitionsOfPending.get(i), pending.get(i).join());
+    }
+    int found = best.size();
+    int[] ordinals = new int[found];
+    float[] scores = new float[found];
+    best.drainDescending(ordinals, scores);
+    var neighbors = new ArrayList<Neighbor>(found);
+    for (int i = 0; i < found; i++) {
+      neighbors.add(new Neighbor(ordinals[i], scores[i]));
+    }
+    return neighbors;
+  }
+
+  @Override
+  public float[] vector(int ordinal) {
+    if (ordinal < 0 || ordinal >= next) {
+      throw new IllegalArgumentException("unknown ordinal " + ordinal);
+    }
+    return partitions.get(ordinal % partitions.size()).vector(ordinal / partitions.size());
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (var partition : partitions) {
+      size += partition.size();
+    }
+    return size;
+  }
+
+  int partitionCount() {
+    return partitions.size();
+  }
+
+  /**
+   * Add up a per-partition measure, e.g. the heap held by each partition.
+   */
+  long sum(ToLongFunction<T> measure) {
+    long total = 0;
+    for (var partition : partitions) {
+      total += measure.applyAsLong(partition);
+    }
+    return total;
+  }
+
+  /**
+   * Add to the partition whose turn it is and map its local ordinal back to
+   * the global one.
+   */
+  private int route(ToIntFunction<T> add) {
+    int partition = next % partitions.size();
+    int local = add.applyAsInt(partitions.get(partition));
+    int ordinal = next++;
+    if (local != ordinal / partitions.size()) {
+      throw new IllegalStateException("partition " + partition + " assigned ordinal " + local
+          + " out of round-robin order");
+    }
+    return ordinal;
+  }
+
+  private void checkDimensions(int length) {
+    if (dimensions < 0) {
+      if (length == 0) {
+        throw new IllegalArgumentException("vector must not be empty");
+      }
+      dimensions = length;
+    } else if (length != dimensions) {
+      throw new IllegalArgumentException(
+          "vector has " + length + " dimensions but index expects " + dimensions);
+    }
+  }
+
+  private BitSet[] split(BitSet filter) {
+    if (filter == null) {
+      return null;
+    }
+    int n = partitions.size();
+    var local = new BitSet[n];
+    for (int p = 0; p < n; p++) {
+      local[p] = new BitSet();
+    }
+    for (int ordinal = filter.nextSetBit(0); ordinal >= 0 && ordinal < next;
+        ordinal = filter.nextSetBit(ordinal + 1)) {
+      local[ordinal % n].set(ordinal / n);
+    }
+    return local;
+  }
+
+  private void offerAll(NeighborQueue best, int k, int partition, List<Neighbor> neighbors) {
+    int n = partitions.size();
+    for (var neighbor : neighbors) {
+      int ordinal = neighbor.ordinal() * n + partition;
+      if (best.size() < k) {
+        best.push(ordinal, neighbor.similarity());
+      } else if (neighbor.similarity() > best.topScore()) {
+        best.pop();
+        best.push(ordinal, neighbor.similarity());
+      } else {
+        // partition results are sorted best first, the rest cannot qualify
+        return;
+      }
+    }
+  }
+}
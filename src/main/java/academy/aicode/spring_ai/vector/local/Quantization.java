@@ -0,0 +1,13 @@
+package academy.aicode.spring_ai.vector.local;
+
+/**
+ * Encoding of the vectors scanned by the exact-scan store.
+ */
+public enum Quantization {
+  /** Full-precision floats, 4 bytes per dimension. */
+  NONE,
+  /** Signed byte per dimension with a per-vector scale, 4x smaller. */
+  INT8,
+  /** One sign bit per dimension, 32x smaller; compared by Hamming distance. */
+  BINARY
+}
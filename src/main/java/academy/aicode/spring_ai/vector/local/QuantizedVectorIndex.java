@@ -0,0 +1,273 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Exact-scan index that compares queries against quantized codes and rescores
+ * the best candidates with the full-precision vectors.
+ *
+ * - {@link Quantization#INT8}: each dimension becomes a signed byte scaled by
+ * the largest absolute component of the vector; approximate similarity is the
+ * integer dot product times both scales
+ * - {@link Quantization#BINARY}: each dimension becomes its sign bit, packed
+ * into longs; approximate similarity is {@code 1 - 2 * hamming / dimensions}
+ * - Phase one keeps the {@code k * rescoreFactor} best codes; phase two
+ * recomputes their float dot products and returns the top k, so returned
+ * similarities are exact
+ * - With {@code rescoreFactor = 0} full-precision vectors are not kept at all
+ * and the approximate similarities are returned directly
+ *
+ * Full-precision vectors are only read for the few rescored candidates, so the
+ * scan itself touches 4x (int8) or 32x (binary) less memory than
+ * {@link FlatVectorIndex}.
+ */
+final class QuantizedVectorIndex implements VectorIndex {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final Quantization quantization;
+  private final int rescoreFactor;
+
+  private int dimensions = -1;
+  private int words;
+  private float[] vectors = new float[0];
+  private byte[] codes = new byte[0];
+  private float[] scales = new float[0];
+  private long[] bits = new long[0];
+  private final BitSet removed = new BitSet();
+  private int capacity;
+  private int count;
+  private int removedCount;
+
+  QuantizedVectorIndex(Quantization quantization, int rescoreFactor) {
+    Objects.requireNonNull(quantization, "quantization must not be null");
+    if (quantization == Quantization.NONE) {
+      throw new IllegalArgumentException("use FlatVectorIndex for unquantized vectors");
+    }
+    if (rescoreFactor < 0) {
+      throw new IllegalArgumentException("rescoreFactor must not be negative");
+    }
+    this.quantization = quantization;
+    this.rescoreFactor = rescoreFactor;
+  }
+
+  @Override
+  public int add(float[] vector) {
+    Objects.requireNonNull(vector, "vector must not be null");
+    checkDimensions(vector.length);
+    int ordinal = count;
+    ensureCapacity(ordinal + 1);
+    var normalized = Vectors.normalize(vector);
+    if (rescoring()) {
+      System.arraycopy(normalized, 0, vectors, ordinal * dimensions, dimensions);
+    }
+    if (quantization == Quantization.INT8) {
+      scales[ordinal] = quantizeInt8(normalized, codes, ordinal * dimensions);
+    } else {
+      quantizeBinary(normalized, bits, ordinal * words);
+    }
+    count++;
+    return ordinal;
+  }
+
+  @Override
+  public void remove(int ordinal) {
+    if (ordinal < 0 || ordinal >= count) {
+      throw new IllegalArgumentException("unknown ordinal " + ordinal);
+    }
+    if (!removed.get(ordinal)) {
+      removed.set(ordinal);
+      removedCount++;
+    }
+  }
+
+  @Override
+  public List<Neighbor> search(float[] query, int k, BitSet filter) {
+    Objects.requireNonNull(query, "query must not be null");
+    if (count == 0 || k <= 0 || removedCount == count) {
+      return Collections.emptyList();
+    }
+    checkDimensions(query.length);
+    var normalized = Vectors.normalize(query);
+    int limit = rescoring() ? k * rescoreFactor : k;
+    var candidates = quantization == Quantization.INT8
+        ? scanInt8(normalized, limit, filter)
+        : scanBinary(normalized, limit, filter);
+    var best = rescoring() ? rescore(normalized, candidates, k) : candidates;
+    int found = best.size();
+    int[] ordinals = new int[found];
+    float[] scores = new float[found];
+    best.drainDescending(ordinals, scores);
+    var neighbors = new ArrayList<Neighbor>(found);
+    for (int i = 0; i < found; i++) {
+      neighbors.add(new Neighbor(ordinals[i], scores[i]));
+    }
+    return neighbors;
+  }
+
+  @Override
+  public float[] vector(int ordinal) {
+    if (ordinal < 0 || ordinal >= count) {
+      throw new IllegalArgumentException("unknown ordinal " + ordinal);
+    }
+    if (!rescoring()) {
+      return null;
+    }
+    return Arrays.copyOfRange(vectors, ordinal * dimensions, (ordinal + 1) * dimensions);
+  }
+
+  @Override
+  public int size() {
+    return count - removedCount;
+  }
+
+  /**
+   * @return bytes held by the quantized codes scanned on every query
+   */
+  long codeBytes() {
+    return quantization == Quantization.INT8
+        ? (long) count * (Math.max(dimensions, 0) + Float.BYTES)
+        : (long) count * words * Long.BYTES;
+  }
+
+  /**
+   * @return bytes held by the full-precision vectors used for rescoring
+   */
+  long fullPrecisionBytes() {
+    if (!rescoring()) {
+      return 0;
+    }
+    return (long) count * Math.max(dimensions, 0) * Float.BYTES;
+  }
+
+  /**
+   * Recompute the candidates' similarity against the full-precision vectors
+   * and keep the k best.
+   */
+  private NeighborQueue rescore(float[] query, NeighborQueue candidates, int k) {
+    var best = new NeighborQueue(k, false);
+    while (!candidates.isEmpty()) {
+      int ordinal = candidates.pop();
+      offer(best, k, ordinal, Vectors.dot(query, vectors, ordinal * dimensions));
+    }
+    return best;
+  }
+
+  private NeighborQueue scanInt8(float[] query, int limit, BitSet filter) {
+    var queryCodes = new byte[dimensions];
+    float queryScale = quantizeInt8(query, queryCodes, 0);
+    var candidates = new NeighborQueue(limit, false);
+    for (int ordinal = first(filter); ordinal >= 0 && ordinal < count; ordinal = next(filter, ordinal)) {
+      if (removed.get(ordinal)) {
+        continue;
+      }
+      int offset = ordinal * dimensions;
+      int sum = 0;
+      for (int d = 0; d < dimensions; d++) {
+        sum += queryCodes[d] * codes[offset + d];
+      }
+      offer(candidates, limit, ordinal, sum * queryScale * scales[ordinal]);
+    }
+    return candidates;
+  }
+
+  private NeighborQueue scanBinary(float[] query, int limit, BitSet filter) {
+    var queryBits = new long[words];
+    quantizeBinary(query, queryBits, 0);
+    var candidates = new NeighborQueue(limit, false);
+    for (int ordinal = first(filter); ordinal >= 0 && ordinal < count; ordinal = next(filter, ordinal)) {
+      if (removed.get(ordinal)) {
+        continue;
+      }
+      int offset = ordinal * words;
+      int hamming = 0;
+      for (int w = 0; w < words; w++) {
+        hamming += Long.bitCount(queryBits[w] ^ bits[offset + w]);
+      }
+      offer(candidates, limit, ordinal, 1f - 2f * hamming / dimensions);
+    }
+    return candidates;
+  }
+
+  private static int first(BitSet filter) {
+    return filter == null ? 0 : filter.nextSetBit(0);
+  }
+
+  private static int next(BitSet filter, int ordinal) {
+    return filter == null ? ordinal + 1 : filter.nextSetBit(ordinal + 1);
+  }
+
+  private static void offer(NeighborQueue best, int limit, int ordinal, float score) {
+    if (best.size() < limit) {
+      best.push(ordinal, score);
+    } else if (score > best.topScore()) {
+      best.pop();
+      best.push(ordinal, score);
+    }
+  }
+
+  /**
+   * Write the int8 codes of a vector at {@code offset} and return the scale
+   * that maps a code back to its float value.
+   */
+  private static float quantizeInt8(float[] vector, byte[] target, int offset) {
+    float maxAbs = 0;
+    for (float value : vector) {
+      maxAbs = Math.max(maxAbs, Math.abs(value));
+    }
+    if (maxAbs == 0) {
+      return 0;
+    }
+    float scale = maxAbs / 127f;
+    for (int d = 0; d < vector.length; d++) {
+      target[offset + d] = (byte) Math.round(vector[d] / scale);
+    }
+    return scale;
+  }
+
+  private static void quantizeBinary(float[] vector, long[] target, int offset) {
+    for (int d = 0; d < vector.length; d++) {
+      if (vector[d] > 0) {
+        target[offset + (d >>> 6)] |= 1L << (d & 63);
+      }
+    }
+  }
+
+  private boolean rescoring() {
+    return rescoreFactor > 0;
+  }
+
+  private void checkDimensions(int length) {
+    if (dimensions < 0) {
+      if (length == 0) {
+        throw new IllegalArgumentException("vector must not be empty");
+      }
+      dimensions = length;
+      words = (length + 63) >>> 6;
+    } else if (length != dimensions) {
+      throw new IllegalArgumentException(
+          "vector has " + length + " dimensions but index expects " + dimensions);
+    }
+  }
+
+  private void ensureCapacity(int size) {
+    if (size <= capacity) {
+      return;
+    }
+    capacity = Math.max(INITIAL_CAPACITY, Math.max(size, capacity * 2));
+    if (rescoring()) {
+      vectors = Arrays.copyOf(vectors, Math.multiplyExact(capacity, dimensions));
+    }
+    if (quantization == Quantization.INT8) {
+      codes = Arrays.copyOf(codes, Math.multiplyExact(capacity, dimensions));
+      scales = Arrays.copyOf(scales, capacity);
+    } else {
+      bits = Arrays.copyOf(bits, Math.multiplyExact(capacity, words));
+    }
+  }
+}
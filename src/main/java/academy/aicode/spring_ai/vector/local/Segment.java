@@ -0,0 +1,184 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.ai.document.Document;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Immutable on-disk segment holding embeddings and their documents, read
+ * through a {@link MappedByteBuffer} so the OS page cache serves restarts.
+ *
+ * Layout (big-endian):
+ * - header: magic {@code AVSG}, version, sequence (long), dimensions, count
+ * - {@code count * dimensions} float32 embeddings, contiguous; unit-normalized
+ * since version 2, so indexes can score them in place ({@link MappedVector})
+ * - {@code count} records of length-prefixed UTF-8 id, text and metadata JSON
+ *
+ * Version 1 segments, which hold the embeddings as returned by the model,
+ * are still read; the next merge rewrites them as version 2.
+ *
+ * A segment is written once to a temporary file and moved into place, so a
+ * file with a segment name is always complete ("sealed").
+ */
+final class Segment {
+
+  static final String EXTENSION = ".seg";
+
+  private static final int MAGIC = 0x41565347; // "AVSG"
+  private static final int VERSION = 2;
+  private static final int FIRST_NORMALIZED_VERSION = 2;
+  private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+  };
+
+  private final Path file;
+  private final long sequence;
+  private final int dimensions;
+  private final int count;
+  private final boolean normalized;
+  private final MappedByteBuffer buffer;
+
+  private Segment(Path file, long sequence, int dimensions, int count, boolean normalized,
+      MappedByteBuffer buffer) {
+    this.file = file;
+    this.sequence = sequence;
+    this.dimensions = dimensions;
+    this.count = count;
+    this.normalized = normalized;
+    this.buffer = buffer;
+  }
+
+  Path file() {
+    return file;
+  }
+
+  /**
+   * @return write order of the segment; a record in a higher sequence
+   *         supersedes one with the same id in a lower sequence
+   */
+  long sequence() {
+    return sequence;
+  }
+
+  int count() {
+    return count;
+  }
+
+  /**
+   * Write a sealed segment into {@code directory} under {@code name}.
+   *
+   * @param documents  documents to store, in order
+   * @param embeddings one embedding per document, all of the same length;
+   *                   stored unit-normalized
+   */
+  static Path write(Path directory, String name, long sequence, List<Document> documents,
+      List<float[]> embeddings) throws IOException {
+    if (documents.size() != embeddings.size()) {
+      throw new IllegalArgumentException("expected one embedding per document");
+    }
+    int dimensions = embeddings.isEmpty() ? 0 : embeddings.get(0).length;
+    var target = directory.resolve(name + EXTENSION);
+    var tmp = Files.createTempFile(directory, name, ".tmp");
+    try (var channel = FileChannel.open(tmp, StandardOpenOption.WRITE);
+        var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(sequence);
+      out.writeInt(dimensions);
+      out.writeInt(documents.size());
+      for (var embedding : embeddings) {
+        if (embedding.length != dimensions) {
+          throw new IllegalArgumentException(
+              "embedding has " + embedding.length + " dimensions but segment expects " + dimensions);
+        }
+        for (float value : Vectors.normalize(embedding)) {
+          out.writeFloat(value);
+        }
+      }
+      for (var document : documents) {
+        writeBytes(out, document.getId().getBytes(StandardCharsets.UTF_8));
+        writeBytes(out, String.valueOf(document.getText()).getBytes(StandardCharsets.UTF_8));
+        writeBytes(out, OBJECT_MAPPER.writeValueAsBytes(document.getMetadata()));
+      }
+      out.flush();
+      channel.force(true);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tmp);
+      throw e;
+    }
+    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+    return target;
+  }
+
+  /**
+   * Map a sealed segment file read-only and validate its header.
+   */
+  static Segment open(Path file) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.limit() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+        throw new IOException("not a segment file: " + file);
+      }
+      int version = buffer.getInt();
+      if (version < 1 || version > VERSION) {
+        throw new IOException("unsupported segment version " + version + ": " + file);
+      }
+      long sequence = buffer.getLong();
+      int dimensions = buffer.getInt();
+      int count = buffer.getInt();
+      return new Segment(file, sequence, dimensions, count, version >= FIRST_NORMALIZED_VERSION, buffer);
+    }
+  }
+
+  /**
+   * Visit every record in write order. Embeddings stay in the mapping;
+   * documents are rebuilt from the stored id, text and metadata.
+   */
+  void forEach(RecordVisitor visitor) throws IOException {
+    var view = buffer.duplicate();
+    view.position(HEADER_BYTES);
+    var vectors = view.slice().asFloatBuffer().asReadOnlyBuffer();
+    view.position(HEADER_BYTES + count * dimensions * Float.BYTES);
+    for (int i = 0; i < count; i++) {
+      var embedding = new MappedVector(vectors, i * dimensions, dimensions, normalized);
+      var id = new String(readBytes(view), StandardCharsets.UTF_8);
+      var text = new String(readBytes(view), StandardCharsets.UTF_8);
+      Map<String, Object> metadata = OBJECT_MAPPER.readValue(readBytes(view), METADATA_TYPE);
+      visitor.visit(new Document(id, text, metadata), embedding);
+    }
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(ByteBuffer buffer) {
+    var bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  /** Callback receiving each stored document and its mapped embedding. */
+  @FunctionalInterface
+  interface RecordVisitor {
+    void visit(Document document, MappedVector embedding) throws IOException;
+  }
+}
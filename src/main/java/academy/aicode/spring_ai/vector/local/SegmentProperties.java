@@ -0,0 +1,33 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * On-disk persistence for the in-process vector stores.
+ */
+@ConfigurationProperties(prefix = "astrobiblia.vector.segments")
+public class SegmentProperties {
+  /** Directory holding segment files; when unset the stores live in memory only. */
+  private Path directory;
+
+  /** Number of sealed segments above which they are merged in the background. */
+  private int maxSegments = 8;
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(Path directory) {
+    this.directory = directory;
+  }
+
+  public int getMaxSegments() {
+    return maxSegments;
+  }
+
+  public void setMaxSegments(int maxSegments) {
+    this.maxSegments = maxSegments;
+  }
+}
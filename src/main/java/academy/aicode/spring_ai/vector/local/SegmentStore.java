@@ -0,0 +1,310 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+
+/**
+ * Append-only persistence for an in-process vector store, so a restart
+ * reloads embeddings from disk instead of calling the embedding model again.
+ *
+ * - Every {@link #append} writes a new sealed {@link Segment}; segments are
+ * never modified afterwards
+ * - Every {@link #delete} appends (sequence, id) to {@code deletes.log}
+ * - Sequences order writes: a record is live when no later segment stores the
+ * same id and no later delete names it
+ * - Once more than {@code maxSegments} segments exist, a background thread
+ * merges them into one segment holding only live records and prunes the
+ * deletes the merge made redundant
+ * - {@link #load} hands out embeddings as {@link MappedVector}s, so nothing
+ * is copied onto the heap unless the index asks for it. Merged segment
+ * files are unlinked, but their space is only reclaimed once no index maps
+ * them any more (after the next restart)
+ *
+ * Thread-safe: writes and the final swap of a merge are synchronized; the
+ * merge itself reads immutable segments without holding the lock.
+ */
+public class SegmentStore implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(SegmentStore.class);
+
+  private static final String DELETES_FILE = "deletes.log";
+
+  private final Path directory;
+  private final int maxSegments;
+  private final ExecutorService merger = Executors
+      .newSingleThreadExecutor(Thread.ofVirtual().name("segment-merge").factory());
+  private final AtomicBoolean merging = new AtomicBoolean();
+  private final List<Path> segments = new ArrayList<>();
+  private long nextSequence = 1;
+  private boolean loaded;
+
+  /**
+   * @param directory   directory holding the segment files; created if missing
+   * @param maxSegments segment count above which a background merge starts
+   */
+  public SegmentStore(Path directory, int maxSegments) {
+    this.directory = Objects.requireNonNull(directory, "directory must not be null");
+    if (maxSegments < 1) {
+      throw new IllegalArgumentException("maxSegments must be >= 1");
+    }
+    this.maxSegments = maxSegments;
+  }
+
+  /**
+   * Read every live record from disk, oldest first. Must be called once
+   * before any write so new segments are numbered after existing ones.
+   *
+   * @param visitor receives each live document and its mapped embedding
+   */
+  synchronized void load(Segment.RecordVisitor visitor) throws IOException {
+    Files.createDirectories(directory);
+    segments.clear();
+    var opened = new ArrayList<Segment>();
+    try (var files = Files.list(directory)) {
+      for (var file : files.filter(f -> f.getFileName().toString().endsWith(Segment.EXTENSION)).toList()) {
+        opened.add(Segment.open(file));
+      }
+    }
+    opened.sort(Comparator.comparingLong(Segment::sequence));
+    var deletes = readDeletes();
+    var live = liveRecords(opened, deletes);
+    for (var segment : opened) {
+      segments.add(segment.file());
+      nextSequence = Math.max(nextSequence, segment.sequence() + 1);
+    }
+    for (long sequence : deletes.values()) {
+      nextSequence = Math.max(nextSequence, sequence + 1);
+    }
+    for (var record : live.values()) {
+      visitor.visit(record.document(), record.embedding());
+    }
+    loaded = true;
+    log.info("Loaded {} documents from {} segments in {}", live.size(), opened.size(), directory);
+    scheduleMergeIfNeeded();
+  }
+
+  /**
+   * Persist documents and their embeddings as a new sealed segment.
+   */
+  public synchronized void append(List<Document> documents, List<float[]> embeddings) {
+    checkLoaded();
+    if (documents.isEmpty()) {
+      return;
+    }
+    long sequence = nextSequence++;
+    try {
+      Files.createDirectories(directory);
+      segments.add(Segment.write(directory, segmentName(sequence), sequence, documents, embeddings));
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not write segment to " + directory, e);
+    }
+    log.debug("Sealed segment {} with {} documents ({} segments)", sequence, documents.size(), segments.size());
+    scheduleMergeIfNeeded();
+  }
+
+  /**
+   * Record that the given ids were deleted.
+   */
+  public synchronized void delete(Collection<String> ids) {
+    checkLoaded();
+    if (ids.isEmpty()) {
+      return;
+    }
+    long sequence = nextSequence++;
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+        directory.resolve(DELETES_FILE), StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+      for (var id : ids) {
+        out.writeLong(sequence);
+        out.writeUTF(id);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not record deletes in " + directory, e);
+    }
+  }
+
+  public synchronized int segmentCount() {
+    return segments.size();
+  }
+
+  /**
+   * Merge every sealed segment into one. The merged segment takes the highest
+   * input sequence, so later writes still supersede it.
+   */
+  void merge() {
+    try {
+      List<Path> inputs;
+      synchronized (this) {
+        inputs = List.copyOf(segments);
+      }
+      if (inputs.size() < 2) {
+        return;
+      }
+      var opened = new ArrayList<Segment>(inputs.size());
+      for (var file : inputs) {
+        opened.add(Segment.open(file));
+      }
+      opened.sort(Comparator.comparingLong(Segment::sequence));
+      long mergedSequence = opened.get(opened.size() - 1).sequence();
+      Map<String, Long> deletes;
+      synchronized (this) {
+        deletes = readDeletes();
+      }
+      var live = List.copyOf(liveRecords(opened, deletes).values());
+      var documents = live.stream().map(LiveRecord::document).toList();
+      var embeddings = copiedOnRead(live);
+
+      synchronized (this) {
+        Path merged = null;
+        if (!documents.isEmpty()) {
+          merged = Segment.write(directory, segmentName(nextSequence++), mergedSequence, documents, embeddings);
+        }
+        for (var file : inputs) {
+          Files.deleteIfExists(file);
+        }
+        segments.removeAll(inputs);
+        if (merged != null) {
+          segments.add(0, merged);
+        }
+        pruneDeletes(mergedSequence);
+      }
+      log.info("Merged {} segments into one with {} live documents", inputs.size(), documents.size());
+    } catch (IOException | RuntimeException e) {
+      log.error("Segment merge in {} failed: {}", directory, e.getMessage());
+    } finally {
+      merging.set(false);
+    }
+  }
+
+  @Override
+  public void close() {
+    merger.shutdown();
+    try {
+      if (!merger.awaitTermination(30, TimeUnit.SECONDS)) {
+        log.warn("Segment merge still running at shutdown; it will be retried on next start");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Resolve which records survive: the latest write of each id, unless a
+   * delete with a higher sequence names it. Iteration order is write order.
+   */
+  private static Map<String, LiveRecord> liveRecords(List<Segment> sortedSegments, Map<String, Long> deletes)
+      throws IOException {
+    var live = new LinkedHashMap<String, LiveRecord>();
+    for (var segment : sortedSegments) {
+      segment.forEach((document, embedding) -> {
+        live.remove(document.getId());
+        long deletedAt = deletes.getOrDefault(document.getId(), Long.MIN_VALUE);
+        if (deletedAt < segment.sequence()) {
+          live.put(document.getId(), new LiveRecord(document, embedding));
+        }
+      });
+    }
+    return live;
+  }
+
+  /**
+   * @return latest delete sequence per id; a truncated trailing entry from a
+   *         crash is ignored
+   */
+  private Map<String, Long> readDeletes() throws IOException {
+    var deletes = new HashMap<String, Long>();
+    var file = directory.resolve(DELETES_FILE);
+    if (!Files.isRegularFile(file)) {
+      return deletes;
+    }
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      while (true) {
+        long sequence = in.readLong();
+        deletes.merge(in.readUTF(), sequence, Math::max);
+      }
+    } catch (EOFException e) {
+      return deletes;
+    }
+  }
+
+  /**
+   * Drop deletes at or below the merged sequence: every record they could
+   * hide is gone.
+   */
+  private void pruneDeletes(long mergedSequence) throws IOException {
+    var remaining = readDeletes();
+    remaining.values().removeIf(sequence -> sequence <= mergedSequence);
+    var tmp = Files.createTempFile(directory, DELETES_FILE, ".tmp");
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+      for (var entry : remaining.entrySet()) {
+        out.writeLong(entry.getValue());
+        out.writeUTF(entry.getKey());
+      }
+    }
+    Files.move(tmp, directory.resolve(DELETES_FILE), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Embeddings of the records, each copied out of its mapping only when the
+   * segment writer reaches it, so a merge never holds them all on the heap.
+   */
+  private static List<float[]> copiedOnRead(List<LiveRecord> records) {
+    return new AbstractList<>() {
+      @Override
+      public float[] get(int index) {
+        return records.get(index).embedding().copy();
+      }
+
+      @Override
+      public int size() {
+        return records.size();
+      }
+    };
+  }
+
+  private void scheduleMergeIfNeeded() {
+    if (segments.size() > maxSegments && merging.compareAndSet(false, true)) {
+      merger.execute(this::merge);
+    }
+  }
+
+  private void checkLoaded() {
+    if (!loaded) {
+      throw new IllegalStateException("segments in " + directory + " must be loaded before writing");
+    }
+  }
+
+  private static String segmentName(long sequence) {
+    return String.format("segment-%019d", sequence);
+  }
+
+  private record LiveRecord(Document document, MappedVector embedding) {
+  }
+}
@@ -0,0 +1,41 @@
+package academy.aicode.spring_ai.vector.local;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Dot product using the incubating JDK Vector API, processing
+ * {@code SPECIES_PREFERRED} lanes per step (8 floats with AVX2, 16 with
+ * AVX-512) and finishing the tail with scalar code.
+ *
+ * Only referenced from {@link Vectors} after the {@code jdk.incubator.vector}
+ * module has been found, so the class is never loaded without it.
+ */
+final class VectorApiDot {
+
+  private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+  private VectorApiDot() {
+  }
+
+  static int lanes() {
+    return SPECIES.length();
+  }
+
+  static float dot(float[] a, int offsetA, float[] b, int offsetB, int length) {
+    var accumulator = FloatVector.zero(SPECIES);
+    int i = 0;
+    int bound = SPECIES.loopBound(length);
+    for (; i < bound; i += SPECIES.length()) {
+      var left = FloatVector.fromArray(SPECIES, a, offsetA + i);
+      var right = FloatVector.fromArray(SPECIES, b, offsetB + i);
+      accumulator = left.fma(right, accumulator);
+    }
+    float sum = accumulator.reduceLanes(VectorOperators.ADD);
+    for (; i < length; i++) {
+      sum += a[offsetA + i] * b[offsetB + i];
+    }
+    return sum;
+  }
+}
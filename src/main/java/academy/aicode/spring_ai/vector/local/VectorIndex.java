@@ -0,0 +1,80 @@
+package academy.aicode.spring_ai.vector.local;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * In-memory nearest-neighbour index over fixed-size float vectors.
+ *
+ * Vectors are addressed by a dense ordinal assigned on insertion. Similarity
+ * is the dot product of unit-normalized vectors (i.e. cosine similarity).
+ *
+ * Implementations are not thread-safe for writes; callers must serialize
+ * {@link #add(float[])} and {@link #remove(int)} but may run concurrent
+ * {@link #search(float[], int)} calls while no write is in progress.
+ */
+interface VectorIndex {
+
+  /**
+   * Add a vector to the index. The vector is copied and normalized.
+   *
+   * @param vector non-null vector; all vectors must share the same dimensions
+   * @return ordinal assigned to the vector
+   */
+  int add(float[] vector);
+
+  /**
+   * Add a vector restored from a sealed segment. Indexes that can score it
+   * inside the mapping keep only a reference; the default copies it onto the
+   * heap like {@link #add(float[])}.
+   *
+   * @param vector non-null mapped vector with the index's dimensions
+   * @return ordinal assigned to the vector
+   */
+  default int addMapped(MappedVector vector) {
+    return add(vector.copy());
+  }
+
+  /**
+   * Mark a previously added vector as removed. Removed ordinals are never
+   * returned by {@link #search(float[], int)}.
+   *
+   * @param ordinal ordinal returned by {@link #add(float[])}
+   */
+  void remove(int ordinal);
+
+  /**
+   * Find the vectors most similar to the query.
+   *
+   * @param query non-null query vector (normalized internally)
+   * @param k     maximum number of results
+   * @return neighbours ordered by descending similarity (at most k)
+   */
+  default List<Neighbor> search(float[] query, int k) {
+    return search(query, k, null);
+  }
+
+  /**
+   * Find the vectors most similar to the query among the allowed ordinals.
+   * Implementations only score allowed ordinals, so a selective filter makes
+   * the search cheaper.
+   *
+   * @param query  non-null query vector (normalized internally)
+   * @param k      maximum number of results
+   * @param filter ordinals that may be returned; null allows all
+   * @return neighbours ordered by descending similarity (at most k)
+   */
+  List<Neighbor> search(float[] query, int k, BitSet filter);
+
+  /**
+   * @param ordinal ordinal returned by {@link #add(float[])}
+   * @return a copy of the stored, normalized vector, or null when the index
+   *         keeps only a compressed form of it
+   */
+  float[] vector(int ordinal);
+
+  /**
+   * @return number of live (not removed) vectors
+   */
+  int size();
+}
@@ -0,0 +1,87 @@
+package academy.aicode.spring_ai.vector.local;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Small helpers for primitive float vectors shared by the local indexes.
+ *
+ * Dot products use the JDK Vector API when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, and a scalar loop otherwise.
+ */
+final class Vectors {
+
+  private static final Logger log = LoggerFactory.getLogger(Vectors.class);
+
+  static final boolean SIMD = detectVectorApi();
+
+  private Vectors() {
+  }
+
+  private static boolean detectVectorApi() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+      log.info("jdk.incubator.vector not available; using scalar dot products");
+      return false;
+    }
+    try {
+      log.info("Using JDK Vector API for dot products ({} float lanes)", VectorApiDot.lanes());
+      return true;
+    } catch (LinkageError e) {
+      log.warn("JDK Vector API unusable ({}); using scalar dot products", e.toString());
+      return false;
+    }
+  }
+
+  /**
+   * Return a unit-length copy of the given vector. A zero vector is copied
+   * unchanged.
+   */
+  static float[] normalize(float[] vector) {
+    var copy = vector.clone();
+    double norm = 0;
+    for (float value : copy) {
+      norm += value * value;
+    }
+    if (norm == 0) {
+      return copy;
+    }
+    float inverse = (float) (1.0 / Math.sqrt(norm));
+    for (int i = 0; i < copy.length; i++) {
+      copy[i] *= inverse;
+    }
+    return copy;
+  }
+
+  /**
+   * Dot product between {@code query} and the vector stored at
+   * {@code offset} in a contiguous {@code data} array.
+   */
+  static float dot(float[] query, float[] data, int offset) {
+    return dot(query, 0, data, offset, query.length);
+  }
+
+  /**
+   * Dot product between two vectors stored in the same contiguous array.
+   */
+  static float dot(float[] data, int offsetA, int offsetB, int dimensions) {
+    return dot(data, offsetA, data, offsetB, dimensions);
+  }
+
+  /**
+   * Dot product of {@code length} floats starting at the given offsets.
+   */
+  static float dot(float[] a, int offsetA, float[] b, int offsetB, int length) {
+    if (SIMD) {
+      return VectorApiDot.dot(a, offsetA, b, offsetB, length);
+    }
+    return scalarDot(a, offsetA, b, offsetB, length);
+  }
+
+  static float scalarDot(float[] a, int offsetA, float[] b, int offsetB, int length) {
+    float sum = 0;
+    for (int i = 0; i < length; i++) {
+      sum += a[offsetA + i] * b[offsetB + i];
+    }
+    return sum;
+  }
+}
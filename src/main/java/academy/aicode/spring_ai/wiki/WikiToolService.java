@@ -9,6 +9,7 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -19,12 +20,18 @@ public class WikiToolService {
 
   private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-  private static final String WIKIPEDIA_URL = "https://es.wikipedia.org/api/rest_v1/page/";
   private static final String USER_AGENT_HEADER = "User-Agent";
   private static final String USER_AGENT_VALUE = "JavaIA/1.0 (+https://aicode.academy)";
   private static final String ACCEPT_HEADER = "Accept";
   private static final String ACCEPT_JSON = "application/json";
 
+  private final String summaryUrl;
+
+  public WikiToolService(
+      @Value("${astrobiblia.wikipedia.summary-url:https://es.wikipedia.org/api/rest_v1/page/summary/}") String summaryUrl) {
+    this.summaryUrl = summaryUrl;
+  }
+
   /**
    * Fetches a summary from Wikipedia for a given topic.
    * 
@@ -35,7 +42,7 @@ public class WikiToolService {
   public String fetchWikipedia(String topic) {
     try {
       var encodedTopic = encodeTopic(topic);
-      var url = WIKIPEDIA_URL + "summary/" + encodedTopic;
+      var url = summaryUrl + encodedTopic;
       var request = buildRequest(url);
       var response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
       return extractTextNode(response);
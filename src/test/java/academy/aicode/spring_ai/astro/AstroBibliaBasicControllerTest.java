@@ -0,0 +1,170 @@
+package academy.aicode.spring_ai.astro;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import academy.aicode.spring_ai.chat.AnswerCache;
+import academy.aicode.spring_ai.chat.SemanticResponseCache;
+import academy.aicode.spring_ai.chat.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AstroBibliaBasicControllerTest {
+
+  private SimpleMeterRegistry registry;
+  private BlockingChatModel chatModel;
+  private AstroBibliaBasicController controller;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    chatModel = new BlockingChatModel();
+    var responseCache = new SemanticResponseCache(new UnusedEmbeddingModel(), Set.of(), 0.95, Duration.ofHours(1),
+        0, registry, Clock.systemUTC());
+    var answerCache = new AnswerCache(10, Duration.ofHours(1), Duration.ofHours(1), registry);
+    controller = new AstroBibliaBasicController(ChatClient.builder(chatModel), responseCache, answerCache,
+        new SingleFlight(registry));
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldShareModelCallForPlanetNamesDifferingInCaseAndAccents() throws Exception {
+    var first = CompletableFuture.supplyAsync(() -> controller.getPlanetSatellites("Júpiter"), executor);
+    waitFor(() -> chatModel.calls.get() == 1);
+    var second = CompletableFuture.supplyAsync(() -> controller.getPlanetSatellites("jupiter"), executor);
+    waitFor(() -> sharedCalls() == 1);
+
+    chatModel.release.countDown();
+
+    assertEquals("Ío, Europa, Ganímedes y Calisto", first.get(5, TimeUnit.SECONDS));
+    assertEquals("Ío, Europa, Ganímedes y Calisto", second.get(5, TimeUnit.SECONDS));
+    assertEquals(1, chatModel.calls.get());
+  }
+
+  @Test
+  void shouldNotShareAnswerBetweenPlanetsEvenWhenPromptsEmbedAlike() {
+    var echo = new EchoChatModel();
+    var responseCache = new SemanticResponseCache(new ConstantEmbeddingModel(), Set.of("basic/astro", "basic/planet"),
+        0.95, Duration.ofHours(1), 10, registry, Clock.systemUTC());
+    var answerCache = new AnswerCache(10, Duration.ofHours(1), Duration.ofHours(1), registry);
+    var planets = new AstroBibliaBasicController(ChatClient.builder(echo), responseCache, answerCache,
+        new SingleFlight(registry));
+
+    var mercury = planets.getPlanetInfo("mercurio");
+    var mars = planets.getPlanetInfo("marte");
+
+    assertNotEquals(mercury, mars);
+    assertTrue(mars.contains("marte"), mars);
+    assertEquals(2, echo.calls.get());
+  }
+
+  private double sharedCalls() {
+    var counter = registry.find("astrobiblia.chat.single-flight.requests").tag("result", "shared").counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+  }
+
+  /**
+   * Answers every prompt once {@code release} opens, counting the calls.
+   */
+  private static class BlockingChatModel implements ChatModel {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+      calls.incrementAndGet();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return new ChatResponse(List.of(new Generation(new AssistantMessage("Ío, Europa, Ganímedes y Calisto"))));
+    }
+  }
+
+  /**
+   * Answers with the user prompt, so each planet gets a distinct answer.
+   */
+  private static class EchoChatModel implements ChatModel {
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+      calls.incrementAndGet();
+      return new ChatResponse(List.of(new Generation(new AssistantMessage(prompt.getUserMessage().getText()))));
+    }
+  }
+
+  /**
+   * Embeds every text to the same vector: the worst case for one-word
+   * template variants.
+   */
+  private static class ConstantEmbeddingModel implements EmbeddingModel {
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+      var embeddings = new ArrayList<Embedding>();
+      for (int i = 0; i < request.getInstructions().size(); i++) {
+        embeddings.add(new Embedding(new float[] { 1f, 0f }, i));
+      }
+      return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+      return new float[] { 1f, 0f };
+    }
+  }
+
+  private static class UnusedEmbeddingModel implements EmbeddingModel {
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public float[] embed(Document document) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package academy.aicode.spring_ai.astro;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import academy.aicode.spring_ai.chat.SingleFlight;
+import academy.aicode.spring_ai.load.WikipediaStub;
+
+@ActiveProfiles("fake")
+@SpringBootTest(properties = {
+    "astrobiblia.fake.chat.latency.p50=1ms",
+    "astrobiblia.fake.chat.latency.p99=1ms",
+    "astrobiblia.fake.chat.token-interval=1ms",
+    "astrobiblia.fake.embedding.latency.p50=1ms",
+    "astrobiblia.fake.embedding.latency.p99=1ms",
+    "astrobiblia.fake.embedding.dimensions=64" })
+@AutoConfigureMockMvc
+class AstroBibliaRagControllerTest {
+
+  private static WikipediaStub wikipedia;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ChatModel chatModel;
+
+  @Autowired
+  private SingleFlight singleFlight;
+
+  @DynamicPropertySource
+  static void localServices(DynamicPropertyRegistry registry) throws IOException {
+    wikipedia = new WikipediaStub(Duration.ZERO);
+    registry.add("astrobiblia.wikipedia.summary-url", wikipedia::summaryUrl);
+  }
+
+  @AfterAll
+  static void stopServices() {
+    wikipedia.close();
+  }
+
+  @Test
+  void shouldStreamWebAnswerTokenByToken() throws Exception {
+    var answer = mockMvc.perform(get("/rag/ama/web").param("prompt", "Neptuno"))
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+    var tokens = ServerSentEvents.data(mockMvc, get("/rag/ama/web/stream").param("prompt", "Neptuno"));
+
+    assertTrue(tokens.size() > 1, "expected several events, got " + tokens);
+    assertEquals(answer, String.join("", tokens));
+  }
+
+  @Test
+  void shouldCancelModelStreamWhenClientDisconnects() {
+    var model = new CancellationCountingChatModel(chatModel);
+    var controller = new AstroBibliaRagController(ChatClient.builder(model), singleFlight, wikipedia.summaryUrl());
+
+    var first = controller.getFromWebStream("Plutón").take(2).collectList().block(Duration.ofSeconds(10));
+
+    assertEquals(2, first.size());
+    assertEquals(1, model.cancellations());
+  }
+}
@@ -0,0 +1,101 @@
+package academy.aicode.spring_ai.astro;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import academy.aicode.spring_ai.chat.SingleFlight;
+import academy.aicode.spring_ai.distance.DistanceConversionToolService;
+import academy.aicode.spring_ai.load.WikipediaStub;
+import academy.aicode.spring_ai.wiki.WikiToolService;
+
+@ActiveProfiles("fake")
+@SpringBootTest(properties = {
+    "astrobiblia.fake.chat.latency.p50=1ms",
+    "astrobiblia.fake.chat.latency.p99=1ms",
+    "astrobiblia.fake.chat.token-interval=1ms",
+    "astrobiblia.fake.embedding.latency.p50=1ms",
+    "astrobiblia.fake.embedding.latency.p99=1ms",
+    "astrobiblia.fake.embedding.dimensions=64" })
+@AutoConfigureMockMvc
+class AstroBibliaToolControllerTest {
+
+  private static WikipediaStub wikipedia;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ChatModel chatModel;
+
+  @Autowired
+  private WikiToolService wikiToolService;
+
+  @Autowired
+  private DistanceConversionToolService distanceConversionToolService;
+
+  @Autowired
+  private SingleFlight singleFlight;
+
+  @DynamicPropertySource
+  static void localServices(DynamicPropertyRegistry registry) throws IOException {
+    wikipedia = new WikipediaStub(Duration.ZERO);
+    registry.add("astrobiblia.wikipedia.summary-url", wikipedia::summaryUrl);
+    // run the WikipediaFetcher tool against the stub instead of simulating its result
+    registry.add("astrobiblia.fake.chat.tool-results[WikipediaFetcher]", () -> "");
+  }
+
+  @AfterAll
+  static void stopServices() {
+    wikipedia.close();
+  }
+
+  @Test
+  void shouldStreamWikiAnswerTokenByTokenAfterToolCall() throws Exception {
+    var answer = mockMvc.perform(get("/tool/ama/wiki").param("prompt", "Saturno"))
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+    var tokens = ServerSentEvents.data(mockMvc, get("/tool/ama/wiki/stream").param("prompt", "Saturno"));
+
+    assertTrue(tokens.size() > 1, "expected several events, got " + tokens);
+    assertEquals(answer, String.join("", tokens));
+    assertTrue(answer.contains("Saturno es un objeto astronómico"), answer);
+  }
+
+  @Test
+  void shouldStreamDistanceAnswerWithToolResult() throws Exception {
+    var tokens = ServerSentEvents.data(mockMvc,
+        get("/tool/ama/distance/stream").param("prompt", "¿Cuántos kilómetros son 100 años luz?"));
+
+    assertTrue(tokens.size() > 1, "expected several events, got " + tokens);
+    assertTrue(String.join("", tokens).contains("LIGHT_YEAR equals"), String.join("", tokens));
+  }
+
+  @Test
+  void shouldCancelModelStreamWhenClientDisconnects() {
+    var model = new CancellationCountingChatModel(chatModel);
+    var controller = new AstroBibliaToolController(ChatClient.builder(model), wikiToolService,
+        distanceConversionToolService, singleFlight);
+
+    var first = controller.getFromWikiStream("Urano").take(2).collectList().block(Duration.ofSeconds(10));
+
+    assertEquals(2, first.size());
+    assertEquals(1, model.cancellations());
+  }
+}
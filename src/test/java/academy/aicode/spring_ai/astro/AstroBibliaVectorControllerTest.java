@@ -0,0 +1,200 @@
+package academy.aicode.spring_ai.astro;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import academy.aicode.spring_ai.chat.SingleFlight;
+import academy.aicode.spring_ai.vector.AstroBibliaVectorService;
+import academy.aicode.spring_ai.vector.BulkIngestService;
+import academy.aicode.spring_ai.vector.ContextPacker;
+import academy.aicode.spring_ai.vector.DocumentRequest;
+import academy.aicode.spring_ai.vector.EmbeddingMigrationService;
+import academy.aicode.spring_ai.vector.IngestJobQueue;
+import academy.aicode.spring_ai.vector.MmrReranker;
+
+@ActiveProfiles("fake")
+@SpringBootTest(properties = {
+    "astrobiblia.fake.chat.latency.p50=1ms",
+    "astrobiblia.fake.chat.latency.p99=1ms",
+    "astrobiblia.fake.chat.token-interval=1ms",
+    "astrobiblia.fake.embedding.latency.p50=1ms",
+    "astrobiblia.fake.embedding.latency.p99=1ms",
+    "astrobiblia.fake.embedding.dimensions=64" })
+@AutoConfigureMockMvc
+class AstroBibliaVectorControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private AstroBibliaVectorService vectorService;
+
+  @Autowired
+  private ChatModel chatModel;
+
+  @Autowired
+  private EmbeddingModel embeddingModel;
+
+  @Autowired
+  private BulkIngestService bulkIngestService;
+
+  @Autowired
+  private IngestJobQueue ingestJobQueue;
+
+  @Autowired
+  private EmbeddingMigrationService migrationService;
+
+  @Autowired
+  private MmrReranker mmrReranker;
+
+  @Autowired
+  private ContextPacker contextPacker;
+
+  @Autowired
+  private SingleFlight singleFlight;
+
+  @BeforeEach
+  void setUp() {
+    vectorService.addDocuments(List.of(
+        new DocumentRequest("Marte es el planeta rojo.", Map.of("source", "test")),
+        new DocumentRequest("Júpiter es el planeta más grande.", Map.of("source", "test"))));
+  }
+
+  @Test
+  void shouldStreamOneNdjsonLinePerDocument() throws Exception {
+    var started = mockMvc.perform(get("/vector/ama/stream")
+        .param("prompt", "planeta")
+        .param("similarityThreshold", "0")
+        .param("filter", "source == 'test'")
+        .accept("application/x-ndjson"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    var body = mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+    var lines = body.lines().toList();
+
+    assertEquals(2, lines.size());
+    for (var line : lines) {
+      assertTrue(objectMapper.readTree(line).path("text").asText().contains("planeta"), line);
+    }
+  }
+
+  @Test
+  void shouldStreamDocumentEventsFollowedByDoneEvent() throws Exception {
+    var events = streamEvents(get("/vector/ama/stream")
+        .param("prompt", "planeta")
+        .param("similarityThreshold", "0")
+        .param("filter", "source == 'test'"));
+
+    assertEquals(3, events.length);
+    for (int i = 0; i < 2; i++) {
+      assertTrue(events[i].startsWith("event:document\ndata:"), events[i]);
+      var data = events[i].substring("event:document\ndata:".length());
+      assertTrue(objectMapper.readTree(data).path("text").asText().contains("planeta"), data);
+    }
+    assertEquals("event:done\ndata:{\"count\":2}", events[2]);
+  }
+
+  @Test
+  void shouldSendOnlyDoneEventWhenNothingMatches() throws Exception {
+    var events = streamEvents(get("/vector/ama/stream")
+        .param("prompt", "planeta")
+        .param("filter", "source == 'none'"));
+
+    assertArrayEquals(new String[] { "event:done\ndata:{\"count\":0}" }, events);
+  }
+
+  @Test
+  void shouldStreamServerSentEventsByDefault() throws Exception {
+    var started = mockMvc.perform(get("/vector/ama/stream")
+        .param("prompt", "planeta")
+        .param("filter", "source == 'none'"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    var body = mockMvc.perform(asyncDispatch(started))
+        .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+    assertEquals("event:done\ndata:{\"count\":0}\n\n", body);
+  }
+
+  @Test
+  void shouldRejectInvalidFilterBeforeStreaming() throws Exception {
+    mockMvc.perform(get("/vector/ama/stream")
+        .param("prompt", "planeta")
+        .param("filter", "source ==")
+        .accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(request().asyncNotStarted())
+        .andExpect(status().isBadRequest());
+  }
+
+  private String[] streamEvents(MockHttpServletRequestBuilder builder) throws Exception {
+    var started = mockMvc.perform(builder.accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    var body = mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    return body.split("\n\n");
+  }
+
+  @Test
+  void shouldStreamChatAnswerTokenByToken() throws Exception {
+    var answer = mockMvc.perform(get("/vector/chat").param("question", "¿Qué planeta es rojo?"))
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+    var tokens = ServerSentEvents.data(mockMvc,
+        get("/vector/chat/stream").param("question", "¿Qué planeta es rojo?"));
+
+    assertTrue(tokens.size() > 1, "expected several events, got " + tokens);
+    assertEquals(answer, String.join("", tokens));
+  }
+
+  @Test
+  void shouldCancelModelStreamWhenClientDisconnects() {
+    var model = new CancellationCountingChatModel(chatModel);
+    var controller = new AstroBibliaVectorController(ChatClient.builder(model), embeddingModel, vectorService,
+        bulkIngestService, ingestJobQueue, migrationService, mmrReranker, contextPacker, singleFlight, objectMapper,
+        3, 1500);
+
+    var first = controller.chatWithVectorStream("¿Cuál es el planeta más grande?").take(2).collectList()
+        .block(Duration.ofSeconds(10));
+
+    assertEquals(2, first.size());
+    assertEquals(1, model.cancellations());
+  }
+}
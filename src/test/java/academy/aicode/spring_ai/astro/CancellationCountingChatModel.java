@@ -0,0 +1,43 @@
+package academy.aicode.spring_ai.astro;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Delegating {@link ChatModel} that counts the streams cancelled by their
+ * subscriber, to check that a client disconnect reaches the model call.
+ */
+final class CancellationCountingChatModel implements ChatModel {
+
+  private final ChatModel delegate;
+  private final AtomicInteger cancellations = new AtomicInteger();
+
+  CancellationCountingChatModel(ChatModel delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public ChatResponse call(Prompt prompt) {
+    return delegate.call(prompt);
+  }
+
+  @Override
+  public Flux<ChatResponse> stream(Prompt prompt) {
+    return delegate.stream(prompt).doOnCancel(cancellations::incrementAndGet);
+  }
+
+  @Override
+  public ChatOptions getDefaultOptions() {
+    return delegate.getDefaultOptions();
+  }
+
+  int cancellations() {
+    return cancellations.get();
+  }
+}
@@ -0,0 +1,48 @@
+package academy.aicode.spring_ai.astro;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Runs a {@code text/event-stream} request through {@link MockMvc} to the end
+ * of the stream and returns the data of each event.
+ */
+final class ServerSentEvents {
+
+  private static final String DATA = "data:";
+
+  private ServerSentEvents() {
+  }
+
+  static List<String> data(MockMvc mockMvc, MockHttpServletRequestBuilder builder) throws Exception {
+    var started = mockMvc.perform(builder.accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    var body = mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    return Arrays.stream(body.split("\n\n")).map(ServerSentEvents::dataOf).toList();
+  }
+
+  /**
+   * Data lines of one event joined with newlines, as an SSE client sees them.
+   */
+  private static String dataOf(String event) {
+    return event.lines()
+        .filter(line -> line.startsWith(DATA))
+        .map(line -> line.substring(DATA.length()))
+        .collect(Collectors.joining("\n"));
+  }
+}
@@ -0,0 +1,137 @@
+package academy.aicode.spring_ai.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AnswerCacheTest {
+
+  private MutableClock clock;
+  private List<Runnable> refreshes;
+  private AnswerCache cache;
+  private int calls;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock();
+    refreshes = new ArrayList<>();
+    cache = new AnswerCache(2, Duration.ofHours(1), Duration.ofHours(1), new SimpleMeterRegistry(), clock,
+        refreshes::add);
+  }
+
+  @Test
+  void shouldFoldCaseAccentsAndWhitespace() {
+    assertEquals("jupiter rojo", AnswerCache.normalize("  Júpiter   ROJO "));
+  }
+
+  @Test
+  void shouldServeSameParameterFromCache() {
+    cache.get("basic/planet", "Júpiter", this::answer);
+
+    var answer = cache.get("basic/planet", "jupiter", this::answer);
+
+    assertEquals("respuesta 1", answer);
+    assertEquals(1, calls);
+  }
+
+  @Test
+  void shouldCacheTypedValuesPerEndpoint() {
+    var record = new Object();
+    cache.get("basic/planet/satellites/structured", "marte", () -> record);
+
+    var text = cache.get("basic/planet/satellites", "marte", this::answer);
+
+    assertSame(record, cache.get("basic/planet/satellites/structured", "marte", () -> new Object()));
+    assertEquals("respuesta 1", text);
+  }
+
+  @Test
+  void shouldServeStaleAnswerWhileRefreshingOnce() {
+    cache.get("basic/planet", "marte", this::answer);
+    clock.advance(Duration.ofMinutes(90));
+
+    var first = cache.get("basic/planet", "marte", this::answer);
+    var second = cache.get("basic/planet", "marte", this::answer);
+
+    assertEquals("respuesta 1", first);
+    assertEquals("respuesta 1", second);
+    assertEquals(1, refreshes.size());
+    refreshes.get(0).run();
+    assertEquals("respuesta 2", cache.get("basic/planet", "marte", this::answer));
+  }
+
+  @Test
+  void shouldKeepStaleAnswerWhenRefreshFails() {
+    cache.get("basic/planet", "marte", this::answer);
+    clock.advance(Duration.ofMinutes(90));
+    cache.get("basic/planet", "marte", () -> {
+      throw new IllegalStateException("model unavailable");
+    });
+
+    refreshes.get(0).run();
+
+    assertEquals("respuesta 1", cache.get("basic/planet", "marte", this::answer));
+    assertEquals(2, refreshes.size());
+  }
+
+  @Test
+  void shouldLoadAgainOnceStaleWindowIsOver() {
+    cache.get("basic/planet", "marte", this::answer);
+    clock.advance(Duration.ofHours(3));
+
+    var answer = cache.get("basic/planet", "marte", this::answer);
+
+    assertEquals("respuesta 2", answer);
+    assertEquals(0, refreshes.size());
+  }
+
+  @Test
+  void shouldNotCacheFailedLoads() {
+    assertThrows(IllegalStateException.class, () -> cache.get("basic/planet", "marte", () -> {
+      throw new IllegalStateException("model unavailable");
+    }));
+
+    assertEquals(0, cache.size());
+  }
+
+  private String answer() {
+    calls++;
+    return "respuesta " + calls;
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package academy.aicode.spring_ai.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SemanticResponseCacheTest {
+
+  private static final Map<String, float[]> EMBEDDINGS = Map.of(
+      "mercurio", new float[] { 1f, 0f, 0f },
+      "háblame de mercurio", new float[] { 0.98f, 0.2f, 0f },
+      "venus", new float[] { 0f, 1f, 0f });
+
+  private MutableClock clock;
+  private SimpleMeterRegistry registry;
+  private SemanticResponseCache cache;
+  private CountingChain chain;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock();
+    registry = new SimpleMeterRegistry();
+    cache = new SemanticResponseCache(new MapEmbeddingModel(), Set.of("basic/astro", "safe/ama"), 0.95,
+        Duration.ofHours(1), 2, registry, clock);
+    chain = new CountingChain();
+  }
+
+  @Test
+  void shouldServeSimilarPromptFromCache() {
+    var advisor = cache.advisor("basic/astro");
+    advisor.adviseCall(request("mercurio"), chain);
+
+    var answer = text(advisor.adviseCall(request("háblame de mercurio"), chain));
+
+    assertEquals("respuesta 1", answer);
+    assertEquals(1, chain.calls);
+    assertEquals(1.0, hits("basic/astro", "hit"));
+    assertEquals(1.0, hits("basic/astro", "miss"));
+  }
+
+  @Test
+  void shouldCallModelForDissimilarPrompt() {
+    var advisor = cache.advisor("basic/astro");
+    advisor.adviseCall(request("mercurio"), chain);
+
+    var answer = text(advisor.adviseCall(request("venus"), chain));
+
+    assertEquals("respuesta 2", answer);
+    assertEquals(2, chain.calls);
+  }
+
+  @Test
+  void shouldNotShareAnswersBetweenEndpoints() {
+    cache.advisor("basic/astro").adviseCall(request("mercurio"), chain);
+
+    var answer = text(cache.advisor("safe/ama").adviseCall(request("mercurio"), chain));
+
+    assertEquals("respuesta 2", answer);
+  }
+
+  @Test
+  void shouldPassThroughEndpointsNotEnabled() {
+    var advisor = cache.advisor("basic/planet");
+    advisor.adviseCall(request("mercurio"), chain);
+
+    advisor.adviseCall(request("mercurio"), chain);
+
+    assertEquals(2, chain.calls);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldPassThroughFollowUpsCarryingConversationHistory() {
+    var advisor = cache.advisor("safe/ama");
+    advisor.adviseCall(request("mercurio"), chain);
+    var followUp = new Prompt(List.of(new UserMessage("venus"), new AssistantMessage("respuesta 1"),
+        new UserMessage("mercurio")));
+
+    var answer = text(advisor.adviseCall(ChatClientRequest.builder().prompt(followUp).context(Map.of()).build(),
+        chain));
+
+    assertEquals("respuesta 2", answer);
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void shouldExpireAnswersAfterTtl() {
+    var advisor = cache.advisor("basic/astro");
+    advisor.adviseCall(request("mercurio"), chain);
+    clock.advance(Duration.ofHours(2));
+
+    advisor.adviseCall(request("mercurio"), chain);
+
+    assertEquals(2, chain.calls);
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyServedAnswerBeyondMaxEntries() {
+    var key = cache.embed("mercurio");
+    cache.put("basic/astro", key, "mercurio");
+    cache.put("basic/astro", cache.embed("venus"), "venus");
+    cache.get("basic/astro", key);
+
+    cache.put("safe/ama", key, "otro");
+
+    assertEquals(2, cache.size());
+    assertEquals("mercurio", cache.get("basic/astro", key));
+    assertNull(cache.get("basic/astro", cache.embed("venus")));
+  }
+
+  private double hits(String endpoint, String result) {
+    return registry.get("astrobiblia.chat.semantic-cache.requests").tag("endpoint", endpoint)
+        .tag("result", result).counter().count();
+  }
+
+  private static ChatClientRequest request(String prompt) {
+    return ChatClientRequest.builder().prompt(new Prompt(prompt)).context(Map.of()).build();
+  }
+
+  private static String text(ChatClientResponse response) {
+    return response.chatResponse().getResult().getOutput().getText();
+  }
+
+  private static class CountingChain implements CallAdvisorChain {
+    private int calls;
+
+    @Override
+    public ChatClientResponse nextCall(ChatClientRequest request) {
+      calls++;
+      var generation = new Generation(new AssistantMessage("respuesta " + calls));
+      return ChatClientResponse.builder().chatResponse(new ChatResponse(List.of(generation))).build();
+    }
+
+    @Override
+    public List<CallAdvisor> getCallAdvisors() {
+      return List.of();
+    }
+  }
+
+  private static class MapEmbeddingModel implements EmbeddingModel {
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+      var embeddings = new ArrayList<Embedding>();
+      for (var text : request.getInstructions()) {
+        embeddings.add(new Embedding(EMBEDDINGS.get(text), embeddings.size()));
+      }
+      return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+      return EMBEDDINGS.get(document.getText());
+    }
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package academy.aicode.spring_ai.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+class SingleFlightTest {
+
+  private SimpleMeterRegistry registry;
+  private SingleFlight singleFlight;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    singleFlight = new SingleFlight(registry);
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldShareInFlightCallWithIdenticalRequest() throws Exception {
+    var release = new CountDownLatch(1);
+    var calls = new AtomicInteger();
+    var leader = CompletableFuture.supplyAsync(() -> singleFlight.call("basic/ama", "mercurio", () -> {
+      calls.incrementAndGet();
+      await(release);
+      return "respuesta";
+    }), executor);
+    waitFor(() -> calls.get() == 1);
+    var follower = CompletableFuture.supplyAsync(() -> singleFlight.call("basic/ama", "mercurio", () -> {
+      calls.incrementAndGet();
+      return "otra respuesta";
+    }), executor);
+    waitFor(() -> count("shared") == 1);
+
+    release.countDown();
+
+    assertEquals("respuesta", leader.get(5, TimeUnit.SECONDS));
+    assertEquals("respuesta", follower.get(5, TimeUnit.SECONDS));
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void shouldPropagateFailureToJoinedCallers() throws Exception {
+    var release = new CountDownLatch(1);
+    var failure = new IllegalStateException("model unavailable");
+    var started = new CountDownLatch(1);
+    var leader = CompletableFuture.runAsync(() -> singleFlight.call("basic/ama", "mercurio", () -> {
+      started.countDown();
+      await(release);
+      throw failure;
+    }), executor);
+    started.await(5, TimeUnit.SECONDS);
+    var follower = CompletableFuture.supplyAsync(() -> {
+      try {
+        singleFlight.call("basic/ama", "mercurio", () -> "respuesta");
+        return null;
+      } catch (IllegalStateException e) {
+        return e;
+      }
+    }, executor);
+    waitFor(() -> count("shared") == 1);
+
+    release.countDown();
+
+    assertSame(failure, follower.get(5, TimeUnit.SECONDS));
+    assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldNotReuseCompletedCall() {
+    singleFlight.call("basic/ama", "mercurio", () -> "primera");
+
+    var answer = singleFlight.call("basic/ama", "mercurio", () -> "segunda");
+
+    assertEquals("segunda", answer);
+    assertEquals(2.0, count("leader"));
+  }
+
+  @Test
+  void shouldReplaySharedStreamToLateSubscriber() {
+    var sink = Sinks.many().unicast().<String>onBackpressureBuffer();
+    var streams = new AtomicInteger();
+    Flux<String> first = singleFlight.stream("basic/planet/satellites/stream", "marte", () -> {
+      streams.incrementAndGet();
+      return sink.asFlux();
+    });
+    var firstTokens = first.collectList().toFuture();
+    sink.tryEmitNext("Fobos");
+    Flux<String> second = singleFlight.stream("basic/planet/satellites/stream", "marte", () -> {
+      streams.incrementAndGet();
+      return Flux.just("otra");
+    });
+    var secondTokens = second.collectList().toFuture();
+
+    sink.tryEmitNext("Deimos");
+    sink.tryEmitComplete();
+
+    assertEquals(List.of("Fobos", "Deimos"), firstTokens.join());
+    assertEquals(List.of("Fobos", "Deimos"), secondTokens.join());
+    assertEquals(1, streams.get());
+    assertEquals(List.of("nueva"), singleFlight.stream("basic/planet/satellites/stream", "marte",
+        () -> Flux.just("nueva")).collectList().block());
+  }
+
+  private double count(String result) {
+    var counter = registry.find("astrobiblia.chat.single-flight.requests").tag("result", result).counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+  }
+}
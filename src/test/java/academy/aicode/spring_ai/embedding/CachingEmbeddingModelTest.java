@@ -0,0 +1,173 @@
+package academy.aicode.spring_ai.embedding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptionsBuilder;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CachingEmbeddingModelTest {
+
+  private CountingEmbeddingModel delegate;
+  private SimpleMeterRegistry registry;
+  private EmbeddingCache cache;
+  private CachingEmbeddingModel model;
+
+  @BeforeEach
+  void setUp() {
+    delegate = new CountingEmbeddingModel();
+    registry = new SimpleMeterRegistry();
+    cache = new EmbeddingCache(1_000_000, null, registry);
+    model = new CachingEmbeddingModel(delegate, cache, "test-model");
+  }
+
+  @Test
+  void shouldNotCallDelegateForRepeatedText() {
+    model.embed("estrellas");
+    model.embed("estrellas");
+
+    assertEquals(1, delegate.embeddedTexts.size());
+  }
+
+  @Test
+  void shouldOnlySendMissesAndKeepInputOrder() {
+    model.embed("Nostromo");
+
+    var vectors = model.embed(List.of("estrellas", "Nostromo", "cometas"));
+
+    assertEquals(List.of("Nostromo", "estrellas", "cometas"), delegate.embeddedTexts);
+    assertArrayEquals(CountingEmbeddingModel.vectorOf("estrellas"), vectors.get(0));
+    assertArrayEquals(CountingEmbeddingModel.vectorOf("Nostromo"), vectors.get(1));
+    assertArrayEquals(CountingEmbeddingModel.vectorOf("cometas"), vectors.get(2));
+  }
+
+  @Test
+  void shouldPublishHitAndMissCounters() {
+    model.embed("estrellas");
+    model.embed("estrellas");
+
+    assertEquals(1.0, registry.get("astrobiblia.embedding.cache.requests").tag("result", "hit").counter().count());
+    assertEquals(1.0, registry.get("astrobiblia.embedding.cache.requests").tag("result", "miss").counter().count());
+  }
+
+  @Test
+  void shouldKeyByModelName() {
+    var otherModel = new CachingEmbeddingModel(delegate, cache, "other");
+    model.embed("estrellas");
+
+    otherModel.embed("estrellas");
+
+    assertEquals(2, delegate.embeddedTexts.size());
+  }
+
+  @Test
+  void shouldKeyByRequestedDimensions() {
+    var truncated = EmbeddingOptionsBuilder.builder().withDimensions(256).build();
+    model.embed("estrellas");
+
+    model.call(new EmbeddingRequest(List.of("estrellas"), truncated));
+    model.call(new EmbeddingRequest(List.of("estrellas"), truncated));
+
+    assertEquals(2, delegate.embeddedTexts.size());
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedWhenOverBudget() {
+    var key1 = EmbeddingCache.keyOf("m", "a");
+    var key2 = EmbeddingCache.keyOf("m", "b");
+    var key3 = EmbeddingCache.keyOf("m", "c");
+    var small = new EmbeddingCache(2 * (96 + 4 * 4), null, new SimpleMeterRegistry());
+    small.put(key1, new float[4]);
+    small.put(key2, new float[4]);
+    small.get(key1);
+
+    small.put(key3, new float[4]);
+
+    assertNull(small.get(key2));
+    assertEquals(2, small.size());
+  }
+
+  @Test
+  void shouldSurviveRestartWhenFileConfigured(@TempDir Path dir) {
+    var file = dir.resolve("embeddings.bin");
+    var key = EmbeddingCache.keyOf("m", "estrellas");
+    var persistent = new EmbeddingCache(1_000_000, file, new SimpleMeterRegistry());
+    persistent.put(key, new float[] { 1f, 2f, 3f });
+    persistent.save();
+
+    var restarted = new EmbeddingCache(1_000_000, file, new SimpleMeterRegistry());
+    restarted.load();
+
+    assertArrayEquals(new float[] { 1f, 2f, 3f }, restarted.get(key));
+  }
+
+  @Test
+  void shouldSaveChangedCachePeriodicallyBeforeShutdown(@TempDir Path dir) throws InterruptedException {
+    var file = dir.resolve("embeddings.bin");
+    var key = EmbeddingCache.keyOf("m", "estrellas");
+    var persistent = new EmbeddingCache(1_000_000, file, new SimpleMeterRegistry());
+    persistent.saveEvery(Duration.ofMillis(20));
+
+    persistent.put(key, new float[] { 1f, 2f, 3f });
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!Files.exists(file) && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    var crashed = new EmbeddingCache(1_000_000, file, new SimpleMeterRegistry());
+    crashed.load();
+    assertArrayEquals(new float[] { 1f, 2f, 3f }, crashed.get(key));
+    persistent.close();
+  }
+
+  @Test
+  void shouldNotRewriteFileWhenNothingChanged(@TempDir Path dir) {
+    var file = dir.resolve("embeddings.bin");
+    var persistent = new EmbeddingCache(1_000_000, file, new SimpleMeterRegistry());
+
+    persistent.saveIfChanged();
+
+    assertFalse(Files.exists(file));
+  }
+
+  private static class CountingEmbeddingModel implements EmbeddingModel {
+    private final List<String> embeddedTexts = new ArrayList<>();
+
+    static float[] vectorOf(String text) {
+      return new float[] { text.length(), text.charAt(0) };
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+      var embeddings = new ArrayList<Embedding>();
+      for (var text : request.getInstructions()) {
+        embeddedTexts.add(text);
+        embeddings.add(new Embedding(vectorOf(text), embeddings.size()));
+      }
+      return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+      return embed(document.getText());
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package academy.aicode.spring_ai.fake;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.ai.support.ToolCallbacks;
+import org.springframework.ai.tool.annotation.Tool;
+
+class FakeChatModelTest {
+
+  private FakeModelProperties.Chat settings;
+  private FakeChatModel model;
+
+  @BeforeEach
+  void setUp() {
+    settings = new FakeModelProperties().getChat();
+    settings.setAnswerWords(5);
+    settings.setTokenInterval(Duration.ZERO);
+    model = new FakeChatModel(settings, noLatency(0), ToolCallingManager.builder().build());
+  }
+
+  @Test
+  void shouldAnswerSamePromptWithSameTemplatedText() {
+    var first = text(model.call(new Prompt("háblame de marte")));
+
+    var second = text(model.call(new Prompt("háblame de marte")));
+
+    assertEquals(first, second);
+    assertTrue(first.startsWith("Respuesta simulada a «háblame de marte»."));
+  }
+
+  @Test
+  void shouldUseCannedResponseWhenPromptContainsKey() {
+    settings.getResponses().put("mercurio", "Mercurio es el más cercano al Sol.");
+
+    var answer = text(model.call(new Prompt("¿Qué sabes de MERCURIO?")));
+
+    assertEquals("Mercurio es el más cercano al Sol.", answer);
+  }
+
+  @Test
+  void shouldAnswerStructuredOutputMatchingSchema() {
+    var converter = new BeanOutputConverter<>(Moons.class);
+
+    var answer = text(model.call(new Prompt("satélites de marte\n" + converter.getFormat())));
+
+    var moons = converter.convert(answer);
+    assertEquals(1, moons.moons().size());
+    assertEquals(1.0, moons.moons().get(0).radius());
+  }
+
+  @Test
+  void shouldCallToolAndAnswerWithItsResult() {
+    var tool = new EchoTool();
+    settings.getToolArguments().put("Echo", "{\"topic\":\"{prompt}\"}");
+    var options = ToolCallingChatOptions.builder().toolCallbacks(ToolCallbacks.from(tool)).build();
+
+    var answer = text(model.call(new Prompt("3I/ATLAS", options)));
+
+    assertEquals(List.of("3I/ATLAS"), tool.topics);
+    assertTrue(answer.contains("eco de 3I/ATLAS"));
+  }
+
+  @Test
+  void shouldReturnSimulatedToolResultInsteadOfExecutingTool() {
+    var tool = new EchoTool();
+    settings.getToolResults().put("Echo", "resultado simulado");
+    var options = ToolCallingChatOptions.builder().toolCallbacks(ToolCallbacks.from(tool)).build();
+
+    var answer = text(model.call(new Prompt("3I/ATLAS", options)));
+
+    assertTrue(tool.topics.isEmpty());
+    assertTrue(answer.contains("resultado simulado"));
+  }
+
+  @Test
+  void shouldStreamAnswerInWordChunks() {
+    var expected = text(model.call(new Prompt("háblame de marte")));
+
+    var chunks = model.stream(new Prompt("háblame de marte")).map(FakeChatModelTest::text).collectList().block();
+
+    assertNotNull(chunks);
+    assertTrue(chunks.size() > 5);
+    assertEquals(expected, String.join("", chunks));
+  }
+
+  @Test
+  void shouldFailAtConfiguredErrorRate() {
+    var failing = new FakeChatModel(settings, noLatency(1), ToolCallingManager.builder().build());
+
+    assertThrows(TransientAiException.class, () -> failing.call(new Prompt("marte")));
+  }
+
+  @Test
+  void shouldSampleLogNormalLatencyAroundMedian() {
+    var random = new Random(42);
+    var latency = new LatencyProfile(Duration.ofMillis(100), Duration.ofMillis(400), 0, () -> random);
+    var samples = new long[1001];
+
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = latency.sample().toMillis();
+    }
+
+    Arrays.sort(samples);
+    assertTrue(Math.abs(samples[500] - 100) <= 10, "median " + samples[500]);
+    assertTrue(samples[990] > 250 && samples[990] < 600, "p99 " + samples[990]);
+  }
+
+  private static LatencyProfile noLatency(double errorRate) {
+    var random = new Random(42);
+    return new LatencyProfile(Duration.ZERO, Duration.ZERO, errorRate, () -> random);
+  }
+
+  private static String text(ChatResponse response) {
+    return response.getResult().getOutput().getText();
+  }
+
+  record Moon(String name, double radius) {
+  }
+
+  record Moons(List<Moon> moons) {
+  }
+
+  static class EchoTool {
+    private final List<String> topics = new ArrayList<>();
+
+    @Tool(name = "Echo", description = "Echoes a topic")
+    public String echo(String topic) {
+      topics.add(topic);
+      return "eco de " + topic;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package academy.aicode.spring_ai.fake;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class FakeEmbeddingModelTest {
+
+  private final Random random = new Random(42);
+  private final FakeEmbeddingModel model = new FakeEmbeddingModel(64,
+      new LatencyProfile(Duration.ZERO, Duration.ZERO, 0, () -> random));
+
+  @Test
+  void shouldEmbedSameTextIdentically() {
+    var first = model.embed("Júpiter es un gigante gaseoso");
+
+    var second = model.embed("Júpiter es un gigante gaseoso");
+
+    assertArrayEquals(first, second);
+    assertEquals(64, first.length);
+  }
+
+  @Test
+  void shouldPlaceTextsSharingWordsCloserThanUnrelatedTexts() {
+    var embeddings = model.embed(List.of("Júpiter es un gigante gaseoso", "Júpiter, el gigante gaseoso",
+        "los cometas tienen cola de hielo"));
+
+    double related = dot(embeddings.get(0), embeddings.get(1));
+    double unrelated = dot(embeddings.get(0), embeddings.get(2));
+
+    assertTrue(related > unrelated, related + " <= " + unrelated);
+    assertEquals(1.0, dot(embeddings.get(0), embeddings.get(0)), 1e-5);
+  }
+
+  @Test
+  void shouldReportDimensionsWithoutCallingModel() {
+    var failing = new FakeEmbeddingModel(8, new LatencyProfile(Duration.ZERO, Duration.ZERO, 1, () -> random));
+
+    assertEquals(8, failing.dimensions());
+  }
+
+  private static double dot(float[] a, float[] b) {
+    double sum = 0;
+    for (int i = 0; i < a.length; i++) {
+      sum += a[i] * b[i];
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,259 @@
+package academy.aicode.spring_ai.limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private SimpleMeterRegistry registry;
+  private ConcurrencyLimitProperties settings;
+  private AtomicLong clock;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    settings = new ConcurrencyLimitProperties();
+    clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldGrantQueuedCallWhenPermitIsReleased() throws Exception {
+    settings.setInitialLimit(1);
+    var limiter = limiter();
+    var first = limiter.acquire(CallPriority.INTERACTIVE);
+    var second = CompletableFuture.supplyAsync(() -> limiter.acquire(CallPriority.INTERACTIVE), executor);
+    waitFor(() -> limiter.queued(CallPriority.INTERACTIVE) == 1);
+
+    first.ignore();
+
+    second.get(5, TimeUnit.SECONDS);
+    assertEquals(1, limiter.inFlight());
+    assertEquals(0, limiter.queued(CallPriority.INTERACTIVE));
+    assertEquals(1.0, count("interactive", "queued"));
+  }
+
+  @Test
+  void shouldServeInteractiveCallsBeforeBulk() throws Exception {
+    settings.setInitialLimit(2);
+    settings.setBulkShare(1.0);
+    var limiter = limiter();
+    var held = limiter.acquire(CallPriority.INTERACTIVE);
+    limiter.acquire(CallPriority.INTERACTIVE);
+    var bulk = CompletableFuture.supplyAsync(() -> limiter.acquire(CallPriority.BULK), executor);
+    waitFor(() -> limiter.queued(CallPriority.BULK) == 1);
+    var interactive = CompletableFuture.supplyAsync(() -> limiter.acquire(CallPriority.INTERACTIVE), executor);
+    waitFor(() -> limiter.queued(CallPriority.INTERACTIVE) == 1);
+
+    held.ignore();
+
+    interactive.get(5, TimeUnit.SECONDS);
+    assertFalse(bulk.isDone());
+    assertEquals(1, limiter.queued(CallPriority.BULK));
+  }
+
+  @Test
+  void shouldKeepBulkCallsWithinBulkShare() throws Exception {
+    settings.setInitialLimit(4);
+    var limiter = limiter();
+    limiter.acquire(CallPriority.BULK);
+    limiter.acquire(CallPriority.BULK);
+
+    var bulk = CompletableFuture.supplyAsync(() -> limiter.acquire(CallPriority.BULK), executor);
+    waitFor(() -> limiter.queued(CallPriority.BULK) == 1);
+    limiter.acquire(CallPriority.INTERACTIVE);
+
+    assertFalse(bulk.isDone());
+    assertEquals(3, limiter.inFlight());
+  }
+
+  @Test
+  void shouldRejectCallWhenLaneQueueIsFull() {
+    settings.setInitialLimit(1);
+    settings.getInteractive().setMaxQueue(0);
+    var limiter = limiter();
+    limiter.acquire(CallPriority.INTERACTIVE);
+
+    var error = assertThrows(ConcurrencyLimitExceededException.class,
+        () -> limiter.acquire(CallPriority.INTERACTIVE));
+
+    assertTrue(error.getRetryAfter().toSeconds() >= 1);
+    assertEquals(1.0, count("interactive", "rejected"));
+  }
+
+  @Test
+  void shouldExpireCallWaitingLongerThanMaxWait() {
+    settings.setInitialLimit(1);
+    settings.getBulk().setMaxWait(Duration.ofMillis(50));
+    var limiter = limiter();
+    limiter.acquire(CallPriority.BULK);
+
+    assertThrows(ConcurrencyLimitExceededException.class, () -> limiter.acquire(CallPriority.BULK));
+
+    assertEquals(0, limiter.queued(CallPriority.BULK));
+    assertEquals(1.0, count("bulk", "expired"));
+  }
+
+  @Test
+  void shouldGrantQueuedAsyncCallWithoutBlockingWhenPermitIsReleased() throws Exception {
+    settings.setInitialLimit(1);
+    var limiter = limiter();
+    var first = limiter.acquire(CallPriority.INTERACTIVE);
+
+    var second = limiter.acquireAsync(CallPriority.INTERACTIVE).toFuture();
+
+    assertFalse(second.isDone());
+    assertEquals(1, limiter.queued(CallPriority.INTERACTIVE));
+    first.ignore();
+    second.get(5, TimeUnit.SECONDS);
+    assertEquals(1, limiter.inFlight());
+    assertEquals(1.0, count("interactive", "queued"));
+  }
+
+  @Test
+  void shouldExpireAsyncCallWaitingLongerThanMaxWait() {
+    settings.setInitialLimit(1);
+    settings.getInteractive().setMaxWait(Duration.ofMillis(50));
+    var limiter = limiter();
+    limiter.acquire(CallPriority.INTERACTIVE);
+
+    var error = assertThrows(ExecutionException.class,
+        () -> limiter.acquireAsync(CallPriority.INTERACTIVE).toFuture().get(5, TimeUnit.SECONDS));
+
+    assertTrue(error.getCause() instanceof ConcurrencyLimitExceededException, error.getCause().toString());
+    assertEquals(0, limiter.queued(CallPriority.INTERACTIVE));
+    assertEquals(1.0, count("interactive", "expired"));
+  }
+
+  @Test
+  void shouldLeaveQueueWhenAsyncCallIsCancelled() {
+    settings.setInitialLimit(1);
+    var limiter = limiter();
+    var first = limiter.acquire(CallPriority.INTERACTIVE);
+    var waiting = limiter.acquireAsync(CallPriority.INTERACTIVE).subscribe();
+
+    waiting.dispose();
+
+    assertEquals(0, limiter.queued(CallPriority.INTERACTIVE));
+    first.ignore();
+    assertEquals(0, limiter.inFlight());
+  }
+
+  @Test
+  void shouldRaiseLimitWhileFastCallsUseIt() {
+    settings.setInitialLimit(2);
+    var limiter = limiter();
+
+    for (int round = 0; round < 10; round++) {
+      var permits = new ArrayList<AdaptiveConcurrencyLimiter.Permit>();
+      for (int i = 0; i < limiter.limit(); i++) {
+        permits.add(limiter.acquire(CallPriority.INTERACTIVE));
+      }
+      clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+      permits.forEach(AdaptiveConcurrencyLimiter.Permit::success);
+    }
+
+    assertTrue(limiter.limit() > 2, "limit should grow, was " + limiter.limit());
+    assertEquals(0, limiter.inFlight());
+  }
+
+  @Test
+  void shouldNotRaiseLimitWhenMostOfItIsIdle() {
+    settings.setInitialLimit(10);
+    var limiter = limiter();
+
+    for (int i = 0; i < 20; i++) {
+      var permit = limiter.acquire(CallPriority.INTERACTIVE);
+      clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+      permit.success();
+    }
+
+    assertEquals(10, limiter.limit());
+  }
+
+  @Test
+  void shouldLowerLimitWhenLatencyExceedsTolerance() {
+    settings.setInitialLimit(10);
+    var limiter = limiter();
+    call(limiter, 100);
+
+    call(limiter, 500);
+
+    assertEquals(9, limiter.limit());
+  }
+
+  @Test
+  void shouldLowerLimitOncePerBaselineOnOverload() {
+    settings.setInitialLimit(10);
+    var limiter = limiter();
+    call(limiter, 100);
+    var first = limiter.acquire(CallPriority.INTERACTIVE);
+    var second = limiter.acquire(CallPriority.INTERACTIVE);
+
+    first.overload();
+    second.overload();
+
+    assertEquals(9, limiter.limit());
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+    limiter.acquire(CallPriority.INTERACTIVE).overload();
+    assertEquals(8, limiter.limit());
+  }
+
+  @Test
+  void shouldReleasePermitOnlyOnce() {
+    var limiter = limiter();
+    var permit = limiter.acquire(CallPriority.INTERACTIVE);
+
+    permit.success();
+    permit.ignore();
+
+    assertEquals(0, limiter.inFlight());
+  }
+
+  private AdaptiveConcurrencyLimiter limiter() {
+    return new AdaptiveConcurrencyLimiter("chat", settings, registry, clock::get);
+  }
+
+  private void call(AdaptiveConcurrencyLimiter limiter, long latencyMillis) {
+    var permit = limiter.acquire(CallPriority.INTERACTIVE);
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+    permit.success();
+  }
+
+  private double count(String lane, String result) {
+    var counter = registry.find("astrobiblia.llm.limiter.requests").tag("lane", lane).tag("result", result)
+        .counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package academy.aicode.spring_ai.limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+class LimitedChatModelTest {
+
+  private AdaptiveConcurrencyLimiter limiter;
+
+  @BeforeEach
+  void setUp() {
+    var settings = new ConcurrencyLimitProperties();
+    settings.setInitialLimit(1);
+    limiter = new AdaptiveConcurrencyLimiter("chat", settings, new SimpleMeterRegistry());
+  }
+
+  @Test
+  void shouldQueueStreamWithoutBlockingUntilPermitIsReleased() {
+    var model = new LimitedChatModel(new StreamingModel(Flux.just(response("hola"))), limiter);
+    var held = limiter.acquire(CallPriority.INTERACTIVE);
+    var received = new ArrayList<String>();
+
+    model.stream(new Prompt("hola")).subscribe(chunk -> received.add(chunk.getResult().getOutput().getText()));
+
+    assertTrue(received.isEmpty());
+    assertEquals(1, limiter.queued(CallPriority.INTERACTIVE));
+    held.ignore();
+    assertEquals(List.of("hola"), received);
+    assertEquals(0, limiter.inFlight());
+  }
+
+  @Test
+  void shouldReleasePermitWhenStreamIsCancelled() {
+    var model = new LimitedChatModel(new StreamingModel(Flux.never()), limiter);
+    var subscription = model.stream(new Prompt("hola")).subscribe();
+    assertEquals(1, limiter.inFlight());
+
+    subscription.dispose();
+
+    assertEquals(0, limiter.inFlight());
+  }
+
+  private static ChatResponse response(String text) {
+    return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+  }
+
+  private static class StreamingModel implements ChatModel {
+    private final Flux<ChatResponse> chunks;
+
+    StreamingModel(Flux<ChatResponse> chunks) {
+      this.chunks = chunks;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+      return chunks;
+    }
+  }
+}
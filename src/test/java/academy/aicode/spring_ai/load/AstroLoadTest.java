@@ -0,0 +1,109 @@
+package academy.aicode.spring_ai.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Load suite for the {@code astro} and {@code distance} endpoints, run with
+ * {@code ./mvnw -Pload test} (see {@link LoadSettings} for the options).
+ *
+ * - The application runs with the {@code fake} profile: local chat and
+ * embedding models with realistic latency, the in-process hnsw vector store
+ * (seeded through {@code vector/ingest/bulk}) and a {@link WikipediaStub},
+ * which {@code rag/ama/web} and the WikipediaFetcher tool both call
+ * - Model latency is set with the {@code astrobiblia.fake.*} properties, e.g.
+ * {@code -Dastrobiblia.fake.chat.latency.p50=200ms}
+ * - The report is saved before the checks, so a failing run still leaves
+ * its numbers behind
+ */
+@Tag("load")
+@ActiveProfiles("fake")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AstroLoadTest {
+
+  private static final Logger log = LoggerFactory.getLogger(AstroLoadTest.class);
+  private static final LoadSettings SETTINGS = LoadSettings.fromSystemProperties();
+
+  private static WikipediaStub wikipedia;
+
+  @LocalServerPort
+  private int port;
+
+  @DynamicPropertySource
+  static void localServices(DynamicPropertyRegistry registry) throws IOException {
+    wikipedia = new WikipediaStub(SETTINGS.wikipediaLatency());
+    registry.add("astrobiblia.wikipedia.summary-url", wikipedia::summaryUrl);
+    // run the WikipediaFetcher tool against the stub instead of simulating its result
+    registry.add("astrobiblia.fake.chat.tool-results[WikipediaFetcher]", () -> "");
+  }
+
+  @AfterAll
+  static void stopLocalServices() {
+    if (wikipedia != null) {
+      wikipedia.close();
+    }
+  }
+
+  @Test
+  void shouldMeasureEveryEndpointUnderLoad() throws Exception {
+    var baseUri = URI.create("http://localhost:" + port + "/");
+    var client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    seedVectorStore(client, baseUri);
+    var runner = new LoadRunner(client, baseUri, SETTINGS.warmup(), SETTINGS.duration());
+    var results = new ArrayList<LoadResult>();
+
+    for (var scenario : LoadScenarios.all()) {
+      if (SETTINGS.includes(scenario)) {
+        for (int concurrency : SETTINGS.concurrency()) {
+          results.add(runner.run(scenario, concurrency));
+        }
+      }
+    }
+
+    var report = LoadReport.of(SETTINGS, results);
+    var file = report.write(SETTINGS.output());
+    log.info("Load results saved to {}\n{}", file, report.table());
+    var failing = results.stream()
+        .filter(result -> result.errorRate() > SETTINGS.maxErrorRate())
+        .map(result -> result.scenario() + " x" + result.concurrency() + ": " + result.errors() + " errors")
+        .collect(Collectors.joining("\n"));
+    assertTrue(failing.isEmpty(), failing);
+    if (SETTINGS.baseline() != null) {
+      var regressions = report.regressionsAgainst(LoadReport.read(SETTINGS.baseline()), SETTINGS.maxRegression());
+      assertTrue(regressions.isEmpty(), "Regressions against " + SETTINGS.baseline() + ":\n"
+          + String.join("\n", regressions));
+    }
+  }
+
+  private static void seedVectorStore(HttpClient client, URI baseUri) throws IOException, InterruptedException {
+    var ndjson = LoadScenarios.DOCUMENTS.stream()
+        .map(document -> "{\"content\":\"" + document + "\",\"metadata\":{\"source\":\"seed\"}}")
+        .collect(Collectors.joining("\n"));
+    var request = HttpRequest.newBuilder(baseUri.resolve("vector/ingest/bulk"))
+        .header("Content-Type", "application/x-ndjson")
+        .POST(HttpRequest.BodyPublishers.ofString(ndjson))
+        .build();
+    var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    assertEquals(200, response.statusCode(), response.body());
+  }
+}
@@ -0,0 +1,114 @@
+package academy.aicode.spring_ai.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Results of one load run, saved as JSON so later builds can be compared
+ * with it.
+ *
+ * - {@link #write(Path)} stores {@code load-<timestamp>.json} and a copy as
+ * {@code latest.json}
+ * - {@link #regressionsAgainst(LoadReport, double)} lists the scenarios
+ * whose throughput, p99 or allocation per request got worse than tolerated
+ */
+record LoadReport(String label, String timestamp, String javaVersion, int processors, String warmup,
+    String duration, List<LoadResult> results) {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+      .enable(SerializationFeature.INDENT_OUTPUT)
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+      .withZone(ZoneOffset.UTC);
+
+  LoadReport {
+    results = List.copyOf(results);
+  }
+
+  static LoadReport of(LoadSettings settings, List<LoadResult> results) {
+    return new LoadReport(settings.label(), Instant.now().toString(), System.getProperty("java.version"),
+        Runtime.getRuntime().availableProcessors(), settings.warmup().toString(), settings.duration().toString(),
+        results);
+  }
+
+  static LoadReport read(Path file) throws IOException {
+    return OBJECT_MAPPER.readValue(file.toFile(), LoadReport.class);
+  }
+
+  /**
+   * @return the written report file
+   */
+  Path write(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    var file = directory.resolve("load-" + FILE_TIMESTAMP.format(Instant.parse(timestamp)) + ".json");
+    OBJECT_MAPPER.writeValue(file.toFile(), this);
+    Files.copy(file, directory.resolve("latest.json"), StandardCopyOption.REPLACE_EXISTING);
+    return file;
+  }
+
+  /**
+   * Compare with a previous report; scenarios missing from either side are
+   * skipped.
+   *
+   * @param maxRegression tolerated relative change, e.g. 0.2 for 20%
+   */
+  List<String> regressionsAgainst(LoadReport baseline, double maxRegression) {
+    var regressions = new ArrayList<String>();
+    for (var current : results) {
+      var previous = baseline.find(current.scenario(), current.concurrency());
+      if (previous == null) {
+        continue;
+      }
+      var name = current.scenario() + " x" + current.concurrency();
+      if (previous.throughput() > 0 && current.throughput() < previous.throughput() * (1 - maxRegression)) {
+        regressions.add(String.format(Locale.ROOT, "%s: throughput %.1f -> %.1f req/s", name,
+            previous.throughput(), current.throughput()));
+      }
+      if (previous.p99Ms() > 0 && current.p99Ms() > previous.p99Ms() * (1 + maxRegression)) {
+        regressions.add(String.format(Locale.ROOT, "%s: p99 %.1f -> %.1f ms", name, previous.p99Ms(),
+            current.p99Ms()));
+      }
+      if (previous.allocatedKbPerRequest() > 0
+          && current.allocatedKbPerRequest() > previous.allocatedKbPerRequest() * (1 + maxRegression)) {
+        regressions.add(String.format(Locale.ROOT, "%s: allocation %.1f -> %.1f KB/request", name,
+            previous.allocatedKbPerRequest(), current.allocatedKbPerRequest()));
+      }
+    }
+    return regressions;
+  }
+
+  /**
+   * @return the results as a fixed-width text table
+   */
+  String table() {
+    var table = new StringBuilder(String.format(Locale.ROOT, "%-40s %5s %8s %6s %6s %9s %9s %9s %9s %9s %10s%n",
+        "scenario", "conc", "requests", "rej", "err", "req/s", "p50 ms", "p99 ms", "p999 ms", "ttfb p99",
+        "alloc MB/s"));
+    for (var result : results) {
+      table.append(String.format(Locale.ROOT, "%-40s %5d %8d %6d %6d %9.1f %9.1f %9.1f %9.1f %9.1f %10.1f%n",
+          result.scenario(), result.concurrency(), result.requests(), result.rejected(), result.errors(),
+          result.throughput(), result.p50Ms(), result.p99Ms(), result.p999Ms(), result.firstByteP99Ms(),
+          result.allocatedMbPerSecond()));
+    }
+    return table.toString();
+  }
+
+  private LoadResult find(String scenario, int concurrency) {
+    return results.stream()
+        .filter(result -> result.scenario().equals(scenario) && result.concurrency() == concurrency)
+        .findFirst()
+        .orElse(null);
+  }
+}
@@ -0,0 +1,85 @@
+package academy.aicode.spring_ai.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LoadReportTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void shouldComputeNearestRankPercentiles() {
+    var latencies = new long[1000];
+    for (int i = 0; i < latencies.length; i++) {
+      latencies[i] = (i + 1) * 1_000_000L;
+    }
+
+    var result = LoadResult.of("basic/ama", 4, latencies, latencies, 3, 1, 2_000_000_000L, 4 * 1024 * 1024);
+
+    assertEquals(500.0, result.p50Ms());
+    assertEquals(990.0, result.p99Ms());
+    assertEquals(999.0, result.p999Ms());
+    assertEquals(1004, result.requests());
+    assertEquals(500.0, result.throughput());
+    assertEquals(2.0, result.allocatedMbPerSecond());
+  }
+
+  @Test
+  void shouldReportZeroPercentilesWithoutSamples() {
+    var result = LoadResult.of("basic/ama", 4, new long[0], new long[0], 0, 2, 1_000_000_000L, -1);
+
+    assertEquals(0.0, result.p99Ms());
+    assertEquals(1.0, result.errorRate());
+    assertEquals(-1.0, result.allocatedKbPerRequest());
+  }
+
+  @Test
+  void shouldListRegressionsBeyondTolerance() {
+    var baseline = report(result("basic/ama", 100, 50, 10), result("vector/ama", 100, 50, 10));
+    var current = report(result("basic/ama", 70, 50, 10), result("vector/ama", 95, 70, 20));
+
+    var regressions = current.regressionsAgainst(baseline, 0.2);
+
+    assertEquals(3, regressions.size());
+    assertTrue(regressions.get(0).startsWith("basic/ama x16: throughput"));
+    assertTrue(regressions.get(1).startsWith("vector/ama x16: p99"));
+    assertTrue(regressions.get(2).startsWith("vector/ama x16: allocation"));
+  }
+
+  @Test
+  void shouldSkipScenariosMissingFromBaseline() {
+    var baseline = report(result("basic/ama", 100, 50, 10));
+    var current = report(result("safe/ama", 1, 5000, 1000));
+
+    var regressions = current.regressionsAgainst(baseline, 0.2);
+
+    assertTrue(regressions.isEmpty());
+  }
+
+  @Test
+  void shouldReadWrittenReportBack() throws Exception {
+    var report = report(result("basic/ama", 100, 50, 10));
+
+    var file = report.write(directory);
+
+    assertEquals(report, LoadReport.read(file));
+    assertTrue(Files.exists(directory.resolve("latest.json")));
+  }
+
+  private static LoadReport report(LoadResult... results) {
+    return new LoadReport("test", "2025-01-01T00:00:00Z", "21", 1, "PT5S", "PT20S", List.of(results));
+  }
+
+  private static LoadResult result(String scenario, double throughput, double p99Ms, double kbPerRequest) {
+    return new LoadResult(scenario, 16, 1000, 0, 0, throughput, p99Ms / 2, p99Ms, p99Ms * 2, 1, 2, 10,
+        kbPerRequest);
+  }
+}
@@ -0,0 +1,61 @@
+package academy.aicode.spring_ai.load;
+
+import java.util.Arrays;
+
+/**
+ * Measurements of one scenario at one concurrency level.
+ *
+ * - Latencies are end to end (until the last body byte) and cover successful
+ * requests only; {@code firstByte*} is the time to the first body byte, which
+ * is what a user of the streaming endpoints waits for
+ * - Throughput counts successful requests per second
+ * - Allocation is measured for the whole JVM, load clients included, so it is
+ * meant for comparing builds rather than as an absolute figure; -1 when the
+ * JVM does not support allocation accounting
+ */
+record LoadResult(String scenario, int concurrency, long requests, long rejected, long errors,
+    double throughput, double p50Ms, double p99Ms, double p999Ms, double firstByteP50Ms,
+    double firstByteP99Ms, double allocatedMbPerSecond, double allocatedKbPerRequest) {
+
+  private static final double NANOS_PER_MS = 1_000_000.0;
+
+  /**
+   * @param latencies      end-to-end nanos of the successful requests
+   * @param firstBytes     first-byte nanos of the successful requests
+   * @param elapsedNanos   length of the measured window
+   * @param allocatedBytes bytes allocated in the window, negative if unknown
+   */
+  static LoadResult of(String scenario, int concurrency, long[] latencies, long[] firstBytes, long rejected,
+      long errors, long elapsedNanos, long allocatedBytes) {
+    var sorted = latencies.clone();
+    Arrays.sort(sorted);
+    var sortedFirstBytes = firstBytes.clone();
+    Arrays.sort(sortedFirstBytes);
+    double seconds = elapsedNanos / 1e9;
+    long requests = sorted.length + rejected + errors;
+    return new LoadResult(scenario, concurrency, requests, rejected, errors,
+        seconds > 0 ? sorted.length / seconds : 0,
+        percentile(sorted, 0.50) / NANOS_PER_MS,
+        percentile(sorted, 0.99) / NANOS_PER_MS,
+        percentile(sorted, 0.999) / NANOS_PER_MS,
+        percentile(sortedFirstBytes, 0.50) / NANOS_PER_MS,
+        percentile(sortedFirstBytes, 0.99) / NANOS_PER_MS,
+        allocatedBytes < 0 || seconds <= 0 ? -1 : allocatedBytes / seconds / (1024 * 1024),
+        allocatedBytes < 0 || requests == 0 ? -1 : allocatedBytes / 1024.0 / requests);
+  }
+
+  /**
+   * Nearest-rank percentile of sorted values, 0 when there are none.
+   */
+  static long percentile(long[] sorted, double quantile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(quantile * sorted.length);
+    return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+  }
+
+  double errorRate() {
+    return requests == 0 ? 0 : (double) errors / requests;
+  }
+}
@@ -0,0 +1,126 @@
+package academy.aicode.spring_ai.load;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Closed-loop load generator: each of {@code concurrency} virtual threads
+ * sends the next request as soon as the previous one is fully read, for the
+ * warmup (not recorded) and then the measured duration.
+ */
+final class LoadRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(LoadRunner.class);
+
+  private final HttpClient client;
+  private final URI baseUri;
+  private final Duration warmup;
+  private final Duration duration;
+
+  LoadRunner(HttpClient client, URI baseUri, Duration warmup, Duration duration) {
+    this.client = Objects.requireNonNull(client, "client must not be null");
+    this.baseUri = Objects.requireNonNull(baseUri, "baseUri must not be null");
+    this.warmup = Objects.requireNonNull(warmup, "warmup must not be null");
+    this.duration = Objects.requireNonNull(duration, "duration must not be null");
+  }
+
+  LoadResult run(LoadScenario scenario, int concurrency) {
+    log.info("Load {} with {} clients ({} warmup, {} measured)", scenario.name(), concurrency, warmup, duration);
+    drive(scenario, concurrency, warmup, new Samples());
+    var samples = new Samples();
+    long allocatedBefore = allocatedBytes();
+    long start = System.nanoTime();
+    drive(scenario, concurrency, duration, samples);
+    long elapsed = System.nanoTime() - start;
+    long allocatedAfter = allocatedBytes();
+    return samples.result(scenario.name(), concurrency, elapsed,
+        allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore);
+  }
+
+  private void drive(LoadScenario scenario, int concurrency, Duration window, Samples samples) {
+    long deadline = System.nanoTime() + window.toNanos();
+    var sequence = new AtomicLong();
+    try (var clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < concurrency; i++) {
+        clients.submit(() -> {
+          while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            send(scenario, sequence.getAndIncrement(), samples);
+          }
+        });
+      }
+    }
+  }
+
+  private void send(LoadScenario scenario, long sequence, Samples samples) {
+    var request = scenario.request(baseUri, sequence);
+    long start = System.nanoTime();
+    try {
+      var response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+      long firstByte;
+      try (var body = response.body()) {
+        var buffer = new byte[8192];
+        int read = body.read(buffer);
+        firstByte = System.nanoTime() - start;
+        while (read >= 0) {
+          read = body.read(buffer);
+        }
+      }
+      samples.record(response.statusCode(), System.nanoTime() - start, firstByte);
+    } catch (IOException e) {
+      log.debug("{} failed: {}", scenario.name(), e.getMessage());
+      samples.record(0, 0, 0);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static long allocatedBytes() {
+    if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threads
+        && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+      return threads.getTotalThreadAllocatedBytes();
+    }
+    return -1;
+  }
+
+  private static final class Samples {
+    private long[] latencies = new long[1024];
+    private long[] firstBytes = new long[1024];
+    private int size;
+    private long rejected;
+    private long errors;
+
+    synchronized void record(int status, long latency, long firstByte) {
+      if (status == 429 || status == 503) {
+        rejected++;
+      } else if (status < 200 || status >= 300) {
+        errors++;
+      } else {
+        if (size == latencies.length) {
+          latencies = Arrays.copyOf(latencies, size * 2);
+          firstBytes = Arrays.copyOf(firstBytes, size * 2);
+        }
+        latencies[size] = latency;
+        firstBytes[size] = firstByte;
+        size++;
+      }
+    }
+
+    synchronized LoadResult result(String scenario, int concurrency, long elapsedNanos, long allocatedBytes) {
+      return LoadResult.of(scenario, concurrency, Arrays.copyOf(latencies, size), Arrays.copyOf(firstBytes, size),
+          rejected, errors, elapsedNanos, allocatedBytes);
+    }
+  }
+}
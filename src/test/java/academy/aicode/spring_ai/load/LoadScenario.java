@@ -0,0 +1,70 @@
+package academy.aicode.spring_ai.load;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One endpoint driven by the load suite.
+ *
+ * - {@code path} may contain {@code {input}}, replaced by the URL-encoded
+ * input of each request; {@code body} may contain it JSON-escaped
+ * - Requests rotate over {@code inputs}, so caches and single-flight see the
+ * same mix of repeated keys on every run
+ */
+record LoadScenario(String name, String method, String path, String contentType, String body, List<String> inputs) {
+
+  static final String INPUT = "{input}";
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+  LoadScenario {
+    Objects.requireNonNull(name, "name must not be null");
+    Objects.requireNonNull(method, "method must not be null");
+    Objects.requireNonNull(path, "path must not be null");
+    inputs = List.copyOf(inputs);
+    if (inputs.isEmpty()) {
+      throw new IllegalArgumentException("inputs must not be empty");
+    }
+  }
+
+  static LoadScenario get(String path, List<String> inputs) {
+    return new LoadScenario(nameOf(path), "GET", path, null, null, inputs);
+  }
+
+  static LoadScenario post(String path, String contentType, String body, List<String> inputs) {
+    return new LoadScenario(nameOf(path), "POST", path, contentType, body, inputs);
+  }
+
+  LoadScenario withName(String name) {
+    return new LoadScenario(name, method, path, contentType, body, inputs);
+  }
+
+  /**
+   * @param baseUri  server root, ending with {@code /}
+   * @param sequence request number, selects the input
+   */
+  HttpRequest request(URI baseUri, long sequence) {
+    var input = inputs.get(Math.floorMod(sequence, inputs.size()));
+    var uri = baseUri.resolve(path.replace(INPUT, URLEncoder.encode(input, StandardCharsets.UTF_8)));
+    var builder = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT);
+    if (body == null) {
+      return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+    }
+    return builder.header("Content-Type", contentType)
+        .method(method, HttpRequest.BodyPublishers.ofString(body.replace(INPUT, jsonEscape(input))))
+        .build();
+  }
+
+  private static String nameOf(String path) {
+    int query = path.indexOf('?');
+    return query < 0 ? path : path.substring(0, query);
+  }
+
+  private static String jsonEscape(String text) {
+    return text.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+}
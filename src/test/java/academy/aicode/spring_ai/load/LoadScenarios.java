@@ -0,0 +1,84 @@
+package academy.aicode.spring_ai.load;
+
+import java.util.List;
+
+/**
+ * Every endpoint of the {@code astro} and {@code distance} packages, except
+ * {@code vector/migration} (a one-off re-embedding of the whole store) and
+ * {@code vector/ingest/jobs/{id}} (needs a job id from a previous call).
+ */
+final class LoadScenarios {
+
+  static final List<String> PROMPTS = List.of(
+      "¿Qué es una enana blanca?",
+      "¿Cuántas lunas tiene Júpiter?",
+      "Háblame de 3I/ATLAS",
+      "¿Qué es un agujero negro?",
+      "¿Por qué brilla el Sol?",
+      "¿Qué es una nebulosa?",
+      "¿Cómo se forman los cometas?",
+      "¿Qué es la materia oscura?");
+
+  static final List<String> PLANETS = List.of(
+      "Mercurio", "Venus", "Tierra", "Marte", "Júpiter", "Saturno", "Urano", "Neptuno");
+
+  static final List<String> TOPICS = List.of(
+      "Marte", "Saturno", "Vía Láctea", "Nebulosa de Orión", "Cometa Halley", "Andrómeda");
+
+  static final List<String> DISTANCES = List.of(
+      "Convierte 4,2 años luz a kilómetros",
+      "¿Cuántas UA son 3 parsecs?",
+      "Pasa 1 AU a kilómetros",
+      "¿Cuántos años luz son 10 parsecs?");
+
+  static final List<String> DOCUMENTS = List.of(
+      "Las estrellas de neutrones son los restos colapsados de estrellas masivas.",
+      "Los cometas son cuerpos helados que desarrollan una cola al acercarse al Sol.",
+      "Júpiter es el planeta más grande del sistema solar y tiene más de noventa lunas.",
+      "Una enana blanca es el núcleo caliente que queda cuando una estrella como el Sol agota su combustible.",
+      "Los agujeros negros son regiones del espacio donde la gravedad impide escapar incluso a la luz.",
+      "La Vía Láctea es una galaxia espiral barrada con cientos de miles de millones de estrellas.",
+      "Saturno tiene un sistema de anillos formado por hielo y roca.",
+      "Las nebulosas son nubes de gas y polvo donde nacen nuevas estrellas.",
+      "Marte es el planeta rojo y tiene los volcanes más altos del sistema solar.",
+      "La materia oscura no emite luz pero se detecta por sus efectos gravitatorios.");
+
+  private static final String NDJSON = "application/x-ndjson";
+
+  private LoadScenarios() {
+  }
+
+  static List<LoadScenario> all() {
+    return List.of(
+        LoadScenario.get("basic/ama?prompt={input}", PROMPTS),
+        LoadScenario.get("basic/astro?prompt={input}", PROMPTS),
+        LoadScenario.get("basic/planet?planet={input}", PLANETS),
+        LoadScenario.get("basic/planet/satellites?planet={input}", PLANETS),
+        LoadScenario.get("basic/planet/satellites/structured?planet={input}", PLANETS),
+        LoadScenario.get("basic/planet/satellites/stream?planet={input}", PLANETS),
+        LoadScenario.get("safe/ama?prompt={input}", PROMPTS),
+        LoadScenario.get("safe/ama/checked?prompt={input}", PROMPTS),
+        LoadScenario.get("rag/ama/local?prompt={input}", PROMPTS),
+        LoadScenario.get("rag/ama/web?prompt={input}", TOPICS),
+        LoadScenario.get("rag/ama/web/stream?prompt={input}", TOPICS),
+        LoadScenario.get("tool/ama/wiki?prompt={input}", TOPICS),
+        LoadScenario.get("tool/ama/wiki/stream?prompt={input}", TOPICS),
+        LoadScenario.get("tool/ama/distance?prompt={input}", DISTANCES),
+        LoadScenario.get("tool/ama/distance/stream?prompt={input}", DISTANCES),
+        LoadScenario.get("tool/ama/distance/light-time?prompt={input}", DISTANCES),
+        LoadScenario.get("vector/embedding?message={input}", DOCUMENTS),
+        LoadScenario.get("vector/ingest?message={input}", DOCUMENTS),
+        LoadScenario.get("vector/ingest/queue", List.of("")),
+        LoadScenario.post("vector/ingest/bulk", NDJSON,
+            "{\"content\":\"{input}\",\"metadata\":{\"source\":\"load\"}}\n", DOCUMENTS),
+        LoadScenario.get("vector/ama?prompt={input}&topK=3", PROMPTS),
+        LoadScenario.get("vector/ama?prompt={input}&topK=3&hybrid=true", PROMPTS).withName("vector/ama (hybrid)"),
+        LoadScenario.get("vector/ama/stream?prompt={input}&topK=3", PROMPTS),
+        LoadScenario.get("vector/chat?question={input}", PROMPTS),
+        LoadScenario.get("vector/chat/stream?question={input}", PROMPTS),
+        LoadScenario.get("vector/alone?question={input}", PROMPTS),
+        LoadScenario.post("api/distance-conversion", "application/json",
+            "{\"inputValue\":{input},\"inputUnit\":\"PARSEC\",\"outputUnit\":\"KILOMETER\"}",
+            List.of("1", "4.2", "10", "1000")));
+  }
+}
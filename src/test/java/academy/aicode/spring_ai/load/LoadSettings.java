@@ -0,0 +1,55 @@
+package academy.aicode.spring_ai.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Load suite settings, read from {@code -Dload.*} system properties.
+ *
+ * - {@code load.concurrency}: comma-separated concurrent clients per
+ * scenario, each level is a separate run (default 16)
+ * - {@code load.warmup} and {@code load.duration}: per scenario and level
+ * (default 5s and 20s)
+ * - {@code load.scenarios}: comma-separated name prefixes to run (default all)
+ * - {@code load.output}: directory for the JSON reports (default
+ * {@code target/load-results})
+ * - {@code load.baseline}: previous report to compare against
+ * - {@code load.max-regression}: tolerated relative loss of throughput or
+ * growth of p99 and allocation per request against the baseline (default
+ * 0.2)
+ * - {@code load.max-error-rate}: tolerated fraction of failed requests
+ * (default 0.01); 429 and 503 answers are counted apart as rejected
+ * - {@code load.label}: free text stored in the report, e.g. a commit id
+ * - {@code load.wikipedia-latency}: delay of the local Wikipedia stand-in
+ * (default 120ms)
+ */
+record LoadSettings(List<Integer> concurrency, Duration warmup, Duration duration, List<String> scenarios,
+    Path output, Path baseline, double maxRegression, double maxErrorRate, String label,
+    Duration wikipediaLatency) {
+
+  static LoadSettings fromSystemProperties() {
+    return new LoadSettings(
+        list(System.getProperty("load.concurrency", "16")).stream().map(Integer::valueOf).toList(),
+        DurationStyle.detectAndParse(System.getProperty("load.warmup", "5s")),
+        DurationStyle.detectAndParse(System.getProperty("load.duration", "20s")),
+        list(System.getProperty("load.scenarios", "")),
+        Path.of(System.getProperty("load.output", "target/load-results")),
+        System.getProperty("load.baseline") == null ? null : Path.of(System.getProperty("load.baseline")),
+        Double.parseDouble(System.getProperty("load.max-regression", "0.2")),
+        Double.parseDouble(System.getProperty("load.max-error-rate", "0.01")),
+        System.getProperty("load.label", "local"),
+        DurationStyle.detectAndParse(System.getProperty("load.wikipedia-latency", "120ms")));
+  }
+
+  boolean includes(LoadScenario scenario) {
+    return scenarios.isEmpty() || scenarios.stream().anyMatch(scenario.name()::startsWith);
+  }
+
+  private static List<String> list(String value) {
+    return Arrays.stream(value.split(",")).map(String::strip).filter(item -> !item.isEmpty()).toList();
+  }
+}
@@ -0,0 +1,67 @@
+package academy.aicode.spring_ai.load;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the Wikipedia REST summary endpoint: answers every
+ * topic with a short extract after a fixed delay.
+ */
+public final class WikipediaStub implements AutoCloseable {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final String SUMMARY_PATH = "/api/rest_v1/page/summary/";
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Duration latency;
+
+  public WikipediaStub(Duration latency) throws IOException {
+    this.latency = latency;
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(executor);
+    server.createContext(SUMMARY_PATH, this::summary);
+    server.start();
+  }
+
+  /**
+   * @return value for {@code astrobiblia.wikipedia.summary-url}
+   */
+  public String summaryUrl() {
+    return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + SUMMARY_PATH;
+  }
+
+  private void summary(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      Thread.sleep(latency);
+      var topic = URLDecoder.decode(exchange.getRequestURI().getRawPath().substring(SUMMARY_PATH.length()),
+          StandardCharsets.UTF_8).replace('_', ' ');
+      var body = OBJECT_MAPPER.writeValueAsBytes(Map.of("title", topic, "extract",
+          topic + " es un objeto astronómico estudiado desde la antigüedad. Su observación ha permitido "
+              + "comprender mejor la formación y evolución del universo."));
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,139 @@
+package academy.aicode.spring_ai.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AstroBibliaVectorServiceTest {
+
+  private static final String LONG_TEXT = IntStream.range(0, 40)
+      .mapToObj(i -> "La estrella número " + i + " brilla en la constelación de Orión.")
+      .collect(Collectors.joining(" "));
+
+  private RecordingVectorStore store;
+  private AstroBibliaVectorService service;
+
+  @BeforeEach
+  void setUp() {
+    store = new RecordingVectorStore();
+    service = new AstroBibliaVectorService(new AstroBibliaVectorRepository(store), new DocumentChunker(60, 15),
+        new SearchResultCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry()), new Bm25Index(),
+        new DuplicateDetector(true, 3, new SimpleMeterRegistry()));
+  }
+
+  @Test
+  void shouldIngestLongDocumentAsChunksWithParentMetadata() {
+    var added = service.addDocuments(List.of(new DocumentRequest(LONG_TEXT, Map.of("source", "test"))));
+
+    assertTrue(added.size() > 1);
+    var parentIds = added.stream().map(d -> d.getMetadata().get(AstroBibliaVectorService.PARENT_ID_KEY)).distinct();
+    assertEquals(1, parentIds.count());
+    assertEquals(List.of(0, 1), added.subList(0, 2).stream()
+        .map(d -> d.getMetadata().get(AstroBibliaVectorService.CHUNK_INDEX_KEY)).toList());
+    assertEquals("test", added.get(0).getMetadata().get("source"));
+  }
+
+  @Test
+  void shouldKeepShortDocumentUnchunked() {
+    var added = service.addDocuments(List.of(new DocumentRequest("El universo es inmenso.", null)));
+
+    assertEquals(1, added.size());
+    assertEquals("El universo es inmenso.", added.get(0).getText());
+    assertEquals(1, store.documents.size());
+  }
+
+  @Test
+  void shouldSkipDocumentsWithoutContent() {
+    var added = service.addDocuments(List.of(new DocumentRequest("  ", Map.of()), new DocumentRequest()));
+
+    assertTrue(added.isEmpty());
+    assertTrue(store.documents.isEmpty());
+  }
+
+  @Test
+  void shouldReportDuplicatesWithoutStoringThemTwice() {
+    service.addDocuments(List.of(new DocumentRequest("El universo es inmenso.", null)));
+
+    var result = service.ingest(List.of(new DocumentRequest("El universo es  inmenso", null),
+        new DocumentRequest("Júpiter es un gigante gaseoso.", null)));
+
+    assertEquals(1, result.duplicates());
+    assertEquals(1, result.added().size());
+    assertEquals(2, store.documents.size());
+  }
+
+  @Test
+  void shouldServeRepeatedSearchFromCacheUntilDocumentsAreAdded() {
+    service.searchDocuments("estrellas de orión", 0.4, 2);
+    service.searchDocuments("estrellas de orión", 0.4, 2);
+    assertEquals(1, store.searches);
+
+    service.addDocuments(List.of(new DocumentRequest("El universo es inmenso.", null)));
+    service.searchDocuments("estrellas de orión", 0.4, 2);
+
+    assertEquals(2, store.searches);
+  }
+
+  @Test
+  void shouldFuseLexicalMatchBelowSemanticThreshold() {
+    service.addDocuments(List.of(new DocumentRequest("La nave Nostromo transporta mineral.", null)));
+    store.results = List.of(new Document("semantic", "Las naves espaciales viajan lejos.", Map.of()));
+
+    var results = service.searchHybrid("Nostromo", 0.9, 2);
+
+    assertEquals(2, results.size());
+    assertTrue(results.stream().anyMatch(d -> d.getText().contains("Nostromo")));
+  }
+
+  @Test
+  void shouldRankDocumentsFoundByBothRetrieversFirst() {
+    var a = new Document("a", "a", Map.of());
+    var b = new Document("b", "b", Map.of());
+    var c = new Document("c", "c", Map.of());
+
+    var fused = AstroBibliaVectorService.fuse(List.of(List.of(a, b), List.of(c, b)), 3);
+
+    assertEquals("b", fused.get(0).getId());
+    assertEquals(2.0 / 62, fused.get(0).getScore(), 1e-9);
+  }
+
+  private static class RecordingVectorStore implements VectorStore {
+    private final List<Document> documents = new ArrayList<>();
+    private int searches;
+    private List<Document> results = List.of();
+
+    @Override
+    public void add(List<Document> docs) {
+      documents.addAll(docs);
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+      searches++;
+      return results;
+    }
+  }
+}
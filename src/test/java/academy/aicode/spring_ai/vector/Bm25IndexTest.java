@@ -0,0 +1,55 @@
+package academy.aicode.spring_ai.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+class Bm25IndexTest {
+
+  private Bm25Index index;
+
+  @BeforeEach
+  void setUp() {
+    index = new Bm25Index();
+    index.add(List.of(
+        new Document("nostromo", "La nave Nostromo transporta mineral desde Thedus.", Map.of()),
+        new Document("atlas", "El cometa interestelar 3I/ATLAS fue descubierto en 2025.", Map.of()),
+        new Document("orion", "La nebulosa de Orión es una región de formación estelar.", Map.of()),
+        new Document("cometas", "Un cometa es un cuerpo helado; el cometa tiene coma y cola.", Map.of())));
+  }
+
+  @Test
+  void shouldFindExactNameAsBestMatch() {
+    var results = index.search("Nostromo", 3);
+
+    assertEquals(List.of("nostromo"), results.stream().map(Document::getId).toList());
+    assertTrue(results.get(0).getScore() > 0);
+  }
+
+  @Test
+  void shouldMatchIgnoringCaseAccentsAndPunctuation() {
+    assertEquals("atlas", index.search("3i atlas", 1).get(0).getId());
+    assertEquals("orion", index.search("ORION", 1).get(0).getId());
+  }
+
+  @Test
+  void shouldRankHigherTermFrequencyFirst() {
+    var results = index.search("cometa", 2);
+
+    assertEquals(List.of("cometas", "atlas"), results.stream().map(Document::getId).toList());
+  }
+
+  @Test
+  void shouldReplaceDocumentWithSameId() {
+    index.add(List.of(new Document("nostromo", "Texto sin nombres propios.", Map.of())));
+
+    assertTrue(index.search("Nostromo", 3).isEmpty());
+    assertEquals(4, index.size());
+  }
+}
@@ -0,0 +1,153 @@
+package academy.aicode.spring_ai.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BulkIngestServiceTest {
+
+  private RecordingVectorStore store;
+  private List<BulkIngestBatch> progress;
+
+  @BeforeEach
+  void setUp() {
+    store = new RecordingVectorStore();
+    progress = new ArrayList<>();
+  }
+
+  @Test
+  void shouldWriteDocumentsInBatchesOfConfiguredSize() throws IOException {
+    var service = service(2, 100_000);
+    var ndjson = """
+        {"content":"uno","metadata":{"source":"test"}}
+        {"content":"dos"}
+        {"content":"tres"}
+        """;
+
+    var summary = service.ingest(new StringReader(ndjson), progress::add);
+
+    assertEquals(List.of(2, 1), store.batchSizes);
+    assertEquals(2, summary.batches());
+    assertEquals(3, summary.added());
+    assertEquals(List.of(1, 3), progress.stream().map(BulkIngestBatch::firstLine).toList());
+  }
+
+  @Test
+  void shouldSplitBatchWhenTokenBudgetIsExceeded() throws IOException {
+    var service = service(100, 3);
+    var ndjson = """
+        {"content":"una estrella brillante"}
+        {"content":"un cometa lejano"}
+        """;
+
+    service.ingest(new StringReader(ndjson), progress::add);
+
+    assertEquals(List.of(1, 1), store.batchSizes);
+  }
+
+  @Test
+  void shouldReportMalformedLinesAndKeepGoing() throws IOException {
+    var service = service(10, 100_000);
+    var ndjson = """
+        {"content":"uno"}
+        not json
+        {"content":"dos"}
+        """;
+
+    var summary = service.ingest(new StringReader(ndjson), progress::add);
+
+    assertEquals(2, summary.added());
+    assertEquals(1, summary.failed());
+    assertTrue(progress.get(0).errors().get(0).startsWith("line 2:"));
+  }
+
+  @Test
+  void shouldReportProgressWhileMostLinesAreRejected() throws IOException {
+    var service = service(10, 100_000);
+    var ndjson = "not json\n".repeat(25) + "{\"content\":\"uno\"}\n";
+
+    var summary = service.ingest(new StringReader(ndjson), progress::add);
+
+    assertEquals(List.of(10, 10, 5), progress.stream().map(BulkIngestBatch::failed).toList());
+    assertEquals(List.of(10, 20, 26), progress.stream().map(BulkIngestBatch::lastLine).toList());
+    assertEquals(1, summary.added());
+  }
+
+  @Test
+  void shouldListOnlyFirstErrorsOfBatch() throws IOException {
+    var service = service(100, 100_000);
+    var ndjson = "not json\n".repeat(BulkIngestService.MAX_ERRORS_PER_BATCH + 10);
+
+    service.ingest(new StringReader(ndjson), progress::add);
+
+    var errors = progress.get(0).errors();
+    assertEquals(BulkIngestService.MAX_ERRORS_PER_BATCH + 10, progress.get(0).failed());
+    assertEquals(BulkIngestService.MAX_ERRORS_PER_BATCH + 1, errors.size());
+    assertEquals("10 more errors not listed", errors.get(errors.size() - 1));
+  }
+
+  @Test
+  void shouldReportFailedBatchWithoutAbortingUpload() throws IOException {
+    var service = service(1, 100_000);
+    store.failOnBatch = 1;
+    var ndjson = """
+        {"content":"uno"}
+        {"content":"dos"}
+        """;
+
+    var summary = service.ingest(new StringReader(ndjson), progress::add);
+
+    assertEquals(1, summary.added());
+    assertEquals(1, summary.failed());
+    assertEquals(2, progress.size());
+  }
+
+  private BulkIngestService service(int batchSize, int batchMaxTokens) {
+    var repository = new AstroBibliaVectorRepository(store);
+    var vectorService = new AstroBibliaVectorService(repository, new DocumentChunker(512, 64),
+        new SearchResultCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry()), new Bm25Index(),
+        new DuplicateDetector(true, 3, new SimpleMeterRegistry()));
+    return new BulkIngestService(vectorService, batchSize, batchMaxTokens, 1000);
+  }
+
+  private static class RecordingVectorStore implements VectorStore {
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private int failOnBatch = -1;
+
+    @Override
+    public void add(List<Document> documents) {
+      if (batchSizes.size() == failOnBatch - 1) {
+        batchSizes.add(0);
+        throw new IllegalStateException("store unavailable");
+      }
+      batchSizes.add(documents.size());
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+      return List.of();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package academy.aicode.spring_ai.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ContextPackerTest {
+
+  private final DocumentChunker chunker = new DocumentChunker(512, 64);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ContextPacker packer = new ContextPacker(chunker, registry);
+
+  @Test
+  void shouldKeepDocumentsThatFitUnchanged() {
+    var document = new Document("a", "Marte es rojo. Tiene dos lunas.", Map.of("source", "wiki"));
+
+    var packed = packer.pack(List.of(document), 1000, "test");
+
+    assertSame(document, packed.documents().get(0));
+    assertEquals(0, packed.savedTokens());
+  }
+
+  @Test
+  void shouldDropSentencesRepeatedByOverlappingChunks() {
+    var first = new Document("a", "Fobos orbita Marte. Deimos es más pequeño.", Map.of());
+    var second = new Document("b", "Deimos es más pequeño. Ambos son asteroides capturados.", Map.of());
+
+    var packed = packer.pack(List.of(first, second), 1000, "test");
+
+    assertEquals("Ambos son asteroides capturados.", packed.documents().get(1).getText());
+    assertEquals("b", packed.documents().get(1).getId());
+    assertEquals(chunker.countTokens("Deimos es más pequeño."), packed.savedTokens(), 1);
+  }
+
+  @Test
+  void shouldTrimAtSentenceBoundaryAndDropWhatDoesNotFit() {
+    var first = new Document("a", "Júpiter es el planeta más grande. Su gran mancha roja es una tormenta.", Map.of());
+    var second = new Document("b", "Saturno tiene anillos de hielo y roca que se extienden miles de kilómetros.",
+        Map.of());
+    int budget = chunker.countTokens("Júpiter es el planeta más grande.") + 2;
+
+    var packed = packer.pack(List.of(first, second), budget, "test");
+
+    assertEquals(List.of("Júpiter es el planeta más grande."),
+        packed.documents().stream().map(Document::getText).toList());
+    assertTrue(packed.sentTokens() <= budget);
+    assertEquals(packed.retrievedTokens(), registry.get("astrobiblia.rag.context.tokens")
+        .tag("endpoint", "test").tag("stage", "retrieved").summary().totalAmount(), 0.0);
+  }
+}
@@ -0,0 +1,63 @@
+package academy.aicode.spring_ai.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class DocumentChunkerTest {
+
+  private static final String LONG_TEXT = IntStream.range(0, 40)
+      .mapToObj(i -> "La estrella número " + i + " brilla en la constelación de Orión.")
+      .collect(Collectors.joining(" "));
+
+  @Test
+  void shouldReturnShortTextAsSingleChunk() {
+    var chunker = new DocumentChunker(512, 64);
+
+    var chunks = chunker.split("El universo es inmenso.");
+
+    assertEquals(List.of("El universo es inmenso."), chunks);
+  }
+
+  @Test
+  void shouldKeepEveryChunkWithinTokenBudget() {
+    var chunker = new DocumentChunker(60, 15);
+
+    var chunks = chunker.split(LONG_TEXT);
+
+    assertTrue(chunks.size() > 1);
+    assertTrue(chunks.stream().allMatch(chunk -> chunker.countTokens(chunk) <= 60));
+  }
+
+  @Test
+  void shouldRepeatTrailingSentencesInNextChunk() {
+    var chunker = new DocumentChunker(60, 20);
+
+    var chunks = chunker.split(LONG_TEXT);
+
+    var lastSentenceOfFirst = chunks.get(0).substring(chunks.get(0).lastIndexOf("La estrella"));
+    assertTrue(chunks.get(1).startsWith(lastSentenceOfFirst));
+  }
+
+  @Test
+  void shouldSplitSentenceLongerThanBudgetAtWordBoundaries() {
+    var chunker = new DocumentChunker(10, 0);
+    var sentence = "uno dos tres cuatro cinco seis siete ocho nueve diez once doce trece catorce quince";
+
+    var chunks = chunker.split(sentence);
+
+    assertTrue(chunks.size() > 1);
+    assertEquals(sentence, String.join(" ", chunks));
+  }
+
+  @Test
+  void shouldRejectOverlapNotSmallerThanBudget() {
+    assertThrows(IllegalArgumentException.class, () -> new DocumentChunker(10, 10));
+  }
+}
@@ -0,0 +1,104 @@
+package academy.aicode.spring_ai.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DuplicateDetectorTest {
+
+  private static final String PASSAGE = IntStream.range(0, 40)
+      .mapToObj(i -> "El cometa " + i + " cruza la órbita de Júpiter cada siglo.")
+      .collect(Collectors.joining(" "));
+
+  private SimpleMeterRegistry registry;
+  private DuplicateDetector detector;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    detector = new DuplicateDetector(true, 3, registry);
+  }
+
+  @Test
+  void shouldSkipExactDuplicateIgnoringCaseAccentsAndWhitespace() {
+    detector.claim(List.of(new Document("La Nebulosa de Orión es visible.")));
+
+    var accepted = detector.claim(List.of(new Document("  la nebulosa   de ORION es visible ")));
+
+    assertTrue(accepted.isEmpty());
+    assertEquals(1.0, registry.get("astrobiblia.vector.ingest.duplicates").tag("kind", "exact").counter().count());
+  }
+
+  @Test
+  void shouldSkipNearDuplicateWithOneWordChanged() {
+    detector.claim(List.of(new Document(PASSAGE)));
+
+    var accepted = detector.claim(List.of(new Document(PASSAGE.replace("cometa 17", "asteroide 17"))));
+
+    assertTrue(accepted.isEmpty());
+    assertEquals(1.0, registry.get("astrobiblia.vector.ingest.duplicates").tag("kind", "near").counter().count());
+  }
+
+  @Test
+  void shouldKeepDistinctTextsAndDuplicatesWithinOneBatch() {
+    var first = new Document("Los agujeros negros deforman el espacio-tiempo.");
+    var second = new Document("Saturno tiene anillos de hielo y roca.");
+
+    var accepted = detector.claim(List.of(first, second, new Document(first.getText())));
+
+    assertEquals(List.of(first, second), accepted);
+    assertEquals(2, detector.size());
+  }
+
+  @Test
+  void shouldAcceptReleasedTextAgain() {
+    var documents = List.of(new Document(PASSAGE));
+    detector.claim(documents);
+
+    detector.release(documents);
+    var accepted = detector.claim(List.of(new Document(PASSAGE)));
+
+    assertEquals(1, accepted.size());
+  }
+
+  @Test
+  void shouldNotTreatTextsWithoutTermsAsDuplicates() {
+    var documents = List.of(new Document("¡¡!!"), new Document("🚀 🌍"), new Document("-- * --"));
+
+    var accepted = detector.claim(documents);
+
+    assertEquals(documents, accepted);
+    assertEquals(0, detector.size());
+  }
+
+  @Test
+  void shouldRememberManyTextsAndForgetReleasedOnes() {
+    var documents = IntStream.range(0, 1000)
+        .mapToObj(i -> new Document("Registro " + i + " del catálogo Messier número " + (i * 7919)))
+        .toList();
+    assertEquals(1000, detector.claim(documents).size());
+
+    detector.release(documents.subList(0, 500));
+
+    assertEquals(500, detector.size());
+    assertEquals(500, detector.claim(documents).size());
+    assertEquals(1000, detector.size());
+  }
+
+  @Test
+  void shouldAcceptEverythingWhenDisabled() {
+    var disabled = new DuplicateDetector(false, 3, registry);
+    var documents = List.of(new Document("Marte es rojo."), new Document("Marte es rojo."));
+
+    assertEquals(documents, disabled.claim(documents));
+  }
+}
@@ -0,0 +1,257 @@
+package academy.aicode.spring_ai.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import academy.aicode.spring_ai.embedding.FixedModelEmbeddingModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EmbeddingMigrationServiceTest {
+
+  private ListVectorStore source;
+  private AstroBibliaVectorRepository repository;
+  private RecordingShadowStoreFactory shadows;
+  private List<Runnable> pending;
+
+  @BeforeEach
+  void setUp() {
+    source = new ListVectorStore("source");
+    IntStream.range(0, 5).forEach(i -> source.add(List.of(new Document("doc-" + i, "Texto " + i, Map.of()))));
+    repository = new AstroBibliaVectorRepository(source);
+    shadows = new RecordingShadowStoreFactory();
+    pending = new ArrayList<>();
+  }
+
+  @Test
+  void shouldCopyEveryPageAndSwitchRepository() {
+    var service = service(Runnable::run);
+
+    service.start("text-embedding-3-large");
+
+    var shadow = shadows.created.get(0);
+    assertEquals(EmbeddingMigrationService.State.SUCCEEDED, service.status().state());
+    assertEquals(5, service.status().migrated());
+    assertEquals(List.of("doc-0", "doc-1", "doc-2", "doc-3", "doc-4"), List.copyOf(shadow.documents.keySet()));
+    assertSame(shadow, repository.getActiveStore());
+    assertEquals("text-embedding-3-large",
+        assertInstanceOf(FixedModelEmbeddingModel.class, shadows.embeddingModel).getModel());
+    assertEquals(List.of("text-embedding-3-large"), shadows.promoted);
+  }
+
+  @Test
+  void shouldResumeFromLastPageAfterFailure() {
+    var service = service(Runnable::run);
+    shadows.failOnAdd = 2;
+
+    service.start("text-embedding-3-large");
+    var failed = service.status();
+    service.start("text-embedding-3-large");
+
+    assertEquals(EmbeddingMigrationService.State.FAILED, failed.state());
+    assertEquals(2, failed.migrated());
+    assertEquals(1, shadows.created.size());
+    assertEquals(List.of(2, 2, 1), shadows.created.get(0).addedBatchSizes);
+    assertEquals(EmbeddingMigrationService.State.SUCCEEDED, service.status().state());
+    assertSame(shadows.created.get(0), repository.getActiveStore());
+  }
+
+  @Test
+  void shouldResumeAfterRestartThatRenumbersTheStore(@TempDir Path directory) {
+    var checkpoint = directory.resolve("migration.properties");
+    var persisted = new ListVectorStore("shadow-text-embedding-3-large");
+    shadows.reopened = persisted;
+    persisted.failOnAdd = 2;
+    service(Runnable::run, checkpoint).start("text-embedding-3-large");
+    assertEquals(List.of("doc-0", "doc-1"), List.copyOf(persisted.documents.keySet()));
+
+    // restart: doc-0 was deleted meanwhile, so reloading shifts every position
+    source = new ListVectorStore("source");
+    IntStream.range(1, 5).forEach(i -> source.add(List.of(new Document("doc-" + i, "Texto " + i, Map.of()))));
+    repository = new AstroBibliaVectorRepository(source);
+    persisted.addedBatchSizes.clear();
+    var restarted = service(Runnable::run, checkpoint);
+    restarted.start("text-embedding-3-large");
+
+    assertEquals(EmbeddingMigrationService.State.SUCCEEDED, restarted.status().state());
+    assertEquals(List.of("doc-1", "doc-2", "doc-3", "doc-4"), List.copyOf(persisted.documents.keySet()));
+    assertEquals(List.of(1, 2), persisted.addedBatchSizes);
+    assertEquals(5, restarted.status().migrated());
+    assertSame(persisted, repository.getActiveStore());
+  }
+
+  @Test
+  void shouldDiscardFailedShadowWhenMigratingToAnotherModel() {
+    var service = service(Runnable::run);
+    shadows.failOnAdd = 2;
+    service.start("text-embedding-3-large");
+    var failed = shadows.created.get(0);
+
+    shadows.failOnAdd = 0;
+    service.start("text-embedding-3-small");
+
+    assertEquals(List.of(failed), shadows.discarded);
+    assertEquals(EmbeddingMigrationService.State.SUCCEEDED, service.status().state());
+    assertEquals(List.of("text-embedding-3-small"), shadows.promoted);
+  }
+
+  @Test
+  void shouldMirrorWritesAndKeepReadsOnSourceWhileRunning() {
+    var service = service(pending::add);
+    service.start("text-embedding-3-large");
+    var shadow = shadows.created.get(0);
+
+    repository.addDocuments(List.of(new Document("late", "Texto tardío", Map.of())));
+    repository.semanticSearchByContent(SearchRequest.builder().query("texto").build());
+
+    assertEquals(1, source.searches);
+    assertEquals(0, shadow.searches);
+    assertEquals(List.of("late"), List.copyOf(shadow.documents.keySet()));
+    assertThrows(IllegalStateException.class, () -> service.start("text-embedding-3-large"));
+    pending.get(0).run();
+    assertEquals(6, shadow.documents.size());
+    assertSame(shadow, repository.getActiveStore());
+  }
+
+  private EmbeddingMigrationService service(Executor executor) {
+    return service(executor, null);
+  }
+
+  private EmbeddingMigrationService service(Executor executor, Path checkpointFile) {
+    var beans = new StaticListableBeanFactory(Map.of("shadows", shadows));
+    return new EmbeddingMigrationService(repository, new UnusedEmbeddingModel(),
+        beans.getBeanProvider(ShadowStoreFactory.class),
+        new SearchResultCache(10, Duration.ofMinutes(1), new SimpleMeterRegistry()), 2, 0, checkpointFile, executor);
+  }
+
+  private static class RecordingShadowStoreFactory implements ShadowStoreFactory {
+    private final List<ListVectorStore> created = new ArrayList<>();
+    private final List<String> promoted = new ArrayList<>();
+    private final List<VectorStore> discarded = new ArrayList<>();
+    private EmbeddingModel embeddingModel;
+    private int failOnAdd;
+    // stands in for a shadow store reloaded from disk after a restart
+    private ListVectorStore reopened;
+
+    @Override
+    public VectorStore create(EmbeddingModel embeddingModel, String model) {
+      this.embeddingModel = embeddingModel;
+      if (reopened != null) {
+        return reopened;
+      }
+      var store = new ListVectorStore("shadow-" + model);
+      store.failOnAdd = failOnAdd;
+      created.add(store);
+      return store;
+    }
+
+    @Override
+    public void promote(VectorStore shadow, String model) {
+      promoted.add(model);
+    }
+
+    @Override
+    public void discard(VectorStore shadow) {
+      discarded.add(shadow);
+    }
+
+    @Override
+    public boolean persistent() {
+      return reopened != null;
+    }
+  }
+
+  private static class ListVectorStore implements PageableVectorStore {
+    private final String name;
+    private final LinkedHashMap<String, Document> documents = new LinkedHashMap<>();
+    private final List<Integer> addedBatchSizes = new ArrayList<>();
+    private int failOnAdd;
+    private int searches;
+
+    ListVectorStore(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public void add(List<Document> docs) {
+      if (--failOnAdd == 0) {
+        throw new IllegalStateException("provider unavailable");
+      }
+      addedBatchSizes.add(docs.size());
+      docs.forEach(doc -> documents.put(doc.getId(), doc));
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+      idList.forEach(documents::remove);
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+      searches++;
+      return List.of();
+    }
+
+    @Override
+    public Page page(String cursor, int limit) {
+      var all = List.copyOf(documents.values());
+      int from = cursor == null ? 0 : Integer.parseInt(cursor);
+      int to = Math.min(all.size(), from + limit);
+      return new Page(all.subList(from, to), to < all.size() ? String.valueOf(to) : null);
+    }
+
+    @Override
+    public List<Document> findByIds(Collection<String> ids) {
+      return ids.stream().filter(documents::containsKey).map(documents::get).toList();
+    }
+
+    @Override
+    public Map<String, float[]> findEmbeddings(Collection<String> ids) {
+      return Map.of();
+    }
+  }
+
+  private static class UnusedEmbeddingModel implements EmbeddingModel {
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public float[] embed(Document document) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
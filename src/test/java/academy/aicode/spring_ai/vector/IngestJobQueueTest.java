@@ -0,0 +1,129 @@
+package academy.aicode.spring_ai.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IngestJobQueueTest {
+
+  private BlockingVectorStore store;
+  private IngestJobQueue queue;
+
+  @BeforeEach
+  void setUp() {
+    store = new BlockingVectorStore();
+    var repository = new AstroBibliaVectorRepository(store);
+    var service = new AstroBibliaVectorService(repository, new DocumentChunker(512, 64),
+        new SearchResultCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry()), new Bm25Index(),
+        new DuplicateDetector(true, 3, new SimpleMeterRegistry()));
+    queue = new IngestJobQueue(service, 1, 1, 10);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    store.release.countDown();
+    queue.destroy();
+  }
+
+  @Test
+  void shouldReturnQueuedJobImmediately() {
+    var job = queue.submit(documents("estrellas"));
+
+    assertTrue(queue.find(job.getId()).isPresent());
+    assertEquals(1, job.getDocuments());
+  }
+
+  @Test
+  void shouldRejectWhenQueueIsFull() throws InterruptedException {
+    queue.submit(documents("uno"));
+    store.started.await(5, TimeUnit.SECONDS);
+    queue.submit(documents("dos"));
+
+    var error = assertThrows(IngestQueueFullException.class, () -> queue.submit(documents("tres")));
+
+    assertTrue(error.getRetryAfter().toSeconds() >= 1);
+    assertEquals(1, queue.stats().queued());
+  }
+
+  @Test
+  void shouldReportSucceededJobWithAddedCount() throws InterruptedException {
+    store.release.countDown();
+    var job = queue.submit(documents("estrellas"));
+
+    awaitFinished(job);
+
+    assertEquals(IngestJob.Status.SUCCEEDED, job.getStatus());
+    assertEquals(1, job.getAdded());
+  }
+
+  @Test
+  void shouldReportFailedJobWithError() throws InterruptedException {
+    store.failure = new IllegalStateException("store unavailable");
+    store.release.countDown();
+    var job = queue.submit(documents("estrellas"));
+
+    awaitFinished(job);
+
+    assertEquals(IngestJob.Status.FAILED, job.getStatus());
+    assertEquals("store unavailable", job.getError());
+  }
+
+  private static List<DocumentRequest> documents(String content) {
+    return List.of(new DocumentRequest(content, null));
+  }
+
+  private static void awaitFinished(IngestJob job) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while ((job.getStatus() == IngestJob.Status.QUEUED || job.getStatus() == IngestJob.Status.RUNNING)
+        && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private static class BlockingVectorStore implements VectorStore {
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile RuntimeException failure;
+
+    @Override
+    public void add(List<Document> documents) {
+      started.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+      return List.of();
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package academy.aicode.spring_ai.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LongIntMapTest {
+
+  @Test
+  void shouldMatchHashMapAfterRandomPutsAndRemoves() {
+    var map = new LongIntMap(4);
+    var expected = new HashMap<Long, Integer>();
+    var random = new Random(42);
+
+    for (int i = 0; i < 20_000; i++) {
+      long key = random.nextInt(2_000) - 1_000L;
+      if (random.nextBoolean()) {
+        map.put(key, i);
+        expected.put(key, i);
+      } else {
+        assertEquals(expected.containsKey(key) ? expected.remove(key) : LongIntMap.ABSENT, map.remove(key));
+      }
+    }
+
+    assertEquals(expected.size(), map.size());
+    for (long key = -1_000; key < 1_000; key++) {
+      assertEquals(expected.getOrDefault(key, LongIntMap.ABSENT), map.get(key));
+    }
+  }
+}
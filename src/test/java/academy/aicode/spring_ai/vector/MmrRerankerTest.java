@@ -0,0 +1,144 @@
+package academy.aicode.spring_ai.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+class MmrRerankerTest {
+
+  private static final Map<String, float[]> EMBEDDINGS = Map.of(
+      "marte", new float[] { 1f, 0f, 0f },
+      "Marte es rojo.", new float[] { 0.95f, 0.3f, 0f },
+      "Marte es rojizo.", new float[] { 0.94f, 0.32f, 0f },
+      "Marte tiene dos lunas.", new float[] { 0.8f, 0f, 0.6f });
+
+  private static final List<Document> CANDIDATES = List.of(
+      new Document("a", "Marte es rojo.", Map.of()),
+      new Document("b", "Marte es rojizo.", Map.of()),
+      new Document("c", "Marte tiene dos lunas.", Map.of()));
+
+  private final MapEmbeddingModel embeddingModel = new MapEmbeddingModel();
+
+  @Test
+  void shouldRerankWithStoredEmbeddingsWithoutEmbedding() {
+    var reranker = new MmrReranker(embeddingModel, 0.5, 4);
+    var scored = CANDIDATES.stream().map(MmrRerankerTest::scored).toList();
+    var stored = Map.of("a", EMBEDDINGS.get("Marte es rojo."), "b", EMBEDDINGS.get("Marte es rojizo."),
+        "c", EMBEDDINGS.get("Marte tiene dos lunas."));
+
+    var selected = reranker.rerank("marte", scored, 2, stored);
+
+    assertEquals(List.of("a", "c"), selected.stream().map(Document::getId).toList());
+    assertEquals(0, embeddingModel.calls);
+  }
+
+  @Test
+  void shouldEmbedCandidatesWhenAnyStoredEmbeddingIsMissing() {
+    var reranker = new MmrReranker(embeddingModel, 0.5, 4);
+    var scored = CANDIDATES.stream().map(MmrRerankerTest::scored).toList();
+
+    var selected = reranker.rerank("marte", scored, 2, Map.of("a", EMBEDDINGS.get("Marte es rojo.")));
+
+    assertEquals(List.of("a", "c"), selected.stream().map(Document::getId).toList());
+    assertEquals(1, embeddingModel.calls);
+  }
+
+  @Test
+  void shouldPreferDiverseDocumentOverNearDuplicate() {
+    var reranker = new MmrReranker(embeddingModel, 0.5, 4);
+
+    var selected = reranker.rerank("marte", CANDIDATES, 2);
+
+    assertEquals(List.of("a", "c"), selected.stream().map(Document::getId).toList());
+    assertEquals(1, embeddingModel.calls);
+  }
+
+  @Test
+  void shouldKeepRelevanceOrderWhenLambdaIsOne() {
+    var reranker = new MmrReranker(embeddingModel, 1.0, 4);
+
+    var selected = reranker.rerank("marte", CANDIDATES, 2);
+
+    assertEquals(List.of("a", "b"), selected.stream().map(Document::getId).toList());
+  }
+
+  @Test
+  void shouldOverFetchCandidatesFromDelegateStore() {
+    var delegate = new FixedVectorStore();
+    var store = new MmrVectorStore(delegate, new MmrReranker(embeddingModel, 0.5, 3));
+
+    var results = store.similaritySearch(SearchRequest.builder().query("marte").topK(2).build());
+
+    assertEquals(6, delegate.requestedTopK);
+    assertEquals(2, results.size());
+  }
+
+  /**
+   * Candidate with the score an Atlas-compatible store gives it for "marte":
+   * (1 + cosine) / 2.
+   */
+  private static Document scored(Document candidate) {
+    var query = EMBEDDINGS.get("marte");
+    var vector = EMBEDDINGS.get(candidate.getText());
+    double dot = 0;
+    double norm = 0;
+    for (int i = 0; i < vector.length; i++) {
+      dot += query[i] * vector[i];
+      norm += vector[i] * vector[i];
+    }
+    return candidate.mutate().score((1 + dot / Math.sqrt(norm)) / 2).build();
+  }
+
+  private static class MapEmbeddingModel implements EmbeddingModel {
+    private int calls;
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+      calls++;
+      var embeddings = new ArrayList<Embedding>();
+      for (var text : request.getInstructions()) {
+        embeddings.add(new Embedding(EMBEDDINGS.get(text), embeddings.size()));
+      }
+      return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+      return EMBEDDINGS.get(document.getText());
+    }
+  }
+
+  private static class FixedVectorStore implements VectorStore {
+    private int requestedTopK;
+
+    @Override
+    public void add(List<Document> documents) {
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+      requestedTopK = request.getTopK();
+      return CANDIDATES;
+    }
+  }
+}
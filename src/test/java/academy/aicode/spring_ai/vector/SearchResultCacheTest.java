@@ -0,0 +1,112 @@
+package academy.aicode.spring_ai.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SearchResultCacheTest {
+
+  private static final List<Document> RESULTS = List.of(new Document("Marte es rojo."));
+
+  private MutableClock clock;
+  private SearchResultCache cache;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock();
+    cache = new SearchResultCache(2, Duration.ofMinutes(1), new SimpleMeterRegistry(), clock);
+  }
+
+  @Test
+  void shouldKeepSeparateEntriesForPromptsDifferingInCase() {
+    cache.put(SearchResultCache.keyOf("Marte", 0.4, 2), cache.version(), RESULTS);
+
+    assertEquals(RESULTS, cache.get(SearchResultCache.keyOf("Marte", 0.4, 2)));
+    assertNull(cache.get(SearchResultCache.keyOf("marte", 0.4, 2)));
+    assertNull(cache.get(SearchResultCache.keyOf("Marte", 0.5, 2)));
+  }
+
+  @Test
+  void shouldNotExposeCachedDocumentsToCallerChanges() {
+    var key = SearchResultCache.keyOf("marte", 0.4, 2);
+    cache.put(key, cache.version(), List.of(new Document("Marte es rojo.", new HashMap<>(Map.of("source", "wiki")))));
+
+    cache.get(key).get(0).getMetadata().put("source", "changed");
+
+    assertEquals("wiki", cache.get(key).get(0).getMetadata().get("source"));
+  }
+
+  @Test
+  void shouldExpireEntriesAfterTtl() {
+    var key = SearchResultCache.keyOf("marte", 0.4, 2);
+    cache.put(key, cache.version(), RESULTS);
+
+    clock.advance(Duration.ofMinutes(2));
+
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  void shouldDropResultsComputedBeforeInvalidation() {
+    var key = SearchResultCache.keyOf("marte", 0.4, 2);
+    long version = cache.version();
+
+    cache.invalidate();
+    cache.put(key, version, RESULTS);
+
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedBeyondMaxEntries() {
+    var first = SearchResultCache.keyOf("uno", 0.4, 2);
+    var second = SearchResultCache.keyOf("dos", 0.4, 2);
+    var third = SearchResultCache.keyOf("tres", 0.4, 2);
+    cache.put(first, cache.version(), RESULTS);
+    cache.put(second, cache.version(), RESULTS);
+    cache.get(first);
+
+    cache.put(third, cache.version(), RESULTS);
+
+    assertNotNull(cache.get(first));
+    assertNull(cache.get(second));
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package academy.aicode.spring_ai.vector.local;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.FloatBuffer;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class FlatVectorIndexTest {
+
+  private static final int DIMENSIONS = 37;
+
+  @Test
+  void shouldReturnEmptyListWhenIndexIsEmpty() {
+    var index = new FlatVectorIndex(1000);
+
+    var results = index.search(new float[] { 1f, 0f }, 3);
+
+    assertTrue(results.isEmpty());
+  }
+
+  @Test
+  void shouldMatchSortedBruteForceResults() {
+    var index = new FlatVectorIndex(1000);
+    var vectors = randomVectors(800, 1L);
+    IntStream.range(0, vectors.length).forEach(i -> index.add(vectors[i]));
+    var query = randomVectors(1, 2L)[0];
+
+    var results = index.search(query, 10);
+
+    assertEquals(bruteForce(vectors, query, 10), results.stream().map(Neighbor::ordinal).toList());
+  }
+
+  @Test
+  void shouldReturnSameResultsWhenScanningInParallelSlices() {
+    var sequential = new FlatVectorIndex(10_000);
+    var parallel = new FlatVectorIndex(64);
+    var vectors = randomVectors(3000, 3L);
+    for (var vector : vectors) {
+      sequential.add(vector);
+      parallel.add(vector);
+    }
+    var query = randomVectors(1, 4L)[0];
+
+    var expected = sequential.search(query, 20).stream().map(Neighbor::ordinal).toList();
+    var actual = parallel.search(query, 20).stream().map(Neighbor::ordinal).toList();
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void shouldScoreMappedVectorsInPlace() {
+    var vectors = randomVectors(500, 5L);
+    var mapping = FloatBuffer.allocate(vectors.length * DIMENSIONS);
+    for (var vector : vectors) {
+      mapping.put(Vectors.normalize(vector));
+    }
+    var index = new FlatVectorIndex(64);
+    for (int i = 0; i < vectors.length; i++) {
+      if (i % 2 == 0) {
+        index.addMapped(new MappedVector(mapping, i * DIMENSIONS, DIMENSIONS, true));
+      } else {
+        index.add(vectors[i]);
+      }
+    }
+    var query = randomVectors(1, 6L)[0];
+
+    var results = index.search(query, 10);
+
+    assertEquals(bruteForce(vectors, query, 10), results.stream().map(Neighbor::ordinal).toList());
+    assertEquals(250L * DIMENSIONS * Float.BYTES, index.fullPrecisionBytes());
+  }
+
+  @Test
+  void shouldNotReturnRemovedVectors() {
+    var index = new FlatVectorIndex(1000);
+    var vectors = randomVectors(100, 5L);
+    IntStream.range(0, vectors.length).forEach(i -> index.add(vectors[i]));
+
+    index.remove(42);
+    var results = index.search(vectors[42], 5);
+
+    assertFalse(results.stream().anyMatch(n -> n.ordinal() == 42));
+    assertEquals(99, index.size());
+  }
+
+  @Test
+  void shouldAgreeWithScalarDotProductForOddLengths() {
+    var a = randomVectors(1, 6L)[0];
+    var b = randomVectors(1, 7L)[0];
+
+    float simd = Vectors.dot(a, 3, b, 1, DIMENSIONS - 5);
+    float scalar = Vectors.scalarDot(a, 3, b, 1, DIMENSIONS - 5);
+
+    assertEquals(scalar, simd, 1e-4);
+  }
+
+  @Test
+  void shouldRejectVectorsWithDifferentDimensions() {
+    var index = new FlatVectorIndex(1000);
+    index.add(new float[] { 1f, 0f, 0f });
+
+    assertThrows(IllegalArgumentException.class, () -> index.add(new float[] { 1f, 0f }));
+  }
+
+  @Test
+  void shouldOnlyScoreOrdinalsAllowedByFilter() {
+    var index = new FlatVectorIndex(64);
+    var vectors = randomVectors(1000, 8L);
+    IntStream.range(0, vectors.length).forEach(i -> index.add(vectors[i]));
+    var filter = new BitSet();
+    filter.set(10);
+    filter.set(500);
+    filter.set(999);
+
+    var results = index.search(vectors[500], 5, filter);
+
+    assertEquals(3, results.size());
+    assertEquals(500, results.get(0).ordinal());
+    assertTrue(results.stream().allMatch(n -> filter.get(n.ordinal())));
+  }
+
+  private static List<Integer> bruteForce(float[][] vectors, float[] query, int k) {
+    var normalizedQuery = Vectors.normalize(query);
+    return IntStream.range(0, vectors.length).boxed()
+        .sorted(Comparator.comparingDouble(
+            (Integer i) -> Vectors.scalarDot(normalizedQuery, 0, Vectors.normalize(vectors[i]), 0, DIMENSIONS))
+            .reversed())
+        .limit(k)
+        .toList();
+  }
+
+  private static float[][] randomVectors(int count, long seed) {
+    var random = new Random(seed);
+    var vectors = new float[count][DIMENSIONS];
+    for (var vector : vectors) {
+      for (int d = 0; d < DIMENSIONS; d++) {
+        vector[d] = (float) random.nextGaussian();
+      }
+    }
+    return vectors;
+  }
+}
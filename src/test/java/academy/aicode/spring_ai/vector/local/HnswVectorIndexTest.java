@@ -0,0 +1,145 @@
+package academy.aicode.spring_ai.vector.local;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class HnswVectorIndexTest {
+
+  private static final int DIMENSIONS = 32;
+
+  @Test
+  void shouldReturnEmptyListWhenIndexIsEmpty() {
+    var index = new HnswVectorIndex(8, 64, 32);
+
+    var results = index.search(new float[] { 1f, 0f }, 3);
+
+    assertTrue(results.isEmpty());
+  }
+
+  @Test
+  void shouldFindExactVectorAsBestMatch() {
+    var index = new HnswVectorIndex(8, 64, 32);
+    var vectors = randomVectors(500, 1L);
+    IntStream.range(0, vectors.length).forEach(i -> index.add(vectors[i]));
+
+    var results = index.search(vectors[123], 1);
+
+    assertEquals(123, results.get(0).ordinal());
+    assertEquals(1.0f, results.get(0).similarity(), 1e-5);
+  }
+
+  @Test
+  void shouldReturnResultsInDescendingSimilarity() {
+    var index = new HnswVectorIndex(8, 64, 32);
+    var vectors = randomVectors(200, 2L);
+    IntStream.range(0, vectors.length).forEach(i -> index.add(vectors[i]));
+
+    var results = index.search(randomVectors(1, 3L)[0], 10);
+
+    assertEquals(10, results.size());
+    var ordered = IntStream.range(1, results.size())
+        .allMatch(i -> results.get(i - 1).similarity() >= results.get(i).similarity());
+    assertTrue(ordered);
+  }
+
+  @Test
+  void shouldReachHighRecallAgainstBruteForce() {
+    var index = new HnswVectorIndex(16, 200, 64);
+    var vectors = randomVectors(2000, 4L);
+    IntStream.range(0, vectors.length).forEach(i -> index.add(vectors[i]));
+    var queries = randomVectors(50, 5L);
+    int k = 10;
+
+    int hits = IntStream.range(0, queries.length)
+        .map(q -> intersection(bruteForce(vectors, queries[q], k), ids(index, queries[q], k)))
+        .sum();
+
+    double recall = hits / (double) (queries.length * k);
+    assertTrue(recall >= 0.9, "recall was " + recall);
+  }
+
+  @Test
+  void shouldNotReturnRemovedVectors() {
+    var index = new HnswVectorIndex(8, 64, 32);
+    var vectors = randomVectors(100, 6L);
+    IntStream.range(0, vectors.length).forEach(i -> index.add(vectors[i]));
+
+    index.remove(42);
+    var results = index.search(vectors[42], 5);
+
+    assertEquals(5, results.size());
+    assertFalse(results.stream().anyMatch(n -> n.ordinal() == 42));
+    assertEquals(99, index.size());
+  }
+
+  @Test
+  void shouldRejectVectorsWithDifferentDimensions() {
+    var index = new HnswVectorIndex(8, 64, 32);
+    index.add(new float[] { 1f, 0f, 0f });
+
+    assertThrows(IllegalArgumentException.class, () -> index.add(new float[] { 1f, 0f }));
+  }
+
+  private static float[][] randomVectors(int count, long seed) {
+    var random = new Random(seed);
+    var vectors = new float[count][DIMENSIONS];
+    for (var vector : vectors) {
+      for (int d = 0; d < DIMENSIONS; d++) {
+        vector[d] = (float) random.nextGaussian();
+      }
+    }
+    return vectors;
+  }
+
+  private static Set<Integer> bruteForce(float[][] vectors, float[] query, int k) {
+    var normalizedQuery = Vectors.normalize(query);
+    return IntStream.range(0, vectors.length)
+        .boxed()
+        .sorted((a, b) -> Float.compare(
+            Vectors.dot(normalizedQuery, Vectors.normalize(vectors[b]), 0),
+            Vectors.dot(normalizedQuery, Vectors.normalize(vectors[a]), 0)))
+        .limit(k)
+        .collect(Collectors.toSet());
+  }
+
+  private static Set<Integer> ids(VectorIndex index, float[] query, int k) {
+    return index.search(query, k).stream().map(Neighbor::ordinal).collect(Collectors.toSet());
+  }
+
+  @Test
+  void shouldOnlyReturnNodesAllowedByFilter() {
+    var index = new HnswVectorIndex(16, 200, 64);
+    var vectors = randomVectors(2000, 6L);
+    IntStream.range(0, vectors.length).forEach(i -> index.add(vectors[i]));
+    var selective = new BitSet();
+    IntStream.range(0, 2000).filter(i -> i % 50 == 0).forEach(selective::set);
+    var broad = new BitSet();
+    IntStream.range(0, 2000).filter(i -> i % 2 == 0).forEach(broad::set);
+    var query = randomVectors(1, 7L)[0];
+
+    var selectiveResults = index.search(query, 10, selective);
+    var broadResults = index.search(query, 10, broad);
+
+    assertEquals(10, selectiveResults.size());
+    assertTrue(selectiveResults.stream().allMatch(n -> selective.get(n.ordinal())));
+    assertEquals(10, broadResults.size());
+    assertTrue(broadResults.stream().allMatch(n -> broad.get(n.ordinal())));
+  }
+
+  private static int intersection(Set<Integer> expected, Set<Integer> actual) {
+    var common = new HashSet<>(expected);
+    common.retainAll(actual);
+    return common.size();
+  }
+}
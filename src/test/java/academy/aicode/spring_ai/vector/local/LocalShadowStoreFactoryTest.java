@@ -0,0 +1,90 @@
+package academy.aicode.spring_ai.vector.local;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.embedding.TokenCountBatchingStrategy;
+
+class LocalShadowStoreFactoryTest {
+
+  @TempDir
+  private Path root;
+
+  private Path base;
+  private LocalShadowStoreFactory factory;
+
+  @BeforeEach
+  void setUp() {
+    base = root.resolve("vector-segments");
+    var segments = new SegmentProperties();
+    segments.setDirectory(base);
+    factory = new LocalShadowStoreFactory("exact", segments, () -> new FlatVectorIndex(100),
+        new TokenCountBatchingStrategy());
+  }
+
+  @AfterEach
+  void tearDown() {
+    factory.close();
+  }
+
+  @Test
+  void shouldOpenBaseDirectoryWithDefaultModelBeforeAnyMigration() {
+    var active = ActiveSegments.read(base);
+
+    assertEquals(base, active.directory());
+    assertNull(active.model());
+  }
+
+  @Test
+  void shouldReopenPromotedShadowWithItsModel() {
+    var shadow = factory.create(new ConstantEmbeddingModel(), "text-embedding-3-large");
+    shadow.add(List.of(new Document("doc-1", "Marte es rojo.", Map.of())));
+
+    factory.promote(shadow, "text-embedding-3-large");
+
+    var active = ActiveSegments.read(base);
+    assertEquals(root.resolve("vector-segments-text-embedding-3-large"), active.directory());
+    assertEquals("text-embedding-3-large", active.model());
+    var segments = new SegmentStore(active.directory(), 8);
+    var reopened = new LocalVectorStore("exact", new ConstantEmbeddingModel(), new FlatVectorIndex(100), segments);
+    segments.close();
+    assertEquals(1, reopened.page(null, 10).documents().size());
+  }
+
+  @Test
+  void shouldRejectShadowForModelAlreadyActive() {
+    factory.promote(factory.create(new ConstantEmbeddingModel(), "text-embedding-3-large"),
+        "text-embedding-3-large");
+
+    assertThrows(IllegalStateException.class,
+        () -> factory.create(new ConstantEmbeddingModel(), "text-embedding-3-large"));
+  }
+
+  private static class ConstantEmbeddingModel implements EmbeddingModel {
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+      return new EmbeddingResponse(request.getInstructions().stream()
+          .map(text -> new Embedding(new float[] { 1f, 0f }, 0))
+          .toList());
+    }
+
+    @Override
+    public float[] embed(Document document) {
+      return new float[] { 1f, 0f };
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package academy.aicode.spring_ai.vector.local;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+
+class LocalVectorStoreTest {
+
+  private static final Map<String, float[]> EMBEDDINGS = Map.of(
+      "estrellas", new float[] { 1f, 0f, 0f },
+      "nebulosas", new float[] { 0.8f, 0.6f, 0f },
+      "cometas", new float[] { 0f, 1f, 0f },
+      "recetas", new float[] { -1f, 0f, 0f });
+
+  private LocalVectorStore store;
+
+  @BeforeEach
+  void setUp() {
+    store = new LocalVectorStore("hnsw", new MapEmbeddingModel(), new HnswVectorIndex(4, 16, 16));
+    store.add(List.of(
+        new Document("nebulosas", Map.of("source", "test")),
+        new Document("cometas", Map.of()),
+        new Document("recetas", Map.of())));
+  }
+
+  @Test
+  void shouldScoreLikeAtlasCosine() {
+    var results = store.similaritySearch(request("estrellas", 0.0, 1));
+
+    assertEquals("nebulosas", results.get(0).getText());
+    assertEquals(0.9, results.get(0).getScore(), 1e-6);
+    assertEquals(0.1, (double) results.get(0).getMetadata().get("distance"), 1e-6);
+    assertEquals("test", results.get(0).getMetadata().get("source"));
+  }
+
+  @Test
+  void shouldHonorTopK() {
+    var results = store.similaritySearch(request("estrellas", 0.0, 2));
+
+    assertEquals(2, results.size());
+  }
+
+  @Test
+  void shouldDropHitsBelowSimilarityThreshold() {
+    var results = store.similaritySearch(request("estrellas", 0.6, 3));
+
+    assertEquals(List.of("nebulosas"), results.stream().map(Document::getText).toList());
+  }
+
+  @Test
+  void shouldWalkLiveDocumentsInPages() {
+    var cometas = store.similaritySearch(request("cometas", 0.9, 1)).get(0);
+    store.delete(List.of(cometas.getId()));
+
+    var first = store.page(null, 1);
+    var second = store.page(first.nextCursor(), 5);
+
+    assertEquals(List.of("nebulosas"), first.documents().stream().map(Document::getText).toList());
+    assertEquals(List.of("recetas"), second.documents().stream().map(Document::getText).toList());
+    assertNull(second.nextCursor());
+  }
+
+  @Test
+  void shouldFindLiveDocumentsById() {
+    var cometas = store.similaritySearch(request("cometas", 0.9, 1)).get(0);
+    var recetas = store.similaritySearch(request("recetas", 0.9, 1)).get(0);
+    store.delete(List.of(cometas.getId()));
+
+    var found = store.findByIds(List.of(cometas.getId(), recetas.getId(), "missing"));
+
+    assertEquals(List.of("recetas"), found.stream().map(Document::getText).toList());
+  }
+
+  @Test
+  void shouldReadBackStoredEmbeddingsById() {
+    var nebulosas = store.similaritySearch(request("estrellas", 0.0, 1)).get(0);
+
+    var found = store.findEmbeddings(List.of(nebulosas.getId(), "missing"));
+
+    assertEquals(1, found.size());
+    assertArrayEquals(new float[] { 0.8f, 0.6f, 0f }, found.get(nebulosas.getId()), 1e-6f);
+  }
+
+  @Test
+  void shouldNotReturnDeletedDocuments() {
+    var nebulosas = store.similaritySearch(request("estrellas", 0.0, 1)).get(0);
+
+    store.delete(List.of(nebulosas.getId()));
+    var results = store.similaritySearch(request("estrellas", 0.0, 3));
+
+    assertTrue(results.stream().noneMatch(d -> d.getId().equals(nebulosas.getId())));
+  }
+
+  @Test
+  void shouldOnlyReturnDocumentsMatchingFilter() {
+    var request = SearchRequest.builder().query("estrellas").topK(3).filterExpression("source == 'test'").build();
+
+    var results = store.similaritySearch(request);
+
+    assertEquals(List.of("nebulosas"), results.stream().map(Document::getText).toList());
+  }
+
+  @Test
+  void shouldNotMatchFilterAfterDocumentIsReplaced() {
+    var nebulosas = store.similaritySearch(request("estrellas", 0.0, 1)).get(0);
+
+    store.add(List.of(new Document(nebulosas.getId(), "nebulosas", Map.of("source", "manual"))));
+    var request = SearchRequest.builder().query("estrellas").topK(3).filterExpression("source == 'test'").build();
+
+    assertTrue(store.similaritySearch(request).isEmpty());
+  }
+
+  @Test
+  void shouldDeleteDocumentsMatchingFilter() {
+    store.delete(new FilterExpressionBuilder().eq("source", "test").build());
+
+    var results = store.similaritySearch(request("estrellas", 0.0, 3));
+
+    assertTrue(results.stream().noneMatch(d -> d.getText().equals("nebulosas")));
+    assertEquals(2, results.size());
+  }
+
+  @Test
+  void shouldRestoreIndexFromSegmentsWithoutEmbedding(@TempDir Path directory) {
+    var persistent = new LocalVectorStore("exact", new MapEmbeddingModel(), new FlatVectorIndex(100),
+        new SegmentStore(directory, 8));
+    persistent.add(List.of(new Document("nebulosas", Map.of("source", "test")), new Document("recetas", Map.of())));
+
+    var model = new MapEmbeddingModel();
+    var restored = new LocalVectorStore("exact", model, new FlatVectorIndex(100), new SegmentStore(directory, 8));
+
+    assertEquals(0, model.calls);
+    var results = restored.similaritySearch(request("estrellas", 0.6, 3));
+    assertEquals(List.of("nebulosas"), results.stream().map(Document::getText).toList());
+    assertEquals("test", results.get(0).getMetadata().get("source"));
+  }
+
+  @Test
+  void shouldScoreRestoredVectorsInsideSegmentMapping(@TempDir Path directory) {
+    var persistent = new LocalVectorStore("exact", new MapEmbeddingModel(), new FlatVectorIndex(100),
+        new SegmentStore(directory, 8));
+    persistent.add(List.of(new Document("nebulosas", Map.of()), new Document("recetas", Map.of())));
+    var index = new FlatVectorIndex(100);
+
+    var restored = new LocalVectorStore("exact", new MapEmbeddingModel(), index, new SegmentStore(directory, 8));
+
+    assertEquals(0, index.fullPrecisionBytes());
+    assertEquals(0.9, restored.similaritySearch(request("estrellas", 0.0, 1)).get(0).getScore(), 1e-6);
+  }
+
+  @Test
+  void shouldSplitEmbeddingRequestsWithBatchingStrategy() {
+    var model = new MapEmbeddingModel();
+    var batched = new LocalVectorStore("exact", model, new FlatVectorIndex(100), null,
+        docs -> docs.stream().map(List::of).toList());
+
+    batched.add(List.of(new Document("nebulosas"), new Document("cometas"), new Document("recetas")));
+
+    assertEquals(3, model.calls);
+    var results = batched.similaritySearch(request("estrellas", 0.6, 3));
+    assertEquals(List.of("nebulosas"), results.stream().map(Document::getText).toList());
+  }
+
+  private static SearchRequest request(String query, double threshold, int topK) {
+    return SearchRequest.builder().query(query).similarityThreshold(threshold).topK(topK).build();
+  }
+
+  private static class MapEmbeddingModel implements EmbeddingModel {
+    private int calls;
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+      calls++;
+      var embeddings = new ArrayList<Embedding>();
+      for (var text : request.getInstructions()) {
+        embeddings.add(new Embedding(EMBEDDINGS.get(text), embeddings.size()));
+      }
+      return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+      return EMBEDDINGS.get(document.getText());
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package academy.aicode.spring_ai.vector.local;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.vectorstore.filter.FilterExpressionTextParser;
+
+class MetadataIndexTest {
+
+  private final FilterExpressionTextParser parser = new FilterExpressionTextParser();
+  private MetadataIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new MetadataIndex();
+    index.addAll(new int[] { 0, 1, 2 }, List.of(
+        Map.of("source", "wiki", "length", 120),
+        Map.of("source", "bulk", "length", 40),
+        Map.of("source", "wiki", "length", 300.5)));
+    index.addAll(new int[] { 3 }, List.of(Map.of("source", "manual", "length", 120)));
+  }
+
+  @Test
+  void shouldMatchCategoricalEquality() {
+    assertEquals(bits(0, 2), evaluate("source == 'wiki'"));
+    assertEquals(bits(1, 3), evaluate("source != 'wiki'"));
+    assertEquals(bits(1, 3), evaluate("source in ['bulk', 'manual']"));
+  }
+
+  @Test
+  void shouldMatchNumericRangesAcrossBatches() {
+    assertEquals(bits(0, 2, 3), evaluate("length >= 120"));
+    assertEquals(bits(2), evaluate("length > 120"));
+    assertEquals(bits(1), evaluate("length < 120"));
+    assertEquals(bits(0, 3), evaluate("length == 120.0"));
+  }
+
+  @Test
+  void shouldCombineWithBooleanOperators() {
+    assertEquals(bits(0), evaluate("source == 'wiki' && length <= 200"));
+    assertEquals(bits(1, 2), evaluate("length < 100 || length > 200"));
+    assertEquals(bits(1, 2, 3), evaluate("NOT (source == 'wiki' && length == 120)"));
+  }
+
+  @Test
+  void shouldMergeBatchesAddedAfterRangeQuery() {
+    assertEquals(bits(1), evaluate("length < 100"));
+
+    index.addAll(new int[] { 4, 5 }, List.of(Map.of("length", 10), Map.of("length", 500)));
+    index.addAll(new int[] { 6 }, List.of(Map.of("length", 60)));
+
+    assertEquals(bits(1, 4, 6), evaluate("length < 100"));
+    assertEquals(bits(5), evaluate("length > 400"));
+  }
+
+  @Test
+  void shouldPurgeRemovedOrdinals() {
+    index.remove(0, Map.of("source", "wiki", "length", 120));
+
+    assertEquals(bits(2), evaluate("source == 'wiki'"));
+    assertEquals(bits(2, 3), evaluate("length >= 120"));
+    assertEquals(bits(1, 3), evaluate("NOT (source == 'wiki')"));
+  }
+
+  @Test
+  void shouldReturnEmptySetForUnknownField() {
+    assertEquals(new BitSet(), evaluate("chapter == 3"));
+  }
+
+  @Test
+  void shouldRejectRangeOnTextValue() {
+    assertThrows(IllegalArgumentException.class, () -> evaluate("source > 'a'"));
+  }
+
+  private BitSet evaluate(String expression) {
+    return index.evaluate(parser.parse(expression));
+  }
+
+  private static BitSet bits(int... ordinals) {
+    var bits = new BitSet();
+    for (int ordinal : ordinals) {
+      bits.set(ordinal);
+    }
+    return bits;
+  }
+}
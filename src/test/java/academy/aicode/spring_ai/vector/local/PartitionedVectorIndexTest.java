@@ -0,0 +1,102 @@
+package academy.aicode.spring_ai.vector.local;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class PartitionedVectorIndexTest {
+
+  private static final int DIMENSIONS = 24;
+
+  @Test
+  void shouldMatchSingleIndexResults() {
+    var partitioned = new PartitionedVectorIndex<>(4, () -> new FlatVectorIndex(1000));
+    var single = new FlatVectorIndex(1000);
+    var vectors = randomVectors(1001, 1L);
+    for (var vector : vectors) {
+      partitioned.add(vector);
+      single.add(vector);
+    }
+    var query = randomVectors(1, 2L)[0];
+
+    var results = partitioned.search(query, 10);
+
+    assertEquals(single.search(query, 10), results);
+    assertEquals(1001, partitioned.size());
+  }
+
+  @Test
+  void shouldRouteVectorsRoundRobin() {
+    var created = new ArrayList<FlatVectorIndex>();
+    var index = new PartitionedVectorIndex<>(3, () -> {
+      var partition = new FlatVectorIndex(1000);
+      created.add(partition);
+      return partition;
+    });
+    var vectors = randomVectors(10, 3L);
+
+    var ordinals = IntStream.range(0, vectors.length).map(i -> index.add(vectors[i])).toArray();
+
+    assertEquals(IntStream.range(0, 10).boxed().toList(), IntStream.of(ordinals).boxed().toList());
+    assertEquals(List.of(4, 3, 3), created.stream().map(FlatVectorIndex::size).toList());
+    assertEquals(10L * DIMENSIONS * Float.BYTES, index.sum(FlatVectorIndex::fullPrecisionBytes));
+  }
+
+  @Test
+  void shouldRejectDimensionMismatchRoutedToEmptyPartition() {
+    var index = new PartitionedVectorIndex<>(4, () -> new FlatVectorIndex(1000));
+    index.add(randomVectors(1, 5L)[0]);
+
+    assertThrows(IllegalArgumentException.class, () -> index.add(new float[DIMENSIONS + 1]));
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  void shouldApplyFilterAndRemovalsAcrossPartitions() {
+    var index = new PartitionedVectorIndex<>(4, () -> new FlatVectorIndex(1000));
+    var vectors = randomVectors(200, 4L);
+    IntStream.range(0, vectors.length).forEach(i -> index.add(vectors[i]));
+    var filter = new BitSet();
+    IntStream.of(5, 6, 7, 101).forEach(filter::set);
+    index.remove(6);
+
+    var results = index.search(vectors[101], 10, filter);
+
+    assertEquals(3, results.size());
+    assertEquals(101, results.get(0).ordinal());
+    assertTrue(results.stream().allMatch(n -> filter.get(n.ordinal())));
+    assertFalse(results.stream().anyMatch(n -> n.ordinal() == 6));
+  }
+
+  @Test
+  void shouldSearchHnswPartitions() {
+    var index = new PartitionedVectorIndex<>(2, () -> new HnswVectorIndex(16, 100, 64));
+    var vectors = randomVectors(500, 5L);
+    IntStream.range(0, vectors.length).forEach(i -> index.add(vectors[i]));
+
+    var results = index.search(vectors[321], 5);
+
+    assertEquals(321, results.get(0).ordinal());
+    assertEquals(5, results.size());
+  }
+
+  private static float[][] randomVectors(int count, long seed) {
+    var random = new Random(seed);
+    var vectors = new float[count][DIMENSIONS];
+    for (var vector : vectors) {
+      for (int d = 0; d < DIMENSIONS; d++) {
+        vector[d] = (float) random.nextGaussian();
+      }
+    }
+    return vectors;
+  }
+}
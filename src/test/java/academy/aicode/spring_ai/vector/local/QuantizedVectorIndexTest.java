@@ -0,0 +1,113 @@
+package academy.aicode.spring_ai.vector.local;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class QuantizedVectorIndexTest {
+
+  private static final int DIMENSIONS = 128;
+  private static final int K = 10;
+
+  @Test
+  void shouldKeepHighRecallWithInt8Codes() {
+    double recall = recallAgainstExact(new QuantizedVectorIndex(Quantization.INT8, 4));
+
+    assertTrue(recall >= 0.95, "recall was " + recall);
+  }
+
+  @Test
+  void shouldRecoverRecallOfBinaryCodesByRescoring() {
+    double withoutRescore = recallAgainstExact(new QuantizedVectorIndex(Quantization.BINARY, 0));
+    double withRescore = recallAgainstExact(new QuantizedVectorIndex(Quantization.BINARY, 20));
+
+    // isotropic random vectors are the worst case for sign bits
+    assertTrue(withRescore >= 0.7, "recall was " + withRescore);
+    assertTrue(withRescore > withoutRescore);
+  }
+
+  @Test
+  void shouldReturnExactSimilaritiesAfterRescoring() {
+    var vectors = randomVectors(300, 1L);
+    var exact = new FlatVectorIndex(10_000);
+    var quantized = new QuantizedVectorIndex(Quantization.INT8, 4);
+    for (var vector : vectors) {
+      exact.add(vector);
+      quantized.add(vector);
+    }
+
+    var expected = exact.search(vectors[7], 1).get(0);
+    var actual = quantized.search(vectors[7], 1).get(0);
+
+    assertEquals(expected.ordinal(), actual.ordinal());
+    assertEquals(expected.similarity(), actual.similarity(), 1e-6);
+  }
+
+  @Test
+  void shouldReportSmallerFootprintThanFloats() {
+    var int8 = new QuantizedVectorIndex(Quantization.INT8, 4);
+    var binary = new QuantizedVectorIndex(Quantization.BINARY, 0);
+    for (var vector : randomVectors(100, 2L)) {
+      int8.add(vector);
+      binary.add(vector);
+    }
+
+    assertEquals(100L * (DIMENSIONS + Float.BYTES), int8.codeBytes());
+    assertEquals(100L * DIMENSIONS * Float.BYTES, int8.fullPrecisionBytes());
+    assertEquals(100L * DIMENSIONS / 8, binary.codeBytes());
+    assertEquals(0, binary.fullPrecisionBytes());
+  }
+
+  @Test
+  void shouldNotReturnRemovedVectors() {
+    var index = new QuantizedVectorIndex(Quantization.BINARY, 4);
+    var vectors = randomVectors(50, 3L);
+    for (var vector : vectors) {
+      index.add(vector);
+    }
+
+    index.remove(5);
+
+    assertFalse(index.search(vectors[5], 5).stream().anyMatch(n -> n.ordinal() == 5));
+  }
+
+  @Test
+  void shouldRejectUnquantizedMode() {
+    assertThrows(IllegalArgumentException.class, () -> new QuantizedVectorIndex(Quantization.NONE, 4));
+  }
+
+  private static double recallAgainstExact(QuantizedVectorIndex index) {
+    var exact = new FlatVectorIndex(10_000);
+    for (var vector : randomVectors(2000, 4L)) {
+      exact.add(vector);
+      index.add(vector);
+    }
+    var queries = randomVectors(30, 5L);
+    int hits = 0;
+    for (var query : queries) {
+      var expected = exact.search(query, K).stream().map(Neighbor::ordinal).collect(Collectors.toSet());
+      var actual = new HashSet<>(index.search(query, K).stream().map(Neighbor::ordinal).toList());
+      actual.retainAll(expected);
+      hits += actual.size();
+    }
+    return hits / (double) (queries.length * K);
+  }
+
+  private static float[][] randomVectors(int count, long seed) {
+    var random = new Random(seed);
+    var vectors = new float[count][DIMENSIONS];
+    for (var vector : vectors) {
+      for (int d = 0; d < DIMENSIONS; d++) {
+        vector[d] = (float) random.nextGaussian();
+      }
+    }
+    return vectors;
+  }
+}
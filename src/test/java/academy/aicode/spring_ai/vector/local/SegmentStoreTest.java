@@ -0,0 +1,125 @@
+package academy.aicode.spring_ai.vector.local;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+
+class SegmentStoreTest {
+
+  @TempDir
+  private Path directory;
+
+  @Test
+  void shouldRestoreDocumentsAndEmbeddingsAfterReopen() throws IOException {
+    var store = open(8);
+    store.append(List.of(new Document("a", "Marte", Map.of("orden", 4))), List.of(new float[] { 1f, 2f }));
+    store.close();
+
+    var restored = new LinkedHashMap<String, Document>();
+    var embeddings = new LinkedHashMap<String, float[]>();
+    new SegmentStore(directory, 8).load((document, embedding) -> {
+      restored.put(document.getId(), document);
+      embeddings.put(document.getId(), embedding.copy());
+    });
+
+    assertEquals("Marte", restored.get("a").getText());
+    assertEquals(4, restored.get("a").getMetadata().get("orden"));
+    float norm = (float) Math.sqrt(5);
+    assertArrayEquals(new float[] { 1f / norm, 2f / norm }, embeddings.get("a"), 1e-6f);
+  }
+
+  @Test
+  void shouldReadVersionOneSegmentsAsNotNormalized() throws IOException {
+    try (var out = new DataOutputStream(Files.newOutputStream(directory.resolve("segment-1" + Segment.EXTENSION)))) {
+      out.writeInt(0x41565347);
+      out.writeInt(1);
+      out.writeLong(1);
+      out.writeInt(2);
+      out.writeInt(1);
+      out.writeFloat(3f);
+      out.writeFloat(4f);
+      for (var bytes : List.of("a".getBytes(), "Marte".getBytes(), "{}".getBytes())) {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+    }
+    var embeddings = new LinkedHashMap<String, MappedVector>();
+
+    new SegmentStore(directory, 8).load((document, embedding) -> embeddings.put(document.getId(), embedding));
+
+    assertFalse(embeddings.get("a").normalized());
+    assertArrayEquals(new float[] { 3f, 4f }, embeddings.get("a").copy());
+  }
+
+  @Test
+  void shouldKeepLatestVersionAndHonorDeletes() throws IOException {
+    var store = open(8);
+    store.append(List.of(doc("a", "uno"), doc("b", "dos")), vectors(2));
+    store.append(List.of(doc("a", "uno bis")), vectors(1));
+    store.delete(List.of("b"));
+    store.append(List.of(doc("b", "dos bis")), vectors(1));
+    store.delete(List.of("a"));
+
+    var texts = reload();
+
+    assertEquals(Map.of("b", "dos bis"), texts);
+  }
+
+  @Test
+  void shouldMergeSegmentsWithoutChangingLiveRecords() throws IOException {
+    var store = open(100);
+    for (int i = 0; i < 5; i++) {
+      store.append(List.of(doc("doc-" + i, "texto " + i)), vectors(1));
+    }
+    store.append(List.of(doc("doc-0", "texto 0 bis")), vectors(1));
+    store.delete(List.of("doc-1"));
+    var before = reload();
+
+    store.merge();
+
+    assertEquals(1, store.segmentCount());
+    assertEquals(before, reload());
+  }
+
+  @Test
+  void shouldRejectWritesBeforeLoad() {
+    var store = new SegmentStore(directory, 8);
+
+    assertThrows(IllegalStateException.class, () -> store.append(List.of(doc("a", "uno")), vectors(1)));
+  }
+
+  private SegmentStore open(int maxSegments) throws IOException {
+    var store = new SegmentStore(directory, maxSegments);
+    store.load((document, embedding) -> {
+    });
+    return store;
+  }
+
+  private Map<String, String> reload() throws IOException {
+    var texts = new LinkedHashMap<String, String>();
+    new SegmentStore(directory, 100).load((document, embedding) -> texts.put(document.getId(), document.getText()));
+    return texts;
+  }
+
+  private static Document doc(String id, String text) {
+    return new Document(id, text, Map.of());
+  }
+
+  private static List<float[]> vectors(int count) {
+    return IntStream.range(0, count).mapToObj(i -> new float[] { i, 1f }).toList();
+  }
+}